@@ -7,6 +7,89 @@ import jakarta.validation.constraints.Positive;
 import java.util.List;
 
 public class FileSystemConfigDto {
+
+    /**
+     * How files are dispatched to processing threads.
+     * POOLED uses a dedicated thread pool per configuration, VIRTUAL starts a
+     * virtual thread per file (on-demand platform threads before Java 21), SHARED
+     * runs files on the thread pool shared by all SHARED configurations,
+     * weighted by schedulingWeight between minConcurrentFiles and maxConcurrentFiles.
+     */
+    public enum ExecutionMode {
+        POOLED,
+        VIRTUAL,
+        SHARED
+    }
+
+    /**
+     * How new files are discovered. WATCH_SERVICE relies on native file system events,
+     * POLLING lists the directory every pollIntervalMs and diffs it against the previous
+     * listing (required on NFS/SMB mounts written by remote hosts).
+     */
+    public enum DetectionMode {
+        WATCH_SERVICE,
+        POLLING
+    }
+
+    /**
+     * How the consumer decides that a file has been completely written.
+     * See FileReadinessChecker for the rules of each strategy.
+     */
+    public enum ReadinessStrategy {
+        QUIESCENCE,
+        MARKER_FILE,
+        TEMP_RENAME
+    }
+    
+    /**
+     * How files already present at startup are picked up. EAGER walks the whole tree
+     * before watching starts; STREAMING starts watching first and feeds the existing
+     * files in pages of backlogPageSize while the processing queue has room.
+     */
+    public enum BacklogMode {
+        EAGER,
+        STREAMING
+    }
+
+    /**
+     * Order in which a STREAMING backlog is fed. OLDEST_FIRST sorts by modification
+     * time (external sort, spilled to temporary files for large directories).
+     */
+    public enum BacklogOrder {
+        DIRECTORY,
+        OLDEST_FIRST
+    }
+    
+    /**
+     * How many files of this configuration may be processed at once. FIXED allows
+     * maxConcurrentFiles; ADAPTIVE moves the limit between minConcurrentFiles and
+     * maxConcurrentFiles from observed processing latency and error rate.
+     */
+    public enum ConcurrencyControl {
+        FIXED,
+        ADAPTIVE
+    }
+    
+    /**
+     * Directory layout under archiveDir. DAILY and HOURLY archive into yyyy/MM/dd[/HH]
+     * subdirectories so no single directory accumulates millions of entries.
+     */
+    public enum ArchiveLayout {
+        FLAT,
+        DAILY,
+        HOURLY
+    }
+    
+    /**
+     * How instances sharing the directory agree on who processes a file. NONE assumes a
+     * single instance; RENAME moves the file into .claimed/<instance>/ atomically; LEASE
+     * inserts a row into the file_claims table and leaves the file in place.
+     */
+    public enum ClaimStrategy {
+        NONE,
+        RENAME,
+        LEASE
+    }
     
     @NotBlank(message = "Path is required")
     private String path;
@@ -18,6 +101,8 @@ public class FileSystemConfigDto {
     
     private String archiveDir;
     
+    private ArchiveLayout archiveLayout = ArchiveLayout.FLAT;
+    
     private boolean deleteAfterProcess = false;
     
     private boolean enabled = true;
@@ -26,6 +111,47 @@ public class FileSystemConfigDto {
     
     private long maxFileSizeBytes = 100 * 1024 * 1024; // 100MB default
     
+    private int minConcurrentFiles = 1; // SHARED mode: threads reserved; ADAPTIVE control: lowest limit
+    
+    private ConcurrencyControl concurrencyControl = ConcurrencyControl.FIXED;
+    
+    @Positive(message = "Scheduling weight must be positive")
+    private int schedulingWeight = 1; // SHARED mode: share of spare threads relative to other configurations
+    
+    private ExecutionMode executionMode = ExecutionMode.POOLED;
+    
+    private DetectionMode detectionMode = DetectionMode.WATCH_SERVICE;
+    
+    private ReadinessStrategy readinessStrategy = ReadinessStrategy.QUIESCENCE;
+    
+    private int readinessQuietPeriodMs = 500;
+    
+    private String readinessSuffix; // ".done" for MARKER_FILE, ".tmp" for TEMP_RENAME when unset
+    
+    private int reconciliationMaxFilesPerSecond = 5000;
+    
+    private String ledgerDir; // processed-file ledger location, disabled when unset
+    
+    private BacklogMode backlogMode = BacklogMode.EAGER;
+    
+    private BacklogOrder backlogOrder = BacklogOrder.DIRECTORY;
+    
+    @Positive(message = "Backlog page size must be positive")
+    private int backlogPageSize = 1000;
+    
+    @Positive(message = "Queue capacity must be positive")
+    private int queueCapacity = 10_000; // paths held in memory, the rest spills to disk
+    
+    private String spillDir; // defaults to <java.io.tmpdir>/filesystem-spill
+    
+    @Positive(message = "Batch size must be positive")
+    private int batchSize = 1; // files handed to the processor as one micro-batch; 1 processes files one by one
+    
+    @Positive(message = "Batch window must be positive")
+    private int batchWindowMs = 20; // longest wait for a micro-batch to fill once its first file is ready
+    
+    private ClaimStrategy claimStrategy = ClaimStrategy.NONE;
+    
     public FileSystemConfigDto() {}
     
     public FileSystemConfigDto(String path, List<String> patterns, int pollIntervalMs, 
@@ -105,4 +231,156 @@ public class FileSystemConfigDto {
     public void setMaxFileSizeBytes(long maxFileSizeBytes) {
         this.maxFileSizeBytes = maxFileSizeBytes;
     }
-}
\ No newline at end of file
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public DetectionMode getDetectionMode() {
+        return detectionMode;
+    }
+
+    public void setDetectionMode(DetectionMode detectionMode) {
+        this.detectionMode = detectionMode;
+    }
+
+    public ReadinessStrategy getReadinessStrategy() {
+        return readinessStrategy;
+    }
+
+    public void setReadinessStrategy(ReadinessStrategy readinessStrategy) {
+        this.readinessStrategy = readinessStrategy;
+    }
+
+    public int getReadinessQuietPeriodMs() {
+        return readinessQuietPeriodMs;
+    }
+
+    public void setReadinessQuietPeriodMs(int readinessQuietPeriodMs) {
+        this.readinessQuietPeriodMs = readinessQuietPeriodMs;
+    }
+
+    public String getReadinessSuffix() {
+        return readinessSuffix;
+    }
+
+    public void setReadinessSuffix(String readinessSuffix) {
+        this.readinessSuffix = readinessSuffix;
+    }
+
+    public int getReconciliationMaxFilesPerSecond() {
+        return reconciliationMaxFilesPerSecond;
+    }
+
+    public void setReconciliationMaxFilesPerSecond(int reconciliationMaxFilesPerSecond) {
+        this.reconciliationMaxFilesPerSecond = reconciliationMaxFilesPerSecond;
+    }
+
+    public String getLedgerDir() {
+        return ledgerDir;
+    }
+
+    public void setLedgerDir(String ledgerDir) {
+        this.ledgerDir = ledgerDir;
+    }
+
+    public BacklogMode getBacklogMode() {
+        return backlogMode;
+    }
+
+    public void setBacklogMode(BacklogMode backlogMode) {
+        this.backlogMode = backlogMode;
+    }
+
+    public BacklogOrder getBacklogOrder() {
+        return backlogOrder;
+    }
+
+    public void setBacklogOrder(BacklogOrder backlogOrder) {
+        this.backlogOrder = backlogOrder;
+    }
+
+    public int getBacklogPageSize() {
+        return backlogPageSize;
+    }
+
+    public void setBacklogPageSize(int backlogPageSize) {
+        this.backlogPageSize = backlogPageSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getSpillDir() {
+        return spillDir;
+    }
+
+    public void setSpillDir(String spillDir) {
+        this.spillDir = spillDir;
+    }
+
+    public ArchiveLayout getArchiveLayout() {
+        return archiveLayout;
+    }
+
+    public void setArchiveLayout(ArchiveLayout archiveLayout) {
+        this.archiveLayout = archiveLayout;
+    }
+
+    public ClaimStrategy getClaimStrategy() {
+        return claimStrategy;
+    }
+
+    public void setClaimStrategy(ClaimStrategy claimStrategy) {
+        this.claimStrategy = claimStrategy;
+    }
+
+    public int getMinConcurrentFiles() {
+        return minConcurrentFiles;
+    }
+
+    public void setMinConcurrentFiles(int minConcurrentFiles) {
+        this.minConcurrentFiles = minConcurrentFiles;
+    }
+
+    public int getSchedulingWeight() {
+        return schedulingWeight;
+    }
+
+    public void setSchedulingWeight(int schedulingWeight) {
+        this.schedulingWeight = schedulingWeight;
+    }
+
+    public ConcurrencyControl getConcurrencyControl() {
+        return concurrencyControl;
+    }
+
+    public void setConcurrencyControl(ConcurrencyControl concurrencyControl) {
+        this.concurrencyControl = concurrencyControl;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchWindowMs() {
+        return batchWindowMs;
+    }
+
+    public void setBatchWindowMs(int batchWindowMs) {
+        this.batchWindowMs = batchWindowMs;
+    }
+}
@@ -1,5 +1,7 @@
 package com.dashboardengine.consumer.api.dto;
 
+import com.dashboardengine.consumer.core.DrainReport;
+
 import java.time.LocalDateTime;
 
 public class FileSystemStatusDto {
@@ -15,6 +17,18 @@ public class FileSystemStatusDto {
     private long currentQueueSize;
     private int activeThreads;
     private double averageProcessingTimeMs;
+    private long duplicateEventsCollapsed;
+    private long spilledQueueSize;
+    private int pendingPostProcessing;
+    private long claimConflicts;
+    private int concurrencyLimit;
+    private String lastConcurrencyDecision; // null unless concurrencyControl is ADAPTIVE
+    private DrainReport drainReport; // set on the status returned by stop
+    private int ledgerEntries;
+    private boolean backlogInProgress;
+    private long backlogScanned;
+    private long backlogEnqueued;
+    private long backlogRemainingEstimate = -1;
     
     public FileSystemStatusDto() {}
     
@@ -123,4 +137,100 @@ public class FileSystemStatusDto {
     public void setAverageProcessingTimeMs(double averageProcessingTimeMs) {
         this.averageProcessingTimeMs = averageProcessingTimeMs;
     }
+
+    public long getDuplicateEventsCollapsed() {
+        return duplicateEventsCollapsed;
+    }
+
+    public void setDuplicateEventsCollapsed(long duplicateEventsCollapsed) {
+        this.duplicateEventsCollapsed = duplicateEventsCollapsed;
+    }
+
+    public int getLedgerEntries() {
+        return ledgerEntries;
+    }
+
+    public void setLedgerEntries(int ledgerEntries) {
+        this.ledgerEntries = ledgerEntries;
+    }
+
+    public boolean isBacklogInProgress() {
+        return backlogInProgress;
+    }
+
+    public void setBacklogInProgress(boolean backlogInProgress) {
+        this.backlogInProgress = backlogInProgress;
+    }
+
+    public long getBacklogScanned() {
+        return backlogScanned;
+    }
+
+    public void setBacklogScanned(long backlogScanned) {
+        this.backlogScanned = backlogScanned;
+    }
+
+    public long getBacklogEnqueued() {
+        return backlogEnqueued;
+    }
+
+    public void setBacklogEnqueued(long backlogEnqueued) {
+        this.backlogEnqueued = backlogEnqueued;
+    }
+
+    public long getBacklogRemainingEstimate() {
+        return backlogRemainingEstimate;
+    }
+
+    public void setBacklogRemainingEstimate(long backlogRemainingEstimate) {
+        this.backlogRemainingEstimate = backlogRemainingEstimate;
+    }
+
+    public long getSpilledQueueSize() {
+        return spilledQueueSize;
+    }
+
+    public void setSpilledQueueSize(long spilledQueueSize) {
+        this.spilledQueueSize = spilledQueueSize;
+    }
+
+    public int getPendingPostProcessing() {
+        return pendingPostProcessing;
+    }
+
+    public void setPendingPostProcessing(int pendingPostProcessing) {
+        this.pendingPostProcessing = pendingPostProcessing;
+    }
+
+    public long getClaimConflicts() {
+        return claimConflicts;
+    }
+
+    public void setClaimConflicts(long claimConflicts) {
+        this.claimConflicts = claimConflicts;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(int concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public String getLastConcurrencyDecision() {
+        return lastConcurrencyDecision;
+    }
+
+    public void setLastConcurrencyDecision(String lastConcurrencyDecision) {
+        this.lastConcurrencyDecision = lastConcurrencyDecision;
+    }
+
+    public DrainReport getDrainReport() {
+        return drainReport;
+    }
+
+    public void setDrainReport(DrainReport drainReport) {
+        this.drainReport = drainReport;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.dashboardengine.consumer.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -12,6 +13,9 @@ public class ApplicationProperties {
     
     private Threading threading = new Threading();
     private Leadership leadership = new Leadership();
+    private Cluster cluster = new Cluster();
+    private Shutdown shutdown = new Shutdown();
+    private Processing processing = new Processing();
     private Map<String, FileSystemConfig> filesystem;
     private Map<String, FtpConfig> ftp;
     private Map<String, DatabaseConfig> database;
@@ -23,6 +27,7 @@ public class ApplicationProperties {
         private int maxPoolSize = 50;
         private int queueCapacity = 1000;
         private int keepAliveSeconds = 60;
+        private int sharedParallelism = 0; // threads of the SHARED execution mode pool, 0 = 2 x CPUs
         
         // getters and setters
         public int getCorePoolSize() { return corePoolSize; }
@@ -33,6 +38,8 @@ public class ApplicationProperties {
         public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
         public int getKeepAliveSeconds() { return keepAliveSeconds; }
         public void setKeepAliveSeconds(int keepAliveSeconds) { this.keepAliveSeconds = keepAliveSeconds; }
+        public int getSharedParallelism() { return sharedParallelism; }
+        public void setSharedParallelism(int sharedParallelism) { this.sharedParallelism = sharedParallelism; }
     }
     
     public static class Leadership {
@@ -49,6 +56,81 @@ public class ApplicationProperties {
         public void setLeaderTimeoutMs(int leaderTimeoutMs) { this.leaderTimeoutMs = leaderTimeoutMs; }
     }
     
+    public static class Cluster {
+        private String instanceId; // defaults to $HOSTNAME, then a random id
+        private int heartbeatIntervalMs = 5000;
+        private int memberTimeoutMs = 15000;
+        private int claimLeaseMs = 60000;
+        
+        // getters and setters
+        public String getInstanceId() { return instanceId; }
+        public void setInstanceId(String instanceId) { this.instanceId = instanceId; }
+        public int getHeartbeatIntervalMs() { return heartbeatIntervalMs; }
+        public void setHeartbeatIntervalMs(int heartbeatIntervalMs) { this.heartbeatIntervalMs = heartbeatIntervalMs; }
+        public int getMemberTimeoutMs() { return memberTimeoutMs; }
+        public void setMemberTimeoutMs(int memberTimeoutMs) { this.memberTimeoutMs = memberTimeoutMs; }
+        public int getClaimLeaseMs() { return claimLeaseMs; }
+        public void setClaimLeaseMs(int claimLeaseMs) { this.claimLeaseMs = claimLeaseMs; }
+    }
+    
+    public static class Shutdown {
+        private int drainTimeoutMs = 20000; // keep below the pod termination grace period
+        
+        // getters and setters
+        public int getDrainTimeoutMs() { return drainTimeoutMs; }
+        public void setDrainTimeoutMs(int drainTimeoutMs) { this.drainTimeoutMs = drainTimeoutMs; }
+    }
+    
+    public static class Processing {
+        private int batchSize = 1000; // records per batch handed to the record sink
+        private int bufferSizeBytes = 1024 * 1024; // read buffer per file being parsed
+        private int maxRecordBytes = 16 * 1024 * 1024; // a longer record fails the file
+        private int scanWindowBytes = 64 * 1024 * 1024; // memory-mapped window when scanning text lines
+        private long parallelScanThresholdBytes = 256L * 1024 * 1024; // larger text files are counted in parallel
+        private long splitThresholdBytes = 512L * 1024 * 1024; // larger CSV/NDJSON/text files are parsed in parallel chunks, 0 = never
+        private long splitChunkBytes = 64L * 1024 * 1024; // target chunk size when splitting
+        private long maxDecompressedBytes = 4L * 1024 * 1024 * 1024; // a compressed file inflating to more fails
+        private char csvDelimiter = ',';
+        private char csvQuote = '"';
+        private boolean csvHeader = true;
+        private boolean excelHeader = true; // first non-empty row of each sheet holds the column names
+        private List<String> jsonPointers = new ArrayList<>(); // fields to extract per JSON record, empty = whole record
+        private String xmlRecordPath = "/*/*"; // repeating record element, default children of the root
+        private List<String> xmlFields = new ArrayList<>(); // paths below each XML record, empty = whole record
+        
+        // getters and setters
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+        public int getBufferSizeBytes() { return bufferSizeBytes; }
+        public void setBufferSizeBytes(int bufferSizeBytes) { this.bufferSizeBytes = bufferSizeBytes; }
+        public int getMaxRecordBytes() { return maxRecordBytes; }
+        public void setMaxRecordBytes(int maxRecordBytes) { this.maxRecordBytes = maxRecordBytes; }
+        public int getScanWindowBytes() { return scanWindowBytes; }
+        public void setScanWindowBytes(int scanWindowBytes) { this.scanWindowBytes = scanWindowBytes; }
+        public long getParallelScanThresholdBytes() { return parallelScanThresholdBytes; }
+        public void setParallelScanThresholdBytes(long parallelScanThresholdBytes) { this.parallelScanThresholdBytes = parallelScanThresholdBytes; }
+        public long getSplitThresholdBytes() { return splitThresholdBytes; }
+        public void setSplitThresholdBytes(long splitThresholdBytes) { this.splitThresholdBytes = splitThresholdBytes; }
+        public long getSplitChunkBytes() { return splitChunkBytes; }
+        public void setSplitChunkBytes(long splitChunkBytes) { this.splitChunkBytes = splitChunkBytes; }
+        public long getMaxDecompressedBytes() { return maxDecompressedBytes; }
+        public void setMaxDecompressedBytes(long maxDecompressedBytes) { this.maxDecompressedBytes = maxDecompressedBytes; }
+        public char getCsvDelimiter() { return csvDelimiter; }
+        public void setCsvDelimiter(char csvDelimiter) { this.csvDelimiter = csvDelimiter; }
+        public char getCsvQuote() { return csvQuote; }
+        public void setCsvQuote(char csvQuote) { this.csvQuote = csvQuote; }
+        public boolean isCsvHeader() { return csvHeader; }
+        public void setCsvHeader(boolean csvHeader) { this.csvHeader = csvHeader; }
+        public boolean isExcelHeader() { return excelHeader; }
+        public void setExcelHeader(boolean excelHeader) { this.excelHeader = excelHeader; }
+        public List<String> getJsonPointers() { return jsonPointers; }
+        public void setJsonPointers(List<String> jsonPointers) { this.jsonPointers = jsonPointers; }
+        public String getXmlRecordPath() { return xmlRecordPath; }
+        public void setXmlRecordPath(String xmlRecordPath) { this.xmlRecordPath = xmlRecordPath; }
+        public List<String> getXmlFields() { return xmlFields; }
+        public void setXmlFields(List<String> xmlFields) { this.xmlFields = xmlFields; }
+    }
+    
     public static class FileSystemConfig {
         private String path;
         private List<String> patterns;
@@ -178,6 +260,12 @@ public class ApplicationProperties {
     public void setThreading(Threading threading) { this.threading = threading; }
     public Leadership getLeadership() { return leadership; }
     public void setLeadership(Leadership leadership) { this.leadership = leadership; }
+    public Cluster getCluster() { return cluster; }
+    public void setCluster(Cluster cluster) { this.cluster = cluster; }
+    public Shutdown getShutdown() { return shutdown; }
+    public void setShutdown(Shutdown shutdown) { this.shutdown = shutdown; }
+    public Processing getProcessing() { return processing; }
+    public void setProcessing(Processing processing) { this.processing = processing; }
     public Map<String, FileSystemConfig> getFilesystem() { return filesystem; }
     public void setFilesystem(Map<String, FileSystemConfig> filesystem) { this.filesystem = filesystem; }
     public Map<String, FtpConfig> getFtp() { return ftp; }
@@ -1,10 +1,15 @@
 package com.dashboardengine.consumer.config;
 
+import com.dashboardengine.consumer.filesystem.SharedProcessingScheduler;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
 public class ThreadingConfig {
@@ -31,4 +36,30 @@ public class ThreadingConfig {
         
         return executor;
     }
+
+    /**
+     * Small scheduler shared by all filesystem consumers for timers (delayed requeues
+     * and other periodic maintenance), so each consumer does not need its own thread.
+     */
+    @Bean(name = "filesystemMaintenanceScheduler", destroyMethod = "shutdownNow")
+    public ScheduledExecutorService filesystemMaintenanceScheduler() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "FileMaint-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Thread pool shared by filesystem consumers in SHARED execution mode.
+     */
+    @Bean(name = "sharedProcessingScheduler", destroyMethod = "shutdown")
+    public SharedProcessingScheduler sharedProcessingScheduler(ProcessingMetrics metrics) {
+        int parallelism = applicationProperties.getThreading().getSharedParallelism();
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        return new SharedProcessingScheduler(parallelism, metrics);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.dashboardengine.consumer.core;
+
+/**
+ * Outcome of draining a consumer on stop: in-flight work finished or abandoned at the
+ * deadline, and queued work handed off for the next start.
+ */
+public record DrainReport(
+    String sourceType,
+    long completedFiles,
+    int abandonedFiles,
+    int handedOffFiles,
+    long durationMs,
+    boolean timedOut
+) {
+
+    public static DrainReport notRunning(String sourceType) {
+        return new DrainReport(sourceType, 0, 0, 0, 0, false);
+    }
+}
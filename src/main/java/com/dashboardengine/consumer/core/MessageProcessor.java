@@ -1,10 +1,67 @@
 package com.dashboardengine.consumer.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 public interface MessageProcessor<T> {
-    
+
     CompletableFuture<ProcessingResult> process(T message, String sourceType);
-    
+
+    /**
+     * Processes the message with its blocking work on the caller's {@code executor}, so
+     * no other pool is used and no thread waits on another. A caller already running on
+     * its own worker passes {@code Runnable::run} to process in place; the future may
+     * then complete before this returns. Dependent stages run on the completing thread.
+     *
+     * <p>The default runs {@link #process(Object, String)} on {@code executor} and
+     * completes with its result without blocking on it.
+     */
+    default CompletableFuture<ProcessingResult> process(T message, String sourceType, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> process(message, sourceType), executor)
+            .thenCompose(Function.identity());
+    }
+
+    /**
+     * Processes several messages as one unit of work, for many small messages whose
+     * per-message overhead outweighs their content. Completes with one result per
+     * message, in order; a message that fails yields a failed result and does not
+     * affect the others, so the future itself only fails if the batch cannot run.
+     *
+     * <p>The default processes the messages one by one through
+     * {@link #process(Object, String)}.
+     */
+    default CompletableFuture<List<ProcessingResult>> processBatch(List<T> messages, String sourceType) {
+        List<CompletableFuture<ProcessingResult>> results = new ArrayList<>(messages.size());
+        for (T message : messages) {
+            CompletableFuture<ProcessingResult> result;
+            try {
+                result = process(message, sourceType);
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            results.add(result.exceptionally(failure -> {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+                return ProcessingResult.failure("Processing error: " + cause.getMessage(), 0);
+            }));
+        }
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Processes the batch with its blocking work on the caller's {@code executor}, as
+     * {@link #process(Object, String, Executor)} does for one message.
+     */
+    default CompletableFuture<List<ProcessingResult>> processBatch(List<T> messages, String sourceType,
+                                                                  Executor executor) {
+        return CompletableFuture.supplyAsync(() -> processBatch(messages, sourceType), executor)
+            .thenCompose(Function.identity());
+    }
+
     boolean canProcess(String messageType);
-}
\ No newline at end of file
+}
@@ -2,21 +2,37 @@ package com.dashboardengine.consumer.core;
 
 import java.time.LocalDateTime;
 
+/**
+ * Outcome of processing one message.
+ *
+ * @param chunks number of parts a large file was split into and processed in parallel;
+ *               1 when it was processed whole
+ */
 public record ProcessingResult(
     boolean success,
     String message,
     LocalDateTime processedAt,
     long processingTimeMs,
-    String outputLocation
+    String outputLocation,
+    int chunks
 ) {
+
+    public ProcessingResult(boolean success, String message, LocalDateTime processedAt,
+                            long processingTimeMs, String outputLocation) {
+        this(success, message, processedAt, processingTimeMs, outputLocation, 1);
+    }
     
     public static ProcessingResult success(long processingTimeMs, String outputLocation) {
         return new ProcessingResult(true, "Processing completed successfully", 
                                     LocalDateTime.now(), processingTimeMs, outputLocation);
     }
     
+    public static ProcessingResult success(String message, long processingTimeMs, String outputLocation) {
+        return new ProcessingResult(true, message, LocalDateTime.now(), processingTimeMs, outputLocation);
+    }
+    
     public static ProcessingResult failure(String errorMessage, long processingTimeMs) {
         return new ProcessingResult(false, errorMessage, 
                                     LocalDateTime.now(), processingTimeMs, null);
     }
-}
\ No newline at end of file
+}
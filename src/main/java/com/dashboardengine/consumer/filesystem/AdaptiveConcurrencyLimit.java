@@ -0,0 +1,144 @@
+package com.dashboardengine.consumer.filesystem;
+
+/**
+ * Gradient-based concurrency limit in the style of Netflix concurrency-limits (Gradient2),
+ * with a multiplicative back-off on errors.
+ *
+ * <p>Processing latencies are collected in windows of at least {@value #MIN_WINDOW_SAMPLES}
+ * samples (or the current limit, if larger). At the end of a window:
+ * <ul>
+ *   <li>the window's average latency is compared to a slowly moving long-term average;
+ *       {@code gradient = clamp(TOLERANCE * longRtt / shortRtt, 0.5, 1)} shrinks the limit when
+ *       latency rises (storage saturating) and leaves it alone otherwise</li>
+ *   <li>{@code sqrt(limit)} is added as headroom so the limit probes upwards while latency
+ *       holds, but only if the window actually used at least half of the limit</li>
+ *   <li>an error rate above {@value #ERROR_THRESHOLD} cuts the limit by
+ *       {@value #ERROR_BACKOFF} instead</li>
+ * </ul>
+ * The result is smoothed and clamped to [min, max].
+ *
+ * <p>Thread-safe.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public enum Decision {
+        INCREASE,
+        DECREASE,
+        HOLD
+    }
+
+    static final int MIN_WINDOW_SAMPLES = 10;
+    static final double TOLERANCE = 1.5;
+    static final double SMOOTHING = 0.2;
+    static final double LONG_RTT_ALPHA = 0.1;
+    static final double ERROR_THRESHOLD = 0.1;
+    static final double ERROR_BACKOFF = 0.75;
+
+    private volatile int minLimit;
+    private volatile int maxLimit;
+    private double estimatedLimit;
+    private volatile int limit;
+    private volatile Decision lastDecision = Decision.HOLD;
+    private double longRttNanos;
+
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowErrors;
+    private int windowMaxInFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(initialLimit);
+        this.estimatedLimit = limit;
+    }
+
+    /**
+     * Records a processed file.
+     *
+     * @param inFlight permits held when this one finished, its own included
+     * @return the decision taken if this sample closed a window, otherwise null
+     */
+    public synchronized Decision onSample(long rttNanos, boolean success, int inFlight) {
+        windowSamples++;
+        windowRttSum += Math.max(1, rttNanos);
+        if (!success) {
+            windowErrors++;
+        }
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        if (windowSamples < Math.max(MIN_WINDOW_SAMPLES, limit)) {
+            return null;
+        }
+
+        double shortRtt = (double) windowRttSum / windowSamples;
+        double errorRate = (double) windowErrors / windowSamples;
+        boolean appLimited = windowMaxInFlight < limit / 2.0;
+        resetWindow();
+
+        double target;
+        if (errorRate > ERROR_THRESHOLD) {
+            target = estimatedLimit * ERROR_BACKOFF;
+        } else {
+            if (longRttNanos == 0) {
+                longRttNanos = shortRtt;
+            } else {
+                longRttNanos += (shortRtt - longRttNanos) * LONG_RTT_ALPHA;
+                if (longRttNanos / shortRtt > 2) {
+                    // Latency recovered well below the baseline; let the baseline follow quickly
+                    longRttNanos *= 0.95;
+                }
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRtt));
+            target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            if (appLimited) {
+                // Demand never reached the limit: no evidence that more would help
+                target = Math.min(target, estimatedLimit);
+            }
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+            estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+
+        int previous = limit;
+        limit = clamp((int) Math.round(estimatedLimit));
+        lastDecision = limit > previous ? Decision.INCREASE
+            : limit < previous ? Decision.DECREASE : Decision.HOLD;
+        return lastDecision;
+    }
+
+    /**
+     * Changes the bounds, pulling the current limit inside them.
+     */
+    public synchronized void setBounds(int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = clamp(limit);
+        this.estimatedLimit = Math.max(this.minLimit, Math.min(this.maxLimit, estimatedLimit));
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    private void resetWindow() {
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowErrors = 0;
+        windowMaxInFlight = 0;
+    }
+
+    private int clamp(int value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -0,0 +1,396 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Lazily pages through the files already present in a directory tree when a consumer
+ * starts, so a multi-million file backlog never has to be materialised at once.
+ *
+ * <p>{@code DIRECTORY} order walks the tree depth-first over directory streams and only
+ * holds their iterator stack. Entries that vanish while the walk is paused between pages
+ * (processed and archived in {@code STREAMING} mode) are skipped, and so are directories
+ * the caller excludes, such as the consumer's own claim and archive directories.
+ * {@code OLDEST_FIRST} needs a total order, so the first page performs an external sort:
+ * matching entries are collected into runs of {@code runSize}, each run is sorted by
+ * (mtime, path) and spilled to a temporary file, and pages are then produced by a k-way
+ * merge of the runs. Memory stays bounded by one run either way.
+ *
+ * <p>Not thread-safe; progress counters may be read from other threads.
+ */
+public class BacklogScanner implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacklogScanner.class);
+
+    public static final int DEFAULT_RUN_SIZE = 65_536;
+
+    private final Path directory;
+    private final Predicate<Path> filter;
+    private final Predicate<Path> skipDirectory;
+    private final FileSystemConfigDto.BacklogOrder order;
+    private final int runSize;
+
+    private TreeWalker walker;
+    private RunMerger merger;
+    private volatile long scanned;
+    private volatile long emitted;
+    private volatile long estimatedTotal = -1;
+    private volatile boolean exhausted;
+
+    public BacklogScanner(Path directory, Predicate<Path> filter, FileSystemConfigDto.BacklogOrder order) {
+        this(directory, filter, path -> false, order, DEFAULT_RUN_SIZE);
+    }
+
+    /**
+     * @param skipDirectory directories the walk neither returns nor descends into
+     */
+    public BacklogScanner(Path directory, Predicate<Path> filter, Predicate<Path> skipDirectory,
+                          FileSystemConfigDto.BacklogOrder order) {
+        this(directory, filter, skipDirectory, order, DEFAULT_RUN_SIZE);
+    }
+
+    public BacklogScanner(Path directory, Predicate<Path> filter, Predicate<Path> skipDirectory,
+                          FileSystemConfigDto.BacklogOrder order, int runSize) {
+        this.directory = directory;
+        this.filter = filter;
+        this.skipDirectory = skipDirectory;
+        this.order = order != null ? order : FileSystemConfigDto.BacklogOrder.DIRECTORY;
+        this.runSize = Math.max(1, runSize);
+    }
+
+    /**
+     * Adds up to {@code pageSize} candidate paths to {@code page}.
+     *
+     * @return the number of paths added; 0 once the backlog is exhausted
+     */
+    public int nextPage(int pageSize, List<Path> page) throws IOException {
+        if (exhausted) {
+            return 0;
+        }
+        int added = order == FileSystemConfigDto.BacklogOrder.OLDEST_FIRST
+            ? nextSortedPage(pageSize, page)
+            : nextWalkPage(pageSize, page);
+        emitted += added;
+        if (added < pageSize) {
+            exhausted = true;
+            estimatedTotal = emitted;
+            close();
+        }
+        return added;
+    }
+
+    private int nextWalkPage(int pageSize, List<Path> page) throws IOException {
+        if (walker == null) {
+            estimatedTotal = countTopLevelMatches();
+            walker = new TreeWalker(directory, skipDirectory);
+        }
+        int added = 0;
+        Path entry;
+        while (added < pageSize && (entry = walker.next()) != null) {
+            if (!filter.test(entry)) {
+                continue;
+            }
+            scanned++;
+            page.add(entry);
+            added++;
+        }
+        return added;
+    }
+
+    private int nextSortedPage(int pageSize, List<Path> page) throws IOException {
+        if (merger == null) {
+            merger = sortIntoRuns();
+            estimatedTotal = scanned;
+        }
+        int added = 0;
+        while (added < pageSize) {
+            String relative = merger.next();
+            if (relative == null) {
+                break;
+            }
+            page.add(directory.resolve(relative));
+            added++;
+        }
+        return added;
+    }
+
+    private RunMerger sortIntoRuns() throws IOException {
+        long start = System.currentTimeMillis();
+        List<Path> runFiles = new ArrayList<>();
+        Entry[] buffer = new Entry[Math.min(runSize, 1024)];
+        int buffered = 0;
+        Path runDirectory = null;
+
+        try (TreeWalker entries = new TreeWalker(directory, skipDirectory)) {
+            Path entry;
+            while ((entry = entries.next()) != null) {
+                if (!filter.test(entry)) {
+                    continue;
+                }
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (!attrs.isRegularFile()) {
+                    continue;
+                }
+                scanned++;
+                if (buffered == buffer.length) {
+                    if (buffered == runSize) {
+                        if (runDirectory == null) {
+                            runDirectory = Files.createTempDirectory("backlog-");
+                        }
+                        runFiles.add(spillRun(runDirectory, runFiles.size(), buffer, buffered));
+                        buffered = 0;
+                    } else {
+                        buffer = Arrays.copyOf(buffer, Math.min(runSize, buffer.length * 2));
+                    }
+                }
+                buffer[buffered++] = new Entry(attrs.lastModifiedTime().toMillis(),
+                    directory.relativize(entry).toString());
+            }
+        }
+
+        Arrays.sort(buffer, 0, buffered, Entry.ORDER);
+        logger.info("Sorted {} backlog entries of {} into {} spilled runs in {}ms",
+                   scanned, directory, runFiles.size(), System.currentTimeMillis() - start);
+        return new RunMerger(runDirectory, runFiles, Arrays.copyOf(buffer, buffered));
+    }
+
+    private static Path spillRun(Path runDirectory, int index, Entry[] buffer, int count) throws IOException {
+        Arrays.sort(buffer, 0, count, Entry.ORDER);
+        Path run = runDirectory.resolve("run-" + index);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 64 * 1024))) {
+            for (int i = 0; i < count; i++) {
+                out.writeLong(buffer[i].lastModified());
+                out.writeUTF(buffer[i].path());
+                buffer[i] = null;
+            }
+        }
+        return run;
+    }
+
+    private long countTopLevelMatches() {
+        // Names only, no stat: cheap even for millions of entries
+        long count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (filter.test(entry)) {
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return count;
+    }
+
+    public long getScannedCount() {
+        return scanned;
+    }
+
+    public long getEmittedCount() {
+        return emitted;
+    }
+
+    /**
+     * Estimated number of candidates not yet returned, or -1 when unknown. Exact for
+     * {@code OLDEST_FIRST}; for {@code DIRECTORY} it is based on a name-only count of the
+     * top-level directory.
+     */
+    public long getRemainingEstimate() {
+        long total = estimatedTotal;
+        return total < 0 ? -1 : Math.max(0, total - emitted);
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (walker != null) {
+            walker.close();
+            walker = null;
+        }
+        if (merger != null) {
+            merger.close();
+            merger = null;
+        }
+    }
+
+    /**
+     * Depth-first walk like {@link Files#walk} (links not followed, directories returned
+     * before their content, the root itself not returned), except that an entry or
+     * directory removed while the walk is under way is skipped instead of failing it, and
+     * excluded directories are pruned before they are opened.
+     */
+    private static final class TreeWalker implements Closeable {
+
+        private final Deque<DirectoryStream<Path>> streams = new ArrayDeque<>();
+        private final Deque<Iterator<Path>> iterators = new ArrayDeque<>();
+        private final Predicate<Path> skipDirectory;
+
+        TreeWalker(Path root, Predicate<Path> skipDirectory) throws IOException {
+            this.skipDirectory = skipDirectory;
+            open(root);
+        }
+
+        /**
+         * @return the next entry, or null once the walk is complete
+         */
+        Path next() throws IOException {
+            while (!iterators.isEmpty()) {
+                Path entry;
+                try {
+                    Iterator<Path> current = iterators.peek();
+                    if (!current.hasNext()) {
+                        closeCurrent();
+                        continue;
+                    }
+                    entry = current.next();
+                } catch (DirectoryIteratorException e) {
+                    if (!(e.getCause() instanceof NoSuchFileException)) {
+                        throw e.getCause();
+                    }
+                    // The directory was removed while being listed
+                    closeCurrent();
+                    continue;
+                }
+                if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                    if (skipDirectory.test(entry)) {
+                        continue;
+                    }
+                    try {
+                        open(entry);
+                    } catch (NoSuchFileException | NotDirectoryException e) {
+                        continue;
+                    }
+                }
+                return entry;
+            }
+            return null;
+        }
+
+        private void open(Path directory) throws IOException {
+            DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+            streams.push(stream);
+            iterators.push(stream.iterator());
+        }
+
+        private void closeCurrent() throws IOException {
+            iterators.pop();
+            streams.pop().close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            while (!streams.isEmpty()) {
+                closeCurrent();
+            }
+        }
+    }
+
+    private record Entry(long lastModified, String path) {
+
+        static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::lastModified)
+            .thenComparing(Entry::path);
+    }
+
+    /**
+     * K-way merge over the spilled runs and the final in-memory run.
+     */
+    private static final class RunMerger implements Closeable {
+
+        private final Path runDirectory;
+        private final List<DataInputStream> readers = new ArrayList<>();
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(
+            Comparator.comparing(Head::entry, Entry.ORDER));
+        private final Entry[] memoryRun;
+        private int memoryIndex;
+
+        private record Head(Entry entry, int source) {}
+
+        RunMerger(Path runDirectory, List<Path> runFiles, Entry[] memoryRun) throws IOException {
+            this.runDirectory = runDirectory;
+            this.memoryRun = memoryRun;
+            for (Path runFile : runFiles) {
+                DataInputStream reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), 16 * 1024));
+                readers.add(reader);
+                advance(readers.size() - 1);
+            }
+            advance(-1);
+        }
+
+        String next() throws IOException {
+            Head head = heads.poll();
+            if (head == null) {
+                return null;
+            }
+            advance(head.source());
+            return head.entry().path();
+        }
+
+        private void advance(int source) throws IOException {
+            if (source < 0) {
+                if (memoryIndex < memoryRun.length) {
+                    heads.add(new Head(memoryRun[memoryIndex], -1));
+                    memoryRun[memoryIndex++] = null;
+                }
+                return;
+            }
+            DataInputStream reader = readers.get(source);
+            try {
+                heads.add(new Head(new Entry(reader.readLong(), reader.readUTF()), source));
+            } catch (EOFException e) {
+                // Run exhausted
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (DataInputStream reader : readers) {
+                reader.close();
+            }
+            readers.clear();
+            heads.clear();
+            if (runDirectory != null) {
+                try (Stream<Path> runs = Files.list(runDirectory)) {
+                    for (Path run : (Iterable<Path>) runs::iterator) {
+                        Files.deleteIfExists(run);
+                    }
+                }
+                Files.deleteIfExists(runDirectory);
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * A configuration's file name patterns compiled once, so matching a file costs no
+ * {@link Pattern} or {@link java.nio.file.PathMatcher} construction.
+ *
+ * <p>Patterns are split by shape:
+ * <ul>
+ *   <li>exact names (no {@code *} or {@code ?}) go into a hash set</li>
+ *   <li>suffix globs ({@code *.csv}, {@code *_done.txt}) go into a trie walked from the end
+ *       of the name</li>
+ *   <li>all other globs and {@code regex:} patterns are merged into one alternation</li>
+ * </ul>
+ * Globs follow {@link java.nio.file.FileSystem#getPathMatcher} syntax. Regexes with
+ * back-references or named groups are compiled on their own, since merging would renumber
+ * their groups or define the same group name twice.
+ *
+ * <p>Immutable and thread-safe.
+ */
+public final class CompiledPatternSet {
+
+    static final String REGEX_PREFIX = "regex:";
+
+    private static final CompiledPatternSet MATCH_ALL = new CompiledPatternSet(true, Set.of(), null, null, List.of());
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+    private static final Pattern NAMED_GROUP = Pattern.compile("\\(\\?<[a-zA-Z]");
+
+    private final boolean matchAll;
+    private final Set<String> exactNames;
+    private final SuffixNode suffixes;
+    private final Pattern combined;
+    private final List<Pattern> separate;
+
+    private CompiledPatternSet(boolean matchAll, Set<String> exactNames, SuffixNode suffixes,
+                               Pattern combined, List<Pattern> separate) {
+        this.matchAll = matchAll;
+        this.exactNames = exactNames;
+        this.suffixes = suffixes;
+        this.combined = combined;
+        this.separate = separate;
+    }
+
+    /**
+     * Compiles patterns; null or empty matches every file.
+     *
+     * @throws PatternSyntaxException if a regex or glob is malformed
+     */
+    public static CompiledPatternSet compile(Collection<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return MATCH_ALL;
+        }
+        Set<String> exactNames = new HashSet<>();
+        SuffixNode suffixes = null;
+        List<String> alternatives = new ArrayList<>();
+        List<Pattern> separate = new ArrayList<>();
+
+        for (String pattern : patterns) {
+            if (pattern.startsWith(REGEX_PREFIX)) {
+                String regex = pattern.substring(REGEX_PREFIX.length());
+                if (BACK_REFERENCE.matcher(regex).find() || NAMED_GROUP.matcher(regex).find()) {
+                    separate.add(Pattern.compile(regex));
+                } else {
+                    // Validate on its own so the error names the offending pattern
+                    Pattern.compile(regex);
+                    alternatives.add(regex);
+                }
+            } else if (pattern.equals("*")) {
+                return MATCH_ALL;
+            } else if (isSuffixGlob(pattern)) {
+                if (suffixes == null) {
+                    suffixes = new SuffixNode();
+                }
+                suffixes.add(pattern.substring(1));
+            } else if (isGlob(pattern)) {
+                alternatives.add(globToRegex(pattern));
+            } else {
+                exactNames.add(pattern);
+            }
+        }
+
+        Pattern combined = null;
+        if (!alternatives.isEmpty()) {
+            combined = Pattern.compile(alternatives.stream()
+                .map(alternative -> "(?:" + alternative + ")")
+                .collect(Collectors.joining("|")));
+        }
+        if (suffixes != null) {
+            suffixes.freeze();
+        }
+        return new CompiledPatternSet(false, Set.copyOf(exactNames), suffixes, combined, List.copyOf(separate));
+    }
+
+    public boolean matches(Path filePath) {
+        if (matchAll) {
+            return true;
+        }
+        Path fileName = filePath.getFileName();
+        return fileName != null && matches(fileName.toString());
+    }
+
+    public boolean matches(String fileName) {
+        if (matchAll || exactNames.contains(fileName)) {
+            return true;
+        }
+        if (suffixes != null && suffixes.matchesEndOf(fileName)) {
+            return true;
+        }
+        if (combined != null && combined.matcher(fileName).matches()) {
+            return true;
+        }
+        for (Pattern pattern : separate) {
+            if (pattern.matcher(fileName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A pattern without {@code *} or {@code ?} is an exact name, even if it contains
+     * other glob syntax.
+     */
+    static boolean isGlob(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0;
+    }
+
+    /**
+     * {@code *} followed by a literal, e.g. {@code *.txt}.
+     */
+    private static boolean isSuffixGlob(String pattern) {
+        if (pattern.length() < 2 || pattern.charAt(0) != '*') {
+            return false;
+        }
+        for (int i = 1; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{' || c == '\\' || c == '/') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Translates a glob to a regex with the semantics of the default file system's
+     * {@code glob:} matcher for a single name element.
+     *
+     * @throws PatternSyntaxException if the glob is malformed
+     */
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() + 16);
+        boolean inGroup = false;
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i++);
+            switch (c) {
+                case '\\' -> {
+                    if (i == glob.length()) {
+                        throw new PatternSyntaxException("No character to escape", glob, i - 1);
+                    }
+                    appendLiteral(regex, glob.charAt(i++));
+                }
+                case '*' -> {
+                    if (i < glob.length() && glob.charAt(i) == '*') {
+                        // ** crosses directory boundaries
+                        regex.append(".*");
+                        i++;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                }
+                case '?' -> regex.append("[^/]");
+                case '[' -> i = appendBracket(glob, i, regex);
+                case '{' -> {
+                    if (inGroup) {
+                        throw new PatternSyntaxException("Cannot nest groups", glob, i - 1);
+                    }
+                    regex.append("(?:(?:");
+                    inGroup = true;
+                }
+                case '}' -> {
+                    if (inGroup) {
+                        regex.append("))");
+                        inGroup = false;
+                    } else {
+                        regex.append('}');
+                    }
+                }
+                case ',' -> regex.append(inGroup ? ")|(?:" : ",");
+                default -> appendLiteral(regex, c);
+            }
+        }
+        if (inGroup) {
+            throw new PatternSyntaxException("Missing '}'", glob, glob.length() - 1);
+        }
+        return regex.toString();
+    }
+
+    private static int appendBracket(String glob, int i, StringBuilder regex) {
+        regex.append("[[^/]&&[");
+        if (i < glob.length() && glob.charAt(i) == '^') {
+            regex.append("\\^");
+            i++;
+        } else {
+            if (i < glob.length() && glob.charAt(i) == '!') {
+                regex.append('^');
+                i++;
+            }
+            if (i < glob.length() && glob.charAt(i) == '-') {
+                regex.append('-');
+                i++;
+            }
+        }
+        boolean hasRangeStart = false;
+        char last = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i++);
+            if (c == ']') {
+                regex.append("]]");
+                return i;
+            }
+            if (c == '/') {
+                throw new PatternSyntaxException("Explicit 'name separator' in class", glob, i - 1);
+            }
+            if (c == '\\' || c == '[' || c == '&' && i < glob.length() && glob.charAt(i) == '&') {
+                regex.append('\\');
+            }
+            regex.append(c);
+            if (c == '-') {
+                if (!hasRangeStart) {
+                    throw new PatternSyntaxException("Invalid range", glob, i - 1);
+                }
+                if (i == glob.length()) {
+                    break;
+                }
+                c = glob.charAt(i++);
+                if (c < last) {
+                    throw new PatternSyntaxException("Invalid range", glob, i - 3);
+                }
+                regex.append(c);
+                hasRangeStart = false;
+            } else {
+                hasRangeStart = true;
+                last = c;
+            }
+        }
+        throw new PatternSyntaxException("Missing ']'", glob, i - 1);
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c) {
+        if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+
+    /**
+     * Trie of suffixes keyed by characters from the end of the suffix.
+     */
+    private static final class SuffixNode {
+
+        private char[] keys = new char[0];
+        private SuffixNode[] children = new SuffixNode[0];
+        private boolean terminal;
+
+        void add(String suffix) {
+            SuffixNode node = this;
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                node = node.childOrCreate(suffix.charAt(i));
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesEndOf(String fileName) {
+            SuffixNode node = this;
+            for (int i = fileName.length() - 1; i >= 0; i--) {
+                node = node.child(fileName.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private SuffixNode child(char c) {
+            char[] k = keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private SuffixNode childOrCreate(char c) {
+            SuffixNode existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            SuffixNode created = new SuffixNode();
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            keys[keys.length - 1] = c;
+            children[children.length - 1] = created;
+            return created;
+        }
+
+        /**
+         * Drops subtrees below terminal nodes; a shorter suffix already matches them.
+         */
+        void freeze() {
+            if (terminal) {
+                keys = new char[0];
+                children = new SuffixNode[0];
+                return;
+            }
+            for (SuffixNode child : children) {
+                child.freeze();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel that hands paths back to the consumer after a delay, so files
+ * that are not ready yet wait here instead of on a sleeping worker thread.
+ *
+ * <p>Each slot covers one tick. A delay longer than a full rotation is stored with
+ * the number of remaining rotations. Delays grow exponentially per path
+ * ({@code baseDelayMs * 2^attempt}, capped at {@code maxDelayMs}) until
+ * {@link #reset(Path)} is called. {@link #tick()} must be called every
+ * {@code tickMs} by a scheduler; it is the only method that fires callbacks, and it
+ * fires them without holding the wheel's lock.
+ */
+public class DelayedRequeueScheduler {
+
+    private record Timeout(Path path, long remainingRounds) {}
+
+    private final long tickMs;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Queue<Timeout>[] wheel;
+    private final Map<Path, Integer> attempts = new ConcurrentHashMap<>();
+    private final Consumer<Path> onExpire;
+    private long currentTick = 0;
+
+    public DelayedRequeueScheduler(long tickMs, int wheelSize, long baseDelayMs, long maxDelayMs,
+                                   Consumer<Path> onExpire) {
+        this.tickMs = tickMs;
+        this.baseDelayMs = Math.max(baseDelayMs, tickMs);
+        this.maxDelayMs = Math.max(maxDelayMs, this.baseDelayMs);
+        this.onExpire = onExpire;
+        this.wheel = newWheel(wheelSize);
+    }
+
+    private static Queue<Timeout>[] newWheel(int size) {
+        @SuppressWarnings("unchecked")
+        Queue<Timeout>[] wheel = (Queue<Timeout>[]) new Queue<?>[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        return wheel;
+    }
+
+    /**
+     * Schedules the path for requeue after its next backoff delay.
+     *
+     * @return the delay applied in milliseconds
+     */
+    public synchronized long schedule(Path path) {
+        int attempt = attempts.merge(path, 1, Integer::sum) - 1;
+        long delayMs = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt, 20));
+        scheduleAfter(path, delayMs);
+        return delayMs;
+    }
+
+    /**
+     * Schedules the path for requeue after a fixed delay, without touching its backoff.
+     */
+    public synchronized void scheduleAfter(Path path, long delayMs) {
+        long ticks = Math.max(1, (delayMs + tickMs - 1) / tickMs);
+        long target = currentTick + ticks;
+        wheel[(int) (target % wheel.length)].add(new Timeout(path, (ticks - 1) / wheel.length));
+    }
+
+    /**
+     * Forgets the backoff state of a path once it is ready or gone.
+     */
+    public void reset(Path path) {
+        attempts.remove(path);
+    }
+
+    public void tick() {
+        List<Path> expired = new ArrayList<>();
+        synchronized (this) {
+            long tick = currentTick + 1;
+            Queue<Timeout> bucket = wheel[(int) (tick % wheel.length)];
+            int pending = bucket.size();
+            for (int i = 0; i < pending; i++) {
+                Timeout timeout = bucket.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.remainingRounds() > 0) {
+                    bucket.add(new Timeout(timeout.path(), timeout.remainingRounds() - 1));
+                } else {
+                    expired.add(timeout.path());
+                }
+            }
+            currentTick = tick;
+        }
+        // The callback may block on the queue, or schedule again from another thread
+        for (Path path : expired) {
+            onExpire.accept(path);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Queue<Timeout> bucket : wheel) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes every scheduled path, adding it to {@code paths}.
+     */
+    public synchronized void drainTo(Collection<Path> paths) {
+        for (Queue<Timeout> bucket : wheel) {
+            Timeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                paths.add(timeout.path());
+            }
+        }
+        attempts.clear();
+    }
+
+    public synchronized void clear() {
+        for (Queue<Timeout> bucket : wheel) {
+            bucket.clear();
+        }
+        attempts.clear();
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+}
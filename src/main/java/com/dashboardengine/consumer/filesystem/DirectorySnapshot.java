@@ -0,0 +1,158 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.util.function.Consumer;
+
+/**
+ * Compact name -> (size, mtime) table of one directory, updated in place on every
+ * scan so large directories (500k+ entries) are diffed without building a new
+ * collection per cycle.
+ *
+ * <p>Open addressing with linear probing over parallel arrays; a slot is marked with
+ * the generation of the scan that last saw it, and slots not seen by the current
+ * generation are removed (backward-shift deletion, no tombstones) by
+ * {@link #removeUnseen(Consumer)}.
+ */
+public class DirectorySnapshot {
+
+    public enum Change {
+        ADDED,
+        MODIFIED,
+        UNCHANGED
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private String[] names;
+    private long[] sizes;
+    private long[] lastModified;
+    private int[] seenGeneration;
+    private int size;
+    private int generation;
+
+    public DirectorySnapshot() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        names = new String[capacity];
+        sizes = new long[capacity];
+        lastModified = new long[capacity];
+        seenGeneration = new int[capacity];
+    }
+
+    /**
+     * Starts a new scan; entries not updated before {@link #removeUnseen} are treated as deleted.
+     */
+    public void beginScan() {
+        generation++;
+    }
+
+    public Change update(String name, long fileSize, long fileLastModified) {
+        if (size + 1 > names.length * LOAD_FACTOR) {
+            resize(names.length * 2);
+        }
+        int mask = names.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (names[slot] != null) {
+            if (names[slot].equals(name)) {
+                seenGeneration[slot] = generation;
+                if (sizes[slot] == fileSize && lastModified[slot] == fileLastModified) {
+                    return Change.UNCHANGED;
+                }
+                sizes[slot] = fileSize;
+                lastModified[slot] = fileLastModified;
+                return Change.MODIFIED;
+            }
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        sizes[slot] = fileSize;
+        lastModified[slot] = fileLastModified;
+        seenGeneration[slot] = generation;
+        size++;
+        return Change.ADDED;
+    }
+
+    /**
+     * Removes entries that were not seen since the last {@link #beginScan()}.
+     *
+     * @return the number of removed entries
+     */
+    public int removeUnseen(Consumer<String> onRemoved) {
+        int removed = 0;
+        int slot = 0;
+        while (slot < names.length) {
+            if (names[slot] != null && seenGeneration[slot] != generation) {
+                onRemoved.accept(names[slot]);
+                deleteSlot(slot);
+                removed++;
+                // The shift may have moved an unvisited entry into this slot
+                continue;
+            }
+            slot++;
+        }
+        return removed;
+    }
+
+    public boolean contains(String name) {
+        int mask = names.length - 1;
+        int slot = mix(name.hashCode()) & mask;
+        while (names[slot] != null) {
+            if (names[slot].equals(name)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = names.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (names[next] != null) {
+            int home = mix(names[next].hashCode()) & mask;
+            // Move the entry back if the hole lies on its probe path
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                names[hole] = names[next];
+                sizes[hole] = sizes[next];
+                lastModified[hole] = lastModified[next];
+                seenGeneration[hole] = seenGeneration[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        names[hole] = null;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        String[] oldNames = names;
+        long[] oldSizes = sizes;
+        long[] oldLastModified = lastModified;
+        int[] oldSeen = seenGeneration;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int slot = mix(oldNames[i].hashCode()) & mask;
+                while (names[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                names[slot] = oldNames[i];
+                sizes[slot] = oldSizes[i];
+                lastModified[slot] = oldLastModified[i];
+                seenGeneration[slot] = oldSeen[i];
+            }
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16) ^ (hash >>> 7);
+    }
+}
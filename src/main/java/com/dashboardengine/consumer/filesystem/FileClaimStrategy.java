@@ -0,0 +1,65 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Protocol that lets several instances watch the same shared directory without
+ * processing a file twice. A file version is processed only by the instance whose
+ * {@link #claim} succeeded.
+ */
+public interface FileClaimStrategy {
+
+    /**
+     * Single-instance behaviour: every claim succeeds in place.
+     */
+    FileClaimStrategy NONE = new FileClaimStrategy() {
+        @Override
+        public Path claim(Path file, long size, long lastModified) {
+            return file;
+        }
+
+        @Override
+        public void release(Path file, Path claimed, boolean success, boolean removed) {
+        }
+    };
+
+    /**
+     * Tries to take exclusive ownership of one version of a file.
+     *
+     * @return the path to process from now on (it differs from {@code file} when the claim
+     *         moved the file), or null if another instance owns the file
+     */
+    Path claim(Path file, long size, long lastModified) throws IOException;
+
+    /**
+     * Ends a claim once processing and post-processing are done.
+     *
+     * @param claimed the path returned by {@link #claim}
+     * @param removed true if post-processing archived or deleted the claimed file
+     */
+    void release(Path file, Path claimed, boolean success, boolean removed);
+
+    /**
+     * Whether this instance should try the file first. Files of other instances' shards
+     * are only claimed after a head start, which keeps contention low without leaving
+     * files behind while the instances' views of the cluster disagree.
+     */
+    default boolean isPreferred(Path file) {
+        return true;
+    }
+
+    /**
+     * True for bookkeeping paths of the strategy that scans must skip.
+     */
+    default boolean isInternal(Path path) {
+        return false;
+    }
+
+    /**
+     * Periodic upkeep: renews held leases and hands back claims of instances that left
+     * the cluster (or of this instance before a restart).
+     */
+    default void maintain() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.leadership.ClusterMembershipService;
+import com.dashboardengine.consumer.leadership.FileClaimRepository;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Component
+public class FileClaimStrategyFactory {
+
+    private final ClusterMembershipService membership;
+    private final FileClaimRepository claimRepository;
+    private final ApplicationProperties properties;
+
+    public FileClaimStrategyFactory(ClusterMembershipService membership,
+                                    FileClaimRepository claimRepository,
+                                    ApplicationProperties properties) {
+        this.membership = membership;
+        this.claimRepository = claimRepository;
+        this.properties = properties;
+    }
+
+    public FileClaimStrategy create(String configName, FileSystemConfigDto config) {
+        FileSystemConfigDto.ClaimStrategy strategy = config.getClaimStrategy();
+        if (strategy == null || strategy == FileSystemConfigDto.ClaimStrategy.NONE) {
+            return FileClaimStrategy.NONE;
+        }
+        ShardAssignment shards = new ShardAssignment(membership.getInstanceId(), membership::getLiveMembers);
+        Duration leaseDuration = Duration.ofMillis(properties.getCluster().getClaimLeaseMs());
+        if (strategy == FileSystemConfigDto.ClaimStrategy.RENAME) {
+            // Same grace as an unrenewed lease before another instance takes the files over
+            return new RenameClaimStrategy(Paths.get(config.getPath()), shards,
+                () -> membership.isInitialized() ? membership.getLiveMembers() : null, leaseDuration);
+        }
+        return new LeaseClaimStrategy(configName, claimRepository, shards, leaseDuration);
+    }
+}
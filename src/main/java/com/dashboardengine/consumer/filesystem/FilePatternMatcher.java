@@ -2,46 +2,42 @@ package com.dashboardengine.consumer.filesystem;
 
 import org.springframework.stereotype.Component;
 
-import java.nio.file.FileSystems;
 import java.nio.file.Path;
-import java.nio.file.PathMatcher;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class FilePatternMatcher {
 
+    private static final int MAX_CACHED_PATTERN_SETS = 256;
+
+    private final Map<List<String>, CompiledPatternSet> compiled = new ConcurrentHashMap<>();
+
     public boolean matches(Path filePath, List<String> patterns) {
         if (patterns == null || patterns.isEmpty()) {
             return true; // No patterns means match all files
         }
-
-        String fileName = filePath.getFileName().toString();
-        
-        for (String pattern : patterns) {
-            if (matchesPattern(fileName, pattern)) {
-                return true;
-            }
-        }
-        
-        return false;
+        return compile(patterns).matches(filePath);
     }
 
-    private boolean matchesPattern(String fileName, String pattern) {
-        // Handle glob patterns (e.g., *.txt, test*.csv)
-        if (pattern.contains("*") || pattern.contains("?")) {
-            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
-            return matcher.matches(Path.of(fileName));
+    /**
+     * Returns the compiled form of a pattern list, compiling it on first use. Callers
+     * matching many files against one configuration should keep the result.
+     */
+    public CompiledPatternSet compile(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return CompiledPatternSet.compile(patterns);
+        }
+        CompiledPatternSet cached = compiled.get(patterns);
+        if (cached != null) {
+            return cached;
         }
-        
-        // Handle regex patterns (patterns starting with regex:)
-        if (pattern.startsWith("regex:")) {
-            String regexPattern = pattern.substring(6); // Remove "regex:" prefix
-            Pattern compiledPattern = Pattern.compile(regexPattern);
-            return compiledPattern.matcher(fileName).matches();
+        if (compiled.size() >= MAX_CACHED_PATTERN_SETS) {
+            // Pattern lists of replaced configurations
+            compiled.clear();
         }
-        
-        // Exact match
-        return fileName.equals(pattern);
+        List<String> key = List.copyOf(patterns);
+        return compiled.computeIfAbsent(key, CompiledPatternSet::compile);
     }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a file has been completely written, without opening it for writing
+ * (which fails on read-only mounts) and without blocking the caller.
+ *
+ * <ul>
+ *   <li>QUIESCENCE: ready once size and mtime have not changed for the quiet period,
+ *       either because the mtime is already that old or because two observations at
+ *       least a quiet period apart saw the same size and mtime (tolerates clock skew
+ *       between the writer and this pod).</li>
+ *   <li>MARKER_FILE: ready once a sibling marker ({@code name + suffix}, default
+ *       {@code .done}) exists.</li>
+ *   <li>TEMP_RENAME: writers upload to {@code name + suffix} (default {@code .tmp}) and
+ *       rename when finished, so any file without the suffix is ready.</li>
+ * </ul>
+ */
+public class FileReadinessChecker {
+
+    public enum Readiness {
+        READY,
+        NOT_READY,
+        GONE
+    }
+
+    private record Observation(long size, long lastModified, long observedAt) {}
+
+    private final FileSystemConfigDto.ReadinessStrategy strategy;
+    private final long quietPeriodMs;
+    private final String suffix;
+    private final Map<Path, Observation> observations = new ConcurrentHashMap<>();
+
+    public FileReadinessChecker(FileSystemConfigDto config) {
+        this.strategy = config.getReadinessStrategy() != null
+            ? config.getReadinessStrategy() : FileSystemConfigDto.ReadinessStrategy.QUIESCENCE;
+        this.quietPeriodMs = config.getReadinessQuietPeriodMs();
+        if (config.getReadinessSuffix() != null) {
+            this.suffix = config.getReadinessSuffix();
+        } else {
+            this.suffix = strategy == FileSystemConfigDto.ReadinessStrategy.MARKER_FILE ? ".done" : ".tmp";
+        }
+    }
+
+    public Readiness check(Path filePath) {
+        try {
+            switch (strategy) {
+                case MARKER_FILE:
+                    if (!Files.exists(filePath)) {
+                        return Readiness.GONE;
+                    }
+                    return Files.exists(markerFor(filePath)) ? Readiness.READY : Readiness.NOT_READY;
+                case TEMP_RENAME:
+                    if (!Files.exists(filePath)) {
+                        return Readiness.GONE;
+                    }
+                    return isTemporary(filePath) ? Readiness.NOT_READY : Readiness.READY;
+                default:
+                    return checkQuiescence(filePath);
+            }
+        } catch (NoSuchFileException e) {
+            observations.remove(filePath);
+            return Readiness.GONE;
+        } catch (IOException e) {
+            return Readiness.NOT_READY;
+        }
+    }
+
+    private Readiness checkQuiescence(Path filePath) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(filePath, BasicFileAttributes.class);
+        long size = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        long now = System.currentTimeMillis();
+
+        if (now - lastModified >= quietPeriodMs) {
+            observations.remove(filePath);
+            return Readiness.READY;
+        }
+
+        Observation previous = observations.get(filePath);
+        if (previous != null && previous.size() == size && previous.lastModified() == lastModified
+                && now - previous.observedAt() >= quietPeriodMs) {
+            observations.remove(filePath);
+            return Readiness.READY;
+        }
+        if (previous == null || previous.size() != size || previous.lastModified() != lastModified) {
+            observations.put(filePath, new Observation(size, lastModified, now));
+        }
+        return Readiness.NOT_READY;
+    }
+
+    /**
+     * The marker file that accompanies a data file, or null if the strategy uses none.
+     */
+    public Path markerFor(Path filePath) {
+        if (strategy != FileSystemConfigDto.ReadinessStrategy.MARKER_FILE) {
+            return null;
+        }
+        return filePath.resolveSibling(filePath.getFileName().toString() + suffix);
+    }
+
+    public boolean isTemporary(Path filePath) {
+        return strategy == FileSystemConfigDto.ReadinessStrategy.TEMP_RENAME
+            && filePath.getFileName().toString().endsWith(suffix);
+    }
+
+    public void forget(Path filePath) {
+        observations.remove(filePath);
+    }
+
+    public long getQuietPeriodMs() {
+        return quietPeriodMs;
+    }
+}
@@ -3,6 +3,7 @@ package com.dashboardengine.consumer.filesystem;
 import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
 import com.dashboardengine.consumer.api.dto.FileSystemStatusDto;
 import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.DrainReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -10,9 +11,14 @@ import org.springframework.stereotype.Service;
 import jakarta.annotation.PreDestroy;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
@@ -23,10 +29,12 @@ public class FileSystemConfigurationManager {
     private final Map<String, FileSystemConfigDto> configurations = new ConcurrentHashMap<>();
     private final Map<String, IsolatedFileSystemConsumer> consumers = new ConcurrentHashMap<>();
     private final IsolatedFileSystemConsumerFactory consumerFactory;
+    private final Duration drainTimeout;
     
     public FileSystemConfigurationManager(IsolatedFileSystemConsumerFactory consumerFactory,
                                          ApplicationProperties properties) {
         this.consumerFactory = consumerFactory;
+        this.drainTimeout = Duration.ofMillis(properties.getShutdown().getDrainTimeoutMs());
         
         // Initialize with existing configurations from properties
         initializeFromProperties(properties);
@@ -78,6 +86,14 @@ public class FileSystemConfigurationManager {
             throw new IllegalArgumentException("Configuration not found: " + configName);
         }
         
+        // Apply in place when possible: the queue and in-flight files are kept
+        IsolatedFileSystemConsumer running = consumers.get(configName);
+        if (running != null && config.isEnabled() && running.reconfigure(config)) {
+            configurations.put(configName, config);
+            logger.info("Updated filesystem configuration in place: {}", configName);
+            return config;
+        }
+        
         // Stop existing consumer if running
         if (consumers.containsKey(configName)) {
             stopConsumer(configName);
@@ -141,9 +157,11 @@ public class FileSystemConfigurationManager {
         }
         
         try {
-            consumer.stop();
+            DrainReport report = consumer.drain(drainTimeout);
             logger.info("Stopped filesystem consumer: {}", configName);
-            return createStoppedStatus(configName);
+            FileSystemStatusDto status = createStoppedStatus(configName);
+            status.setDrainReport(report);
+            return status;
             
         } catch (Exception e) {
             logger.error("Error stopping filesystem consumer: {}", configName, e);
@@ -190,7 +208,7 @@ public class FileSystemConfigurationManager {
         FileSystemConfigDto config = configurations.get(configName);
         var consumerStatus = consumer.getStatus();
         
-        return new FileSystemStatusDto(
+        FileSystemStatusDto status = new FileSystemStatusDto(
             configName,
             config.getPath(),
             consumer.isRunning(),
@@ -203,6 +221,19 @@ public class FileSystemConfigurationManager {
             consumer.getActiveThreadCount(),
             consumer.getAverageProcessingTime()
         );
+        status.setDuplicateEventsCollapsed(consumer.getCollapsedDuplicateCount());
+        status.setLedgerEntries(consumer.getLedgerEntryCount());
+        status.setSpilledQueueSize(consumer.getSpilledQueueSize());
+        status.setPendingPostProcessing(consumer.getPendingPostProcessingCount());
+        status.setClaimConflicts(consumer.getClaimConflictCount());
+        status.setConcurrencyLimit(consumer.getConcurrencyLimit());
+        AdaptiveConcurrencyLimit.Decision decision = consumer.getLastConcurrencyDecision();
+        status.setLastConcurrencyDecision(decision != null ? decision.name() : null);
+        status.setBacklogInProgress(consumer.isBacklogInProgress());
+        status.setBacklogScanned(consumer.getBacklogScannedCount());
+        status.setBacklogEnqueued(consumer.getBacklogEnqueuedCount());
+        status.setBacklogRemainingEstimate(consumer.getBacklogRemainingEstimate());
+        return status;
     }
 
     private FileSystemStatusDto createStoppedStatus(String configName) {
@@ -242,6 +273,34 @@ public class FileSystemConfigurationManager {
         if (config.getMaxConcurrentFiles() < 1) {
             throw new IllegalArgumentException("Max concurrent files must be at least 1");
         }
+        
+        if (config.getMinConcurrentFiles() < 0 || config.getMinConcurrentFiles() > config.getMaxConcurrentFiles()) {
+            throw new IllegalArgumentException("Min concurrent files must be between 0 and max concurrent files");
+        }
+        
+        applyDefaults(config);
+    }
+
+    /**
+     * Replaces modes sent as explicit nulls with the DTO defaults, so an omitted and a
+     * null mode behave alike and compare equal in {@link IsolatedFileSystemConsumer#requiresRestart}.
+     */
+    private static void applyDefaults(FileSystemConfigDto config) {
+        if (config.getExecutionMode() == null) {
+            config.setExecutionMode(FileSystemConfigDto.ExecutionMode.POOLED);
+        }
+        if (config.getDetectionMode() == null) {
+            config.setDetectionMode(FileSystemConfigDto.DetectionMode.WATCH_SERVICE);
+        }
+        if (config.getReadinessStrategy() == null) {
+            config.setReadinessStrategy(FileSystemConfigDto.ReadinessStrategy.QUIESCENCE);
+        }
+        if (config.getClaimStrategy() == null) {
+            config.setClaimStrategy(FileSystemConfigDto.ClaimStrategy.NONE);
+        }
+        if (config.getConcurrencyControl() == null) {
+            config.setConcurrencyControl(FileSystemConfigDto.ConcurrencyControl.FIXED);
+        }
     }
 
     private FileSystemConfigDto convertToDto(ApplicationProperties.FileSystemConfig config) {
@@ -257,16 +316,41 @@ public class FileSystemConfigurationManager {
         );
     }
 
+    /**
+     * Drains all consumers in parallel, so shutdown takes one drain timeout rather than
+     * one per consumer.
+     */
     @PreDestroy
     public void shutdown() {
-        logger.info("Shutting down all filesystem consumers");
-        consumers.values().forEach(consumer -> {
+        logger.info("Draining all filesystem consumers (timeout {}ms)", drainTimeout.toMillis());
+        List<CompletableFuture<DrainReport>> drains = new ArrayList<>();
+        consumers.forEach((name, consumer) -> {
+            CompletableFuture<DrainReport> drain = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    drain.complete(consumer.drain(drainTimeout));
+                } catch (Exception e) {
+                    logger.error("Error stopping consumer during shutdown: {}", name, e);
+                    drain.completeExceptionally(e);
+                }
+            }, "FileDrain-" + name);
+            thread.start();
+            drains.add(drain);
+        });
+        
+        long handedOff = 0;
+        long abandoned = 0;
+        for (CompletableFuture<DrainReport> drain : drains) {
             try {
-                consumer.stop();
-            } catch (Exception e) {
-                logger.error("Error stopping consumer during shutdown", e);
+                DrainReport report = drain.join();
+                handedOff += report.handedOffFiles();
+                abandoned += report.abandonedFiles();
+            } catch (CompletionException e) {
+                // Logged by the drain thread
             }
-        });
+        }
         consumers.clear();
+        logger.info("Drained {} filesystem consumers: {} files handed off, {} abandoned",
+                   drains.size(), handedOff, abandoned);
     }
 }
\ No newline at end of file
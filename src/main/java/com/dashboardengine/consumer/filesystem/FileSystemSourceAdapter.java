@@ -213,37 +213,48 @@ public class FileSystemSourceAdapter implements SourceAdapter {
             // Check if file is locked or still being written
             if (!isFileReady(filePath)) {
                 logger.debug("File not ready for processing: {}", filePath);
+                metrics.stopTimer(sample, getSourceType());
                 return;
             }
 
             logger.info("Processing file: {}", filePath);
             
-            var result = messageProcessor.process(filePath, getSourceType()).join();
-            
-            if (result.success()) {
-                processedCount.incrementAndGet();
-                metrics.incrementProcessed(getSourceType());
-                
-                // Handle post-processing (archive or delete)
-                handlePostProcessing(filePath, config);
-                
-                logger.info("Successfully processed file: {} in {}ms", 
-                           filePath, result.processingTimeMs());
-            } else {
-                errorCount.incrementAndGet();
-                metrics.incrementErrors(getSourceType());
-                logger.error("Failed to process file: {} - {}", filePath, result.message());
-            }
+            // Already on the processing executor: process in place and record the outcome as it completes
+            messageProcessor.process(filePath, getSourceType(), Runnable::run).whenComplete((result, failure) -> {
+                try {
+                    if (failure != null) {
+                        recordError(filePath, failure);
+                    } else if (result.success()) {
+                        processedCount.incrementAndGet();
+                        metrics.incrementProcessed(getSourceType());
+                        
+                        // Handle post-processing (archive or delete)
+                        handlePostProcessing(filePath, config);
+                        
+                        logger.info("Successfully processed file: {} in {}ms", 
+                                   filePath, result.processingTimeMs());
+                    } else {
+                        errorCount.incrementAndGet();
+                        metrics.incrementErrors(getSourceType());
+                        logger.error("Failed to process file: {} - {}", filePath, result.message());
+                    }
+                } finally {
+                    metrics.stopTimer(sample, getSourceType());
+                }
+            });
             
         } catch (Exception e) {
-            errorCount.incrementAndGet();
-            metrics.incrementErrors(getSourceType());
-            logger.error("Error processing file: {}", filePath, e);
-        } finally {
+            recordError(filePath, e);
             metrics.stopTimer(sample, getSourceType());
         }
     }
 
+    private void recordError(Path filePath, Throwable e) {
+        errorCount.incrementAndGet();
+        metrics.incrementErrors(getSourceType());
+        logger.error("Error processing file: {}", filePath, e);
+    }
+
     private boolean isFileReady(Path filePath) {
         try {
             // Try to open file for writing to check if it's locked
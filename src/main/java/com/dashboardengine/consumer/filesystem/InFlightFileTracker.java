@@ -0,0 +1,171 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of files a consumer already knows about, keyed by path and (size, mtime).
+ * It makes enqueueing idempotent: the watcher, the startup scan and requeues can all
+ * report the same file, but it enters the processing queue only once per version.
+ *
+ * <p>Lifecycle of an entry: PENDING (queued) -> IN_FLIGHT (being processed) ->
+ * COMPLETED (processed, file left in place) or removed (archived, deleted or failed).
+ * A change observed while IN_FLIGHT is remembered, and the file is queued again
+ * once the current run completes.
+ *
+ * <p>Only the most recent {@value #DEFAULT_MAX_COMPLETED} COMPLETED entries are kept, so
+ * a directory whose files are left in place cannot grow the index without bound. An
+ * evicted version is recognised by the processed-file ledger, where one is configured,
+ * and is otherwise processed again if a later scan reports it.
+ */
+public class InFlightFileTracker {
+
+    enum State {
+        PENDING,
+        IN_FLIGHT,
+        COMPLETED
+    }
+
+    record Entry(State state, long size, long lastModified, boolean changedWhileInFlight) {
+
+        boolean sameVersion(long otherSize, long otherLastModified) {
+            return size == otherSize && lastModified == otherLastModified;
+        }
+    }
+
+    static final int DEFAULT_MAX_COMPLETED = 100_000;
+
+    private record Completion(Path path, Entry entry) {}
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong collapsedCount = new AtomicLong(0);
+    private final int maxCompleted;
+    /** Completions oldest first; entries that have since moved on are skipped on eviction. */
+    private final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completionCount = new AtomicInteger();
+
+    public InFlightFileTracker() {
+        this(DEFAULT_MAX_COMPLETED);
+    }
+
+    InFlightFileTracker(int maxCompleted) {
+        this.maxCompleted = maxCompleted;
+    }
+
+    /**
+     * Records an observation of a file.
+     *
+     * @return true if the caller should put the file on the processing queue, false if
+     *         the observation was merged into an entry that is already queued, running
+     *         or completed for this version
+     */
+    public boolean offer(Path path, long size, long lastModified) {
+        boolean[] enqueue = new boolean[1];
+        entries.compute(path, (key, entry) -> {
+            if (entry == null) {
+                enqueue[0] = true;
+                return new Entry(State.PENDING, size, lastModified, false);
+            }
+            switch (entry.state()) {
+                case PENDING:
+                    // Repeated MODIFY events while queued: keep the latest version
+                    return new Entry(State.PENDING, size, lastModified, false);
+                case IN_FLIGHT:
+                    boolean changed = entry.changedWhileInFlight() || !entry.sameVersion(size, lastModified);
+                    return new Entry(State.IN_FLIGHT, entry.size(), entry.lastModified(), changed);
+                default:
+                    if (entry.sameVersion(size, lastModified)) {
+                        return entry;
+                    }
+                    enqueue[0] = true;
+                    return new Entry(State.PENDING, size, lastModified, false);
+            }
+        });
+        if (!enqueue[0]) {
+            collapsedCount.incrementAndGet();
+        }
+        return enqueue[0];
+    }
+
+    /**
+     * Returns true if the file is queued, running, or completed with this exact version.
+     */
+    public boolean isKnown(Path path, long size, long lastModified) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            return false;
+        }
+        return entry.state() != State.COMPLETED || entry.sameVersion(size, lastModified);
+    }
+
+    public void markInFlight(Path path) {
+        entries.compute(path, (key, entry) -> entry == null
+            ? new Entry(State.IN_FLIGHT, -1, -1, false)
+            : new Entry(State.IN_FLIGHT, entry.size(), entry.lastModified(), false));
+    }
+
+    /**
+     * Puts an in-flight file back to PENDING, for callers that requeue it themselves.
+     */
+    public void markPending(Path path) {
+        entries.computeIfPresent(path, (key, entry) ->
+            new Entry(State.PENDING, entry.size(), entry.lastModified(), false));
+    }
+
+    /**
+     * Marks processing of a file as finished.
+     *
+     * @param removed true if the file was archived or deleted by post-processing
+     * @return true if the file changed while it was processed and must be queued again
+     */
+    public boolean complete(Path path, boolean removed) {
+        boolean[] requeue = new boolean[1];
+        Entry updated = entries.compute(path, (key, entry) -> {
+            if (removed || entry == null) {
+                return null;
+            }
+            if (entry.changedWhileInFlight()) {
+                requeue[0] = true;
+                return new Entry(State.PENDING, entry.size(), entry.lastModified(), false);
+            }
+            return new Entry(State.COMPLETED, entry.size(), entry.lastModified(), false);
+        });
+        if (updated != null && updated.state() == State.COMPLETED) {
+            completions.add(new Completion(path, updated));
+            if (completionCount.incrementAndGet() > maxCompleted) {
+                evictOldestCompleted();
+            }
+        }
+        return requeue[0];
+    }
+
+    private void evictOldestCompleted() {
+        Completion oldest;
+        while (completionCount.get() > maxCompleted && (oldest = completions.poll()) != null) {
+            completionCount.decrementAndGet();
+            // No-op if the file was queued, processed or forgotten since
+            entries.remove(oldest.path(), oldest.entry());
+        }
+    }
+
+    /**
+     * Drops any entry for the path, e.g. after a delete event or a failed run, so a
+     * later observation is processed again.
+     */
+    public void forget(Path path) {
+        entries.remove(path);
+    }
+
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -1,134 +1,629 @@
 package com.dashboardengine.consumer.filesystem;
 
 import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.core.DrainReport;
 import com.dashboardengine.consumer.core.MessageProcessor;
+import com.dashboardengine.consumer.core.ProcessingResult;
 import com.dashboardengine.consumer.core.SourceStatus;
 import com.dashboardengine.consumer.metrics.ProcessingMetrics;
 import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class IsolatedFileSystemConsumer {
 
     private static final Logger logger = LoggerFactory.getLogger(IsolatedFileSystemConsumer.class);
     
+    private static final long REQUEUE_TICK_MS = 100;
+    private static final int REQUEUE_WHEEL_SIZE = 512;
+    private static final long MAX_REQUEUE_DELAY_MS = 30_000;
+    private static final long LEDGER_FLUSH_INTERVAL_MS = 1000;
+    private static final long BACKLOG_BACKPRESSURE_WAIT_MS = 100;
+    private static final long CLAIM_MAINTENANCE_INTERVAL_MS = 5000;
+    private static final long CLAIM_HEAD_START_MS = 10_000;
+    private static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+    
     private final String configName;
-    private final FileSystemConfigDto config;
+    private volatile FileSystemConfigDto config;
     private final MessageProcessor<Path> messageProcessor;
     private final ProcessingMetrics metrics;
     private final FilePatternMatcher patternMatcher;
+    private volatile CompiledPatternSet compiledPatterns;
     
     // Isolated resources for this consumer
-    private final ThreadPoolExecutor processingExecutor;
-    private final ScheduledExecutorService watchExecutor;
-    private final Semaphore concurrencyLimiter;
-    private final BlockingQueue<Path> processingQueue;
+    private final FileSystemConfigDto.ExecutionMode executionMode;
+    private final ExecutorService processingExecutor;
+    private final ExecutorService watchExecutor;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private final boolean ownsMaintenanceExecutor;
+    private final SharedProcessingScheduler sharedScheduler;
+    private volatile SharedProcessingScheduler.Lane sharedLane;
+    private final ResizableSemaphore concurrencyLimiter;
+    private final AdaptiveConcurrencyLimit adaptiveLimit;
+    private final SpillableFileQueue processingQueue;
+    private final InFlightFileTracker fileTracker = new InFlightFileTracker();
+    private final FileReadinessChecker readinessChecker;
+    private final DelayedRequeueScheduler requeueScheduler;
+    private final PostProcessingStage postProcessing;
+    private final Path handoffFile;
+    private final FileClaimStrategy claimStrategy;
+    private final Set<Path> headStartGiven = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A file that passed the readiness check and was claimed, as the version it was claimed at.
+     */
+    private record ClaimedFile(Path file, Path claimed, BasicFileAttributes attrs) {}
     
+    private final FileSystemConfigDto.DetectionMode detectionMode;
     private WatchService watchService;
+    private PollingDirectoryScanner directoryScanner;
+    private ProcessedFileLedger ledger;
+    private volatile BacklogScanner backlogScanner;
+    private volatile boolean rescanRequested = false;
+    /** Set by a reconciliation request, cleared when a scan starts for it. */
+    private final AtomicBoolean reconcilePending = new AtomicBoolean(false);
+    /** True while a reconciliation's pages are scheduled on the maintenance executor. */
+    private final AtomicBoolean reconcileActive = new AtomicBoolean(false);
+    /** Only touched by the page running on the maintenance executor. */
+    private ReconciliationScanner reconciliation;
+    private Thread backlogThread;
+    private final AtomicLong backlogEnqueued = new AtomicLong(0);
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final AtomicLong processedCount = new AtomicLong(0);
     private final AtomicLong errorCount = new AtomicLong(0);
     private final AtomicLong totalProcessingTime = new AtomicLong(0);
+    private final AtomicInteger inFlightFiles = new AtomicInteger(0);
+    private final AtomicLong overflowCount = new AtomicLong(0);
+    private final AtomicLong claimConflicts = new AtomicLong(0);
     private volatile LocalDateTime lastActivity = LocalDateTime.now();
     
     private Future<?> watchTask;
     private Future<?> processingTask;
+    private Future<?> requeueTickTask;
+    private Future<?> ledgerFlushTask;
+    private Future<?> claimMaintenanceTask;
 
     public IsolatedFileSystemConsumer(String configName, FileSystemConfigDto config,
                                      MessageProcessor<Path> messageProcessor,
                                      ProcessingMetrics metrics,
                                      FilePatternMatcher patternMatcher) {
+        this(configName, config, messageProcessor, metrics, patternMatcher, null);
+    }
+
+    public IsolatedFileSystemConsumer(String configName, FileSystemConfigDto config,
+                                     MessageProcessor<Path> messageProcessor,
+                                     ProcessingMetrics metrics,
+                                     FilePatternMatcher patternMatcher,
+                                     ScheduledExecutorService maintenanceExecutor) {
+        this(configName, config, messageProcessor, metrics, patternMatcher, maintenanceExecutor,
+             FileClaimStrategy.NONE);
+    }
+
+    public IsolatedFileSystemConsumer(String configName, FileSystemConfigDto config,
+                                     MessageProcessor<Path> messageProcessor,
+                                     ProcessingMetrics metrics,
+                                     FilePatternMatcher patternMatcher,
+                                     ScheduledExecutorService maintenanceExecutor,
+                                     FileClaimStrategy claimStrategy) {
+        this(configName, config, messageProcessor, metrics, patternMatcher, maintenanceExecutor,
+             claimStrategy, null);
+    }
+
+    public IsolatedFileSystemConsumer(String configName, FileSystemConfigDto config,
+                                     MessageProcessor<Path> messageProcessor,
+                                     ProcessingMetrics metrics,
+                                     FilePatternMatcher patternMatcher,
+                                     ScheduledExecutorService maintenanceExecutor,
+                                     FileClaimStrategy claimStrategy,
+                                     SharedProcessingScheduler sharedScheduler) {
         this.configName = configName;
         this.config = config;
         this.messageProcessor = messageProcessor;
         this.metrics = metrics;
         this.patternMatcher = patternMatcher;
+        this.compiledPatterns = patternMatcher.compile(config.getPatterns());
+        this.claimStrategy = claimStrategy;
         
-        // Create isolated thread pool for this consumer
-        this.processingExecutor = new ThreadPoolExecutor(
-            2, // core threads
-            config.getMaxConcurrentFiles(),
-            60L, TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1000),
-            r -> new Thread(r, "FileSystem-" + configName + "-" + Thread.currentThread().getId()),
-            new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+        FileSystemConfigDto.ExecutionMode mode = config.getExecutionMode() != null
+            ? config.getExecutionMode() : FileSystemConfigDto.ExecutionMode.POOLED;
+        if (mode == FileSystemConfigDto.ExecutionMode.SHARED && sharedScheduler == null) {
+            logger.warn("No shared scheduler available, using a dedicated pool for config: {}", configName);
+            mode = FileSystemConfigDto.ExecutionMode.POOLED;
+        }
+        this.executionMode = mode;
+        this.sharedScheduler = sharedScheduler;
+        this.detectionMode = config.getDetectionMode() != null
+            ? config.getDetectionMode() : FileSystemConfigDto.DetectionMode.WATCH_SERVICE;
         
-        this.watchExecutor = Executors.newSingleThreadScheduledExecutor(
-            r -> new Thread(r, "FileWatch-" + configName)
-        );
+        if (executionMode == FileSystemConfigDto.ExecutionMode.VIRTUAL) {
+            // One thread per in-flight file; nothing is parked while the directory is idle
+            this.processingExecutor = VirtualThreads.newThreadPerTaskExecutor("FileSystem-" + configName);
+            this.watchExecutor = VirtualThreads.newThreadPerTaskExecutor("FileWatch-" + configName);
+        } else if (executionMode == FileSystemConfigDto.ExecutionMode.SHARED) {
+            // Only the dispatcher is dedicated; files run on the shared scheduler lane
+            this.processingExecutor = Executors.newSingleThreadExecutor(
+                r -> new Thread(r, "FileSystem-" + configName)
+            );
+            this.watchExecutor = Executors.newSingleThreadScheduledExecutor(
+                r -> new Thread(r, "FileWatch-" + configName)
+            );
+        } else {
+            // Create isolated thread pool for this consumer: one thread per permit plus the
+            // dispatcher. The semaphore bounds queued tasks, so the dispatcher never runs files itself.
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                config.getMaxConcurrentFiles() + 1,
+                config.getMaxConcurrentFiles() + 1,
+                60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "FileSystem-" + configName + "-" + Thread.currentThread().getId())
+            );
+            pool.allowCoreThreadTimeOut(true);
+            this.processingExecutor = pool;
+            
+            this.watchExecutor = Executors.newSingleThreadScheduledExecutor(
+                r -> new Thread(r, "FileWatch-" + configName)
+            );
+        }
         
-        this.concurrencyLimiter = new Semaphore(config.getMaxConcurrentFiles(), true);
-        this.processingQueue = new LinkedBlockingQueue<>();
+        // Timers (requeue wheel ticks) run on the shared maintenance scheduler when one is provided
+        this.ownsMaintenanceExecutor = maintenanceExecutor == null;
+        this.maintenanceExecutor = maintenanceExecutor != null ? maintenanceExecutor
+            : Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "FileMaint-" + configName));
+        
+        if (config.getConcurrencyControl() == FileSystemConfigDto.ConcurrencyControl.ADAPTIVE) {
+            // Start halfway and let observed latency move the limit within [min, max]
+            this.adaptiveLimit = new AdaptiveConcurrencyLimit((config.getMaxConcurrentFiles() + 1) / 2,
+                config.getMinConcurrentFiles(), config.getMaxConcurrentFiles());
+            this.concurrencyLimiter = new ResizableSemaphore(adaptiveLimit.getLimit());
+        } else {
+            this.adaptiveLimit = null;
+            this.concurrencyLimiter = new ResizableSemaphore(config.getMaxConcurrentFiles());
+        }
+        Path spillDirectory = config.getSpillDir() != null
+            ? Paths.get(config.getSpillDir())
+            : Paths.get(System.getProperty("java.io.tmpdir"), "filesystem-spill");
+        // Ledger directory is the persistent one when configured
+        this.handoffFile = (config.getLedgerDir() != null ? Paths.get(config.getLedgerDir()) : spillDirectory)
+            .resolve(configName + ".handoff");
+        this.processingQueue = new SpillableFileQueue(config.getQueueCapacity(), spillDirectory, configName,
+            () -> metrics.incrementQueueSpilled("FILESYSTEM-" + configName));
+        this.readinessChecker = new FileReadinessChecker(config);
+        this.requeueScheduler = new DelayedRequeueScheduler(
+            REQUEUE_TICK_MS, REQUEUE_WHEEL_SIZE,
+            config.getReadinessQuietPeriodMs(), MAX_REQUEUE_DELAY_MS,
+            this::requeue
+        );
+        this.postProcessing = new PostProcessingStage(configName, config, readinessChecker::markerFor, metrics);
     }
 
     public void start() throws IOException {
-        if (running.compareAndSet(false, true)) {
-            logger.info("Starting isolated filesystem consumer: {} for path: {}", configName, config.getPath());
-            
-            Path directory = Paths.get(config.getPath());
-            Files.createDirectories(directory);
-            
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            startUp();
+        } catch (IOException | RuntimeException e) {
+            abortStart();
+            throw e;
+        }
+    }
+
+    private void startUp() throws IOException {
+        logger.info("Starting isolated filesystem consumer: {} for path: {} ({} execution, {} detection)",
+                   configName, config.getPath(), executionMode, detectionMode);
+        
+        Path directory = Paths.get(config.getPath());
+        Files.createDirectories(directory);
+        
+        if (executionMode == FileSystemConfigDto.ExecutionMode.SHARED) {
+            this.sharedLane = sharedScheduler.register(configName, config.getSchedulingWeight(),
+                config.getMinConcurrentFiles(), config.getMaxConcurrentFiles());
+        }
+        
+        metrics.registerConcurrencyLimit("FILESYSTEM-" + configName, this,
+            IsolatedFileSystemConsumer::getConcurrencyLimit);
+        
+        if (config.getLedgerDir() != null) {
+            this.ledger = ProcessedFileLedger.open(Paths.get(config.getLedgerDir()).resolve(configName + ".ledger"));
+            this.ledgerFlushTask = maintenanceExecutor.scheduleWithFixedDelay(
+                this::flushLedger, LEDGER_FLUSH_INTERVAL_MS, LEDGER_FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        
+        if (claimStrategy != FileClaimStrategy.NONE) {
+            // Hand back claims left over from before a restart before scanning
+            claimStrategy.maintain();
+            this.claimMaintenanceTask = maintenanceExecutor.scheduleWithFixedDelay(
+                this::maintainClaims, CLAIM_MAINTENANCE_INTERVAL_MS, CLAIM_MAINTENANCE_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        }
+        
+        if (detectionMode == FileSystemConfigDto.DetectionMode.POLLING) {
+            this.directoryScanner = new PollingDirectoryScanner(
+                directory, config.getPollIntervalMs(),
+                file -> compiledPatterns.matches(file),
+                new PollingDirectoryScanner.Listener() {
+                    @Override
+                    public void onChanged(Path file, BasicFileAttributes attrs) {
+                        onFileObserved(file, attrs);
+                    }
+
+                    @Override
+                    public void onRemoved(Path file) {
+                        fileTracker.forget(file);
+                    }
+                });
+            // Snapshot before the startup scan so nothing created in between is missed
+            directoryScanner.prime();
+        } else {
             this.watchService = FileSystems.getDefault().newWatchService();
             directory.register(watchService, 
                 StandardWatchEventKinds.ENTRY_CREATE,
-                StandardWatchEventKinds.ENTRY_MODIFY);
-            
-            // Process existing files
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        
+        // Work queued when the previous run drained goes first
+        enqueueHandoff();
+        
+        // Process existing files; a streaming backlog is fed once watching has started
+        boolean streamBacklog = config.getBacklogMode() == FileSystemConfigDto.BacklogMode.STREAMING;
+        if (!streamBacklog) {
             processExistingFiles(directory);
-            
-            // Start directory watching
-            this.watchTask = watchExecutor.submit(this::watchDirectory);
-            
-            // Start file processing
-            this.processingTask = processingExecutor.submit(this::processFiles);
-            
-            logger.info("Started isolated filesystem consumer: {}", configName);
         }
+        
+        // Start directory watching
+        this.watchTask = detectionMode == FileSystemConfigDto.DetectionMode.POLLING
+            ? watchExecutor.submit(this::pollDirectory)
+            : watchExecutor.submit(this::watchDirectory);
+        
+        // Start file processing
+        this.processingTask = processingExecutor.submit(this::processFiles);
+        
+        // Hand not-ready files back to the queue once their delay expires
+        this.requeueTickTask = maintenanceExecutor.scheduleAtFixedRate(
+            requeueScheduler::tick, REQUEUE_TICK_MS, REQUEUE_TICK_MS, TimeUnit.MILLISECONDS);
+        
+        if (streamBacklog) {
+            this.backlogScanner = new BacklogScanner(directory,
+                file -> compiledPatterns.matches(file) && !claimStrategy.isInternal(file),
+                this::isInternalDirectory, config.getBacklogOrder());
+            this.backlogThread = new Thread(this::streamBacklog, "FileBacklog-" + configName);
+            backlogThread.setDaemon(true);
+            backlogThread.start();
+        }
+        
+        logger.info("Started isolated filesystem consumer: {}", configName);
     }
 
-    public void stop() {
-        if (running.compareAndSet(true, false)) {
-            logger.info("Stopping isolated filesystem consumer: {}", configName);
-            
-            // Cancel tasks
-            if (watchTask != null) {
-                watchTask.cancel(true);
+    /**
+     * True for directories the consumer itself writes into when they sit inside the
+     * watched tree: the claim strategy's, the archive, the ledger and the spilled queue.
+     */
+    private boolean isInternalDirectory(Path path) {
+        if (claimStrategy.isInternal(path)) {
+            return true;
+        }
+        Path absolute = path.toAbsolutePath().normalize();
+        for (String internal : new String[] {config.getArchiveDir(), config.getLedgerDir(), config.getSpillDir()}) {
+            if (internal != null && absolute.startsWith(Paths.get(internal).toAbsolutePath().normalize())) {
+                return true;
             }
-            if (processingTask != null) {
-                processingTask.cancel(true);
+        }
+        return false;
+    }
+
+    /**
+     * Undoes a start that failed part way, so the consumer holds no lane, gauge,
+     * timer or open file and can be dropped or started again.
+     */
+    private void abortStart() {
+        logger.error("Failed to start isolated filesystem consumer: {}, releasing its resources", configName);
+        if (backlogThread != null) {
+            backlogThread.interrupt();
+            backlogThread = null;
+        }
+        for (Future<?> task : Arrays.asList(watchTask, processingTask, requeueTickTask, ledgerFlushTask,
+                                            claimMaintenanceTask)) {
+            if (task != null) {
+                task.cancel(true);
             }
-            
-            // Close watch service
-            if (watchService != null) {
+        }
+        watchTask = null;
+        processingTask = null;
+        requeueTickTask = null;
+        ledgerFlushTask = null;
+        claimMaintenanceTask = null;
+        if (sharedLane != null) {
+            sharedLane.close(0, TimeUnit.NANOSECONDS);
+            sharedLane = null;
+        }
+        metrics.removeConcurrencyLimit("FILESYSTEM-" + configName);
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error closing watch service for: {}", configName, e);
+            }
+            watchService = null;
+        }
+        if (ledger != null) {
+            try {
+                ledger.close();
+            } catch (IOException e) {
+                logger.warn("Error closing ledger for: {}", configName, e);
+            }
+            ledger = null;
+        }
+        running.set(false);
+    }
+
+    /**
+     * Applies a changed configuration to the running consumer, keeping the queue and
+     * in-flight files. Patterns, poll interval, concurrency limits, scheduling weight,
+     * max file size, micro-batching and archive/delete settings change in place; the new
+     * settings are published as one object, so every file sees either the old or the new set.
+     *
+     * @return false if the change needs a restart (see {@link #requiresRestart})
+     */
+    public synchronized boolean reconfigure(FileSystemConfigDto updated) {
+        FileSystemConfigDto previous = config;
+        if (requiresRestart(previous, updated)) {
+            return false;
+        }
+        CompiledPatternSet patterns = patternMatcher.compile(updated.getPatterns());
+
+        if (sharedLane != null) {
+            sharedLane.update(updated.getSchedulingWeight(), updated.getMinConcurrentFiles(),
+                updated.getMaxConcurrentFiles());
+        }
+        if (executionMode == FileSystemConfigDto.ExecutionMode.POOLED
+                && processingExecutor instanceof ThreadPoolExecutor pool) {
+            int size = updated.getMaxConcurrentFiles() + 1;
+            if (size > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(size);
+                pool.setCorePoolSize(size);
+            } else {
+                pool.setCorePoolSize(size);
+                pool.setMaximumPoolSize(size);
+            }
+        }
+        if (adaptiveLimit != null) {
+            adaptiveLimit.setBounds(updated.getMinConcurrentFiles(), updated.getMaxConcurrentFiles());
+            concurrencyLimiter.resize(adaptiveLimit.getLimit());
+        } else {
+            concurrencyLimiter.resize(updated.getMaxConcurrentFiles());
+        }
+        postProcessing.reconfigure(updated);
+        
+        this.config = updated;
+        this.compiledPatterns = patterns;
+        
+        if (directoryScanner != null && previous.getPollIntervalMs() != updated.getPollIntervalMs()) {
+            directoryScanner.setBaseInterval(updated.getPollIntervalMs());
+        }
+        if (!Objects.equals(previous.getPatterns(), updated.getPatterns())
+                && detectionMode == FileSystemConfigDto.DetectionMode.WATCH_SERVICE) {
+            // Files already present may match now; polling finds them on its next scan
+            rescanRequested = true;
+        }
+        logger.info("Reconfigured running filesystem consumer: {}", configName);
+        return true;
+    }
+
+    /**
+     * True if going from {@code current} to {@code updated} changes something that is
+     * fixed when the consumer starts: the watched path, execution/detection mode,
+     * readiness rules, ledger, queue, claim strategy or concurrency control.
+     */
+    public static boolean requiresRestart(FileSystemConfigDto current, FileSystemConfigDto updated) {
+        return !Paths.get(current.getPath()).normalize().equals(Paths.get(updated.getPath()).normalize())
+            || current.getExecutionMode() != updated.getExecutionMode()
+            || current.getDetectionMode() != updated.getDetectionMode()
+            || current.getReadinessStrategy() != updated.getReadinessStrategy()
+            || current.getReadinessQuietPeriodMs() != updated.getReadinessQuietPeriodMs()
+            || !Objects.equals(current.getReadinessSuffix(), updated.getReadinessSuffix())
+            || !Objects.equals(current.getLedgerDir(), updated.getLedgerDir())
+            || current.getQueueCapacity() != updated.getQueueCapacity()
+            || !Objects.equals(current.getSpillDir(), updated.getSpillDir())
+            || current.getClaimStrategy() != updated.getClaimStrategy()
+            || current.getConcurrencyControl() != updated.getConcurrencyControl();
+    }
+
+    public DrainReport stop() {
+        return drain(DEFAULT_DRAIN_TIMEOUT);
+    }
+
+    /**
+     * Stops the consumer gracefully: intake stops first, in-flight files may finish
+     * until the deadline, and paths still queued or waiting for readiness are written
+     * to a handoff file that the next start of this configuration enqueues before
+     * anything else. Files abandoned at the deadline stay where they are and are found
+     * again by the next startup scan; the closed ledger refuses their late outcomes.
+     * Every wait is bounded by the one deadline.
+     */
+    public DrainReport drain(Duration timeout) {
+        if (!running.compareAndSet(true, false)) {
+            return DrainReport.notRunning("FILESYSTEM-" + configName);
+        }
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + timeout.toNanos();
+        long finishedBefore = processedCount.get() + errorCount.get();
+        logger.info("Draining isolated filesystem consumer: {} (deadline {}ms)", configName, timeout.toMillis());
+        
+        // Stop intake
+        if (backlogThread != null) {
+            backlogThread.interrupt();
+        }
+        if (watchTask != null) {
+            watchTask.cancel(true);
+        }
+        if (requeueTickTask != null) {
+            requeueTickTask.cancel(false);
+        }
+        if (ledgerFlushTask != null) {
+            ledgerFlushTask.cancel(false);
+        }
+        if (claimMaintenanceTask != null) {
+            claimMaintenanceTask.cancel(false);
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.error("Error closing watch service for: {}", configName, e);
+            }
+        }
+        
+        // Stop dispatching; a path held by the dispatcher goes back to the queue
+        if (processingTask != null) {
+            processingTask.cancel(true);
+        }
+        
+        // Let in-flight files finish until the deadline
+        boolean finished = awaitExecutor(processingExecutor, deadline);
+        if (sharedLane != null) {
+            finished &= sharedLane.close(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        finished &= awaitInFlightFiles(deadline);
+        int abandoned = inFlightFiles.get();
+        if (!finished) {
+            logger.warn("Drain deadline reached for: {}, interrupting {} in-flight files", configName, abandoned);
+            processingExecutor.shutdownNow();
+        }
+        shutdownExecutor(watchExecutor, "watch", deadline);
+        // The backlog scan may still be enqueueing; what it adds must make the handoff
+        if (backlogThread != null) {
+            try {
+                TimeUnit.NANOSECONDS.timedJoin(backlogThread, Math.max(1, deadline - System.nanoTime()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (backlogThread.isAlive()) {
+                logger.warn("Backlog scan of: {} did not stop by the drain deadline", configName);
+            }
+        }
+        
+        // Hand off what is still queued
+        List<Path> handoff = new ArrayList<>();
+        try {
+            Path next;
+            while ((next = processingQueue.poll(0, TimeUnit.MILLISECONDS)) != null) {
+                handoff.add(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        requeueScheduler.drainTo(handoff);
+        writeHandoff(handoff);
+        
+        postProcessing.shutdown(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        if (ownsMaintenanceExecutor) {
+            shutdownExecutor(maintenanceExecutor, "maintenance", deadline);
+        }
+        metrics.removeConcurrencyLimit("FILESYSTEM-" + configName);
+        
+        processingQueue.close();
+        
+        if (ledger != null) {
+            try {
+                ledger.close();
+            } catch (IOException e) {
+                logger.error("Error closing ledger for: {}", configName, e);
+            }
+        }
+        
+        DrainReport report = new DrainReport("FILESYSTEM-" + configName,
+            processedCount.get() + errorCount.get() - finishedBefore, finished ? 0 : abandoned, handoff.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), !finished);
+        logger.info("Stopped isolated filesystem consumer: {} ({} completed, {} abandoned, {} handed off in {}ms)",
+                   configName, report.completedFiles(), report.abandonedFiles(), report.handedOffFiles(),
+                   report.durationMs());
+        return report;
+    }
+
+    private boolean awaitExecutor(ExecutorService executor, long deadlineNanos) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void writeHandoff(List<Path> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        Path partial = handoffFile.resolveSibling(handoffFile.getFileName() + ".part");
+        try {
+            Files.createDirectories(handoffFile.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                for (Path path : paths) {
+                    out.writeUTF(path.toString());
+                }
+            }
+            Files.move(partial, handoffFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The files are still in the directory; the next startup scan finds them
+            logger.warn("Error writing handoff of {} queued files for: {}", paths.size(), configName, e);
+        }
+    }
+
+    private void enqueueHandoff() {
+        if (!Files.exists(handoffFile)) {
+            return;
+        }
+        int enqueued = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(handoffFile)))) {
+            while (true) {
+                Path file = Paths.get(in.readUTF());
                 try {
-                    watchService.close();
-                } catch (IOException e) {
-                    logger.error("Error closing watch service for: {}", configName, e);
+                    onFileObserved(file, Files.readAttributes(file, BasicFileAttributes.class));
+                    enqueued++;
+                } catch (NoSuchFileException e) {
+                    // Handled elsewhere in the meantime
                 }
             }
-            
-            // Shutdown executors
-            shutdownExecutor(processingExecutor, "processing");
-            shutdownExecutor(watchExecutor, "watch");
-            
-            logger.info("Stopped isolated filesystem consumer: {}", configName);
+        } catch (EOFException e) {
+            // End of handoff
+        } catch (IOException e) {
+            logger.warn("Error reading handoff for: {}, relying on the startup scan", configName, e);
+        }
+        try {
+            Files.deleteIfExists(handoffFile);
+        } catch (IOException e) {
+            logger.warn("Error deleting handoff: {}", handoffFile, e);
         }
+        logger.info("Enqueued {} files handed off by the previous run of config: {}", enqueued, configName);
     }
 
-    private void shutdownExecutor(ExecutorService executor, String name) {
+    private void shutdownExecutor(ExecutorService executor, String name, long deadlineNanos) {
         try {
             executor.shutdown();
-            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            if (!executor.awaitTermination(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
                 logger.warn("Forcing shutdown of {} executor for: {}", name, configName);
                 executor.shutdownNow();
             }
@@ -145,7 +640,7 @@ public class IsolatedFileSystemConsumer {
     public SourceStatus getStatus() {
         return new SourceStatus(
             "FILESYSTEM-" + configName,
-            running.get() && processingExecutor.getActiveCount() >= 0,
+            running.get() && !processingExecutor.isShutdown(),
             running.get() ? "Active and monitoring: " + config.getPath() : "Stopped",
             lastActivity,
             processedCount.get(),
@@ -157,8 +652,78 @@ public class IsolatedFileSystemConsumer {
         return processingQueue.size();
     }
 
+    public int getPendingPostProcessingCount() {
+        return postProcessing.getPendingCount();
+    }
+
+    public long getClaimConflictCount() {
+        return claimConflicts.get();
+    }
+
+    public long getSpilledQueueSize() {
+        return processingQueue.getSpilledCount();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    public long getCollapsedDuplicateCount() {
+        return fileTracker.getCollapsedCount();
+    }
+
+    public int getLedgerEntryCount() {
+        return ledger != null ? ledger.size() : 0;
+    }
+
+    public boolean isBacklogInProgress() {
+        return backlogThread != null && backlogThread.isAlive();
+    }
+
+    public long getBacklogScannedCount() {
+        BacklogScanner scanner = backlogScanner;
+        return scanner != null ? scanner.getScannedCount() : 0;
+    }
+
+    public long getBacklogEnqueuedCount() {
+        return backlogEnqueued.get();
+    }
+
+    public long getBacklogRemainingEstimate() {
+        BacklogScanner scanner = backlogScanner;
+        return scanner != null ? scanner.getRemainingEstimate() : -1;
+    }
+
+    public int getDelayedFileCount() {
+        return requeueScheduler.size();
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimiter.getPermits();
+    }
+
+    /**
+     * Last adjustment of the adaptive limit, or null when the limit is fixed.
+     */
+    public AdaptiveConcurrencyLimit.Decision getLastConcurrencyDecision() {
+        return adaptiveLimit != null ? adaptiveLimit.getLastDecision() : null;
+    }
+
     public int getActiveThreadCount() {
-        return processingExecutor.getActiveCount();
+        SharedProcessingScheduler.Lane lane = sharedLane;
+        if (lane != null) {
+            return lane.getRunningCount();
+        }
+        if (processingExecutor instanceof ThreadPoolExecutor pool) {
+            return pool.getActiveCount();
+        }
+        // Thread-per-task: one thread per in-flight file plus the dispatcher
+        boolean dispatching = processingTask != null && !processingTask.isDone();
+        return inFlightFiles.get() + (dispatching ? 1 : 0);
+    }
+
+    public FileSystemConfigDto.ExecutionMode getExecutionMode() {
+        return executionMode;
     }
 
     public double getAverageProcessingTime() {
@@ -167,37 +732,114 @@ public class IsolatedFileSystemConsumer {
     }
 
     private void processExistingFiles(Path directory) {
+        AtomicLong skipped = new AtomicLong();
         try {
             Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return claimStrategy.isInternal(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                     if (attrs.isRegularFile() && 
-                        patternMatcher.matches(file, config.getPatterns()) &&
+                        compiledPatterns.matches(file) &&
                         attrs.size() <= config.getMaxFileSizeBytes()) {
-                        processingQueue.offer(file);
+                        if (isRecordedInLedger(file, attrs)) {
+                            skipped.incrementAndGet();
+                        } else {
+                            enqueue(file, attrs);
+                        }
                     }
                     return FileVisitResult.CONTINUE;
                 }
             });
+            if (skipped.get() > 0) {
+                logger.info("Skipped {} files already processed according to ledger for config: {}",
+                           skipped.get(), configName);
+            }
         } catch (IOException e) {
             logger.error("Error processing existing files in: {} for config: {}", directory, configName, e);
         }
     }
 
+    /**
+     * Feeds the startup backlog page by page. A new page is only read once the
+     * processing queue holds less than a page, so at most about two pages of paths
+     * are on the heap regardless of the backlog size.
+     */
+    private void streamBacklog() {
+        BacklogScanner scanner = backlogScanner;
+        int pageSize = config.getBacklogPageSize();
+        List<Path> page = new ArrayList<>(pageSize);
+        long skipped = 0;
+        long start = System.currentTimeMillis();
+        
+        try {
+            while (running.get() && !Thread.currentThread().isInterrupted()) {
+                while ((processingQueue.isSaturated() || processingQueue.size() >= pageSize) && running.get()) {
+                    Thread.sleep(BACKLOG_BACKPRESSURE_WAIT_MS);
+                }
+                page.clear();
+                if (scanner.nextPage(pageSize, page) == 0) {
+                    break;
+                }
+                for (Path file : page) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (NoSuchFileException e) {
+                        continue; // picked up by the watcher and archived meanwhile
+                    }
+                    if (!attrs.isRegularFile()) {
+                        continue;
+                    }
+                    if (isRecordedInLedger(file, attrs)) {
+                        skipped++;
+                        continue;
+                    }
+                    onFileObserved(file, attrs);
+                    backlogEnqueued.incrementAndGet();
+                }
+            }
+            if (scanner.isExhausted()) {
+                logger.info("Backlog of {} files fed in {}ms for config: {} ({} already in ledger)",
+                           backlogEnqueued.get(), System.currentTimeMillis() - start, configName, skipped);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Error streaming backlog in: {} for config: {}", config.getPath(), configName, e);
+        } finally {
+            try {
+                scanner.close();
+            } catch (IOException e) {
+                logger.warn("Error closing backlog scanner for config: {}", configName, e);
+            }
+        }
+    }
+
     private void watchDirectory() {
         Path directory = Paths.get(config.getPath());
         
         while (running.get() && !Thread.currentThread().isInterrupted()) {
             try {
+                if (rescanRequested) {
+                    rescanRequested = false;
+                    requestReconcile(directory);
+                }
+                
                 WatchKey key = watchService.poll(config.getPollIntervalMs(), TimeUnit.MILLISECONDS);
                 if (key == null) {
                     continue;
                 }
                 
                 lastActivity = LocalDateTime.now();
+                boolean overflowed = false;
                 
                 for (WatchEvent<?> event : key.pollEvents()) {
                     if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflowed = true;
                         continue;
                     }
                     
@@ -206,18 +848,16 @@ public class IsolatedFileSystemConsumer {
                     Path filename = ev.context();
                     Path filePath = directory.resolve(filename);
                     
+                    if (ev.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        fileTracker.forget(filePath);
+                        continue;
+                    }
+                    
                     if (Files.isRegularFile(filePath) && 
-                        patternMatcher.matches(filePath, config.getPatterns())) {
+                        compiledPatterns.matches(filePath)) {
                         
-                        // Check file size limit
                         try {
-                            if (Files.size(filePath) <= config.getMaxFileSizeBytes()) {
-                                processingQueue.offer(filePath);
-                            } else {
-                                logger.warn("File too large, skipping: {} ({}MB > {}MB)", 
-                                           filePath, Files.size(filePath) / 1024 / 1024,
-                                           config.getMaxFileSizeBytes() / 1024 / 1024);
-                            }
+                            onFileObserved(filePath, Files.readAttributes(filePath, BasicFileAttributes.class));
                         } catch (IOException e) {
                             logger.error("Error checking file size: {}", filePath, e);
                         }
@@ -225,6 +865,9 @@ public class IsolatedFileSystemConsumer {
                 }
                 
                 boolean valid = key.reset();
+                if (overflowed) {
+                    reconcileAfterOverflow(directory);
+                }
                 if (!valid) {
                     logger.warn("Watch key no longer valid for: {} config: {}", directory, configName);
                     break;
@@ -239,22 +882,242 @@ public class IsolatedFileSystemConsumer {
         }
     }
 
+    private void reconcileAfterOverflow(Path directory) {
+        overflowCount.incrementAndGet();
+        metrics.incrementWatchOverflows("FILESYSTEM-" + configName);
+        logger.warn("Watch events overflowed for config: {}, reconciling directory: {}", configName, directory);
+        requestReconcile(directory);
+    }
+
+    /**
+     * Starts a reconciliation of the directory, or has one follow the scan in progress.
+     * The scan runs a page at a time on the maintenance executor, so the watch thread
+     * keeps draining events meanwhile and no shared maintenance thread sleeps out the
+     * pacing between pages.
+     */
+    private void requestReconcile(Path directory) {
+        reconcilePending.set(true);
+        if (reconcileActive.compareAndSet(false, true)) {
+            scheduleReconcilePage(directory, 0);
+        }
+    }
+
+    private void scheduleReconcilePage(Path directory, long delayMillis) {
+        try {
+            maintenanceExecutor.schedule(() -> reconcilePage(directory), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next startup scan covers the directory
+            closeReconciliation();
+            reconcileActive.set(false);
+        }
+    }
+
+    private void reconcilePage(Path directory) {
+        try {
+            if (reconciliation == null) {
+                reconcilePending.set(false);
+                reconciliation = new ReconciliationScanner(
+                    directory,
+                    config.getReconciliationMaxFilesPerSecond(),
+                    file -> compiledPatterns.matches(file),
+                    (file, attrs) -> isRecordedInLedger(file, attrs)
+                        || fileTracker.isKnown(file, attrs.size(), attrs.lastModifiedTime().toMillis()),
+                    this::onFileObserved
+                );
+            }
+            if (reconciliation.scanPage(running::get)) {
+                scheduleReconcilePage(directory, reconciliation.pageDelayMillis());
+                return;
+            }
+            ReconciliationScanner.Result result = reconciliation.result();
+            metrics.recordReconciliation("FILESYSTEM-" + configName, result.durationMs(), result.enqueued());
+            logger.info("Reconciled {} entries in {}ms for config: {}, recovered {} missed files",
+                       result.scanned(), result.durationMs(), configName, result.enqueued());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error reconciling directory: {} for config: {}", directory, configName, e);
+        }
+        closeReconciliation();
+        reconcileActive.set(false);
+        // A request that arrived during the scan, or between its last page and now
+        if (reconcilePending.get() && running.get() && reconcileActive.compareAndSet(false, true)) {
+            scheduleReconcilePage(directory, 0);
+        }
+    }
+
+    private void closeReconciliation() {
+        if (reconciliation != null) {
+            try {
+                reconciliation.close();
+            } catch (IOException e) {
+                logger.debug("Error closing reconciliation scan for config: {}", configName, e);
+            }
+            reconciliation = null;
+        }
+    }
+
+    private void pollDirectory() {
+        Path directory = Paths.get(config.getPath());
+        
+        while (running.get() && !Thread.currentThread().isInterrupted()) {
+            if (processingQueue.isSaturated()) {
+                // Backpressure: changes stay in the directory and are picked up by a later scan
+                logger.debug("Processing queue saturated, deferring scan for config: {}", configName);
+            } else {
+                scanDirectory(directory);
+            }
+            
+            try {
+                Thread.sleep(directoryScanner.getCurrentIntervalMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void scanDirectory(Path directory) {
+        try {
+            PollingDirectoryScanner.ScanResult result = directoryScanner.scan();
+            if (result.hasChanges()) {
+                lastActivity = LocalDateTime.now();
+            }
+            logger.debug("Scanned {} entries in {}ms for config: {} (+{} ~{} -{}), next scan in {}ms",
+                        result.scanned(), result.durationMs(), configName,
+                        result.added(), result.modified(), result.removed(),
+                        directoryScanner.getCurrentIntervalMs());
+        } catch (IOException e) {
+            // Network mounts come and go; keep the snapshot and retry on the next cycle
+            logger.warn("Error scanning directory: {} for config: {} - {}", directory, configName, e.getMessage());
+        }
+    }
+
+    private void onFileObserved(Path filePath, BasicFileAttributes attrs) {
+        // Check file size limit
+        if (attrs.size() <= config.getMaxFileSizeBytes()) {
+            enqueue(filePath, attrs);
+        } else {
+            logger.warn("File too large, skipping: {} ({}MB > {}MB)", 
+                       filePath, attrs.size() / 1024 / 1024,
+                       config.getMaxFileSizeBytes() / 1024 / 1024);
+        }
+    }
+
+    private void enqueue(Path filePath, BasicFileAttributes attrs) {
+        if (readinessChecker.isTemporary(filePath)) {
+            // Upload in progress; the rename to the final name produces its own event
+            return;
+        }
+        if (isRecordedInLedger(filePath, attrs)) {
+            // Same version already processed before a restart
+            return;
+        }
+        if (fileTracker.offer(filePath, attrs.size(), attrs.lastModifiedTime().toMillis())) {
+            requeue(filePath);
+        } else {
+            metrics.incrementDuplicatesCollapsed("FILESYSTEM-" + configName);
+        }
+    }
+
+    private boolean isRecordedInLedger(Path filePath, BasicFileAttributes attrs) {
+        return ledger != null
+            && ledger.isCompleted(filePath, attrs.size(), attrs.lastModifiedTime().toMillis());
+    }
+
+    private void flushLedger() {
+        try {
+            ledger.flush();
+        } catch (IOException e) {
+            logger.error("Error flushing ledger for config: {}", configName, e);
+        }
+    }
+
+    private void maintainClaims() {
+        try {
+            claimStrategy.maintain();
+        } catch (RuntimeException e) {
+            logger.error("Error maintaining file claims for config: {}", configName, e);
+        }
+    }
+
+    private void recordConcurrencySample(long latencyNanos, boolean success) {
+        if (adaptiveLimit == null) {
+            return;
+        }
+        // The limit caps permits, and a micro-batch holds one permit for all its files
+        AdaptiveConcurrencyLimit.Decision decision = adaptiveLimit.onSample(latencyNanos, success,
+            concurrencyLimiter.getInUse());
+        if (decision == null) {
+            return;
+        }
+        metrics.recordConcurrencyDecision("FILESYSTEM-" + configName, decision.name());
+        if (decision != AdaptiveConcurrencyLimit.Decision.HOLD) {
+            concurrencyLimiter.resize(adaptiveLimit.getLimit());
+            logger.debug("Concurrency limit {} to {} for config: {}",
+                        decision == AdaptiveConcurrencyLimit.Decision.INCREASE ? "raised" : "lowered",
+                        adaptiveLimit.getLimit(), configName);
+        }
+    }
+
+    private void completeFile(Path filePath, BasicFileAttributes attrs, boolean removed) {
+        if (ledger != null) {
+            ledger.record(filePath, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                removed ? ProcessedFileLedger.Outcome.REMOVED : ProcessedFileLedger.Outcome.SUCCESS);
+        }
+        if (fileTracker.complete(filePath, removed)) {
+            // Modified while being processed: pick up the new version
+            requeue(filePath);
+        }
+    }
+
+    /**
+     * Queues a path the tracker holds as pending. If it cannot be spilled the tracker
+     * forgets it, so the next event or scan for the file queues it again.
+     */
+    private void requeue(Path filePath) {
+        if (!processingQueue.offer(filePath)) {
+            fileTracker.forget(filePath);
+            metrics.incrementQueueDropped("FILESYSTEM-" + configName);
+        }
+    }
+
     private void processFiles() {
         while (running.get() && !Thread.currentThread().isInterrupted()) {
             try {
                 Path filePath = processingQueue.poll(1, TimeUnit.SECONDS);
                 if (filePath != null) {
-                    // Acquire semaphore to limit concurrency
-                    concurrencyLimiter.acquire();
+                    List<Path> batch = collectBatch(filePath);
+                    // Acquire semaphore to limit concurrency; a micro-batch takes one permit
+                    try {
+                        concurrencyLimiter.acquire();
+                    } catch (InterruptedException e) {
+                        // Draining: keep the paths for the handoff
+                        batch.forEach(this::requeue);
+                        throw e;
+                    }
                     
-                    // Submit to processing executor
-                    processingExecutor.submit(() -> {
-                        try {
-                            processFile(filePath);
-                        } finally {
-                            concurrencyLimiter.release();
-                        }
-                    });
+                    // Submit to processing executor, or to this config's lane of the shared scheduler
+                    Executor fileExecutor = sharedLane != null ? sharedLane : processingExecutor;
+                    try {
+                        fileExecutor.execute(() -> {
+                            inFlightFiles.addAndGet(batch.size());
+                            try {
+                                // The permit is held until the files complete, which may be after this task returns
+                                CompletableFuture<Void> done = batch.size() == 1
+                                    ? processFile(filePath) : processBatch(batch);
+                                done.whenComplete((ignored, failure) -> finishFiles(batch.size()));
+                            } catch (RuntimeException | Error e) {
+                                finishFiles(batch.size());
+                                throw e;
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // Lane closed or executor shut down by a drain: keep the paths for the handoff
+                        concurrencyLimiter.release();
+                        batch.forEach(this::requeue);
+                        logger.info("Processing executor no longer accepts files, stopping dispatcher for config: {}",
+                                   configName);
+                        break;
+                    }
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -263,76 +1126,387 @@ public class IsolatedFileSystemConsumer {
         }
     }
 
-    private void processFile(Path filePath) {
+    /**
+     * The polled path plus, when micro-batching is configured, the paths that are queued
+     * or arrive within the batch window, up to the batch size. A backlog fills batches
+     * without waiting; a lone file waits at most the window.
+     */
+    private List<Path> collectBatch(Path first) throws InterruptedException {
+        FileSystemConfigDto current = config;
+        if (current.getBatchSize() <= 1) {
+            return List.of(first);
+        }
+        List<Path> batch = new ArrayList<>(current.getBatchSize());
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(current.getBatchWindowMs());
+        try {
+            while (batch.size() < current.getBatchSize()) {
+                Path next = processingQueue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            // Draining: keep the paths for the handoff
+            batch.forEach(this::requeue);
+            throw e;
+        }
+        return batch;
+    }
+
+    private void finishFiles(int count) {
+        if (inFlightFiles.addAndGet(-count) == 0) {
+            synchronized (inFlightFiles) {
+                inFlightFiles.notifyAll();
+            }
+        }
+        concurrencyLimiter.release();
+    }
+
+    /**
+     * Waits for files whose processing continues after their worker task returned.
+     */
+    private boolean awaitInFlightFiles(long deadlineNanos) {
+        synchronized (inFlightFiles) {
+            while (inFlightFiles.get() > 0) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(inFlightFiles, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Checks and claims the file on the calling worker, then processes it in place. The
+     * outcome (metrics, ledger, post-processing) is recorded by a continuation of the
+     * processor's future, so no thread waits for it.
+     *
+     * @return completes once the outcome is recorded; never exceptionally
+     */
+    private CompletableFuture<Void> processFile(Path filePath) {
         Timer.Sample sample = metrics.startTimer("FILESYSTEM-" + configName);
         long startTime = System.currentTimeMillis();
+        ClaimedFile file = claimFile(filePath);
+        if (file == null) {
+            return skipped(sample);
+        }
+        Path claimed = file.claimed();
         
         try {
-            // Check if file is ready (not locked)
-            if (!isFileReady(filePath)) {
-                logger.debug("File not ready, requeueing: {} for config: {}", filePath, configName);
-                // Wait a bit and requeue
-                Thread.sleep(500);
-                processingQueue.offer(filePath);
-                return;
+            logger.info("Processing file: {} for config: {}", claimed, configName);
+            
+            long processStart = System.nanoTime();
+            // This worker already belongs to the config's executor or lane: process in place
+            return messageProcessor.process(claimed, "FILESYSTEM-" + configName, Runnable::run)
+                .handle((result, failure) -> {
+                    long latencyNanos = System.nanoTime() - processStart;
+                    try {
+                        if (failure != null) {
+                            recordConcurrencySample(latencyNanos, false);
+                            failFile(filePath, claimed, unwrap(failure));
+                        } else {
+                            recordConcurrencySample(latencyNanos, result.success());
+                            recordOutcome(filePath, claimed, file.attrs(), result,
+                                          System.currentTimeMillis() - startTime);
+                        }
+                    } catch (Exception e) {
+                        failFile(filePath, claimed, e);
+                    } finally {
+                        metrics.stopTimer(sample, "FILESYSTEM-" + configName);
+                    }
+                    return null;
+                });
+            
+        } catch (Exception e) {
+            failFile(filePath, claimed, e);
+            return skipped(sample);
+        }
+    }
+
+    /**
+     * Claims each file as {@link #processFile} does, then hands the claimed ones to the
+     * processor as one micro-batch. The batch shares one timer sample, concurrency sample,
+     * metrics update, ledger write and post-processing submission; a file that fails is
+     * still released, logged and counted on its own.
+     *
+     * @return completes once the outcome is recorded; never exceptionally
+     */
+    private CompletableFuture<Void> processBatch(List<Path> filePaths) {
+        Timer.Sample sample = metrics.startTimer("FILESYSTEM-" + configName);
+        List<ClaimedFile> files = new ArrayList<>(filePaths.size());
+        for (Path filePath : filePaths) {
+            ClaimedFile file = claimFile(filePath);
+            if (file != null) {
+                files.add(file);
             }
+        }
+        if (files.isEmpty()) {
+            return skipped(sample);
+        }
+        
+        try {
+            logger.info("Processing batch of {} files for config: {}", files.size(), configName);
+            
+            List<Path> claimed = files.stream().map(ClaimedFile::claimed).toList();
+            long processStart = System.nanoTime();
+            return messageProcessor.processBatch(claimed, "FILESYSTEM-" + configName, Runnable::run)
+                .handle((results, failure) -> {
+                    // Per file, so a batch is not taken for one slow file
+                    long latencyNanos = (System.nanoTime() - processStart) / files.size();
+                    try {
+                        if (failure != null) {
+                            recordConcurrencySample(latencyNanos, false);
+                            files.forEach(file -> failFile(file.file(), file.claimed(), unwrap(failure)));
+                        } else {
+                            recordConcurrencySample(latencyNanos,
+                                results.stream().allMatch(ProcessingResult::success));
+                            recordBatchOutcome(files, results);
+                        }
+                    } catch (Exception e) {
+                        files.forEach(file -> failFile(file.file(), file.claimed(), e));
+                    } finally {
+                        metrics.stopTimer(sample, "FILESYSTEM-" + configName);
+                    }
+                    return null;
+                });
             
-            logger.info("Processing file: {} for config: {}", filePath, configName);
+        } catch (Exception e) {
+            files.forEach(file -> failFile(file.file(), file.claimed(), e));
+            return skipped(sample);
+        }
+    }
+
+    /**
+     * Checks that the file is ready and claims it.
+     *
+     * @return null if the file was skipped (gone, not ready, left to another instance)
+     *         or failed, which is already recorded
+     */
+    private ClaimedFile claimFile(Path filePath) {
+        Path claimedPath = null;
+        
+        try {
+            fileTracker.markInFlight(filePath);
             
-            var result = messageProcessor.process(filePath, "FILESYSTEM-" + configName).join();
-            long processingTime = System.currentTimeMillis() - startTime;
+            FileReadinessChecker.Readiness readiness = readinessChecker.check(filePath);
+            if (readiness == FileReadinessChecker.Readiness.GONE) {
+                // Archived, deleted or renamed since it was queued
+                fileTracker.forget(filePath);
+                requeueScheduler.reset(filePath);
+                headStartGiven.remove(filePath);
+                return null;
+            }
+            if (readiness == FileReadinessChecker.Readiness.NOT_READY) {
+                // Park it on the timer wheel; no worker waits for the writer
+                fileTracker.markPending(filePath);
+                long delayMs = requeueScheduler.schedule(filePath);
+                logger.debug("File not ready, requeueing in {}ms: {} for config: {}", delayMs, filePath, configName);
+                return null;
+            }
+            requeueScheduler.reset(filePath);
             
-            if (result.success()) {
-                processedCount.incrementAndGet();
-                totalProcessingTime.addAndGet(processingTime);
-                metrics.incrementProcessed("FILESYSTEM-" + configName);
-                
-                handlePostProcessing(filePath);
-                
-                logger.info("Successfully processed file: {} in {}ms for config: {}", 
-                           filePath, processingTime, configName);
-            } else {
-                errorCount.incrementAndGet();
-                metrics.incrementErrors("FILESYSTEM-" + configName);
-                logger.error("Failed to process file: {} for config: {} - {}", 
-                            filePath, configName, result.message());
+            if (!claimStrategy.isPreferred(filePath) && headStartGiven.add(filePath)) {
+                // Another instance's shard: give it a head start, then compete for the file anyway
+                fileTracker.markPending(filePath);
+                requeueScheduler.scheduleAfter(filePath, CLAIM_HEAD_START_MS);
+                return null;
             }
+            headStartGiven.remove(filePath);
+            
+            // Version being processed; claimed and recorded in the ledger by (size, mtime)
+            BasicFileAttributes attrs = Files.readAttributes(filePath, BasicFileAttributes.class);
+            Path claimed = claimStrategy.claim(filePath, attrs.size(), attrs.lastModifiedTime().toMillis());
+            if (claimed == null) {
+                claimConflicts.incrementAndGet();
+                metrics.incrementClaimConflicts("FILESYSTEM-" + configName);
+                if (fileTracker.complete(filePath, false)) {
+                    requeue(filePath);
+                }
+                logger.debug("File claimed by another instance: {} for config: {}", filePath, configName);
+                return null;
+            }
+            claimedPath = claimed;
+            if (!claimed.equals(filePath)) {
+                // The claim moved the file; its marker is no longer needed
+                Path marker = readinessChecker.markerFor(filePath);
+                if (marker != null) {
+                    Files.deleteIfExists(marker);
+                }
+            }
+            return new ClaimedFile(filePath, claimed, attrs);
             
         } catch (Exception e) {
+            failFile(filePath, claimedPath, e);
+            return null;
+        }
+    }
+
+    private void recordOutcome(Path filePath, Path claimed, BasicFileAttributes attrs, ProcessingResult result,
+                               long processingTime) {
+        if (result.success()) {
+            processedCount.incrementAndGet();
+            totalProcessingTime.addAndGet(processingTime);
+            metrics.incrementProcessed("FILESYSTEM-" + configName);
+            
+            // Archive/delete runs on its own stage; this worker is free for the next file
+            postProcessing.submit(claimed, outcome -> {
+                if (outcome == PostProcessingStage.Outcome.FAILED) {
+                    abandonPostProcessing(filePath, claimed, attrs);
+                    return;
+                }
+                boolean removed = outcome == PostProcessingStage.Outcome.REMOVED;
+                claimStrategy.release(filePath, claimed, true, removed);
+                completeFile(filePath, attrs, removed || !claimed.equals(filePath));
+            });
+            
+            logger.info("Successfully processed file: {} in {}ms for config: {}", 
+                       filePath, processingTime, configName);
+        } else {
             errorCount.incrementAndGet();
             metrics.incrementErrors("FILESYSTEM-" + configName);
-            logger.error("Error processing file: {} for config: {}", filePath, configName, e);
-        } finally {
-            metrics.stopTimer(sample, "FILESYSTEM-" + configName);
+            claimStrategy.release(filePath, claimed, false, false);
+            fileTracker.forget(filePath);
+            if (ledger != null) {
+                ledger.record(filePath, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                    ProcessedFileLedger.Outcome.FAILED);
+            }
+            logger.error("Failed to process file: {} for config: {} - {}", 
+                        filePath, configName, result.message());
         }
     }
 
-    private boolean isFileReady(Path filePath) {
-        try {
-            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
-                return true;
+    private void recordBatchOutcome(List<ClaimedFile> files, List<ProcessingResult> results) {
+        if (results.size() != files.size()) {
+            throw new IllegalStateException("Expected " + files.size() + " results, got " + results.size());
+        }
+        List<ClaimedFile> succeeded = new ArrayList<>(files.size());
+        List<ProcessedFileLedger.Entry> failed = new ArrayList<>();
+        long processingTime = 0;
+        for (int i = 0; i < files.size(); i++) {
+            ClaimedFile file = files.get(i);
+            ProcessingResult result = results.get(i);
+            if (result.success()) {
+                succeeded.add(file);
+                processingTime += result.processingTimeMs();
+            } else {
+                claimStrategy.release(file.file(), file.claimed(), false, false);
+                fileTracker.forget(file.file());
+                failed.add(ledgerEntry(file, ProcessedFileLedger.Outcome.FAILED));
+                logger.error("Failed to process file: {} for config: {} - {}",
+                            file.file(), configName, result.message());
+            }
+        }
+        
+        metrics.recordProcessingBatch("FILESYSTEM-" + configName, files.size());
+        if (!succeeded.isEmpty()) {
+            processedCount.addAndGet(succeeded.size());
+            totalProcessingTime.addAndGet(processingTime);
+            metrics.incrementProcessed("FILESYSTEM-" + configName, succeeded.size());
+            completeBatch(succeeded);
+        }
+        if (!failed.isEmpty()) {
+            errorCount.addAndGet(failed.size());
+            metrics.incrementErrors("FILESYSTEM-" + configName, failed.size());
+            if (ledger != null) {
+                ledger.recordAll(failed);
             }
-        } catch (IOException e) {
-            return false;
         }
+        logger.info("Successfully processed {} of {} files in batch for config: {}",
+                   succeeded.size(), files.size(), configName);
     }
 
-    private void handlePostProcessing(Path filePath) {
-        try {
-            if (config.isDeleteAfterProcess()) {
-                Files.delete(filePath);
-                logger.debug("Deleted processed file: {} for config: {}", filePath, configName);
-            } else if (config.getArchiveDir() != null) {
-                Path archiveDir = Paths.get(config.getArchiveDir());
-                Files.createDirectories(archiveDir);
-                
-                Path targetPath = archiveDir.resolve(filePath.getFileName());
-                Files.move(filePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
-                logger.debug("Archived processed file: {} -> {} for config: {}", 
-                            filePath, targetPath, configName);
+    /**
+     * Archives/deletes the batch's files in one submission and, once the last of them is
+     * done, records them in the ledger together before they may be picked up again.
+     */
+    private void completeBatch(List<ClaimedFile> files) {
+        ProcessedFileLedger.Entry[] entries = new ProcessedFileLedger.Entry[files.size()];
+        AtomicInteger remaining = new AtomicInteger(files.size());
+        Map<Path, PostProcessingStage.Completion> completions = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            ClaimedFile file = files.get(i);
+            int index = i;
+            completions.put(file.claimed(), outcome -> {
+                try {
+                    if (outcome == PostProcessingStage.Outcome.FAILED) {
+                        entries[index] = ledgerEntry(file, ProcessedFileLedger.Outcome.FAILED);
+                        claimStrategy.release(file.file(), file.claimed(), false, false);
+                    } else {
+                        boolean removed = outcome == PostProcessingStage.Outcome.REMOVED;
+                        boolean gone = removed || !file.claimed().equals(file.file());
+                        entries[index] = ledgerEntry(file,
+                            gone ? ProcessedFileLedger.Outcome.REMOVED : ProcessedFileLedger.Outcome.SUCCESS);
+                        claimStrategy.release(file.file(), file.claimed(), true, removed);
+                    }
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        finishBatch(files, entries);
+                    }
+                }
+            });
+        }
+        postProcessing.submitAll(completions);
+    }
+
+    private void finishBatch(List<ClaimedFile> files, ProcessedFileLedger.Entry[] entries) {
+        if (ledger != null) {
+            ledger.recordAll(Arrays.asList(entries));
+        }
+        for (int i = 0; i < entries.length; i++) {
+            Path filePath = files.get(i).file();
+            if (entries[i].outcome() == ProcessedFileLedger.Outcome.FAILED) {
+                fileTracker.forget(filePath);
+            } else if (fileTracker.complete(filePath, entries[i].outcome() == ProcessedFileLedger.Outcome.REMOVED)) {
+                // Modified while being processed: pick up the new version
+                requeue(filePath);
             }
-        } catch (IOException e) {
-            logger.error("Error in post-processing file: {} for config: {}", filePath, configName, e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Archive/delete of a processed file failed. The claim is handed back and the file
+     * stays out of the ledger, so the next scan picks it up again instead of taking it
+     * for done while it still sits in the watched directory.
+     */
+    private void abandonPostProcessing(Path filePath, Path claimed, BasicFileAttributes attrs) {
+        claimStrategy.release(filePath, claimed, false, false);
+        fileTracker.forget(filePath);
+        if (ledger != null) {
+            ledger.record(filePath, attrs.size(), attrs.lastModifiedTime().toMillis(),
+                ProcessedFileLedger.Outcome.FAILED);
+        }
+    }
+
+    private static ProcessedFileLedger.Entry ledgerEntry(ClaimedFile file, ProcessedFileLedger.Outcome outcome) {
+        return new ProcessedFileLedger.Entry(file.file(), file.attrs().size(),
+            file.attrs().lastModifiedTime().toMillis(), outcome);
+    }
+
+    private void failFile(Path filePath, Path claimedPath, Throwable e) {
+        if (claimedPath != null) {
+            claimStrategy.release(filePath, claimedPath, false, false);
+        }
+        fileTracker.forget(filePath);
+        errorCount.incrementAndGet();
+        metrics.incrementErrors("FILESYSTEM-" + configName);
+        logger.error("Error processing file: {} for config: {}", filePath, configName, e);
+    }
+
+    private CompletableFuture<Void> skipped(Timer.Sample sample) {
+        metrics.stopTimer(sample, "FILESYSTEM-" + configName);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
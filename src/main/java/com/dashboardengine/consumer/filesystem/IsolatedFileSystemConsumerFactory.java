@@ -3,9 +3,11 @@ package com.dashboardengine.consumer.filesystem;
 import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
 import com.dashboardengine.consumer.core.MessageProcessor;
 import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Component
 public class IsolatedFileSystemConsumerFactory {
@@ -13,13 +15,23 @@ public class IsolatedFileSystemConsumerFactory {
     private final MessageProcessor<Path> messageProcessor;
     private final ProcessingMetrics metrics;
     private final FilePatternMatcher patternMatcher;
+    private final ScheduledExecutorService maintenanceScheduler;
+    private final FileClaimStrategyFactory claimStrategyFactory;
+    private final SharedProcessingScheduler sharedScheduler;
 
     public IsolatedFileSystemConsumerFactory(MessageProcessor<Path> messageProcessor,
                                             ProcessingMetrics metrics,
-                                            FilePatternMatcher patternMatcher) {
+                                            FilePatternMatcher patternMatcher,
+                                            @Qualifier("filesystemMaintenanceScheduler")
+                                            ScheduledExecutorService maintenanceScheduler,
+                                            FileClaimStrategyFactory claimStrategyFactory,
+                                            SharedProcessingScheduler sharedScheduler) {
         this.messageProcessor = messageProcessor;
         this.metrics = metrics;
         this.patternMatcher = patternMatcher;
+        this.maintenanceScheduler = maintenanceScheduler;
+        this.claimStrategyFactory = claimStrategyFactory;
+        this.sharedScheduler = sharedScheduler;
     }
 
     public IsolatedFileSystemConsumer createConsumer(String configName, FileSystemConfigDto config) {
@@ -28,7 +40,10 @@ public class IsolatedFileSystemConsumerFactory {
             config,
             messageProcessor,
             metrics,
-            patternMatcher
+            patternMatcher,
+            maintenanceScheduler,
+            claimStrategyFactory.create(configName, config),
+            sharedScheduler
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.leadership.FileClaimRecord;
+import com.dashboardengine.consumer.leadership.FileClaimRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims a file version with a row in the {@code file_claims} lease table. A claim is an
+ * insert keyed by a hash of (config, path), so concurrent inserts from several instances
+ * leave exactly one winner; an existing row is only taken over by a conditional update
+ * (expired lease, or a completed row for a different version). Files stay in place, which
+ * suits read-only shares and processors that need the original location.
+ *
+ * <p>Held leases are renewed by {@link #maintain()}; a crashed instance's claims become
+ * available once their lease expires.
+ */
+public class LeaseClaimStrategy implements FileClaimStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseClaimStrategy.class);
+
+    private final String configName;
+    private final FileClaimRepository repository;
+    private final ShardAssignment shards;
+    private final Duration leaseDuration;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    public LeaseClaimStrategy(String configName, FileClaimRepository repository,
+                              ShardAssignment shards, Duration leaseDuration) {
+        this.configName = configName;
+        this.repository = repository;
+        this.shards = shards;
+        this.leaseDuration = leaseDuration;
+    }
+
+    @Override
+    public Path claim(Path file, long size, long lastModified) {
+        String key = claimKey(file);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(leaseDuration);
+
+        FileClaimRecord record = new FileClaimRecord();
+        record.setClaimKey(key);
+        record.setConfigName(configName);
+        record.setFilePath(file.toString());
+        record.setOwnerId(shards.getInstanceId());
+        record.setFileSize(size);
+        record.setLastModified(lastModified);
+        record.setStatus(FileClaimRecord.Status.CLAIMED);
+        record.setExpiresAt(expiresAt);
+        try {
+            repository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            int updated = repository.takeOver(key, shards.getInstanceId(), size, lastModified, expiresAt, now,
+                FileClaimRecord.Status.CLAIMED, FileClaimRecord.Status.COMPLETED);
+            if (updated == 0) {
+                return null;
+            }
+        }
+        held.add(key);
+        return file;
+    }
+
+    @Override
+    public void release(Path file, Path claimed, boolean success, boolean removed) {
+        String key = claimKey(file);
+        held.remove(key);
+        try {
+            if (success && !removed) {
+                repository.markCompleted(key, shards.getInstanceId(), FileClaimRecord.Status.COMPLETED);
+            } else {
+                repository.deleteOwned(key, shards.getInstanceId());
+            }
+        } catch (DataAccessException e) {
+            // The lease expires on its own
+            logger.error("Error releasing claim for file: {} config: {}", file, configName, e);
+        }
+    }
+
+    @Override
+    public boolean isPreferred(Path file) {
+        return shards.isLocal(file.getFileName().toString());
+    }
+
+    @Override
+    public void maintain() {
+        if (held.isEmpty()) {
+            return;
+        }
+        try {
+            repository.renew(configName, shards.getInstanceId(), LocalDateTime.now().plus(leaseDuration),
+                FileClaimRecord.Status.CLAIMED);
+        } catch (DataAccessException e) {
+            logger.error("Error renewing {} claims for config: {}", held.size(), configName, e);
+        }
+    }
+
+    int getHeldCount() {
+        return held.size();
+    }
+
+    private String claimKey(Path file) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(configName.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
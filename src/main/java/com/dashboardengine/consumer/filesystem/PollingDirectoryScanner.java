@@ -0,0 +1,136 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Predicate;
+
+/**
+ * Detects new, modified and removed files by listing a directory periodically and
+ * diffing against a {@link DirectorySnapshot}. Used instead of the WatchService on
+ * NFS/SMB mounts, where changes made by remote writers never raise watch events.
+ *
+ * <p>The directory is streamed entry by entry, names rejected by the filter are never
+ * stat'ed, and the poll interval adapts to the arrival rate: it halves after a scan
+ * that found changes and grows by half after an idle scan, within
+ * [{@code baseIntervalMs / 4}, {@code baseIntervalMs * 4}].
+ */
+public class PollingDirectoryScanner {
+
+    public interface Listener {
+
+        void onChanged(Path file, BasicFileAttributes attrs);
+
+        void onRemoved(Path file);
+    }
+
+    public record ScanResult(int scanned, int added, int modified, int removed, long durationMs) {
+
+        public boolean hasChanges() {
+            return added > 0 || modified > 0;
+        }
+    }
+
+    private static final long MIN_INTERVAL_MS = 250;
+
+    private final Path directory;
+    private final Predicate<Path> filter;
+    private final Listener listener;
+    private final DirectorySnapshot snapshot = new DirectorySnapshot();
+    private volatile long minIntervalMs;
+    private volatile long maxIntervalMs;
+    private volatile long currentIntervalMs;
+
+    public PollingDirectoryScanner(Path directory, long baseIntervalMs, Predicate<Path> filter, Listener listener) {
+        this.directory = directory;
+        this.filter = filter;
+        this.listener = listener;
+        setBaseInterval(baseIntervalMs);
+    }
+
+    public void setBaseInterval(long baseIntervalMs) {
+        this.minIntervalMs = Math.max(MIN_INTERVAL_MS, baseIntervalMs / 4);
+        this.maxIntervalMs = Math.max(minIntervalMs, baseIntervalMs * 4);
+        this.currentIntervalMs = Math.max(minIntervalMs, Math.min(maxIntervalMs, baseIntervalMs));
+    }
+
+    /**
+     * Records the current directory contents without reporting them, so files already
+     * handled by the startup scan are not reported again.
+     */
+    public ScanResult prime() throws IOException {
+        return scan(false);
+    }
+
+    public ScanResult scan() throws IOException {
+        ScanResult result = scan(true);
+        adaptInterval(result);
+        return result;
+    }
+
+    private ScanResult scan(boolean notify) throws IOException {
+        long start = System.currentTimeMillis();
+        int scanned = 0;
+        int added = 0;
+        int modified = 0;
+
+        snapshot.beginScan();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (!filter.test(entry)) {
+                    continue;
+                }
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue; // removed while listing
+                }
+                if (!attrs.isRegularFile()) {
+                    continue;
+                }
+                scanned++;
+                DirectorySnapshot.Change change = snapshot.update(
+                    entry.getFileName().toString(), attrs.size(), attrs.lastModifiedTime().toMillis());
+                if (change == DirectorySnapshot.Change.UNCHANGED) {
+                    continue;
+                }
+                if (change == DirectorySnapshot.Change.ADDED) {
+                    added++;
+                } else {
+                    modified++;
+                }
+                if (notify) {
+                    listener.onChanged(entry, attrs);
+                }
+            }
+        }
+        int removed = snapshot.removeUnseen(name -> {
+            if (notify) {
+                listener.onRemoved(directory.resolve(name));
+            }
+        });
+        return new ScanResult(scanned, added, modified, removed, System.currentTimeMillis() - start);
+    }
+
+    private void adaptInterval(ScanResult result) {
+        long interval = currentIntervalMs;
+        if (result.hasChanges()) {
+            interval = interval / 2;
+        } else {
+            interval = interval + interval / 2;
+        }
+        currentIntervalMs = Math.max(minIntervalMs, Math.min(maxIntervalMs, interval));
+    }
+
+    public long getCurrentIntervalMs() {
+        return currentIntervalMs;
+    }
+
+    public int getSnapshotSize() {
+        return snapshot.size();
+    }
+}
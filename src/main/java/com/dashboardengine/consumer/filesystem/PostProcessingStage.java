@@ -0,0 +1,375 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Archives or deletes processed files off the processing threads, so a worker is free
+ * for the next file as soon as parsing ends.
+ *
+ * <p>Requests are queued and drained in batches of up to {@value #MAX_BATCH} by a single
+ * on-demand worker (no thread is kept while idle). Created archive directories are
+ * cached, the archive can be partitioned by day or hour so no directory grows without
+ * bound, and moves pick the cheapest mechanism per target directory: an atomic rename,
+ * a hard link when rename is refused on the same file store, and for cross-device
+ * targets a zero-copy {@link FileChannel#transferTo}. Links and copies are made under a
+ * temporary name and renamed into place.
+ */
+public class PostProcessingStage {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostProcessingStage.class);
+
+    static final int MAX_BATCH = 256;
+    private static final int MAX_CACHED_DIRECTORIES = 1024;
+    private static final DateTimeFormatter DAILY = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+    private static final DateTimeFormatter HOURLY = DateTimeFormatter.ofPattern("yyyy/MM/dd/HH");
+
+    /**
+     * What became of a processed file.
+     */
+    public enum Outcome {
+        /** Archived or deleted; the file is no longer in the watched directory. */
+        REMOVED,
+        /** Nothing to do, the file stays where it is. */
+        KEPT,
+        /** Archive/delete failed; the file may still be in the watched directory. */
+        FAILED
+    }
+
+    /**
+     * Called once the file has been handled.
+     */
+    public interface Completion {
+
+        void done(Outcome outcome);
+    }
+
+    enum MoveStrategy {
+        RENAME,
+        LINK,
+        COPY
+    }
+
+    private record Request(Path file, LocalDateTime completedAt, Completion completion) {}
+
+    /**
+     * Archive/delete settings, replaced as a whole on reconfiguration.
+     */
+    private record Target(FileSystemConfigDto config, Path archiveRoot) {
+
+        static Target of(FileSystemConfigDto config) {
+            return new Target(config, config.getArchiveDir() != null ? Paths.get(config.getArchiveDir()) : null);
+        }
+    }
+
+    private final String configName;
+    private volatile Target target;
+    private final Function<Path, Path> markerFor;
+    private final ProcessingMetrics metrics;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+    private final Map<Path, MoveStrategy> moveStrategies = new ConcurrentHashMap<>();
+
+    public PostProcessingStage(String configName, FileSystemConfigDto config,
+                               Function<Path, Path> markerFor, ProcessingMetrics metrics) {
+        this(configName, config, markerFor, metrics, Clock.systemDefaultZone());
+    }
+
+    PostProcessingStage(String configName, FileSystemConfigDto config,
+                        Function<Path, Path> markerFor, ProcessingMetrics metrics, Clock clock) {
+        this.configName = configName;
+        this.target = Target.of(config);
+        this.markerFor = markerFor;
+        this.metrics = metrics;
+        this.clock = clock;
+        this.executor = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            r -> new Thread(r, "FilePost-" + configName));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues a processed file for archive/delete. When there is nothing to do the
+     * completion runs immediately on the calling thread.
+     */
+    public void submit(Path file, Completion completion) {
+        Target current = target;
+        if (!current.config().isDeleteAfterProcess() && current.archiveRoot() == null && markerFor.apply(file) == null) {
+            completion.done(Outcome.KEPT);
+            return;
+        }
+        pending.add(new Request(file, LocalDateTime.now(clock), completion));
+        pendingCount.incrementAndGet();
+        startDraining();
+    }
+
+    /**
+     * Queues a batch of processed files, in iteration order. They share one completion
+     * time, so they land in the same archive partition, and wake the worker at most once.
+     */
+    public void submitAll(Map<Path, Completion> files) {
+        Target current = target;
+        LocalDateTime completedAt = LocalDateTime.now(clock);
+        int queued = 0;
+        for (Map.Entry<Path, Completion> file : files.entrySet()) {
+            if (!current.config().isDeleteAfterProcess() && current.archiveRoot() == null
+                    && markerFor.apply(file.getKey()) == null) {
+                file.getValue().done(Outcome.KEPT);
+            } else {
+                pending.add(new Request(file.getKey(), completedAt, file.getValue()));
+                queued++;
+            }
+        }
+        if (queued > 0) {
+            pendingCount.addAndGet(queued);
+            startDraining();
+        }
+    }
+
+    private void startDraining() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Switches archive/delete settings; requests not yet handled use the new ones.
+     */
+    public void reconfigure(FileSystemConfigDto config) {
+        this.target = Target.of(config);
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Finishes queued requests and stops the worker.
+     */
+    public void shutdown() {
+        shutdown(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Finishes queued requests until the timeout and stops the worker.
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                logger.warn("Post-processing of {} files did not finish for: {}", pendingCount.get(), configName);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            Request request;
+            while (batch.size() < MAX_BATCH && (request = pending.poll()) != null) {
+                batch.add(request);
+            }
+            if (batch.isEmpty()) {
+                draining.set(false);
+                // A submit may have slipped in between the last poll and the reset
+                if (pending.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            for (Request next : batch) {
+                Outcome outcome = handle(next);
+                pendingCount.decrementAndGet();
+                try {
+                    next.completion().done(outcome);
+                } catch (RuntimeException e) {
+                    logger.error("Error completing post-processed file: {} for config: {}", next.file(), configName, e);
+                }
+            }
+            metrics.recordPostProcessingBatch("FILESYSTEM-" + configName, batch.size(),
+                (System.nanoTime() - start) / 1_000_000);
+            batch.clear();
+        }
+    }
+
+    private Outcome handle(Request request) {
+        Path filePath = request.file();
+        Target current = target;
+        try {
+            Path marker = markerFor.apply(filePath);
+            if (marker != null) {
+                Files.deleteIfExists(marker);
+            }
+
+            if (current.config().isDeleteAfterProcess()) {
+                Files.deleteIfExists(filePath);
+                logger.debug("Deleted processed file: {} for config: {}", filePath, configName);
+                return Outcome.REMOVED;
+            } else if (current.archiveRoot() != null) {
+                Path archiveDir = archiveDirectory(current, request.completedAt());
+                ensureDirectory(archiveDir);
+
+                Path targetPath = archiveDir.resolve(filePath.getFileName());
+                move(filePath, targetPath);
+                logger.debug("Archived processed file: {} -> {} for config: {}",
+                            filePath, targetPath, configName);
+                return Outcome.REMOVED;
+            }
+        } catch (IOException e) {
+            metrics.incrementPostProcessingErrors("FILESYSTEM-" + configName);
+            logger.error("Error in post-processing file: {} for config: {}", filePath, configName, e);
+            return Outcome.FAILED;
+        }
+        return Outcome.KEPT;
+    }
+
+    Path archiveDirectory(LocalDateTime completedAt) {
+        return archiveDirectory(target, completedAt);
+    }
+
+    private static Path archiveDirectory(Target target, LocalDateTime completedAt) {
+        Path archiveRoot = target.archiveRoot();
+        FileSystemConfigDto.ArchiveLayout layout = target.config().getArchiveLayout();
+        if (layout == FileSystemConfigDto.ArchiveLayout.DAILY) {
+            return archiveRoot.resolve(completedAt.format(DAILY));
+        }
+        if (layout == FileSystemConfigDto.ArchiveLayout.HOURLY) {
+            return archiveRoot.resolve(completedAt.format(HOURLY));
+        }
+        return archiveRoot;
+    }
+
+    private void ensureDirectory(Path directory) throws IOException {
+        if (createdDirectories.contains(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        if (createdDirectories.size() >= MAX_CACHED_DIRECTORIES) {
+            // Old partitions are not written again
+            createdDirectories.clear();
+            moveStrategies.clear();
+        }
+        createdDirectories.add(directory);
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        Path directory = target.getParent();
+        MoveStrategy strategy = moveStrategies.getOrDefault(directory, MoveStrategy.RENAME);
+
+        if (strategy == MoveStrategy.RENAME) {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (AtomicMoveNotSupportedException e) {
+                // Usually another device, which links cannot cross either
+                strategy = isSameStore(source, directory) ? MoveStrategy.LINK : MoveStrategy.COPY;
+            }
+        }
+        if (strategy == MoveStrategy.LINK) {
+            if (link(source, target)) {
+                moveStrategies.put(directory, MoveStrategy.LINK);
+                return;
+            }
+            strategy = MoveStrategy.COPY;
+        }
+        if (moveStrategies.put(directory, strategy) != strategy) {
+            logger.info("Archive directory {} is on another device, copying with transferTo for config: {}",
+                       directory, configName);
+        }
+        transferCopy(source, target);
+        Files.delete(source);
+    }
+
+    private static boolean isSameStore(Path source, Path directory) {
+        try {
+            return Files.getFileStore(source).equals(Files.getFileStore(directory));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hard-links the source into a temporary sibling and renames that over the target,
+     * so an existing archived file is only replaced once the link exists.
+     *
+     * @return false if the file system cannot link the two paths; nothing was changed
+     */
+    static boolean link(Path source, Path target) throws IOException {
+        Path linked = target.resolveSibling(target.getFileName() + ".link");
+        try {
+            Files.deleteIfExists(linked);
+            Files.createLink(linked, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            return false;
+        }
+        try {
+            Files.move(linked, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(linked);
+            throw e;
+        }
+        Files.delete(source);
+        return true;
+    }
+
+    /**
+     * Copies with {@link FileChannel#transferTo} (sendfile/copy_file_range where the OS
+     * supports it) into a temporary sibling, forces it to disk and renames it into place,
+     * so a reader of the archive never sees a partial file.
+     */
+    static void transferCopy(Path source, Path target) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(true);
+        }
+        Files.setLastModifiedTime(partial, Files.getLastModifiedTime(source));
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    MoveStrategy getMoveStrategy(Path directory) {
+        return moveStrategies.getOrDefault(directory, MoveStrategy.RENAME);
+    }
+}
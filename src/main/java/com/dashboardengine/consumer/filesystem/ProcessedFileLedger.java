@@ -0,0 +1,403 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Durable, append-only record of processed files for one configuration, so a restart
+ * does not reprocess files that stay in place (no archive/delete).
+ *
+ * <p>Journal layout: an 8 byte header ({@code "DLGR"} + version) followed by records
+ * {@code [int pathLength][path UTF-8][long size][long mtime][byte outcome]}. Appends
+ * are buffered and written by {@link #flush()}. A torn record at the tail (crash
+ * mid-write) is truncated on load.
+ *
+ * <p>Lookups use an in-memory open-addressing index from a 64-bit path hash to a
+ * (size, mtime) signature, about 32 bytes per entry, so checking 1M files at startup
+ * is O(1) per file. Only successful outcomes are indexed; a failure or removal drops
+ * the entry so the file is retried. The journal is compacted when superseded
+ * records outnumber live ones.
+ */
+public class ProcessedFileLedger implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessedFileLedger.class);
+
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        REMOVED
+    }
+
+    /**
+     * One file version and its outcome, for {@link #recordAll}.
+     */
+    public record Entry(Path file, long size, long lastModified, Outcome outcome) {}
+
+    private static final int MAGIC = 0x444C4752; // "DLGR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final long MIN_COMPACTION_RECORDS = 10_000;
+
+    private final Path journalPath;
+    private final LongIndex index = new LongIndex();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private FileChannel channel;
+    private long journalRecords;
+
+    private ProcessedFileLedger(Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * Opens (or creates) the journal and loads its index.
+     */
+    public static ProcessedFileLedger open(Path journalPath) throws IOException {
+        ProcessedFileLedger ledger = new ProcessedFileLedger(journalPath);
+        ledger.load();
+        return ledger;
+    }
+
+    public synchronized boolean isCompleted(Path file, long size, long lastModified) {
+        return index.get(pathHash(file)) == signature(size, lastModified);
+    }
+
+    /**
+     * @throws IllegalStateException if the ledger is closed; the outcome would be lost
+     */
+    public synchronized void record(Path file, long size, long lastModified, Outcome outcome) {
+        ensureOpen();
+        recordEntry(file, size, lastModified, outcome);
+    }
+
+    /**
+     * Records the outcomes of a batch of files under a single lock acquisition.
+     *
+     * @throws IllegalStateException if the ledger is closed; the outcomes would be lost
+     */
+    public synchronized void recordAll(List<Entry> entries) {
+        ensureOpen();
+        for (Entry entry : entries) {
+            recordEntry(entry.file(), entry.size(), entry.lastModified(), entry.outcome());
+        }
+    }
+
+    private void ensureOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("Ledger is closed: " + journalPath);
+        }
+    }
+
+    private void recordEntry(Path file, long size, long lastModified, Outcome outcome) {
+        long hash = pathHash(file);
+        if (outcome == Outcome.SUCCESS) {
+            index.put(hash, signature(size, lastModified));
+        } else if (!index.remove(hash) && outcome == Outcome.REMOVED) {
+            return; // nothing to forget, keep the journal small
+        }
+        append(file.toString(), size, lastModified, outcome);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Writes buffered records to disk and compacts the journal when it has grown to
+     * more than twice the number of live entries.
+     */
+    public synchronized void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        drainBuffer();
+        channel.force(false);
+        if (journalRecords > MIN_COMPACTION_RECORDS && journalRecords > 2L * index.size()) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            drainBuffer();
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(journalPath.toAbsolutePath().getParent());
+        long validLength = HEADER_BYTES;
+        if (Files.exists(journalPath) && Files.size(journalPath) >= HEADER_BYTES) {
+            validLength = replay(journalPath, (path, size, mtime, outcome) -> {
+                long hash = pathHash(path);
+                if (outcome == Outcome.SUCCESS) {
+                    index.put(hash, signature(size, mtime));
+                } else {
+                    index.remove(hash);
+                }
+                journalRecords++;
+            });
+        } else {
+            writeHeader(journalPath);
+        }
+
+        channel = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+        if (channel.size() > validLength) {
+            logger.warn("Truncating torn tail of ledger: {} at {} bytes", journalPath, validLength);
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        logger.info("Loaded ledger: {} ({} completed files, {} records)", journalPath, index.size(), journalRecords);
+    }
+
+    private interface RecordVisitor {
+        void visit(String path, long size, long lastModified, Outcome outcome) throws IOException;
+    }
+
+    /**
+     * Reads all complete records and returns the byte length they cover.
+     */
+    private static long replay(Path journal, RecordVisitor visitor) throws IOException {
+        try (InputStream file = Files.newInputStream(journal);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, BUFFER_BYTES))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a ledger journal: " + journal);
+            }
+            long offset = HEADER_BYTES;
+            byte[] pathBytes = new byte[256];
+            Outcome[] outcomes = Outcome.values();
+            while (true) {
+                try {
+                    int length = in.readInt();
+                    if (length < 0 || length > 65_536) {
+                        return offset;
+                    }
+                    if (pathBytes.length < length) {
+                        pathBytes = new byte[length];
+                    }
+                    in.readFully(pathBytes, 0, length);
+                    long size = in.readLong();
+                    long mtime = in.readLong();
+                    int outcome = in.readByte();
+                    if (outcome < 0 || outcome >= outcomes.length) {
+                        return offset;
+                    }
+                    visitor.visit(new String(pathBytes, 0, length, StandardCharsets.UTF_8), size, mtime, outcomes[outcome]);
+                    offset += 4 + length + 17;
+                } catch (EOFException e) {
+                    return offset;
+                }
+            }
+        }
+    }
+
+    private void append(String path, long size, long lastModified, Outcome outcome) {
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = 4 + bytes.length + 17;
+        try {
+            if (writeBuffer.remaining() < recordBytes) {
+                drainBuffer();
+            }
+            if (writeBuffer.remaining() < recordBytes) {
+                throw new IOException("Path too long for ledger: " + path);
+            }
+            writeBuffer.putInt(bytes.length).put(bytes).putLong(size).putLong(lastModified)
+                .put((byte) outcome.ordinal());
+            journalRecords++;
+        } catch (IOException e) {
+            // The index is still correct for this run; only durability is affected
+            logger.error("Error appending to ledger: {}", journalPath, e);
+        }
+    }
+
+    private void drainBuffer() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            channel.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void compact() throws IOException {
+        long start = System.currentTimeMillis();
+        Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+        writeHeader(compacted);
+
+        LongIndex written = new LongIndex();
+        long[] records = new long[1];
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            replay(journalPath, (path, size, mtime, outcome) -> {
+                long hash = pathHash(path);
+                long signature = signature(size, mtime);
+                if (outcome != Outcome.SUCCESS || index.get(hash) != signature || written.get(hash) == signature) {
+                    return;
+                }
+                byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 4 + bytes.length + 17) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                buffer.putInt(bytes.length).put(bytes).putLong(size).putLong(mtime).put((byte) outcome.ordinal());
+                written.put(hash, signature);
+                records[0]++;
+            });
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journalPath, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        logger.info("Compacted ledger: {} from {} to {} records in {}ms",
+                   journalPath, journalRecords, records[0], System.currentTimeMillis() - start);
+        journalRecords = records[0];
+    }
+
+    private static void writeHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(header);
+        }
+    }
+
+    private static long pathHash(Path file) {
+        return pathHash(file.toString());
+    }
+
+    private static long pathHash(String path) {
+        // FNV-1a 64 over UTF-16 code units
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < path.length(); i++) {
+            hash ^= path.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long signature(long size, long lastModified) {
+        long signature = size * 0x9E3779B97F4A7C15L ^ lastModified;
+        return signature == LongIndex.MISSING ? 1 : signature;
+    }
+
+    /**
+     * Open-addressing long -> long map with linear probing and backward-shift deletion.
+     */
+    private static final class LongIndex {
+
+        static final long MISSING = 0;
+
+        private long[] keys = new long[1024];
+        private long[] values = new long[1024];
+        private boolean[] used = new boolean[1024];
+        private int size;
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return MISSING;
+        }
+
+        void put(long key, long value) {
+            if (size + 1 > keys.length * 0.6) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (used[slot]) {
+                if (keys[slot] == key) {
+                    values[slot] = value;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        boolean remove(long key) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (!used[slot]) {
+                return false;
+            }
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (used[next]) {
+                int home = slot(keys[next], mask);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            used[hole] = false;
+            size--;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long mixed = key ^ (key >>> 32);
+            mixed *= 0x9E3779B97F4A7C15L;
+            return (int) (mixed >>> 32) & mask;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+/**
+ * One-shot scan that recovers files whose watch events were lost, e.g. after the
+ * kernel event queue overflowed. The directory is streamed (memory stays bounded),
+ * entries are paced to {@code maxEntriesPerSecond} so a recovery does not saturate a
+ * shared mount, and only files that are not already queued, running or completed
+ * are handed to the enqueue callback.
+ *
+ * <p>The scan can run in one call ({@link #run}, which sleeps to keep the pace) or a
+ * page at a time ({@link #scanPage}), with the caller waiting {@link #pageDelayMillis}
+ * between pages, so it can be driven by a scheduler without holding a thread. Not
+ * thread-safe; pages must not overlap.
+ */
+public class ReconciliationScanner implements AutoCloseable {
+
+    public record Result(long scanned, long enqueued, long durationMs) {}
+
+    private final Path directory;
+    private final int maxEntriesPerSecond;
+    private final int pageSize;
+    private final Predicate<Path> filter;
+    private final BiPredicate<Path, BasicFileAttributes> isKnown;
+    private final BiConsumer<Path, BasicFileAttributes> enqueue;
+
+    private DirectoryStream<Path> stream;
+    private Iterator<Path> entries;
+    private long startNanos;
+    private long endNanos;
+    private long scanned;
+    private long enqueued;
+    private boolean finished;
+
+    public ReconciliationScanner(Path directory, int maxEntriesPerSecond, Predicate<Path> filter,
+                                 BiPredicate<Path, BasicFileAttributes> isKnown,
+                                 BiConsumer<Path, BasicFileAttributes> enqueue) {
+        this.directory = directory;
+        this.maxEntriesPerSecond = Math.max(1, maxEntriesPerSecond);
+        this.pageSize = Math.max(1, this.maxEntriesPerSecond / 10);
+        this.filter = filter;
+        this.isKnown = isKnown;
+        this.enqueue = enqueue;
+    }
+
+    /**
+     * Scans the directory once.
+     *
+     * @param keepRunning checked between entries; the scan stops early when it returns false
+     */
+    public Result run(BooleanSupplier keepRunning) throws IOException, InterruptedException {
+        try {
+            while (scanPage(keepRunning)) {
+                Thread.sleep(pageDelayMillis());
+            }
+        } finally {
+            close();
+        }
+        return result();
+    }
+
+    /**
+     * Scans the next page of entries, opening the directory on the first call.
+     *
+     * @param keepRunning checked between entries; the scan ends early when it returns false
+     * @return false once the scan has ended, after which the directory is closed
+     */
+    public boolean scanPage(BooleanSupplier keepRunning) throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (entries == null) {
+            startNanos = System.nanoTime();
+            stream = Files.newDirectoryStream(directory);
+            entries = stream.iterator();
+        }
+        try {
+            for (int i = 0; i < pageSize; i++) {
+                if (!keepRunning.getAsBoolean() || !entries.hasNext()) {
+                    close();
+                    return false;
+                }
+                scanEntry(entries.next());
+            }
+        } catch (DirectoryIteratorException e) {
+            close();
+            throw e.getCause();
+        }
+        return true;
+    }
+
+    private void scanEntry(Path entry) throws IOException {
+        scanned++;
+        if (!filter.test(entry)) {
+            return;
+        }
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        if (attrs.isRegularFile() && !isKnown.test(entry, attrs)) {
+            enqueue.accept(entry, attrs);
+            enqueued++;
+        }
+    }
+
+    /**
+     * How long to wait before the next page to stay within the entry rate.
+     */
+    public long pageDelayMillis() {
+        long expectedMillis = scanned * 1000 / maxEntriesPerSecond;
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        return Math.max(0, expectedMillis - elapsedMillis);
+    }
+
+    /**
+     * Entries scanned so far; the duration runs until the scan ended.
+     */
+    public Result result() {
+        long end = finished ? endNanos : System.nanoTime();
+        return new Result(scanned, enqueued, entries == null ? 0 : (end - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Ends the scan and closes the directory.
+     */
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        endNanos = System.nanoTime();
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Claims a file by atomically renaming it into {@code .claimed/<instanceId>/} inside the
+ * watched directory. Only one rename of a given file can succeed, so this works on any
+ * shared file system with atomic rename (NFS included) and needs no database.
+ *
+ * <p>Files processed successfully but not archived or deleted are parked in
+ * {@code .processed/} so they are not claimed again; failed files are renamed back into
+ * the watched directory, where they stay like failed files of a single instance. Claims
+ * held by an instance that has been missing from the cluster for longer than the reclaim
+ * delay, or by this instance before a restart, are renamed back into the watched
+ * directory and picked up again like new files.
+ */
+public class RenameClaimStrategy implements FileClaimStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenameClaimStrategy.class);
+
+    static final String CLAIMED_DIRECTORY = ".claimed";
+    static final String PROCESSED_DIRECTORY = ".processed";
+
+    private final Path directory;
+    private final Path claimRoot;
+    private final Path ownClaims;
+    private final Path processedDirectory;
+    private final ShardAssignment shards;
+    private final Supplier<List<String>> liveMembers;
+    private final long reclaimAfterNanos;
+    private final Map<String, Long> missingSince = new HashMap<>();
+    private volatile boolean ownClaimsRecovered = false;
+
+    /**
+     * @param liveMembers current cluster members, or null while membership is not known yet
+     * @param reclaimAfter how long a member must stay missing before its claims are taken back;
+     *                     a member whose heartbeat is merely late is still processing them
+     */
+    public RenameClaimStrategy(Path directory, ShardAssignment shards, Supplier<List<String>> liveMembers,
+                               Duration reclaimAfter) {
+        this.directory = directory;
+        this.claimRoot = directory.resolve(CLAIMED_DIRECTORY);
+        this.ownClaims = claimRoot.resolve(shards.getInstanceId());
+        this.processedDirectory = directory.resolve(PROCESSED_DIRECTORY);
+        this.shards = shards;
+        this.liveMembers = liveMembers;
+        this.reclaimAfterNanos = reclaimAfter.toNanos();
+    }
+
+    @Override
+    public Path claim(Path file, long size, long lastModified) throws IOException {
+        Path target = ownClaims.resolve(directory.relativize(file));
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (NoSuchFileException e) {
+            // Renamed away by another instance first
+            return null;
+        }
+    }
+
+    @Override
+    public void release(Path file, Path claimed, boolean success, boolean removed) {
+        if (!success) {
+            returnFailed(file, claimed);
+            return;
+        }
+        if (removed) {
+            return;
+        }
+        Path target = processedDirectory.resolve(directory.relativize(file));
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(claimed, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Error moving claimed file: {} to: {}", claimed, target, e);
+        }
+    }
+
+    private void returnFailed(Path file, Path claimed) {
+        if (claimed.equals(file)) {
+            return;
+        }
+        try {
+            Files.move(claimed, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            // Nothing left to return
+        } catch (FileAlreadyExistsException e) {
+            logger.warn("Not returning failed file: {}, a new file with that name exists", claimed);
+        } catch (IOException e) {
+            logger.error("Error returning failed file: {} to: {}", claimed, file, e);
+        }
+    }
+
+    @Override
+    public boolean isPreferred(Path file) {
+        return shards.isLocal(file.getFileName().toString());
+    }
+
+    @Override
+    public boolean isInternal(Path path) {
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            return false;
+        }
+        String first = directory.relativize(path).getName(0).toString();
+        return first.equals(CLAIMED_DIRECTORY) || first.equals(PROCESSED_DIRECTORY);
+    }
+
+    @Override
+    public void maintain() {
+        if (!ownClaimsRecovered) {
+            // Anything still claimed by this instance id was interrupted by a restart
+            returnClaims(ownClaims);
+            ownClaimsRecovered = true;
+        }
+        List<String> live = liveMembers.get();
+        if (live == null || !Files.isDirectory(claimRoot)) {
+            return;
+        }
+        long now = System.nanoTime();
+        Set<String> missing = new HashSet<>();
+        try (DirectoryStream<Path> members = Files.newDirectoryStream(claimRoot)) {
+            for (Path member : members) {
+                String memberId = member.getFileName().toString();
+                if (member.equals(ownClaims) || live.contains(memberId)) {
+                    continue;
+                }
+                missing.add(memberId);
+                long since = missingSince.computeIfAbsent(memberId, id -> now);
+                if (now - since >= reclaimAfterNanos) {
+                    returnClaims(member);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Error listing claims in: {}", claimRoot, e);
+        }
+        // Members that came back start over
+        missingSince.keySet().retainAll(missing);
+    }
+
+    private void returnClaims(Path memberClaims) {
+        if (!Files.isDirectory(memberClaims)) {
+            return;
+        }
+        List<Path> files = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        try (Stream<Path> entries = Files.walk(memberClaims)) {
+            entries.forEach(entry -> (Files.isDirectory(entry) ? directories : files).add(entry));
+        } catch (IOException e) {
+            logger.warn("Error listing claims in: {}", memberClaims, e);
+            return;
+        }
+        int returned = 0;
+        for (Path file : files) {
+            Path target = directory.resolve(memberClaims.relativize(file));
+            try {
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                returned++;
+            } catch (NoSuchFileException e) {
+                // Returned by another instance
+            } catch (FileAlreadyExistsException e) {
+                logger.warn("Not returning claimed file: {}, a new file with that name exists", file);
+            } catch (IOException e) {
+                logger.warn("Error returning claimed file: {}", file, e);
+            }
+        }
+        if (!memberClaims.equals(ownClaims)) {
+            directories.sort(Comparator.reverseOrder());
+            for (Path dir : directories) {
+                try {
+                    Files.deleteIfExists(dir);
+                } catch (IOException e) {
+                    // Not empty or already gone
+                }
+            }
+        }
+        if (returned > 0) {
+            logger.info("Returned {} claimed files from: {} to: {}", returned, memberClaims, directory);
+        }
+    }
+}
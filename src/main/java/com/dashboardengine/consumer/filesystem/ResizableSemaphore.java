@@ -0,0 +1,41 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Semaphore whose total number of permits can be changed while permits are held.
+ * Shrinking takes effect as holders release; it never blocks the caller.
+ */
+class ResizableSemaphore extends Semaphore {
+
+    private static final long serialVersionUID = 1L;
+
+    private int permits;
+
+    ResizableSemaphore(int permits) {
+        super(permits, true);
+        this.permits = permits;
+    }
+
+    synchronized void resize(int newPermits) {
+        int delta = newPermits - permits;
+        if (delta > 0) {
+            release(delta);
+        } else if (delta < 0) {
+            reducePermits(-delta);
+        }
+        permits = newPermits;
+    }
+
+    synchronized int getPermits() {
+        return permits;
+    }
+
+    /**
+     * Permits currently held. After a shrink this may exceed {@link #getPermits()} until
+     * the holders release.
+     */
+    synchronized int getInUse() {
+        return permits - availablePermits();
+    }
+}
@@ -0,0 +1,70 @@
+package com.dashboardengine.consumer.filesystem;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Assigns file names to live instances with rendezvous (highest random weight) hashing:
+ * every instance computes the same owner from the same member list, and when an instance
+ * joins or leaves only the names it owned move.
+ */
+public class ShardAssignment {
+
+    private final String instanceId;
+    private final Supplier<List<String>> liveMembers;
+
+    /**
+     * @param liveMembers current cluster members; null or a single member makes every name local
+     */
+    public ShardAssignment(String instanceId, Supplier<List<String>> liveMembers) {
+        this.instanceId = instanceId;
+        this.liveMembers = liveMembers;
+    }
+
+    public boolean isLocal(String name) {
+        List<String> members = liveMembers.get();
+        if (members == null || members.size() <= 1) {
+            return true;
+        }
+        return instanceId.equals(ownerOf(name, members));
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    static String ownerOf(String name, List<String> members) {
+        long nameHash = hash(name);
+        String owner = null;
+        long best = 0;
+        for (String member : members) {
+            long weight = mix(nameHash ^ hash(member));
+            if (owner == null || Long.compareUnsigned(weight, best) > 0
+                || (weight == best && member.compareTo(owner) < 0)) {
+                owner = member;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a 64
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        // MurmurHash3 finalizer
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
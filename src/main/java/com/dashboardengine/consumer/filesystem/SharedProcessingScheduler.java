@@ -0,0 +1,361 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One thread pool shared by all filesystem consumers in {@code SHARED} execution mode,
+ * so threads left idle by a quiet configuration serve a busy one.
+ *
+ * <p>Each configuration gets a {@link Lane} with a weight and a min/max concurrency.
+ * Slots are handed out in this order:
+ * <ul>
+ *   <li>a lane below its reservation always gets a slot; reservations are held busy or
+ *       not, so a configuration that wakes up never waits for others. A lane's reservation
+ *       is its minimum, scaled down proportionally (rounding down) while the minimums of
+ *       all lanes exceed the parallelism, so any number of configurations can register</li>
+ *   <li>capacity beyond the reservations goes to the waiting lane with the lowest
+ *       running/weight ratio, up to the lane's maximum</li>
+ * </ul>
+ * Tasks run on a fixed {@link ThreadPoolExecutor} of {@code parallelism} threads, never
+ * more tasks than threads, so a task blocked on file I/O holds its slot and its thread
+ * but never leaves another lane's task queued inside the pool. Idle threads exit after
+ * a minute.
+ */
+public class SharedProcessingScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedProcessingScheduler.class);
+
+    private final int parallelism;
+    private final ThreadPoolExecutor pool;
+    private final ProcessingMetrics metrics;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Lane> lanes = new ArrayList<>();
+    private int running;
+    private int requestedMinimums;
+    private boolean reservationsScaled;
+    private long dispatchSequence;
+
+    public SharedProcessingScheduler(int parallelism, ProcessingMetrics metrics) {
+        this.parallelism = Math.max(1, parallelism);
+        this.metrics = metrics;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(this.parallelism, this.parallelism, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "FileShared-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Adds a lane for a configuration.
+     */
+    public Lane register(String name, int weight, int minConcurrency, int maxConcurrency) {
+        int max = Math.max(1, maxConcurrency);
+        int min = Math.max(0, Math.min(minConcurrency, max));
+        lock.lock();
+        try {
+            Lane lane = new Lane(name, Math.max(1, weight), min, max);
+            lanes.add(lane);
+            requestedMinimums += min;
+            rebalanceReservations();
+            if (metrics != null) {
+                metrics.registerSharedSchedulerLane("FILESYSTEM-" + name, lane,
+                    Lane::getRunningCount, Lane::getQueuedCount, Lane::getBusySeconds, Lane::getUtilization);
+            }
+            logger.info("Registered shared scheduler lane: {} (weight {}, min {}, max {})", name, lane.weight, min, max);
+            return lane;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getRunningCount() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Must be called with the lock held whenever a minimum or the set of lanes changes.
+     */
+    private void rebalanceReservations() {
+        boolean scaled = requestedMinimums > parallelism;
+        for (Lane lane : lanes) {
+            lane.reservation = scaled ? (int) ((long) lane.min * parallelism / requestedMinimums) : lane.min;
+        }
+        if (scaled && !reservationsScaled) {
+            logger.warn("Minimum concurrency of {} shared lanes ({}) exceeds the parallelism of {}, "
+                + "reservations scaled down", lanes.size(), requestedMinimums, parallelism);
+        }
+        reservationsScaled = scaled;
+    }
+
+    /**
+     * Must be called with the lock held.
+     */
+    private void dispatch() {
+        while (running < parallelism) {
+            Lane next = nextLane();
+            if (next == null) {
+                return;
+            }
+            Runnable task = next.pending.pollFirst();
+            next.running++;
+            next.lastDispatch = ++dispatchSequence;
+            running++;
+            try {
+                pool.execute(() -> run(next, task));
+            } catch (RejectedExecutionException e) {
+                next.running--;
+                running--;
+                next.pending.addFirst(task);
+                return;
+            }
+        }
+    }
+
+    private Lane nextLane() {
+        int unmetReservations = 0;
+        for (Lane lane : lanes) {
+            unmetReservations += Math.max(0, lane.reservation - lane.running);
+        }
+        boolean spareCapacity = parallelism - running > unmetReservations;
+
+        Lane best = null;
+        for (Lane lane : lanes) {
+            if (lane.pending.isEmpty() || lane.running >= lane.max) {
+                continue;
+            }
+            boolean guaranteed = lane.running < lane.reservation;
+            if (!guaranteed && !spareCapacity) {
+                continue;
+            }
+            if (best == null || compare(lane, best) < 0) {
+                best = lane;
+            }
+        }
+        return best;
+    }
+
+    private static int compare(Lane a, Lane b) {
+        boolean aGuaranteed = a.running < a.reservation;
+        boolean bGuaranteed = b.running < b.reservation;
+        if (aGuaranteed != bGuaranteed) {
+            return aGuaranteed ? -1 : 1;
+        }
+        // running/weight, cross-multiplied; ties go to the lane served least recently
+        int byShare = Long.compare((long) a.running * b.weight, (long) b.running * a.weight);
+        return byShare != 0 ? byShare : Long.compare(a.lastDispatch, b.lastDispatch);
+    }
+
+    private void run(Lane lane, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("Uncaught error in shared scheduler task for: {}", lane.name, e);
+        } finally {
+            lane.busyNanos.addAndGet(System.nanoTime() - start);
+            lock.lock();
+            try {
+                lane.running--;
+                running--;
+                if (lane.running == 0 && lane.pending.isEmpty()) {
+                    lane.idle.signalAll();
+                }
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A configuration's share of the scheduler. Tasks beyond the lane's current share
+     * wait in the lane, in submission order.
+     */
+    public final class Lane implements Executor {
+
+        private final String name;
+        private int weight;
+        private int min;
+        private int reservation;
+        private int max;
+        private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        private final Condition idle = lock.newCondition();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private int running;
+        private long lastDispatch;
+        private boolean closed;
+
+        private Lane(String name, int weight, int min, int max) {
+            this.name = name;
+            this.weight = weight;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new RejectedExecutionException("Shared scheduler lane closed: " + name);
+                }
+                pending.addLast(task);
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Changes the lane's weight and bounds. Running tasks above a lowered maximum
+         * finish normally.
+         */
+        public void update(int weight, int minConcurrency, int maxConcurrency) {
+            int newMax = Math.max(1, maxConcurrency);
+            int newMin = Math.max(0, Math.min(minConcurrency, newMax));
+            lock.lock();
+            try {
+                boolean registered = lanes.contains(this);
+                if (registered) {
+                    requestedMinimums += newMin - min;
+                }
+                this.weight = Math.max(1, weight);
+                this.min = newMin;
+                this.max = newMax;
+                if (registered) {
+                    rebalanceReservations();
+                }
+                dispatch();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getRunningCount() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Slots currently reserved for the lane: its minimum, or less while minimums are scaled down.
+         */
+        int getReservation() {
+            lock.lock();
+            try {
+                return reservation;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getQueuedCount() {
+            lock.lock();
+            try {
+                return pending.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Thread time spent running this lane's tasks; rate() of it divided by the
+         * parallelism is the lane's utilization of the shared pool.
+         */
+        public double getBusySeconds() {
+            return busyNanos.get() / 1e9;
+        }
+
+        /**
+         * Fraction of the shared pool currently running this lane's tasks.
+         */
+        public double getUtilization() {
+            return (double) getRunningCount() / parallelism;
+        }
+
+        /**
+         * Stops accepting tasks, waits for queued and running ones to finish and releases
+         * the lane's reservation.
+         *
+         * @return false if tasks were still queued or running when the timeout expired;
+         *         queued tasks are then dropped
+         */
+        public boolean close(long timeout, TimeUnit unit) {
+            long nanos = unit.toNanos(timeout);
+            lock.lock();
+            try {
+                closed = true;
+                while (running > 0 || !pending.isEmpty()) {
+                    if (nanos <= 0) {
+                        break;
+                    }
+                    nanos = idle.awaitNanos(nanos);
+                }
+                boolean drained = running == 0 && pending.isEmpty();
+                if (!drained) {
+                    logger.warn("Dropping {} queued tasks of shared scheduler lane: {} ({} still running)",
+                               pending.size(), name, running);
+                    pending.clear();
+                }
+                return drained;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.clear();
+                return false;
+            } finally {
+                if (lanes.remove(this)) {
+                    requestedMinimums -= min;
+                    rebalanceReservations();
+                    if (metrics != null) {
+                        metrics.removeSharedSchedulerLane("FILESYSTEM-" + name);
+                    }
+                }
+                // Released reservation may let other lanes grow
+                dispatch();
+                lock.unlock();
+            }
+        }
+    }
+}
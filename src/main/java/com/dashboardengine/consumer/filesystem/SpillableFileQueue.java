@@ -0,0 +1,295 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FIFO queue of file paths that holds at most {@code capacity} paths in memory.
+ * Anything beyond that is appended to segment files in a spill directory and
+ * read back in order as the in-memory part drains below half its capacity, so a
+ * burst of a million events costs disk space, not heap.
+ *
+ * <p>Once a spill has started, new paths also go to disk until the spilled entries
+ * have been read back, preserving arrival order. {@link #isSaturated()} tells
+ * producers that can defer work (directory scans, backlog paging) to hold off.
+ */
+public class SpillableFileQueue implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillableFileQueue.class);
+
+    static final int SEGMENT_ENTRIES = 65_536;
+    private static final String SEGMENT_SUFFIX = ".spill";
+
+    private record Segment(Path file, int entries) {}
+
+    private final int capacity;
+    private final int refillThreshold;
+    private final Path spillDirectory;
+    private final String segmentPrefix;
+    private final Runnable spillListener;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Path> memory = new ArrayDeque<>();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+    private DataOutputStream writer;
+    private Path writerSegment;
+    private int writerEntries;
+    private DataInputStream reader;
+    private Path readerSegment;
+    private int readerRemaining;
+    private long spilled;
+    private long totalSpilled;
+    private int segmentSequence;
+
+    /**
+     * @param segmentPrefix name of this queue's segments, {@code <prefix>.<n>.spill}; leftovers
+     *                      with exactly that prefix from a previous run are deleted
+     * @param spillListener  called for every path written to disk
+     */
+    public SpillableFileQueue(int capacity, Path spillDirectory, String segmentPrefix, Runnable spillListener) {
+        this.capacity = Math.max(1, capacity);
+        this.refillThreshold = this.capacity / 2;
+        this.spillDirectory = spillDirectory;
+        this.segmentPrefix = segmentPrefix;
+        this.spillListener = spillListener;
+        deleteSegments();
+    }
+
+    /**
+     * Adds a path, spilling it to disk when the in-memory part is full.
+     *
+     * @return false only if the path could not be spilled
+     */
+    public boolean offer(Path path) {
+        lock.lock();
+        try {
+            if (spilled == 0 && memory.size() < capacity) {
+                memory.addLast(path);
+            } else {
+                try {
+                    spill(path);
+                } catch (IOException e) {
+                    logger.error("Error spilling queued file to: {}, dropping: {}", spillDirectory, path, e);
+                    return false;
+                }
+            }
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (memory.isEmpty()) {
+                if (spilled > 0) {
+                    refill();
+                    if (!memory.isEmpty()) {
+                        break;
+                    }
+                }
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            Path path = memory.pollFirst();
+            if (spilled > 0 && memory.size() <= refillThreshold) {
+                refill();
+            }
+            return path;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Total number of queued paths, in memory and on disk.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, memory.size() + spilled);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSpilledCount() {
+        lock.lock();
+        try {
+            return spilled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTotalSpilledCount() {
+        lock.lock();
+        try {
+            return totalSpilled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True while the in-memory part is full or paths are waiting on disk.
+     */
+    public boolean isSaturated() {
+        lock.lock();
+        try {
+            return spilled > 0 || memory.size() >= capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            memory.clear();
+            closeQuietly(writer);
+            closeQuietly(reader);
+            writer = null;
+            reader = null;
+            segments.clear();
+            spilled = 0;
+            deleteSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void spill(Path path) throws IOException {
+        if (writer == null) {
+            Files.createDirectories(spillDirectory);
+            writerSegment = spillDirectory.resolve(segmentPrefix + "." + segmentSequence++ + SEGMENT_SUFFIX);
+            writer = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(writerSegment), 64 * 1024));
+            writerEntries = 0;
+        }
+        writer.writeUTF(path.toString());
+        writerEntries++;
+        spilled++;
+        totalSpilled++;
+        spillListener.run();
+        if (writerEntries >= SEGMENT_ENTRIES) {
+            rotateWriter();
+        }
+    }
+
+    private void rotateWriter() throws IOException {
+        try {
+            writer.close();
+        } finally {
+            writer = null;
+            segments.addLast(new Segment(writerSegment, writerEntries));
+        }
+    }
+
+    private void refill() {
+        while (memory.size() < capacity && spilled > 0) {
+            try {
+                if (reader == null && !openNextSegment()) {
+                    return;
+                }
+                memory.addLast(Path.of(reader.readUTF()));
+                spilled--;
+                if (--readerRemaining == 0) {
+                    finishSegment();
+                }
+            } catch (IOException e) {
+                // Unreadable segment: skip it so the queue keeps moving
+                logger.error("Error reading spilled queue segment: {}, lost {} queued files",
+                            readerSegment, readerRemaining, e);
+                spilled -= readerRemaining;
+                readerRemaining = 0;
+                finishSegment();
+            }
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        if (segments.isEmpty() && writer != null) {
+            // Everything left is in the segment being written; seal it so it can be read
+            rotateWriter();
+        }
+        Segment next = segments.pollFirst();
+        if (next == null) {
+            return false;
+        }
+        readerSegment = next.file();
+        readerRemaining = next.entries();
+        reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(readerSegment), 64 * 1024));
+        return true;
+    }
+
+    private void finishSegment() {
+        closeQuietly(reader);
+        reader = null;
+        if (readerSegment == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(readerSegment);
+        } catch (IOException e) {
+            logger.warn("Error deleting spilled queue segment: {}", readerSegment, e);
+        }
+    }
+
+    private void deleteSegments() {
+        if (!Files.isDirectory(spillDirectory)) {
+            return;
+        }
+        // Queues share the directory: "orders" must not match the segments of "orders-eu"
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDirectory, this::isOwnSegment)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            logger.warn("Error deleting spilled queue segments in: {}", spillDirectory, e);
+        }
+    }
+
+    private boolean isOwnSegment(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(segmentPrefix + ".") || !name.endsWith(SEGMENT_SUFFIX)) {
+            return false;
+        }
+        String sequence = name.substring(segmentPrefix.length() + 1, name.length() - SEGMENT_SUFFIX.length());
+        return !sequence.isEmpty() && sequence.chars().allMatch(Character::isDigit);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Segment is deleted anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates thread-per-task executors backed by virtual threads when the running JVM
+ * supports them (Java 21+). The project still targets Java 17, so the virtual thread
+ * API is looked up reflectively; on older runtimes an on-demand platform thread
+ * executor with no core threads is returned instead.
+ */
+public final class VirtualThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            logger.info("Virtual threads not available on Java {}, using on-demand platform threads",
+                       Runtime.version().feature());
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    private VirtualThreads() {}
+
+    public static boolean isAvailable() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Returns an executor that starts a new thread for every task. Threads are named
+     * {@code namePrefix-N}.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (isAvailable()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix + "-", 0L);
+                ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Failed to create virtual thread executor for: {}, falling back", namePrefix, e);
+            }
+        }
+
+        AtomicLong counter = new AtomicLong();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, namePrefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,8 +1,8 @@
 package com.dashboardengine.consumer.health;
 
 import com.dashboardengine.consumer.core.SourceAdapter;
-import org.springframework.boot.actuator.health.Health;
-import org.springframework.boot.actuator.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -0,0 +1,12 @@
+package com.dashboardengine.consumer.leadership;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClusterMemberRepository extends JpaRepository<ClusterMemberRecord, String> {
+    List<ClusterMemberRecord> findByLastHeartbeatAfter(LocalDateTime since);
+}
\ No newline at end of file
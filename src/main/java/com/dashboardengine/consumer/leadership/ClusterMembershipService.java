@@ -0,0 +1,99 @@
+package com.dashboardengine.consumer.leadership;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tracks which instances are alive through a heartbeat table, so filesystem consumers
+ * on a shared volume can shard files between them and recover the claims of instances
+ * that left the cluster.
+ */
+@Service
+public class ClusterMembershipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembershipService.class);
+    
+    private final ClusterMemberRepository repository;
+    private final ApplicationProperties.Cluster properties;
+    private final String instanceId;
+    private volatile List<String> liveMembers;
+    private volatile boolean initialized = false;
+
+    public ClusterMembershipService(ClusterMemberRepository repository, ApplicationProperties applicationProperties) {
+        this.repository = repository;
+        this.properties = applicationProperties.getCluster();
+        this.instanceId = resolveInstanceId(properties.getInstanceId());
+        this.liveMembers = List.of(instanceId);
+        logger.info("Cluster membership initialized with instance ID: {}", instanceId);
+    }
+
+    private static String resolveInstanceId(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        // Stable across restarts on Kubernetes, so an instance can recover its own claims
+        String hostname = System.getenv("HOSTNAME");
+        return hostname != null && !hostname.isBlank() ? hostname : UUID.randomUUID().toString();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeat-interval-ms:5000}")
+    @Transactional
+    public void heartbeat() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            ClusterMemberRecord self = repository.findById(instanceId).orElseGet(() -> {
+                ClusterMemberRecord record = new ClusterMemberRecord();
+                record.setInstanceId(instanceId);
+                return record;
+            });
+            self.setLastHeartbeat(now);
+            repository.save(self);
+            
+            List<String> live = new ArrayList<>();
+            for (ClusterMemberRecord member : repository.findByLastHeartbeatAfter(
+                    now.minusNanos(properties.getMemberTimeoutMs() * 1_000_000L))) {
+                live.add(member.getInstanceId());
+            }
+            if (!live.contains(instanceId)) {
+                live.add(instanceId);
+            }
+            live.sort(null);
+            
+            if (!live.equals(liveMembers)) {
+                logger.info("Cluster membership changed: {}", live);
+            }
+            liveMembers = List.copyOf(live);
+            initialized = true;
+        } catch (Exception e) {
+            logger.error("Error maintaining cluster membership", e);
+        }
+    }
+
+    /**
+     * Sorted ids of the instances with a recent heartbeat, including this one.
+     */
+    public List<String> getLiveMembers() {
+        return liveMembers;
+    }
+
+    /**
+     * False until the first heartbeat has read the member table; until then other
+     * instances must not be considered gone.
+     */
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.dashboardengine.consumer.leadership;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Lease on one version (size, mtime) of a file, shared by all instances watching the
+ * same directory. A CLAIMED row is owned until it expires; a COMPLETED row keeps other
+ * instances from processing the same version of a file that was left in place.
+ */
+@Entity
+@Table(name = "file_claims")
+public class FileClaimRecord {
+
+    public enum Status {
+        CLAIMED,
+        COMPLETED
+    }
+
+    @Id
+    @Column(name = "claim_key", length = 64)
+    private String claimKey;
+
+    @Column(name = "config_name")
+    private String configName;
+
+    @Column(name = "file_path", length = 1024)
+    private String filePath;
+
+    @Column(name = "owner_id")
+    private String ownerId;
+
+    @Column(name = "file_size")
+    private long fileSize;
+
+    @Column(name = "last_modified")
+    private long lastModified;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public String getClaimKey() {
+        return claimKey;
+    }
+
+    public void setClaimKey(String claimKey) {
+        this.claimKey = claimKey;
+    }
+
+    public String getConfigName() {
+        return configName;
+    }
+
+    public void setConfigName(String configName) {
+        this.configName = configName;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
\ No newline at end of file
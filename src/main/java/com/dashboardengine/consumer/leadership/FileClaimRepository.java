@@ -0,0 +1,56 @@
+package com.dashboardengine.consumer.leadership;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conditional statements backing the lease claim strategy. New claims are plain inserts
+ * (the primary key makes them conditional); everything else only touches a row when its
+ * state still allows it, so concurrent instances never both succeed.
+ */
+@Repository
+public interface FileClaimRepository extends JpaRepository<FileClaimRecord, String> {
+
+    /**
+     * Takes over an existing row if its lease expired, it belongs to this instance (left
+     * over from before a restart), or it completed a different version of the file.
+     */
+    @Modifying
+    @Transactional
+    @Query("update FileClaimRecord c set c.ownerId = :owner, c.fileSize = :size, c.lastModified = :lastModified, "
+         + "c.status = :claimed, c.expiresAt = :expiresAt, c.version = c.version + 1 "
+         + "where c.claimKey = :claimKey and ("
+         + "(c.status = :claimed and (c.expiresAt < :now or c.ownerId = :owner)) "
+         + "or (c.status = :completed and (c.fileSize <> :size or c.lastModified <> :lastModified)))")
+    int takeOver(@Param("claimKey") String claimKey, @Param("owner") String owner,
+                 @Param("size") long size, @Param("lastModified") long lastModified,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now,
+                 @Param("claimed") FileClaimRecord.Status claimed,
+                 @Param("completed") FileClaimRecord.Status completed);
+
+    @Modifying
+    @Transactional
+    @Query("update FileClaimRecord c set c.status = :completed, c.version = c.version + 1 "
+         + "where c.claimKey = :claimKey and c.ownerId = :owner")
+    int markCompleted(@Param("claimKey") String claimKey, @Param("owner") String owner,
+                      @Param("completed") FileClaimRecord.Status completed);
+
+    @Modifying
+    @Transactional
+    @Query("delete from FileClaimRecord c where c.claimKey = :claimKey and c.ownerId = :owner")
+    int deleteOwned(@Param("claimKey") String claimKey, @Param("owner") String owner);
+
+    @Modifying
+    @Transactional
+    @Query("update FileClaimRecord c set c.expiresAt = :expiresAt "
+         + "where c.configName = :configName and c.ownerId = :owner and c.status = :claimed")
+    int renew(@Param("configName") String configName, @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("claimed") FileClaimRecord.Status claimed);
+}
\ No newline at end of file
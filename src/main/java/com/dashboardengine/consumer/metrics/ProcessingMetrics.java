@@ -1,12 +1,19 @@
 package com.dashboardengine.consumer.metrics;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 @Component
 public class ProcessingMetrics {
@@ -15,25 +22,40 @@ public class ProcessingMetrics {
     private final ConcurrentMap<String, Counter> processedCounters = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Counter> errorCounters = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Timer> processingTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> filesystemCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> filesystemTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> filesystemSummaries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<Meter>> sharedSchedulerMeters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Meter> concurrencyLimitGauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> decompressionCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> decompressionSummaries = new ConcurrentHashMap<>();
 
     public ProcessingMetrics(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
     }
 
     public void incrementProcessed(String sourceType) {
+        incrementProcessed(sourceType, 1);
+    }
+
+    public void incrementProcessed(String sourceType, int count) {
         processedCounters.computeIfAbsent(sourceType, 
             type -> Counter.builder("consumer.messages.processed")
                 .tag("source_type", type)
                 .register(meterRegistry)
-        ).increment();
+        ).increment(count);
     }
 
     public void incrementErrors(String sourceType) {
+        incrementErrors(sourceType, 1);
+    }
+
+    public void incrementErrors(String sourceType, int count) {
         errorCounters.computeIfAbsent(sourceType,
             type -> Counter.builder("consumer.messages.errors")
                 .tag("source_type", type)
                 .register(meterRegistry)
-        ).increment();
+        ).increment(count);
     }
 
     public Timer.Sample startTimer(String sourceType) {
@@ -51,4 +73,150 @@ public class ProcessingMetrics {
             sample.stop(timer);
         }
     }
+
+    public void incrementDuplicatesCollapsed(String sourceType) {
+        filesystemCounter("consumer.filesystem.duplicates.collapsed", sourceType).increment();
+    }
+
+    public void incrementWatchOverflows(String sourceType) {
+        filesystemCounter("consumer.filesystem.watch.overflows", sourceType).increment();
+    }
+
+    public void incrementQueueSpilled(String sourceType) {
+        filesystemCounter("consumer.filesystem.queue.spilled", sourceType).increment();
+    }
+
+    public void incrementQueueDropped(String sourceType) {
+        filesystemCounter("consumer.filesystem.queue.dropped", sourceType).increment();
+    }
+
+    public void recordPostProcessingBatch(String sourceType, int files, long durationMs) {
+        filesystemTimer("consumer.filesystem.postprocess.batch.duration", sourceType)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+        filesystemCounter("consumer.filesystem.postprocess.files", sourceType).increment(files);
+    }
+
+    public void incrementPostProcessingErrors(String sourceType) {
+        filesystemCounter("consumer.filesystem.postprocess.errors", sourceType).increment();
+    }
+
+    public void recordProcessingBatch(String sourceType, int files) {
+        filesystemSummary("consumer.filesystem.batch.size", sourceType).record(files);
+    }
+
+    public void incrementClaimConflicts(String sourceType) {
+        filesystemCounter("consumer.filesystem.claim.conflicts", sourceType).increment();
+    }
+
+    public void recordReconciliation(String sourceType, long durationMs, long recoveredFiles) {
+        filesystemTimer("consumer.filesystem.reconciliation.duration", sourceType)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+        filesystemCounter("consumer.filesystem.reconciliation.recovered", sourceType).increment(recoveredFiles);
+    }
+
+    public <T> void registerConcurrencyLimit(String sourceType, T consumer, ToDoubleFunction<T> limit) {
+        removeConcurrencyLimit(sourceType);
+        concurrencyLimitGauges.put(sourceType,
+            Gauge.builder("consumer.filesystem.concurrency.limit", consumer, limit)
+                .tag("source_type", sourceType)
+                .register(meterRegistry));
+    }
+
+    public void removeConcurrencyLimit(String sourceType) {
+        Meter gauge = concurrencyLimitGauges.remove(sourceType);
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    public void recordConcurrencyDecision(String sourceType, String decision) {
+        filesystemCounters.computeIfAbsent("consumer.filesystem.concurrency.adjustments|" + sourceType + "|" + decision,
+            key -> Counter.builder("consumer.filesystem.concurrency.adjustments")
+                .tag("source_type", sourceType)
+                .tag("decision", decision)
+                .register(meterRegistry)
+        ).increment();
+    }
+
+    /**
+     * Publishes a configuration's share of the shared scheduler. Utilization over time is
+     * {@code rate(consumer_filesystem_shared_busy_seconds_total) / parallelism}.
+     */
+    public <T> void registerSharedSchedulerLane(String sourceType, T lane,
+                                                ToDoubleFunction<T> running, ToDoubleFunction<T> queued,
+                                                ToDoubleFunction<T> busySeconds, ToDoubleFunction<T> utilization) {
+        removeSharedSchedulerLane(sourceType);
+        sharedSchedulerMeters.put(sourceType, List.of(
+            Gauge.builder("consumer.filesystem.shared.running", lane, running)
+                .tag("source_type", sourceType)
+                .register(meterRegistry),
+            Gauge.builder("consumer.filesystem.shared.queued", lane, queued)
+                .tag("source_type", sourceType)
+                .register(meterRegistry),
+            Gauge.builder("consumer.filesystem.shared.utilization", lane, utilization)
+                .tag("source_type", sourceType)
+                .register(meterRegistry),
+            FunctionCounter.builder("consumer.filesystem.shared.busy", lane, busySeconds)
+                .tag("source_type", sourceType)
+                .baseUnit("seconds")
+                .register(meterRegistry)
+        ));
+    }
+
+    public void removeSharedSchedulerLane(String sourceType) {
+        List<Meter> meters = sharedSchedulerMeters.remove(sourceType);
+        if (meters != null) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+
+    /**
+     * One entry of a compressed file (the whole content for gzip and zlib), by the
+     * format it was routed to; {@code parsed} is false for entries no processor reads.
+     */
+    public void recordDecompressedEntry(String contentType, long decompressedBytes, boolean parsed) {
+        String outcome = parsed ? "parsed" : "skipped";
+        decompressionCounters.computeIfAbsent("consumer.decompression.entries|" + contentType + "|" + outcome,
+            key -> Counter.builder("consumer.decompression.entries")
+                .tag("content_type", contentType)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+        ).increment();
+        decompressionSummaries.computeIfAbsent(contentType,
+            type -> DistributionSummary.builder("consumer.decompression.entry.size")
+                .tag("content_type", type)
+                .baseUnit("bytes")
+                .register(meterRegistry)
+        ).record(decompressedBytes);
+    }
+
+    public void incrementDecompressionLimitExceeded() {
+        decompressionCounters.computeIfAbsent("consumer.decompression.limit.exceeded",
+            key -> Counter.builder(key).register(meterRegistry)
+        ).increment();
+    }
+
+    private Counter filesystemCounter(String name, String sourceType) {
+        return filesystemCounters.computeIfAbsent(name + "|" + sourceType,
+            key -> Counter.builder(name)
+                .tag("source_type", sourceType)
+                .register(meterRegistry)
+        );
+    }
+
+    private Timer filesystemTimer(String name, String sourceType) {
+        return filesystemTimers.computeIfAbsent(name + "|" + sourceType,
+            key -> Timer.builder(name)
+                .tag("source_type", sourceType)
+                .register(meterRegistry)
+        );
+    }
+
+    private DistributionSummary filesystemSummary(String name, String sourceType) {
+        return filesystemSummaries.computeIfAbsent(name + "|" + sourceType,
+            key -> DistributionSummary.builder(name)
+                .tag("source_type", sourceType)
+                .register(meterRegistry)
+        );
+    }
 }
\ No newline at end of file
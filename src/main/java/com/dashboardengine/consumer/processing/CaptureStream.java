@@ -0,0 +1,59 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Reusable in-memory sink for a record re-serialized by a generator or stream writer.
+ * Fails the write once the record grows past the limit, so one oversized record
+ * cannot exhaust the heap.
+ */
+final class CaptureStream extends OutputStream {
+
+    private final int limit;
+    private byte[] buf = new byte[8192];
+    private int count;
+
+    CaptureStream(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensure(1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensure(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    byte[] buffer() {
+        return buf;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int capacity() {
+        return buf.length;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (count + length > limit) {
+            throw new IOException("Record exceeds " + limit + " bytes");
+        }
+        if (count + length > buf.length) {
+            buf = Arrays.copyOf(buf, Math.min(limit, Math.max(buf.length * 2, count + length)));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Streams the decompressed content of gzip, zlib ({@code .deflate}) and zip files into
+ * the processor of the format inside, without temporary files. The inner format comes
+ * from the name without the compression extension ({@code data.csv.gz}) or the zip
+ * entry's name, corrected by sniffing the first decompressed bytes. Entries that no
+ * processor reads from a stream (Excel, nested archives) are skipped, but still
+ * decompressed and checked.
+ *
+ * <p>A file may decompress to at most {@code app.processing.max-decompressed-bytes}
+ * over all its entries. Inflaters and read buffers are pooled across files.
+ */
+@Component
+public class CompressedFileProcessor extends FileFormatProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressedFileProcessor.class);
+
+    private static final int MAX_POOLED = 64;
+
+    private record Totals(long records, int entries, int skipped, String noun) {}
+
+    private final ApplicationProperties.Processing settings;
+    private final Function<ContentType, FileFormatProcessor> formats;
+    private final ProcessingMetrics metrics;
+    private final InflaterPool inflaters = new InflaterPool(MAX_POOLED);
+    private final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    public CompressedFileProcessor() {
+        this(new ApplicationProperties.Processing(), List.of(new TextFileProcessor(), new CsvFileProcessor(),
+            new JsonFileProcessor(), new XmlFileProcessor()), null);
+    }
+
+    @Autowired
+    public CompressedFileProcessor(ApplicationProperties properties, ObjectProvider<ProcessorRegistry> registry,
+                                   ObjectProvider<ProcessingMetrics> metrics) {
+        // The registry holds this processor too, so it is looked up once files arrive
+        this(properties.getProcessing(), type -> registry.getObject().processorFor(type), metrics.getIfAvailable());
+    }
+
+    /**
+     * @param formats the processors for decompressed content
+     */
+    public CompressedFileProcessor(ApplicationProperties.Processing settings, List<FileFormatProcessor> formats,
+                                   ProcessingMetrics metrics) {
+        this(settings, type -> formats.stream()
+            .filter(processor -> processor.canProcess(type.name()))
+            .findFirst()
+            .orElse(null), metrics);
+    }
+
+    /**
+     * @param formats the processor for a type of decompressed content, or null
+     * @param metrics null to record none
+     */
+    public CompressedFileProcessor(ApplicationProperties.Processing settings,
+                                   Function<ContentType, FileFormatProcessor> formats, ProcessingMetrics metrics) {
+        super(ContentType.GZIP);
+        this.settings = settings;
+        this.formats = formats;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean canProcess(String messageType) {
+        return ContentType.GZIP.name().equals(messageType) || ContentType.DEFLATE.name().equals(messageType)
+            || ContentType.ZIP.name().equals(messageType);
+    }
+
+    @Override
+    protected ProcessingResult processFile(Path filePath, long startTime) throws Exception {
+        ContentType compression = compressionOf(filePath);
+        byte[] buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new byte[settings.getBufferSizeBytes()];
+        }
+        Totals totals;
+        long decompressedBytes;
+        try (InputStream raw = Files.newInputStream(filePath);
+             CompressedInput input = new CompressedInput(raw, buffer, inflaters, settings.getMaxDecompressedBytes(),
+                                                         filePath)) {
+            String name = innerName(filePath);
+            totals = switch (compression) {
+                case ZIP -> processZip(filePath, input);
+                case DEFLATE -> processEntry(input.zlib(), name, filePath, input, false);
+                default -> processEntry(input.gzip(), name, filePath, input, false);
+            };
+            decompressedBytes = input.totalBytes();
+        } catch (CompressedInput.LimitExceededException e) {
+            if (metrics != null) {
+                metrics.incrementDecompressionLimitExceeded();
+            }
+            throw e;
+        } finally {
+            buffers.offer(buffer);
+        }
+
+        logger.debug("Processed {} file with {} entries, {} bytes decompressed",
+                     compression, totals.entries(), decompressedBytes);
+
+        String message;
+        if (compression == ContentType.ZIP) {
+            message = "Processed " + totals.records() + " records from " + filePath.getFileName() + " in "
+                + totals.entries() + " entries" + (totals.skipped() > 0 ? ", " + totals.skipped() + " skipped" : "");
+        } else if (totals.skipped() > 0) {
+            message = "Processed " + decompressedBytes + " bytes from " + filePath.getFileName();
+        } else {
+            message = "Processed " + totals.records() + " " + totals.noun() + " from " + filePath.getFileName();
+        }
+        return ProcessingResult.success(message, System.currentTimeMillis() - startTime, filePath.toString());
+    }
+
+    private Totals processZip(Path filePath, CompressedInput input) throws Exception {
+        long records = 0;
+        int entries = 0;
+        int skipped = 0;
+        String name;
+        while ((name = input.nextZipEntry()) != null) {
+            Totals entry;
+            try {
+                // Records name the entry as if the archive were a directory
+                entry = processEntry(input.zipEntry(), name, filePath.resolve(name), input, true);
+            } catch (CompressedInput.LimitExceededException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Entry " + name + ": " + e.getMessage(), e);
+            }
+            records += entry.records();
+            entries++;
+            skipped += entry.skipped();
+        }
+        return new Totals(records, entries, skipped, "records");
+    }
+
+    /**
+     * @param zipEntry whether the content is one entry of an archive, not the whole file
+     */
+    private Totals processEntry(InputStream content, String name, Path source, CompressedInput input,
+                                boolean zipEntry) throws Exception {
+        PushbackInputStream in = new PushbackInputStream(content, ContentSniffer.HEAD_BYTES);
+        byte[] head = in.readNBytes(ContentSniffer.HEAD_BYTES);
+        in.unread(head);
+        ContentType type = ContentSniffer.reconcile(ContentType.fromExtension(extension(name)),
+                                                    ContentSniffer.detect(head, head.length));
+
+        FileFormatProcessor processor = formats.apply(type);
+        StreamableFormat streamable = processor instanceof StreamableFormat format ? format : null;
+        boolean parsed = streamable != null;
+        long records = 0;
+        if (parsed) {
+            records = streamable.processStream(in, source);
+        } else {
+            logger.debug("Skipping {} content of {}", type, source);
+        }
+        // Reads what the parser left, which checks the entry's CRC
+        input.drain();
+
+        if (metrics != null) {
+            long bytes = zipEntry ? input.streamBytes() : input.totalBytes();
+            metrics.recordDecompressedEntry(type.name(), bytes, parsed);
+        }
+        return new Totals(records, 1, parsed ? 0 : 1, parsed ? processor.recordNoun() : "records");
+    }
+
+    /**
+     * The magic number decides; the extension is only a fallback for a file too short
+     * to have one.
+     */
+    private static ContentType compressionOf(Path filePath) throws IOException {
+        ContentType sniffed = ContentSniffer.sniff(filePath);
+        if (sniffed == ContentType.GZIP || sniffed == ContentType.DEFLATE || sniffed == ContentType.ZIP) {
+            return sniffed;
+        }
+        ContentType declared = ContentType.fromExtension(extension(filePath.getFileName().toString()));
+        return declared != null ? declared : ContentType.GZIP;
+    }
+
+    /**
+     * Name of a gzip or zlib file's content: its own without the compression extension.
+     */
+    private static String innerName(Path filePath) {
+        String name = filePath.getFileName().toString();
+        String extension = extension(name);
+        ContentType type = ContentType.fromExtension(extension);
+        if (type == ContentType.GZIP || type == ContentType.DEFLATE) {
+            return name.substring(0, name.length() - extension.length() - 1);
+        }
+        return name;
+    }
+
+    private static String extension(String name) {
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        return dot <= slash ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
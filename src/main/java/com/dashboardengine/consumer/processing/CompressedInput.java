@@ -0,0 +1,507 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the decompressed content of a gzip, zlib or zip file as plain streams, in one
+ * pass over the compressed bytes: nothing is written to disk and zip entries are found
+ * by their local headers, not the central directory at the end.
+ *
+ * <p>Compressed bytes are read into the caller's buffer and inflated by pooled
+ * {@link Inflater}s, so nothing but the streams themselves is allocated per file. The
+ * content read across all streams is capped: more than {@code maxBytes} fails with
+ * {@link LimitExceededException}, which stops a zip bomb after that many bytes. Not
+ * thread-safe; one instance reads one file.
+ */
+final class CompressedInput implements Closeable {
+
+    private static final int GZIP_FEXTRA = 4;
+    private static final int GZIP_FNAME = 8;
+    private static final int GZIP_FCOMMENT = 16;
+    private static final int GZIP_FHCRC = 2;
+
+    private static final long ZIP_LOCAL_HEADER = 0x04034b50L;
+    private static final long ZIP_DATA_DESCRIPTOR = 0x08074b50L;
+    private static final long ZIP_CENTRAL_DIRECTORY = 0x02014b50L;
+    private static final long ZIP_END = 0x06054b50L;
+    private static final long ZIP64_END = 0x06064b50L;
+    private static final int ZIP_ENCRYPTED = 1;
+    private static final int ZIP_HAS_DESCRIPTOR = 8;
+    private static final int ZIP_STORED = 0;
+    private static final int ZIP_DEFLATED = 8;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final long ZIP64_MAGIC = 0xffffffffL;
+
+    /**
+     * Thrown when the decompressed content exceeds the configured maximum.
+     */
+    static final class LimitExceededException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private interface StreamEnd {
+        /**
+         * Reads what follows the compressed data of a stream.
+         *
+         * @return true if another stream continues the content
+         */
+        boolean next() throws IOException;
+    }
+
+    private final InputStream raw;
+    private final byte[] buffer;
+    private final InflaterPool inflaters;
+    private final long maxBytes;
+    private final Path file;
+    private final CRC32 crc = new CRC32();
+    private final byte[] single = new byte[1];
+
+    private int position;
+    private int limit;
+    private long totalBytes;
+    private long streamBytes;
+    private Inflater rawInflater;
+    private Inflater zlibInflater;
+    private InputStream current;
+    /** Skipped content is read into this; allocated on the first skip. */
+    private byte[] scratch;
+
+    /**
+     * @param raw    the compressed bytes; closed by the caller
+     * @param buffer holds compressed bytes between reads; reused by the caller afterwards
+     */
+    CompressedInput(InputStream raw, byte[] buffer, InflaterPool inflaters, long maxBytes, Path file) {
+        this.raw = raw;
+        this.buffer = buffer;
+        this.inflaters = inflaters;
+        this.maxBytes = maxBytes;
+        this.file = file;
+    }
+
+    /**
+     * Content of a gzip file; concatenated members read as one stream, as {@code gunzip}
+     * does. Each member's CRC and length are checked.
+     */
+    InputStream gzip() throws IOException {
+        readGzipHeader();
+        Inflater inflater = rawInflater();
+        current = new InflatingStream(inflater, () -> {
+            long expectedCrc = readInt();
+            long expectedSize = readInt();
+            if (expectedCrc != crc.getValue() || expectedSize != (streamBytes & 0xffffffffL)) {
+                throw new ZipException("Corrupt gzip member in " + file);
+            }
+            if (!available(2) || (buffer[position] & 0xff) != 0x1f || (buffer[position + 1] & 0xff) != 0x8b) {
+                // Trailing bytes after the last member are ignored
+                return false;
+            }
+            readGzipHeader();
+            inflater.reset();
+            crc.reset();
+            streamBytes = 0;
+            return true;
+        });
+        return current;
+    }
+
+    /**
+     * Content of a zlib stream, the usual meaning of a {@code .deflate} file; the
+     * inflater checks its Adler-32.
+     */
+    InputStream zlib() {
+        if (zlibInflater == null) {
+            zlibInflater = inflaters.acquire(false);
+        }
+        current = new InflatingStream(zlibInflater, () -> false);
+        return current;
+    }
+
+    /**
+     * Moves to the next file entry of a zip archive, skipping directories and whatever
+     * the caller left unread of the previous entry.
+     *
+     * @return the entry's name, or null after the last entry
+     * @throws ZipException for encrypted entries and compression methods other than
+     *                      stored and deflated
+     */
+    String nextZipEntry() throws IOException {
+        while (true) {
+            drain();
+            current = null;
+            if (!available(4)) {
+                return null;
+            }
+            long signature = readInt();
+            if (signature == ZIP_CENTRAL_DIRECTORY || signature == ZIP_END || signature == ZIP64_END) {
+                return null;
+            }
+            if (signature != ZIP_LOCAL_HEADER) {
+                throw new ZipException("Invalid zip entry header in " + file);
+            }
+            skip(2);
+            int flags = readShort();
+            int method = readShort();
+            skip(4);
+            long expectedCrc = readInt();
+            long compressedSize = readInt();
+            long size = readInt();
+            int nameLength = readShort();
+            int extraLength = readShort();
+            String name = new String(readBytes(nameLength), StandardCharsets.UTF_8);
+            byte[] extra = readBytes(extraLength);
+
+            boolean zip64 = false;
+            for (int i = 0; i + 4 <= extra.length; ) {
+                int id = (extra[i] & 0xff) | (extra[i + 1] & 0xff) << 8;
+                int length = (extra[i + 2] & 0xff) | (extra[i + 3] & 0xff) << 8;
+                if (id == ZIP64_EXTRA) {
+                    zip64 = true;
+                    int field = i + 4;
+                    if (size == ZIP64_MAGIC && field + 8 <= extra.length) {
+                        size = littleEndianLong(extra, field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZIP64_MAGIC && field + 8 <= extra.length) {
+                        compressedSize = littleEndianLong(extra, field);
+                    }
+                }
+                i += 4 + length;
+            }
+            if ((flags & ZIP_ENCRYPTED) != 0) {
+                throw new ZipException("Encrypted entry " + name + " in " + file);
+            }
+
+            boolean descriptor = (flags & ZIP_HAS_DESCRIPTOR) != 0;
+            boolean descriptorZip64 = zip64;
+            long knownSize = size;
+            StreamEnd end = () -> {
+                long recordedCrc = expectedCrc;
+                if (descriptor) {
+                    long first = readInt();
+                    recordedCrc = first == ZIP_DATA_DESCRIPTOR ? readInt() : first;
+                    skip(descriptorZip64 ? 16 : 8);
+                } else if (streamBytes != knownSize) {
+                    throw new ZipException("Entry " + name + " in " + file + " has the wrong size");
+                }
+                if (recordedCrc != crc.getValue()) {
+                    throw new ZipException("CRC mismatch in entry " + name + " of " + file);
+                }
+                return false;
+            };
+
+            crc.reset();
+            streamBytes = 0;
+            if (method == ZIP_STORED) {
+                if (descriptor) {
+                    throw new ZipException("Stored entry " + name + " without sizes in " + file);
+                }
+                current = new StoredStream(compressedSize, end);
+            } else if (method == ZIP_DEFLATED) {
+                Inflater inflater = rawInflater();
+                inflater.reset();
+                current = new InflatingStream(inflater, end);
+            } else {
+                throw new ZipException("Unsupported compression method " + method + " for " + name + " in " + file);
+            }
+            if (!name.endsWith("/")) {
+                return name;
+            }
+        }
+    }
+
+    /**
+     * Content of the current zip entry. Closing it does nothing.
+     */
+    InputStream zipEntry() {
+        return current;
+    }
+
+    /**
+     * Decompressed bytes read from the current stream or zip entry.
+     */
+    long streamBytes() {
+        return streamBytes;
+    }
+
+    long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Reads the current stream to its end, which checks its trailer.
+     */
+    void drain() throws IOException {
+        if (current == null) {
+            return;
+        }
+        if (scratch == null) {
+            scratch = new byte[8192];
+        }
+        while (current.read(scratch, 0, scratch.length) >= 0) {
+            // Counted against the limit like any other content
+        }
+    }
+
+    /**
+     * Returns the inflaters to the pool; the raw stream is the caller's to close.
+     */
+    @Override
+    public void close() {
+        if (rawInflater != null) {
+            inflaters.release(rawInflater, true);
+            rawInflater = null;
+        }
+        if (zlibInflater != null) {
+            inflaters.release(zlibInflater, false);
+            zlibInflater = null;
+        }
+    }
+
+    private Inflater rawInflater() {
+        if (rawInflater == null) {
+            rawInflater = inflaters.acquire(true);
+        }
+        return rawInflater;
+    }
+
+    private void readGzipHeader() throws IOException {
+        if (readByte() != 0x1f || readByte() != 0x8b) {
+            throw new ZipException("Not in gzip format: " + file);
+        }
+        if (readByte() != 8) {
+            throw new ZipException("Unsupported gzip compression method in " + file);
+        }
+        int flags = readByte();
+        // Modification time, extra flags, operating system
+        skip(6);
+        if ((flags & GZIP_FEXTRA) != 0) {
+            skip(readShort());
+        }
+        if ((flags & GZIP_FNAME) != 0) {
+            while (readByte() != 0) {
+                // File name
+            }
+        }
+        if ((flags & GZIP_FCOMMENT) != 0) {
+            while (readByte() != 0) {
+                // Comment
+            }
+        }
+        if ((flags & GZIP_FHCRC) != 0) {
+            skip(2);
+        }
+    }
+
+    private void count(int bytes) throws LimitExceededException {
+        totalBytes += bytes;
+        streamBytes += bytes;
+        if (totalBytes > maxBytes) {
+            throw new LimitExceededException("Decompressed content of " + file + " exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * Reads more compressed bytes after those not yet consumed.
+     *
+     * @return false at the end of the file
+     */
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        int read = raw.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * @return whether {@code count} bytes are buffered, reading as needed; false at the end
+     */
+    private boolean available(int count) throws IOException {
+        while (limit - position < count) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void require(int count) throws IOException {
+        if (!available(count)) {
+            throw new EOFException("Unexpected end of compressed data in " + file);
+        }
+    }
+
+    private int readByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xff;
+    }
+
+    private int readShort() throws IOException {
+        require(2);
+        int value = (buffer[position] & 0xff) | (buffer[position + 1] & 0xff) << 8;
+        position += 2;
+        return value;
+    }
+
+    private long readInt() throws IOException {
+        require(4);
+        long value = (buffer[position] & 0xffL) | (buffer[position + 1] & 0xffL) << 8
+            | (buffer[position + 2] & 0xffL) << 16 | (buffer[position + 3] & 0xffL) << 24;
+        position += 4;
+        return value;
+    }
+
+    private byte[] readBytes(int count) throws IOException {
+        byte[] bytes = new byte[count];
+        int copied = 0;
+        while (copied < count) {
+            if (position == limit && !fill()) {
+                throw new EOFException("Unexpected end of compressed data in " + file);
+            }
+            int length = Math.min(count - copied, limit - position);
+            System.arraycopy(buffer, position, bytes, copied, length);
+            position += length;
+            copied += length;
+        }
+        return bytes;
+    }
+
+    private void skip(long count) throws IOException {
+        while (count > 0) {
+            if (position == limit && !fill()) {
+                throw new EOFException("Unexpected end of compressed data in " + file);
+            }
+            int length = (int) Math.min(count, limit - position);
+            position += length;
+            count -= length;
+        }
+    }
+
+    private static long littleEndianLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = value << 8 | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private abstract class ContentStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        /**
+         * The compressed file stays open for the streams that follow.
+         */
+        @Override
+        public void close() {
+        }
+    }
+
+    private final class InflatingStream extends ContentStream {
+
+        private final Inflater inflater;
+        private final StreamEnd end;
+        private boolean done;
+
+        InflatingStream(Inflater inflater, StreamEnd end) {
+            this.inflater = inflater;
+            this.end = end;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!done) {
+                if (inflater.finished()) {
+                    // The input handed over last may run past the end of the stream
+                    position = limit - inflater.getRemaining();
+                    done = !end.next();
+                    continue;
+                }
+                if (inflater.needsInput()) {
+                    if (position == limit && !fill()) {
+                        throw new EOFException("Unexpected end of compressed data in " + file);
+                    }
+                    inflater.setInput(buffer, position, limit - position);
+                    position = limit;
+                }
+                int inflated;
+                try {
+                    inflated = inflater.inflate(b, off, len);
+                } catch (DataFormatException e) {
+                    throw new ZipException("Invalid compressed data in " + file + ": " + e.getMessage());
+                }
+                if (inflated > 0) {
+                    crc.update(b, off, inflated);
+                    count(inflated);
+                    return inflated;
+                }
+                if (inflater.needsDictionary()) {
+                    throw new ZipException("Compressed data in " + file + " needs a preset dictionary");
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final class StoredStream extends ContentStream {
+
+        private final StreamEnd end;
+        private long remaining;
+        private boolean done;
+
+        StoredStream(long size, StreamEnd end) {
+            this.remaining = size;
+            this.end = end;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining == 0) {
+                if (!done) {
+                    done = true;
+                    end.next();
+                }
+                return -1;
+            }
+            if (position == limit && !fill()) {
+                throw new EOFException("Unexpected end of compressed data in " + file);
+            }
+            int length = (int) Math.min(Math.min(len, remaining), limit - position);
+            System.arraycopy(buffer, position, b, off, length);
+            position += length;
+            remaining -= length;
+            crc.update(b, off, length);
+            count(length);
+            return length;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Detects a file's format from its first {@value #HEAD_BYTES} bytes.
+ *
+ * <p>Binary formats are recognised by their magic numbers (gzip, zlib, zip, OLE2, PDF);
+ * XLSX is a zip with a workbook part ({@code xl/}) among its first entries. Other OOXML
+ * packages (docx, pptx) are {@link ContentType#UNKNOWN} rather than archives, so they are
+ * neither parsed as workbooks nor unpacked part by part. JSON and XML are
+ * recognised by their first significant character, CSV by a delimiter that occurs
+ * equally often on the first complete lines. Anything else is {@link ContentType#TEXT}
+ * if it contains no NUL byte, otherwise {@link ContentType#UNKNOWN}.
+ */
+public final class ContentSniffer {
+
+    static final int HEAD_BYTES = 512;
+
+    private static final byte[] GZIP = {0x1f, (byte) 0x8b};
+    private static final byte[] ZIP = {0x50, 0x4b};
+    private static final byte[] OLE2 = {(byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0, (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1};
+    private static final byte[] PDF = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UTF8_BOM = {(byte) 0xef, (byte) 0xbb, (byte) 0xbf};
+    private static final byte[] OOXML_CONTENT_TYPES = "[Content_Types].xml".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OOXML_WORKBOOK = "xl/".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CSV_DELIMITERS = {',', ';', '\t', '|'};
+
+    private ContentSniffer() {
+    }
+
+    public static ContentType sniff(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] head = in.readNBytes(HEAD_BYTES);
+            return detect(head, head.length);
+        }
+    }
+
+    public static ContentType detect(byte[] head, int length) {
+        if (startsWith(head, length, GZIP)) {
+            return ContentType.GZIP;
+        }
+        if (isZlib(head, length)) {
+            return ContentType.DEFLATE;
+        }
+        if (isZip(head, length)) {
+            if (contains(head, length, OOXML_WORKBOOK)) {
+                return ContentType.EXCEL;
+            }
+            // An OOXML package, but not a workbook as far as the head shows
+            return contains(head, length, OOXML_CONTENT_TYPES) ? ContentType.UNKNOWN : ContentType.ZIP;
+        }
+        if (startsWith(head, length, OLE2)) {
+            return ContentType.EXCEL;
+        }
+        if (startsWith(head, length, PDF)) {
+            return ContentType.PDF;
+        }
+
+        int start = startsWith(head, length, UTF8_BOM) ? UTF8_BOM.length : 0;
+        for (int i = start; i < length; i++) {
+            if (head[i] == 0) {
+                return ContentType.UNKNOWN;
+            }
+        }
+        while (start < length && isWhitespace(head[start])) {
+            start++;
+        }
+        if (start < length) {
+            byte first = head[start];
+            if (first == '{' || first == '[') {
+                return ContentType.JSON;
+            }
+            if (first == '<' && start + 1 < length && (head[start + 1] == '?' || head[start + 1] == '!'
+                    || Character.isLetter(head[start + 1]))) {
+                return ContentType.XML;
+            }
+        }
+        return isDelimited(head, start, length) ? ContentType.CSV : ContentType.TEXT;
+    }
+
+    /**
+     * Combines the type declared by the extension with the sniffed one. Formats with a
+     * signature win; weak evidence (plain text, unrecognised binary) defers to the
+     * extension, and plain text without one is left to generic processing.
+     *
+     * @param declared null if the extension is not known
+     */
+    public static ContentType reconcile(ContentType declared, ContentType sniffed) {
+        switch (sniffed) {
+            case TEXT, CSV -> {
+                if (declared != null && declared.isTextual()) {
+                    return declared;
+                }
+                if (sniffed == ContentType.CSV) {
+                    return ContentType.CSV;
+                }
+                return declared != null ? ContentType.TEXT : ContentType.UNKNOWN;
+            }
+            case UNKNOWN -> {
+                return declared != null ? declared : ContentType.UNKNOWN;
+            }
+            case ZIP -> {
+                // An OOXML workbook whose first entries are not the package parts
+                return declared == ContentType.EXCEL ? ContentType.EXCEL : ContentType.ZIP;
+            }
+            default -> {
+                return sniffed;
+            }
+        }
+    }
+
+    /**
+     * True if the first two complete lines contain the same non-zero number of one of
+     * the usual delimiters.
+     */
+    private static boolean isDelimited(byte[] head, int start, int length) {
+        int firstEnd = indexOf(head, start, length, (byte) '\n');
+        int secondEnd = firstEnd < 0 ? -1 : indexOf(head, firstEnd + 1, length, (byte) '\n');
+        if (secondEnd < 0) {
+            return false;
+        }
+        for (byte delimiter : CSV_DELIMITERS) {
+            int first = count(head, start, firstEnd, delimiter);
+            if (first > 0 && first == count(head, firstEnd + 1, secondEnd, delimiter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A zlib header with a 32K window and no preset dictionary. Only the levels whose
+     * second byte is not printable, so no text file starts with one.
+     */
+    private static boolean isZlib(byte[] head, int length) {
+        if (length < 2 || head[0] != 0x78) {
+            return false;
+        }
+        return head[1] == 0x01 || head[1] == (byte) 0x9c || head[1] == (byte) 0xda;
+    }
+
+    /**
+     * Local file header, empty archive or spanned archive signature.
+     */
+    private static boolean isZip(byte[] head, int length) {
+        if (length < 4 || !startsWith(head, length, ZIP)) {
+            return false;
+        }
+        return head[2] == 3 && head[3] == 4 || head[2] == 5 && head[3] == 6 || head[2] == 7 && head[3] == 8;
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (head[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(byte[] head, int length, byte[] needle) {
+        outer:
+        for (int i = 0; i <= length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (head[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static int indexOf(byte[] head, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (head[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int count(byte[] head, int from, int to, byte value) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (head[i] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
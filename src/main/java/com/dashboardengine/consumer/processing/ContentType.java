@@ -0,0 +1,53 @@
+package com.dashboardengine.consumer.processing;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * File formats the processors know about, with the extensions that declare them.
+ * Processors are matched to a type through {@link com.dashboardengine.consumer.core.MessageProcessor#canProcess}
+ * with the type's name.
+ */
+public enum ContentType {
+    TEXT(true, "txt"),
+    CSV(true, "csv"),
+    JSON(true, "json"),
+    XML(true, "xml"),
+    EXCEL(false, "xlsx", "xls"),
+    PDF(false, "pdf"),
+    GZIP(false, "gz"),
+    DEFLATE(false, "deflate", "zz"),
+    ZIP(false, "zip"),
+    UNKNOWN(false);
+
+    private static final Map<String, ContentType> BY_EXTENSION = new HashMap<>();
+
+    static {
+        for (ContentType type : values()) {
+            for (String extension : type.extensions) {
+                BY_EXTENSION.put(extension, type);
+            }
+        }
+    }
+
+    private final boolean textual;
+    private final String[] extensions;
+
+    ContentType(boolean textual, String... extensions) {
+        this.textual = textual;
+        this.extensions = extensions;
+    }
+
+    public boolean isTextual() {
+        return textual;
+    }
+
+    /**
+     * @param extension without the dot, any case
+     * @return the declared type, or null if the extension is not known
+     */
+    public static ContentType fromExtension(String extension) {
+        return extension == null ? null : BY_EXTENSION.get(extension.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,133 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams CSV records to the {@link RecordSink} in batches. Parsers and their read
+ * buffers are pooled across files.
+ */
+@Component
+public class CsvFileProcessor extends FileFormatProcessor implements SplittableFormat, StreamableFormat {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvFileProcessor.class);
+
+    private static final int MAX_POOLED_PARSERS = 64;
+
+    private final ApplicationProperties.Processing settings;
+    private final RecordSink sink;
+    private final BlockingQueue<CsvRecordParser> parsers = new ArrayBlockingQueue<>(MAX_POOLED_PARSERS);
+
+    public CsvFileProcessor() {
+        this(new ApplicationProperties.Processing(), RecordSink.DISCARD);
+    }
+
+    @Autowired
+    public CsvFileProcessor(ApplicationProperties properties, ObjectProvider<RecordSink> sink) {
+        this(properties.getProcessing(), sink.getIfAvailable(() -> RecordSink.DISCARD));
+    }
+
+    public CsvFileProcessor(ApplicationProperties.Processing settings, RecordSink sink) {
+        super(ContentType.CSV, settings);
+        this.settings = settings;
+        this.sink = sink;
+        // Fail on a bad delimiter at startup rather than on the first file
+        parsers.offer(newParser());
+    }
+
+    @Override
+    protected ProcessingResult processFile(Path filePath, long startTime) throws Exception {
+        CsvRecordParser parser = takeParser();
+        long recordCount;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            recordCount = parser.parse(channel, filePath, settings.isCsvHeader(), sink);
+        } finally {
+            releaseParser(parser);
+        }
+
+        logger.debug("Processed CSV file with {} records", recordCount);
+
+        return ProcessingResult.success(
+            "Processed " + recordCount + " records from " + filePath.getFileName(),
+            System.currentTimeMillis() - startTime,
+            filePath.toString()
+        );
+    }
+
+    @Override
+    public List<FileChunk> planChunks(Path filePath, FileChannel channel, long chunkBytes) throws IOException {
+        if (sink.ordered()) {
+            return List.of();
+        }
+        long size = channel.size();
+        long dataStart = settings.isCsvHeader() ? FileChunker.csvRecordEnd(channel, 0, size, quote()) : 0;
+        return FileChunker.byCsvRecords(channel, dataStart, size, chunkBytes, quote());
+    }
+
+    @Override
+    public long processChunk(Path filePath, FileChannel channel, FileChunk chunk) throws Exception {
+        CsvRecordParser parser = takeParser();
+        try {
+            // Every chunk reads the header itself rather than waiting for the first one
+            List<String> header = List.of();
+            if (settings.isCsvHeader()) {
+                long headerEnd = FileChunker.csvRecordEnd(channel, 0, chunk.start(), quote());
+                try (ReadableByteChannel in = FileChunker.open(channel, new FileChunk(-1, 0, headerEnd))) {
+                    header = parser.readHeader(in, filePath);
+                }
+            }
+            try (ReadableByteChannel in = FileChunker.open(channel, chunk)) {
+                return parser.parseChunk(in, filePath, header, chunk.index(), sink);
+            }
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    private byte quote() {
+        return (byte) settings.getCsvQuote();
+    }
+
+    @Override
+    public long processStream(InputStream in, Path source) throws Exception {
+        CsvRecordParser parser = takeParser();
+        try {
+            return parser.parse(Channels.newChannel(in), source, settings.isCsvHeader(), sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    private CsvRecordParser takeParser() {
+        CsvRecordParser parser = parsers.poll();
+        return parser != null ? parser : newParser();
+    }
+
+    private void releaseParser(CsvRecordParser parser) {
+        // A buffer grown for one huge record is not kept
+        if (parser.getBufferSize() <= settings.getBufferSizeBytes()) {
+            parsers.offer(parser);
+        }
+    }
+
+    private CsvRecordParser newParser() {
+        return new CsvRecordParser(settings.getCsvDelimiter(), settings.getCsvQuote(), settings.getBatchSize(),
+                                   settings.getBufferSizeBytes(), settings.getMaxRecordBytes());
+    }
+}
@@ -0,0 +1,296 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 parser working on bytes.
+ *
+ * <p>The file is read through one reused buffer; records are scanned in place and
+ * handed to the sink as a {@link RecordBatch} of field offsets, so no {@code String}
+ * is created per field and memory does not depend on the file size. A batch is flushed
+ * when it is full and whenever the buffer has to be refilled, since refilling moves
+ * the unparsed tail to the front. A record larger than the buffer grows it, up to
+ * {@code maxRecordBytes}.
+ *
+ * <p>Quoted fields may contain delimiters, line breaks and doubled quotes; the quotes
+ * are removed in place once the record is complete. Records end with LF, CRLF or CR;
+ * blank lines are skipped. Not thread-safe: one instance parses one file at a time.
+ */
+public class CsvRecordParser {
+
+    private final byte delimiter;
+    private final byte quote;
+    private final int batchSize;
+    private final int maxRecordBytes;
+    private final RecordBatch batch;
+    private int[] escapedFields = new int[16];
+    private int escapedCount;
+    private byte[] buffer;
+    private ByteBuffer readView;
+
+    public CsvRecordParser(char delimiter, char quote, int batchSize, int bufferSize, int maxRecordBytes) {
+        if (delimiter > 0x7f || quote > 0x7f || delimiter == quote || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("CSV delimiter and quote must be distinct ASCII characters");
+        }
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.batchSize = Math.max(1, batchSize);
+        this.buffer = new byte[Math.max(64, bufferSize)];
+        this.maxRecordBytes = Math.max(buffer.length, maxRecordBytes);
+        this.batch = new RecordBatch(ContentType.CSV, this.batchSize);
+        this.readView = ByteBuffer.wrap(buffer);
+    }
+
+    /**
+     * Parses a whole channel; the caller closes it.
+     *
+     * @param header true if the first record holds the column names
+     * @return number of records handed to the sink, header excluded
+     * @throws IOException if reading fails or a record exceeds the maximum record size
+     * @throws Exception   thrown by the sink
+     */
+    public long parse(ReadableByteChannel in, Path source, boolean header, RecordSink sink) throws Exception {
+        batch.start(source, buffer);
+        return parse(in, header, sink);
+    }
+
+    /**
+     * Parses one chunk of a split file; the caller closes the channel.
+     *
+     * @param header column names read from the start of the file, empty if it has none
+     * @return number of records handed to the sink
+     * @throws IOException if reading fails or a record exceeds the maximum record size
+     * @throws Exception   thrown by the sink
+     */
+    public long parseChunk(ReadableByteChannel in, Path source, List<String> header, int chunk, RecordSink sink)
+            throws Exception {
+        batch.start(source, buffer);
+        batch.setHeader(header);
+        batch.setChunk(chunk);
+        return parse(in, false, sink);
+    }
+
+    /**
+     * Reads the column names from a channel holding the header row, for
+     * {@link #parseChunk}.
+     */
+    public List<String> readHeader(ReadableByteChannel in, Path source) throws Exception {
+        batch.start(source, buffer);
+        parse(in, true, RecordSink.DISCARD);
+        return batch.header();
+    }
+
+    private long parse(ReadableByteChannel in, boolean header, RecordSink sink) throws Exception {
+        boolean headerPending = header;
+        long records = 0;
+        int limit = 0;
+        int recordStart = 0;
+        boolean eof = false;
+
+        while (true) {
+            int recordEnd = scanRecord(recordStart, limit, eof);
+            if (recordEnd >= 0) {
+                if (isBlankLine()) {
+                    batch.discardRecord();
+                } else if (headerPending) {
+                    batch.setHeader(pendingRecordAsStrings());
+                    batch.discardRecord();
+                    headerPending = false;
+                } else {
+                    unescapeQuotes();
+                    batch.commitRecord();
+                    records++;
+                    if (batch.size() == batchSize) {
+                        flush(sink);
+                    }
+                }
+                escapedCount = 0;
+                recordStart = recordEnd;
+                continue;
+            }
+            escapedCount = 0;
+            if (eof) {
+                break;
+            }
+
+            // The records before recordStart point into the part of the buffer being reused
+            flush(sink);
+            int remaining = limit - recordStart;
+            if (recordStart == 0 && limit == buffer.length) {
+                grow();
+            } else {
+                System.arraycopy(buffer, recordStart, buffer, 0, remaining);
+            }
+            limit = remaining;
+            recordStart = 0;
+
+            readView.limit(buffer.length).position(limit);
+            int read = in.read(readView);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+        flush(sink);
+        return records;
+    }
+
+    /**
+     * Current buffer size; larger than configured after a record needed more room.
+     */
+    public int getBufferSize() {
+        return buffer.length;
+    }
+
+    /**
+     * Scans one record starting at {@code start}, adding its fields to the batch.
+     *
+     * @return the offset after the record's line break, or -1 if more data is needed
+     *         (the partial record is then discarded and scanned again after the refill)
+     */
+    private int scanRecord(int start, int limit, boolean eof) {
+        if (start >= limit) {
+            return -1;
+        }
+        byte[] buf = buffer;
+        batch.beginRecord();
+        int i = start;
+        while (true) {
+            if (i < limit && buf[i] == quote) {
+                int fieldStart = i + 1;
+                int j = fieldStart;
+                boolean escaped = false;
+                while (true) {
+                    if (j >= limit) {
+                        if (!eof) {
+                            return incomplete();
+                        }
+                        // Unterminated quote at the end of the file: keep what there is
+                        break;
+                    }
+                    if (buf[j] == quote) {
+                        if (j + 1 >= limit && !eof) {
+                            // A doubled quote may continue in the next read
+                            return incomplete();
+                        }
+                        if (j + 1 < limit && buf[j + 1] == quote) {
+                            escaped = true;
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                if (escaped) {
+                    if (escapedCount == escapedFields.length) {
+                        escapedFields = Arrays.copyOf(escapedFields, escapedCount * 2);
+                    }
+                    escapedFields[escapedCount++] = batch.pendingFieldCount();
+                }
+                batch.addField(fieldStart, Math.min(j, limit));
+                i = j + 1;
+                // Anything between the closing quote and the delimiter is ignored
+                while (i < limit && buf[i] != delimiter && buf[i] != '\n' && buf[i] != '\r') {
+                    i++;
+                }
+            } else {
+                int j = i;
+                while (j < limit) {
+                    byte b = buf[j];
+                    if (b == delimiter || b == '\n' || b == '\r') {
+                        break;
+                    }
+                    j++;
+                }
+                batch.addField(i, j);
+                i = j;
+            }
+
+            if (i >= limit) {
+                return eof ? limit : incomplete();
+            }
+            byte b = buf[i];
+            if (b == delimiter) {
+                i++;
+                continue;
+            }
+            if (b == '\r') {
+                if (i + 1 < limit) {
+                    return buf[i + 1] == '\n' ? i + 2 : i + 1;
+                }
+                return eof ? i + 1 : incomplete();
+            }
+            return i + 1;
+        }
+    }
+
+    private int incomplete() {
+        batch.discardRecord();
+        return -1;
+    }
+
+    private boolean isBlankLine() {
+        return batch.pendingFieldCount() == 1 && batch.pendingFieldStart(0) == batch.pendingFieldEnd(0)
+            && escapedCount == 0;
+    }
+
+    /**
+     * Collapses doubled quotes of the fields that have them; the record is complete, so
+     * its bytes are not scanned again.
+     */
+    private void unescapeQuotes() {
+        for (int k = 0; k < escapedCount; k++) {
+            int field = escapedFields[k];
+            int read = batch.pendingFieldStart(field);
+            int end = batch.pendingFieldEnd(field);
+            int write = read;
+            while (read < end) {
+                byte b = buffer[read++];
+                buffer[write++] = b;
+                if (b == quote && read < end && buffer[read] == quote) {
+                    read++;
+                }
+            }
+            batch.setFieldEnd(field, write);
+        }
+        escapedCount = 0;
+    }
+
+    private List<String> pendingRecordAsStrings() {
+        unescapeQuotes();
+        int count = batch.pendingFieldCount();
+        List<String> values = new ArrayList<>(count);
+        for (int field = 0; field < count; field++) {
+            int start = batch.pendingFieldStart(field);
+            values.add(new String(buffer, start, batch.pendingFieldEnd(field) - start, StandardCharsets.UTF_8));
+        }
+        return List.copyOf(values);
+    }
+
+    private void flush(RecordSink sink) throws Exception {
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+        batch.clear();
+    }
+
+    private void grow() throws IOException {
+        if (buffer.length >= maxRecordBytes) {
+            throw new IOException("CSV record exceeds " + maxRecordBytes + " bytes in " + batch.source());
+        }
+        byte[] larger = new byte[(int) Math.min(maxRecordBytes, (long) buffer.length * 2)];
+        System.arraycopy(buffer, 0, larger, 0, buffer.length);
+        buffer = larger;
+        readView = ByteBuffer.wrap(buffer);
+        batch.setData(buffer);
+    }
+}
@@ -0,0 +1,70 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams the rows of .xlsx and .xls workbooks to the {@link RecordSink} in batches,
+ * without loading the workbook model. Parsers and their buffers are pooled across files.
+ */
+@Component
+public class ExcelFileProcessor extends FileFormatProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExcelFileProcessor.class);
+
+    private static final int MAX_POOLED_PARSERS = 64;
+
+    private final ApplicationProperties.Processing settings;
+    private final RecordSink sink;
+    private final BlockingQueue<ExcelRecordParser> parsers = new ArrayBlockingQueue<>(MAX_POOLED_PARSERS);
+
+    public ExcelFileProcessor() {
+        this(new ApplicationProperties.Processing(), RecordSink.DISCARD);
+    }
+
+    @Autowired
+    public ExcelFileProcessor(ApplicationProperties properties, ObjectProvider<RecordSink> sink) {
+        this(properties.getProcessing(), sink.getIfAvailable(() -> RecordSink.DISCARD));
+    }
+
+    public ExcelFileProcessor(ApplicationProperties.Processing settings, RecordSink sink) {
+        super(ContentType.EXCEL);
+        this.settings = settings;
+        this.sink = sink;
+    }
+
+    @Override
+    protected ProcessingResult processFile(Path filePath, long startTime) throws Exception {
+        ExcelRecordParser parser = parsers.poll();
+        if (parser == null) {
+            parser = new ExcelRecordParser(settings.getBatchSize(), settings.getMaxRecordBytes(),
+                                           settings.isExcelHeader());
+        }
+        long rowCount;
+        try {
+            rowCount = parser.parse(filePath, sink);
+        } finally {
+            // A buffer grown for one huge row is not kept
+            if (parser.getBufferSize() <= settings.getBufferSizeBytes()) {
+                parsers.offer(parser);
+            }
+        }
+
+        logger.debug("Processed Excel file with {} rows", rowCount);
+
+        return ProcessingResult.success(
+            "Processed " + rowCount + " rows from " + filePath.getFileName(),
+            System.currentTimeMillis() - startTime,
+            filePath.toString()
+        );
+    }
+}
@@ -0,0 +1,372 @@
+package com.dashboardengine.consumer.processing;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming Excel reader on POI's event models: the XSSF SAX handler for .xlsx and the
+ * HSSF record listener for .xls. No workbook object model is built.
+ *
+ * <p>Each non-empty row of every sheet becomes a record with one field per column, as
+ * Excel displays the value (formulas give their cached result). Columns skipped in a
+ * row are empty fields, and rows are padded to the header width. With {@code header},
+ * the first non-empty row of each sheet is the header; the batch is flushed at every
+ * sheet boundary, and records are numbered across sheets.
+ *
+ * <p>Heap use is bounded by the batch and the largest row, capped at {@code maxRecordBytes},
+ * plus the workbook's shared string table. Not thread-safe: one instance parses one file
+ * at a time.
+ */
+public class ExcelRecordParser {
+
+    private final int batchSize;
+    private final int maxRecordBytes;
+    private final boolean header;
+    private final RecordBatch batch;
+    private final List<String> headerCells = new ArrayList<>();
+    private char[] scratch = new char[256];
+
+    private RecordSink sink;
+    private long records;
+    private boolean headerPending;
+    private boolean rowOpen;
+    private int nextColumn;
+    private int rowStart;
+
+    public ExcelRecordParser(int batchSize, int maxRecordBytes, boolean header) {
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRecordBytes = maxRecordBytes;
+        this.header = header;
+        this.batch = new RecordBatch(ContentType.EXCEL, this.batchSize);
+    }
+
+    /**
+     * Parses a whole workbook, telling .xlsx from .xls by content.
+     *
+     * @return number of records handed to the sink, headers excluded
+     * @throws IOException if the file is not a readable workbook or a row exceeds the
+     *                     maximum record size; records before the error have already
+     *                     reached the sink
+     * @throws Exception   thrown by the sink
+     */
+    public long parse(Path file, RecordSink sink) throws Exception {
+        batch.start(file);
+        this.sink = sink;
+        this.records = 0;
+        this.rowOpen = false;
+        try {
+            FileMagic magic = FileMagic.valueOf(file.toFile());
+            if (magic == FileMagic.OOXML) {
+                parseXlsx(file);
+            } else if (magic == FileMagic.OLE2) {
+                parseXls(file);
+            } else {
+                throw new IOException("Not an Excel workbook: " + file.getFileName() + " (" + magic + ")");
+            }
+            flush();
+        } catch (CallbackFailure e) {
+            throw e.getCause();
+        } catch (SAXException e) {
+            if (e.getCause() instanceof CallbackFailure failure) {
+                throw failure.getCause();
+            }
+            throw new IOException("Unreadable workbook " + file.getFileName() + ": " + e.getMessage(), e);
+        } catch (OpenXML4JException | ParserConfigurationException e) {
+            throw new IOException("Unreadable workbook " + file.getFileName() + ": " + e.getMessage(), e);
+        } finally {
+            this.sink = null;
+        }
+        return records;
+    }
+
+    /**
+     * Size of the data array rows are extracted into.
+     */
+    public int getBufferSize() {
+        return batch.dataCapacity();
+    }
+
+    private void parseXlsx(Path file) throws Exception {
+        try (OPCPackage workbook = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(workbook);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(workbook, false);
+            DataFormatter formatter = new GeneralIntegerFormatter();
+            XSSFSheetXMLHandler.SheetContentsHandler rows = new XlsxRows();
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    startSheet();
+                    XMLReader xml = XMLHelper.newXMLReader();
+                    xml.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings, rows,
+                                                                  formatter, false));
+                    xml.parse(new InputSource(sheet));
+                    endRow();
+                }
+            }
+        }
+    }
+
+    private void parseXls(Path file) throws IOException {
+        try (POIFSFileSystem workbook = new POIFSFileSystem(file.toFile(), true)) {
+            XlsRows rows = new XlsRows();
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(rows.formats);
+            new HSSFEventFactory().processWorkbookEvents(request, workbook);
+            endRow();
+        }
+    }
+
+    private void startSheet() {
+        endRow();
+        flush();
+        headerPending = header;
+        headerCells.clear();
+        batch.setHeader(List.of());
+    }
+
+    private void cell(int column, String value) {
+        if (!rowOpen) {
+            rowOpen = true;
+            nextColumn = 0;
+            rowStart = batch.dataLength();
+            batch.beginRecord();
+        }
+        if (column < nextColumn) {
+            // Without a cell reference the value goes in the next column
+            column = nextColumn;
+        }
+        if (headerPending) {
+            while (headerCells.size() < column) {
+                headerCells.add("");
+            }
+            headerCells.add(value);
+            nextColumn = column + 1;
+            return;
+        }
+        for (; nextColumn < column; nextColumn++) {
+            addEmptyField();
+        }
+        int length = value.length();
+        if (length > scratch.length) {
+            scratch = new char[Math.max(length, scratch.length * 2)];
+        }
+        value.getChars(0, length, scratch, 0);
+        int start = batch.append(scratch, 0, length);
+        batch.addField(start, batch.dataLength());
+        nextColumn++;
+        if (batch.dataLength() - rowStart > maxRecordBytes) {
+            throw new CallbackFailure(new IOException(
+                "Excel row exceeds " + maxRecordBytes + " bytes in " + batch.source()));
+        }
+    }
+
+    private void endRow() {
+        if (!rowOpen) {
+            return;
+        }
+        rowOpen = false;
+        if (headerPending) {
+            batch.setHeader(List.copyOf(headerCells));
+            batch.discardRecord();
+            headerPending = false;
+            return;
+        }
+        for (; nextColumn < batch.header().size(); nextColumn++) {
+            addEmptyField();
+        }
+        batch.commitRecord();
+        records++;
+        if (batch.size() == batchSize) {
+            flush();
+        }
+    }
+
+    private void addEmptyField() {
+        int empty = batch.dataLength();
+        batch.addField(empty, empty);
+    }
+
+    private void flush() {
+        try {
+            if (batch.size() > 0) {
+                sink.accept(batch);
+            }
+        } catch (Exception e) {
+            throw new CallbackFailure(e);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Carries a checked exception out of a POI callback, which cannot throw one.
+     */
+    private static final class CallbackFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        CallbackFailure(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+
+    /**
+     * Column of an A1-style reference such as "AB12", without the regex parsing of
+     * {@code CellReference}.
+     */
+    private static int columnIndex(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                column = column * 26 + (c - 'A' + 1);
+            } else if (c != '$') {
+                break;
+            }
+        }
+        return column - 1;
+    }
+
+    /**
+     * Formats whole numbers in the General format directly; formatting a double through
+     * {@link DataFormatter} dominates the cost of reading numeric sheets.
+     */
+    private static final class GeneralIntegerFormatter extends DataFormatter {
+
+        // General switches to scientific notation at 11 digits
+        private static final double MAX_PLAIN = 1e11;
+
+        GeneralIntegerFormatter() {
+            super(Locale.ROOT);
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (formatIndex == 0 && Math.abs(value) < MAX_PLAIN && value == Math.rint(value)) {
+                return Long.toString((long) value);
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+
+    private final class XlsxRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private int fallbackColumn;
+
+        @Override
+        public void startRow(int rowNum) {
+            fallbackColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            ExcelRecordParser.this.endRow();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? fallbackColumn : columnIndex(cellReference);
+            fallbackColumn = column + 1;
+            ExcelRecordParser.this.cell(column, formattedValue == null ? "" : formattedValue);
+        }
+    }
+
+    private final class XlsRows implements HSSFListener {
+
+        private final FormatTrackingHSSFListener formats =
+            new FormatTrackingHSSFListener(new MissingRecordAwareHSSFListener(this), Locale.ROOT);
+        private SSTRecord strings;
+        private int stringFormulaColumn = -1;
+
+        @Override
+        public void processRecord(org.apache.poi.hssf.record.Record record) {
+            if (record instanceof LastCellOfRowDummyRecord) {
+                endRow();
+                return;
+            }
+            switch (record.getSid()) {
+                case BOFRecord.sid -> {
+                    if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+                        startSheet();
+                    }
+                }
+                case SSTRecord.sid -> strings = (SSTRecord) record;
+                case LabelSSTRecord.sid -> {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    cell(label.getColumn(), strings == null ? "" : strings.getString(label.getSSTIndex()).getString());
+                }
+                case LabelRecord.sid -> {
+                    LabelRecord label = (LabelRecord) record;
+                    cell(label.getColumn(), label.getValue());
+                }
+                case NumberRecord.sid -> {
+                    NumberRecord number = (NumberRecord) record;
+                    cell(number.getColumn(), formats.formatNumberDateCell(number));
+                }
+                case BoolErrRecord.sid -> {
+                    BoolErrRecord value = (BoolErrRecord) record;
+                    if (value.isBoolean()) {
+                        cell(value.getColumn(), value.getBooleanValue() ? "TRUE" : "FALSE");
+                    }
+                }
+                case FormulaRecord.sid -> formula((FormulaRecord) record);
+                case StringRecord.sid -> {
+                    // Cached result of the string formula just before it
+                    if (stringFormulaColumn >= 0) {
+                        cell(stringFormulaColumn, ((StringRecord) record).getString());
+                        stringFormulaColumn = -1;
+                    }
+                }
+                default -> { }
+            }
+        }
+
+        private void formula(FormulaRecord formula) {
+            switch (formula.getCachedResultTypeEnum()) {
+                case STRING -> stringFormulaColumn = formula.getColumn();
+                case BOOLEAN -> cell(formula.getColumn(), formula.getCachedBooleanValue() ? "TRUE" : "FALSE");
+                case NUMERIC -> cell(formula.getColumn(), formats.formatNumberDateCell(formula));
+                default -> { }
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.dashboardengine.consumer.processing;
+
+/**
+ * Byte range {@code [start, end)} of a file split for parallel processing. It starts
+ * at a record boundary and holds whole records.
+ *
+ * @param index position of the chunk in the file, from 0
+ */
+public record FileChunk(int index, long start, long end) {
+
+    public long length() {
+        return end - start;
+    }
+}
@@ -0,0 +1,173 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits line-delimited files into chunks of about {@code chunkBytes} that end right
+ * after a record's line feed, and reads chunks back as bounded channels.
+ */
+final class FileChunker {
+
+    private static final int PROBE_SIZE = 64 * 1024;
+    private static final int SCAN_WINDOW = 64 * 1024 * 1024;
+
+    private FileChunker() {
+    }
+
+    /**
+     * Chunks for a file whose records are single lines, such as NDJSON or plain text.
+     * Each boundary is found by probing forward from the target offset.
+     */
+    static List<FileChunk> byLines(FileChannel channel, long start, long size, long chunkBytes) throws IOException {
+        List<FileChunk> chunks = new ArrayList<>();
+        long chunkStart = start;
+        while (chunkStart < size) {
+            long boundary = size;
+            long target = chunkStart + Math.max(1, chunkBytes);
+            if (target < size) {
+                long lineFeed = nextLineFeed(channel, target - 1, size);
+                boundary = lineFeed < 0 ? size : lineFeed + 1;
+            }
+            chunks.add(new FileChunk(chunks.size(), chunkStart, boundary));
+            chunkStart = boundary;
+        }
+        return chunks;
+    }
+
+    /**
+     * Chunks for CSV, whose quoted fields may hold line breaks. A line feed is a
+     * boundary only outside quotes, which takes one sequential pass over the file; it
+     * reads bytes without parsing and costs a fraction of the parse it splits up.
+     */
+    static List<FileChunk> byCsvRecords(FileChannel channel, long start, long size, long chunkBytes, byte quote)
+            throws IOException {
+        List<FileChunk> chunks = new ArrayList<>();
+        long chunkStart = start;
+        long target = start + Math.max(1, chunkBytes);
+        boolean quoted = false;
+        for (long position = start; position < size && target < size; position += SCAN_WINDOW) {
+            int length = (int) Math.min(SCAN_WINDOW, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < length; i++) {
+                byte b = window.get(i);
+                if (b == quote) {
+                    // A doubled quote toggles twice
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted && position + i + 1 >= target) {
+                    long boundary = position + i + 1;
+                    chunks.add(new FileChunk(chunks.size(), chunkStart, boundary));
+                    chunkStart = boundary;
+                    target = boundary + chunkBytes;
+                    if (target >= size) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (chunkStart < size) {
+            chunks.add(new FileChunk(chunks.size(), chunkStart, size));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the offset after the first CSV record starting at {@code from}, that is
+     *         after its first line feed outside quotes, or {@code size}
+     */
+    static long csvRecordEnd(FileChannel channel, long from, long size, byte quote) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        boolean quoted = false;
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = probe.get(i);
+                if (b == quote) {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * @return the offset of the first line feed at or after {@code from}, or -1
+     */
+    static long nextLineFeed(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the chunk's bytes; closing the channel leaves the file channel open.
+     */
+    static ReadableByteChannel open(FileChannel channel, FileChunk chunk) {
+        return new ReadableByteChannel() {
+            private long position = chunk.start();
+            private boolean open = true;
+
+            @Override
+            public int read(ByteBuffer destination) throws IOException {
+                long remaining = chunk.end() - position;
+                if (remaining <= 0) {
+                    return -1;
+                }
+                ByteBuffer view = destination;
+                if (destination.remaining() > remaining) {
+                    view = destination.slice().limit((int) remaining);
+                }
+                int read = channel.read(view, position);
+                if (read > 0) {
+                    position += read;
+                    if (view != destination) {
+                        destination.position(destination.position() + read);
+                    }
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+            }
+        };
+    }
+
+    static InputStream openStream(FileChannel channel, FileChunk chunk) {
+        return Channels.newInputStream(open(channel, chunk));
+    }
+}
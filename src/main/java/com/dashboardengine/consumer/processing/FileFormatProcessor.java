@@ -0,0 +1,174 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.MessageProcessor;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Processor for one {@link ContentType}, picked by {@link ProcessorRegistry}. Adding a
+ * format means adding a subclass as a Spring component; nothing else routes by type.
+ *
+ * <p>Runs on the caller's thread, a worker of the consumer's executor when called
+ * through {@link FileMessageProcessor}, so the returned future is complete unless the
+ * file was split.
+ *
+ * <p>A subclass built with the processing settings that implements
+ * {@link SplittableFormat} splits files of at least
+ * {@code app.processing.split-threshold-bytes} into chunks aligned to record boundaries.
+ * The chunks run on a pool dedicated to chunk work, never the common pool, and the
+ * caller returns once they are submitted; the future completes with their counts and
+ * failures merged in file order when the last chunk finishes.
+ */
+public abstract class FileFormatProcessor implements MessageProcessor<Path> {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileFormatProcessor.class);
+
+    /**
+     * Runs the chunks of split files, and the segments of parallel line counts, for all
+     * processors; its threads exit when idle.
+     */
+    static final ForkJoinPool CHUNK_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+        pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("FileChunk-" + thread.getPoolIndex());
+            return thread;
+        }, null, true);
+
+    private final ContentType contentType;
+    private final long splitThresholdBytes;
+    private final long splitChunkBytes;
+
+    protected FileFormatProcessor(ContentType contentType) {
+        this.contentType = contentType;
+        this.splitThresholdBytes = 0;
+        this.splitChunkBytes = 0;
+    }
+
+    protected FileFormatProcessor(ContentType contentType, ApplicationProperties.Processing settings) {
+        this.contentType = contentType;
+        this.splitThresholdBytes = settings.getSplitThresholdBytes();
+        this.splitChunkBytes = Math.max(1, settings.getSplitChunkBytes());
+    }
+
+    public ContentType getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public CompletableFuture<ProcessingResult> process(Path filePath, String sourceType) {
+        return start(filePath);
+    }
+
+    /**
+     * Processes the file on the calling thread, or submits its chunks if it is split;
+     * failures become a failed result, never an exceptional future.
+     */
+    CompletableFuture<ProcessingResult> start(Path filePath) {
+        long startTime = System.currentTimeMillis();
+        try {
+            if (this instanceof SplittableFormat splittable && splitThresholdBytes > 0
+                    && Files.size(filePath) >= splitThresholdBytes) {
+                CompletableFuture<ProcessingResult> result = processSplit(splittable, filePath, startTime);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return CompletableFuture.completedFuture(processFile(filePath, startTime));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ProcessingResult.failure(
+                "Type-specific processing error: " + e.getMessage(), System.currentTimeMillis() - startTime));
+        }
+    }
+
+    @Override
+    public boolean canProcess(String messageType) {
+        return contentType.name().equals(messageType);
+    }
+
+    protected abstract ProcessingResult processFile(Path filePath, long startTime) throws Exception;
+
+    /**
+     * What the records are called in result messages.
+     */
+    protected String recordNoun() {
+        return "records";
+    }
+
+    /**
+     * @return the merged result, or null if the file was not worth splitting
+     */
+    private CompletableFuture<ProcessingResult> processSplit(SplittableFormat format, Path filePath, long startTime)
+            throws IOException {
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        List<FileChunk> chunks;
+        try {
+            chunks = format.planChunks(filePath, channel, splitChunkBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (chunks.size() < 2) {
+            channel.close();
+            return null;
+        }
+        logger.debug("Processing {} in {} chunks", filePath.getFileName(), chunks.size());
+
+        List<CompletableFuture<Long>> tasks = new ArrayList<>(chunks.size());
+        for (FileChunk chunk : chunks) {
+            tasks.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return format.processChunk(filePath, channel, chunk);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, CHUNK_POOL));
+        }
+        // Every chunk finishes before the channel closes; the first failure in file order wins
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).handle((ignored, error) -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing split file: {}", filePath, e);
+            }
+            long records = 0;
+            String failure = null;
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    records += tasks.get(i).join();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        Throwable cause = e;
+                        while (cause.getCause() != null) {
+                            cause = cause.getCause();
+                        }
+                        failure = "chunk " + i + " of " + chunks.size() + ": " + cause.getMessage();
+                    }
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (failure != null) {
+                return new ProcessingResult(false, "Type-specific processing error: " + failure,
+                                            LocalDateTime.now(), elapsed, null, chunks.size());
+            }
+            return new ProcessingResult(true, "Processed " + records + " " + recordNoun() + " from "
+                + filePath.getFileName() + " in " + chunks.size() + " chunks",
+                LocalDateTime.now(), elapsed, filePath.toString(), chunks.size());
+        });
+    }
+}
@@ -4,163 +4,149 @@ import com.dashboardengine.consumer.core.MessageProcessor;
 import com.dashboardengine.consumer.core.ProcessingResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+/**
+ * Entry point for processing a file: validates it, lets the {@link ProcessorRegistry}
+ * pick the format's processor and falls back to generic processing for types without one.
+ */
 @Component
+@Primary
 public class FileMessageProcessor implements MessageProcessor<Path> {
 
     private static final Logger logger = LoggerFactory.getLogger(FileMessageProcessor.class);
 
-    @Override
-    public CompletableFuture<ProcessingResult> process(Path filePath, String sourceType) {
-        return CompletableFuture.supplyAsync(() -> {
-            long startTime = System.currentTimeMillis();
-            
-            try {
-                logger.debug("Processing file: {} from source: {}", filePath, sourceType);
-                
-                // Validate file exists and is readable
-                if (!Files.exists(filePath)) {
-                    return ProcessingResult.failure("File does not exist: " + filePath, 
-                                                   System.currentTimeMillis() - startTime);
-                }
-                
-                if (!Files.isReadable(filePath)) {
-                    return ProcessingResult.failure("File is not readable: " + filePath, 
-                                                   System.currentTimeMillis() - startTime);
-                }
-                
-                // Get file info
-                long fileSize = Files.size(filePath);
-                String contentType = getContentType(filePath);
-                
-                logger.info("Processing file: {} (size: {} bytes, type: {})", 
-                           filePath.getFileName(), fileSize, contentType);
-                
-                // Process based on file type
-                ProcessingResult result = processFileByType(filePath, contentType, startTime);
-                
-                if (result.success()) {
-                    logger.info("Successfully processed file: {} in {}ms", 
-                               filePath.getFileName(), result.processingTimeMs());
-                }
-                
-                return result;
-                
-            } catch (Exception e) {
-                logger.error("Error processing file: {}", filePath, e);
-                return ProcessingResult.failure("Processing error: " + e.getMessage(), 
-                                               System.currentTimeMillis() - startTime);
-            }
-        });
+    private final ProcessorRegistry registry;
+
+    public FileMessageProcessor() {
+        this(ProcessorRegistry.withDefaults());
     }
 
-    @Override
-    public boolean canProcess(String messageType) {
-        return "FILE".equals(messageType) || "PATH".equals(messageType);
+    @Autowired
+    public FileMessageProcessor(ProcessorRegistry registry) {
+        this.registry = registry;
     }
 
-    private String getContentType(Path filePath) {
-        String fileName = filePath.getFileName().toString().toLowerCase();
-        
-        if (fileName.endsWith(".txt")) return "TEXT";
-        if (fileName.endsWith(".csv")) return "CSV";
-        if (fileName.endsWith(".json")) return "JSON";
-        if (fileName.endsWith(".xml")) return "XML";
-        if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) return "EXCEL";
-        if (fileName.endsWith(".pdf")) return "PDF";
-        
-        return "UNKNOWN";
+    /**
+     * Processes the file on the calling thread; the returned future is complete unless
+     * the format processor split the file into chunks.
+     */
+    @Override
+    public CompletableFuture<ProcessingResult> process(Path filePath, String sourceType) {
+        return processFile(filePath, sourceType, false);
     }
 
-    private ProcessingResult processFileByType(Path filePath, String contentType, long startTime) {
-        try {
-            switch (contentType) {
-                case "TEXT":
-                    return processTextFile(filePath, startTime);
-                case "CSV":
-                    return processCsvFile(filePath, startTime);
-                case "JSON":
-                    return processJsonFile(filePath, startTime);
-                case "XML":
-                    return processXmlFile(filePath, startTime);
-                case "EXCEL":
-                    return processExcelFile(filePath, startTime);
-                default:
-                    return processGenericFile(filePath, startTime);
-            }
-        } catch (Exception e) {
-            return ProcessingResult.failure("Type-specific processing error: " + e.getMessage(), 
-                                           System.currentTimeMillis() - startTime);
-        }
+    /**
+     * Processes the files one after another on the calling thread.
+     */
+    @Override
+    public CompletableFuture<List<ProcessingResult>> processBatch(List<Path> filePaths, String sourceType) {
+        return processBatchFiles(filePaths, sourceType);
     }
 
-    private ProcessingResult processTextFile(Path filePath, long startTime) throws Exception {
-        // Simulate text file processing
-        long lineCount = Files.lines(filePath).count();
-        
-        logger.debug("Processed text file with {} lines", lineCount);
-        
-        return ProcessingResult.success(
-            System.currentTimeMillis() - startTime,
-            "Processed " + lineCount + " lines from " + filePath.getFileName()
-        );
+    /**
+     * Processes the whole batch in one task on {@code executor}.
+     */
+    @Override
+    public CompletableFuture<List<ProcessingResult>> processBatch(List<Path> filePaths, String sourceType,
+                                                                 Executor executor) {
+        return CompletableFuture.supplyAsync(() -> processBatchFiles(filePaths, sourceType), executor)
+            .thenCompose(Function.identity());
     }
 
-    private ProcessingResult processCsvFile(Path filePath, long startTime) throws Exception {
-        // Simulate CSV processing
-        long lineCount = Files.lines(filePath).count();
-        long recordCount = Math.max(0, lineCount - 1); // Exclude header
-        
-        logger.debug("Processed CSV file with {} records", recordCount);
-        
-        return ProcessingResult.success(
-            System.currentTimeMillis() - startTime,
-            "Processed " + recordCount + " records from " + filePath.getFileName()
-        );
+    /**
+     * Logs once for the batch; the files themselves are only logged at debug level.
+     */
+    private CompletableFuture<List<ProcessingResult>> processBatchFiles(List<Path> filePaths, String sourceType) {
+        long startTime = System.currentTimeMillis();
+        List<CompletableFuture<ProcessingResult>> results = new ArrayList<>(filePaths.size());
+        for (Path filePath : filePaths) {
+            results.add(processFile(filePath, sourceType, true));
+        }
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            List<ProcessingResult> completed = results.stream().map(CompletableFuture::join).toList();
+            long failed = completed.stream().filter(result -> !result.success()).count();
+            logger.info("Processed batch of {} files ({} failed) in {}ms from source: {}",
+                       filePaths.size(), failed, System.currentTimeMillis() - startTime, sourceType);
+            return completed;
+        });
     }
 
-    private ProcessingResult processJsonFile(Path filePath, long startTime) throws Exception {
-        // Simulate JSON processing
-        String content = Files.readString(filePath);
-        int objectCount = content.split("\\{").length - 1;
-        
-        logger.debug("Processed JSON file with {} objects", objectCount);
+    /**
+     * @return never completes exceptionally; failures become a failed result
+     */
+    private CompletableFuture<ProcessingResult> processFile(Path filePath, String sourceType, boolean batched) {
+        long startTime = System.currentTimeMillis();
+        Level progress = batched ? Level.DEBUG : Level.INFO;
         
-        return ProcessingResult.success(
-            System.currentTimeMillis() - startTime,
-            "Processed " + objectCount + " objects from " + filePath.getFileName()
-        );
+        try {
+            logger.debug("Processing file: {} from source: {}", filePath, sourceType);
+            
+            // Validate file exists and is readable
+            if (!Files.exists(filePath)) {
+                return CompletableFuture.completedFuture(ProcessingResult.failure(
+                    "File does not exist: " + filePath, System.currentTimeMillis() - startTime));
+            }
+            
+            if (!Files.isReadable(filePath)) {
+                return CompletableFuture.completedFuture(ProcessingResult.failure(
+                    "File is not readable: " + filePath, System.currentTimeMillis() - startTime));
+            }
+            
+            // Get file info
+            long fileSize = Files.size(filePath);
+            ContentType contentType = registry.resolve(filePath, sourceType);
+            
+            logger.atLevel(progress).log("Processing file: {} (size: {} bytes, type: {})",
+                                         filePath.getFileName(), fileSize, contentType);
+            
+            // Process based on file type
+            return processFileByType(filePath, contentType, startTime).thenApply(result -> {
+                if (result.success()) {
+                    logger.atLevel(progress).log("Successfully processed file: {} in {}ms",
+                                                 filePath.getFileName(), result.processingTimeMs());
+                }
+                return result;
+            });
+            
+        } catch (Exception e) {
+            logger.error("Error processing file: {}", filePath, e);
+            return CompletableFuture.completedFuture(ProcessingResult.failure(
+                "Processing error: " + e.getMessage(), System.currentTimeMillis() - startTime));
+        }
     }
 
-    private ProcessingResult processXmlFile(Path filePath, long startTime) throws Exception {
-        // Simulate XML processing
-        String content = Files.readString(filePath);
-        int elementCount = content.split("<[^/]").length - 1;
-        
-        logger.debug("Processed XML file with {} elements", elementCount);
-        
-        return ProcessingResult.success(
-            System.currentTimeMillis() - startTime,
-            "Processed " + elementCount + " elements from " + filePath.getFileName()
-        );
+    @Override
+    public boolean canProcess(String messageType) {
+        return "FILE".equals(messageType) || "PATH".equals(messageType);
     }
 
-    private ProcessingResult processExcelFile(Path filePath, long startTime) throws Exception {
-        // Simulate Excel processing (would use Apache POI in real implementation)
-        long fileSize = Files.size(filePath);
-        int estimatedRows = (int) (fileSize / 100); // Rough estimation
-        
-        logger.debug("Processed Excel file with estimated {} rows", estimatedRows);
-        
-        return ProcessingResult.success(
-            System.currentTimeMillis() - startTime,
-            "Processed ~" + estimatedRows + " rows from " + filePath.getFileName()
-        );
+    private CompletableFuture<ProcessingResult> processFileByType(Path filePath, ContentType contentType,
+                                                                  long startTime) {
+        FileFormatProcessor processor = registry.processorFor(contentType);
+        if (processor == null) {
+            try {
+                return CompletableFuture.completedFuture(processGenericFile(filePath, startTime));
+            } catch (Exception e) {
+                return CompletableFuture.completedFuture(ProcessingResult.failure(
+                    "Type-specific processing error: " + e.getMessage(), System.currentTimeMillis() - startTime));
+            }
+        }
+        // Count from the start of this request, including validation and sniffing
+        return processor.start(filePath).thenApply(result -> new ProcessingResult(result.success(),
+            result.message(), result.processedAt(), System.currentTimeMillis() - startTime,
+            result.outputLocation(), result.chunks()));
     }
 
     private ProcessingResult processGenericFile(Path filePath, long startTime) throws Exception {
@@ -170,8 +156,9 @@ public class FileMessageProcessor implements MessageProcessor<Path> {
         logger.debug("Processed generic file of {} bytes", fileSize);
         
         return ProcessingResult.success(
+            "Processed " + fileSize + " bytes from " + filePath.getFileName(),
             System.currentTimeMillis() - startTime,
-            "Processed " + fileSize + " bytes from " + filePath.getFileName()
+            filePath.toString()
         );
     }
 }
\ No newline at end of file
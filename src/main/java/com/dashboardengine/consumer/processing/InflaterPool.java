@@ -0,0 +1,36 @@
+package com.dashboardengine.consumer.processing;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * Reuses {@link Inflater}s, whose native state is costly to create and is only freed
+ * by {@link Inflater#end()} or the cleaner. Raw inflaters (gzip members, zip entries)
+ * and zlib ones are kept apart since the mode is fixed at construction.
+ */
+final class InflaterPool {
+
+    private final BlockingQueue<Inflater> raw;
+    private final BlockingQueue<Inflater> zlib;
+
+    InflaterPool(int capacity) {
+        this.raw = new ArrayBlockingQueue<>(capacity);
+        this.zlib = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @param nowrap true for raw deflate data without the zlib header and checksum
+     */
+    Inflater acquire(boolean nowrap) {
+        Inflater inflater = (nowrap ? raw : zlib).poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    void release(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!(nowrap ? raw : zlib).offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams JSON records (array elements or NDJSON lines) to the {@link RecordSink} in
+ * batches, optionally reduced to the fields named by {@code app.processing.json-pointers}.
+ * Parsers and their buffers are pooled across files.
+ */
+@Component
+public class JsonFileProcessor extends FileFormatProcessor implements SplittableFormat, StreamableFormat {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonFileProcessor.class);
+
+    private static final int MAX_POOLED_PARSERS = 64;
+    private static final int NDJSON_PROBE_BYTES = 64 * 1024;
+
+    private final ApplicationProperties.Processing settings;
+    private final RecordSink sink;
+    private final JsonFactory factory = new JsonFactory();
+    private final BlockingQueue<JsonRecordParser> parsers = new ArrayBlockingQueue<>(MAX_POOLED_PARSERS);
+
+    public JsonFileProcessor() {
+        this(new ApplicationProperties.Processing(), RecordSink.DISCARD);
+    }
+
+    @Autowired
+    public JsonFileProcessor(ApplicationProperties properties, ObjectProvider<RecordSink> sink) {
+        this(properties.getProcessing(), sink.getIfAvailable(() -> RecordSink.DISCARD));
+    }
+
+    public JsonFileProcessor(ApplicationProperties.Processing settings, RecordSink sink) {
+        super(ContentType.JSON, settings);
+        this.settings = settings;
+        this.sink = sink;
+        // Fail on a malformed pointer at startup rather than on the first file
+        parsers.offer(newParser());
+    }
+
+    @Override
+    protected ProcessingResult processFile(Path filePath, long startTime) throws Exception {
+        JsonRecordParser parser = takeParser();
+        long objectCount;
+        try (InputStream in = Files.newInputStream(filePath)) {
+            objectCount = parser.parse(in, filePath, sink);
+        } finally {
+            releaseParser(parser);
+        }
+
+        logger.debug("Processed JSON file with {} objects", objectCount);
+
+        return ProcessingResult.success(
+            "Processed " + objectCount + " objects from " + filePath.getFileName(),
+            System.currentTimeMillis() - startTime,
+            filePath.toString()
+        );
+    }
+
+    /**
+     * Splits NDJSON only; an array or a value spanning lines is parsed whole. The first
+     * line decides: it must hold exactly one object.
+     */
+    @Override
+    public List<FileChunk> planChunks(Path filePath, FileChannel channel, long chunkBytes) throws IOException {
+        if (sink.ordered() || !isLineDelimited(channel)) {
+            return List.of();
+        }
+        return FileChunker.byLines(channel, 0, channel.size(), chunkBytes);
+    }
+
+    @Override
+    public long processChunk(Path filePath, FileChannel channel, FileChunk chunk) throws Exception {
+        JsonRecordParser parser = takeParser();
+        try (InputStream in = FileChunker.openStream(channel, chunk)) {
+            return parser.parseChunk(in, filePath, chunk.index(), sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    @Override
+    protected String recordNoun() {
+        return "objects";
+    }
+
+    private boolean isLineDelimited(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(NDJSON_PROBE_BYTES, channel.size()));
+        channel.read(head, 0);
+        byte[] bytes = head.array();
+        int lineEnd = 0;
+        while (lineEnd < head.position() && bytes[lineEnd] != '\n') {
+            lineEnd++;
+        }
+        if (lineEnd == head.position()) {
+            return false;
+        }
+        try (JsonParser parser = factory.createParser(bytes, 0, lineEnd)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            // Unbalanced or otherwise not a value on its own
+            return false;
+        }
+    }
+
+    @Override
+    public long processStream(InputStream in, Path source) throws Exception {
+        JsonRecordParser parser = takeParser();
+        try {
+            return parser.parse(in, source, sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    private JsonRecordParser takeParser() {
+        JsonRecordParser parser = parsers.poll();
+        return parser != null ? parser : newParser();
+    }
+
+    private void releaseParser(JsonRecordParser parser) {
+        // A buffer grown for one huge record is not kept
+        if (parser.getBufferSize() <= settings.getBufferSizeBytes()) {
+            parsers.offer(parser);
+        }
+    }
+
+    private JsonRecordParser newParser() {
+        try {
+            return new JsonRecordParser(factory, settings.getJsonPointers(), settings.getBatchSize(),
+                                        settings.getMaxRecordBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create JSON generator", e);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.dashboardengine.consumer.processing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Streaming JSON parser on Jackson's token API; the document is never materialized.
+ *
+ * <p>Records are the elements of a top-level array, or the top-level values themselves
+ * for NDJSON and concatenated JSON (top-level commas between values are accepted, as
+ * some exporters write them). Without JSON Pointers each record becomes one field with
+ * its JSON text. With pointers, each record gets one field per pointer, in pointer order:
+ * the text of a matched scalar, the JSON of a matched object or array, empty for null
+ * or no match. Subtrees no pointer can reach are skipped without being copied.
+ *
+ * <p>Heap use is bounded by the largest record (or extracted value), capped at
+ * {@code maxRecordBytes}. Not thread-safe: one instance parses one file at a time.
+ */
+public class JsonRecordParser {
+
+    private static final int[] NO_INDICES = new int[0];
+
+    private final JsonFactory factory;
+    private final int batchSize;
+    private final List<String> pointerExpressions;
+    private final String[][] pointerNames;
+    private final int[][] pointerIndices;
+    private final int maxPointerLength;
+    private final RecordBatch batch;
+    private final CaptureStream capture;
+    private final JsonGenerator generator;
+    private final int[] fieldStarts;
+    private final int[] fieldEnds;
+    private final String[] pathNames;
+    private final int[] pathIndices;
+
+    /**
+     * @param pointers JSON Pointers (RFC 6901) to extract; empty to pass whole records
+     * @throws IllegalArgumentException if a pointer is malformed
+     */
+    public JsonRecordParser(JsonFactory factory, List<String> pointers, int batchSize, int maxRecordBytes)
+            throws IOException {
+        this.factory = factory;
+        this.batchSize = Math.max(1, batchSize);
+        this.pointerExpressions = List.copyOf(pointers);
+        this.pointerNames = new String[pointers.size()][];
+        this.pointerIndices = new int[pointers.size()][];
+        int longest = 0;
+        for (int p = 0; p < pointers.size(); p++) {
+            JsonPointer pointer = JsonPointer.compile(pointers.get(p));
+            int length = 0;
+            for (JsonPointer segment = pointer; !segment.matches(); segment = segment.tail()) {
+                length++;
+            }
+            pointerNames[p] = new String[length];
+            pointerIndices[p] = length == 0 ? NO_INDICES : new int[length];
+            int k = 0;
+            for (JsonPointer segment = pointer; !segment.matches(); segment = segment.tail()) {
+                pointerNames[p][k] = segment.getMatchingProperty();
+                pointerIndices[p][k] = segment.getMatchingIndex();
+                k++;
+            }
+            longest = Math.max(longest, length);
+        }
+        this.maxPointerLength = longest;
+        this.batch = new RecordBatch(ContentType.JSON, this.batchSize);
+        this.capture = new CaptureStream(maxRecordBytes);
+        this.generator = factory.createGenerator(capture);
+        this.generator.setRootValueSeparator(null);
+        this.fieldStarts = new int[pointers.size()];
+        this.fieldEnds = new int[pointers.size()];
+        this.pathNames = new String[longest];
+        this.pathIndices = new int[longest];
+    }
+
+    /**
+     * Parses a whole stream; the caller closes it.
+     *
+     * @return number of records handed to the sink
+     * @throws IOException on malformed JSON or a record over the size limit; records
+     *                     before the error have already reached the sink
+     * @throws Exception   thrown by the sink
+     */
+    public long parse(InputStream in, Path source, RecordSink sink) throws Exception {
+        return parseChunk(in, source, 0, sink);
+    }
+
+    /**
+     * Parses one chunk of a split NDJSON file; the caller closes the stream.
+     *
+     * @return number of records handed to the sink
+     * @throws IOException on malformed JSON or a record over the size limit
+     * @throws Exception   thrown by the sink
+     */
+    public long parseChunk(InputStream in, Path source, int chunk, RecordSink sink) throws Exception {
+        batch.start(source);
+        batch.setHeader(pointerExpressions);
+        batch.setChunk(chunk);
+        long records = 0;
+        try (JsonParser parser = factory.createParser(new TopLevelCommaFilter(in))) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY) {
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (token == null) {
+                            throw new EOFException("Unterminated top-level array in " + source);
+                        }
+                        readRecord(parser, token, sink);
+                        records++;
+                    }
+                } else {
+                    readRecord(parser, token, sink);
+                    records++;
+                }
+            }
+        }
+        flush(sink);
+        return records;
+    }
+
+    /**
+     * Size of the data array records are extracted into.
+     */
+    public int getBufferSize() {
+        return Math.max(batch.dataCapacity(), capture.capacity());
+    }
+
+    private void readRecord(JsonParser parser, JsonToken token, RecordSink sink) throws Exception {
+        batch.beginRecord();
+        if (pointerNames.length == 0) {
+            int start = copyStructure(parser);
+            batch.addField(start, batch.dataLength());
+        } else {
+            for (int p = 0; p < fieldStarts.length; p++) {
+                fieldStarts[p] = -1;
+            }
+            walk(parser, token, 0);
+            for (int p = 0; p < fieldStarts.length; p++) {
+                if (fieldStarts[p] < 0) {
+                    int empty = batch.dataLength();
+                    batch.addField(empty, empty);
+                } else {
+                    batch.addField(fieldStarts[p], fieldEnds[p]);
+                }
+            }
+        }
+        batch.commitRecord();
+        if (batch.size() == batchSize) {
+            flush(sink);
+        }
+    }
+
+    /**
+     * Visits the value at the current token, whose path below the record is
+     * {@code pathNames/pathIndices[0..depth)}, leaving the parser on its last token.
+     */
+    private void walk(JsonParser parser, JsonToken token, int depth) throws IOException {
+        int matched = matchingPointer(depth);
+        if (matched >= 0) {
+            int start = extract(parser, token);
+            int end = batch.dataLength();
+            fieldStarts[matched] = start;
+            fieldEnds[matched] = end;
+            // Another pointer may name the same path
+            for (int p = matched + 1; p < fieldStarts.length; p++) {
+                if (fieldStarts[p] < 0 && pointerNames[p].length == depth && pathMatches(p, depth)) {
+                    fieldStarts[p] = start;
+                    fieldEnds[p] = end;
+                }
+            }
+            if (token.isStructStart() && depth < maxPointerLength && anyPointerBelow(depth)) {
+                // Other pointers reach into the extracted value: walk the copy
+                try (JsonParser nested = factory.createParser(batch.data(), start, end - start)) {
+                    walk(nested, nested.nextToken(), depth);
+                }
+            }
+            return;
+        }
+        if (!token.isStructStart()) {
+            return;
+        }
+        if (depth >= maxPointerLength || !anyPointerBelow(depth)) {
+            parser.skipChildren();
+            return;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                pathNames[depth] = parser.currentName();
+                pathIndices[depth] = -1;
+                walk(parser, parser.nextToken(), depth + 1);
+            }
+        } else {
+            int index = 0;
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                pathNames[depth] = null;
+                pathIndices[depth] = index++;
+                walk(parser, element, depth + 1);
+            }
+        }
+    }
+
+    private int matchingPointer(int depth) {
+        for (int p = 0; p < pointerNames.length; p++) {
+            if (fieldStarts[p] < 0 && pointerNames[p].length == depth && pathMatches(p, depth)) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private boolean anyPointerBelow(int depth) {
+        for (int p = 0; p < pointerNames.length; p++) {
+            if (pointerNames[p].length > depth && pathMatches(p, depth)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean pathMatches(int pointer, int depth) {
+        for (int k = 0; k < depth; k++) {
+            if (pathNames[k] == null) {
+                if (pointerIndices[pointer][k] != pathIndices[k]) {
+                    return false;
+                }
+            } else if (!pathNames[k].equals(pointerNames[pointer][k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return where the value starts in the batch data
+     */
+    private int extract(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            return copyStructure(parser);
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return batch.dataLength();
+        }
+        return batch.append(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private int copyStructure(JsonParser parser) throws IOException {
+        capture.reset();
+        generator.copyCurrentStructure(parser);
+        generator.flush();
+        return batch.append(capture.buffer(), 0, capture.size());
+    }
+
+    private void flush(RecordSink sink) throws Exception {
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Turns commas between top-level values into spaces, so "{..},{..}" reads as a
+     * sequence of root values. Tracks nesting and strings; everything else passes as is.
+     */
+    private static final class TopLevelCommaFilter extends FilterInputStream {
+
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+
+        TopLevelCommaFilter(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            return b < 0 ? b : filter((byte) b) & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            for (int i = off; i < off + n; i++) {
+                b[i] = filter(b[i]);
+            }
+            return n;
+        }
+
+        private byte filter(byte b) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                return b;
+            }
+            switch (b) {
+                case '"' -> inString = true;
+                case '{', '[' -> depth++;
+                case '}', ']' -> depth = Math.max(0, depth - 1);
+                case ',' -> {
+                    if (depth == 0) {
+                        return ' ';
+                    }
+                }
+                default -> { }
+            }
+            return b;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds line terminators in raw bytes, reading the file through memory-mapped windows;
+ * nothing is decoded. Lines end with LF, CRLF or CR and a last line without terminator
+ * counts, as with {@code BufferedReader.readLine}.
+ *
+ * <p>The scan tests eight bytes per step with SWAR (SIMD within a register) masks
+ * instead of comparing byte by byte. Counting a file of at least
+ * {@code parallelThreshold} bytes splits it into window-sized segments counted as
+ * fork/join subtasks on the shared chunk pool of {@link FileFormatProcessor}, never on
+ * the common pool that unrelated parallel streams and async stages also use.
+ *
+ * <p>Mapped windows are released by the garbage collector, so scanning a large file
+ * reserves address space rather than heap. Instances are immutable and thread-safe.
+ */
+public class LineScanner {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 256L * 1024 * 1024;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_SEVEN = 0x7f7f7f7f7f7f7f7fL;
+    private static final long LF = '\n' * ONES;
+    private static final long CR = '\r' * ONES;
+
+    private final int windowSize;
+    private final long parallelThreshold;
+
+    /**
+     * Receives one line as the byte range {@code [start, end)} of a mapped window,
+     * terminator excluded. The window is only valid during the call.
+     */
+    @FunctionalInterface
+    public interface LineVisitor {
+        void line(MappedByteBuffer window, int start, int end) throws Exception;
+    }
+
+    public LineScanner() {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public LineScanner(int windowSize, long parallelThreshold) {
+        this.windowSize = Math.max(64, windowSize);
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Counts the lines of a file.
+     */
+    public long countLines(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            long terminators;
+            if (size >= parallelThreshold && size > windowSize) {
+                terminators = FileFormatProcessor.CHUNK_POOL.invoke(new SegmentCount(channel, 0, size, size));
+            } else {
+                terminators = 0;
+                for (long position = 0; position < size; position += windowSize) {
+                    terminators += countSegment(channel, position, Math.min(size, position + windowSize), size);
+                }
+            }
+            byte last = channel.map(FileChannel.MapMode.READ_ONLY, size - 1, 1).get(0);
+            return last == '\n' || last == '\r' ? terminators : terminators + 1;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Hands every line of a file to the visitor, in order.
+     *
+     * @param maxLineBytes a longer line fails the scan
+     * @return number of lines
+     * @throws IOException if reading fails or a line exceeds {@code maxLineBytes}
+     * @throws Exception   thrown by the visitor
+     */
+    public long scanLines(Path file, int maxLineBytes, LineVisitor visitor) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scanLines(channel, file, 0, channel.size(), maxLineBytes, visitor);
+        }
+    }
+
+    /**
+     * Hands every line in {@code [start, end)} of an open file to the visitor, in order;
+     * {@code start} must be the start of a line. Maps its own windows, so several ranges
+     * of one channel may be scanned concurrently.
+     *
+     * @param file names the file in errors
+     * @return number of lines
+     * @throws IOException if reading fails or a line exceeds {@code maxLineBytes}
+     * @throws Exception   thrown by the visitor
+     */
+    public long scanLines(FileChannel channel, Path file, long start, long end, int maxLineBytes,
+                          LineVisitor visitor) throws Exception {
+        long lines = 0;
+        long position = start;
+        int window = windowSize;
+        while (position < end) {
+            int length = (int) Math.min(window, end - position);
+            boolean last = position + length == end;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int lineStart = 0;
+            int i = 0;
+            while (true) {
+                int terminator = nextTerminator(buffer, i, length);
+                if (terminator < 0) {
+                    break;
+                }
+                int next = terminator + 1;
+                if (buffer.get(terminator) == '\r') {
+                    if (next == length && !last) {
+                        // The LF of a CRLF may start the next window
+                        break;
+                    }
+                    if (next < length && buffer.get(next) == '\n') {
+                        next++;
+                    }
+                }
+                visitor.line(buffer, lineStart, terminator);
+                lines++;
+                lineStart = next;
+                i = next;
+            }
+            if (last) {
+                if (lineStart < length) {
+                    visitor.line(buffer, lineStart, length);
+                    lines++;
+                }
+                break;
+            }
+            if (lineStart == 0) {
+                // No complete line in the window
+                if (window >= maxLineBytes || window == Integer.MAX_VALUE) {
+                    throw new IOException("Line exceeds " + maxLineBytes + " bytes in " + file);
+                }
+                window = (int) Math.min(Integer.MAX_VALUE, Math.max((long) window * 2, 64));
+                continue;
+            }
+            position += lineStart;
+            window = windowSize;
+        }
+        return lines;
+    }
+
+    /**
+     * Counts the terminators whose first byte lies in {@code [start, end)}.
+     */
+    private static long countSegment(FileChannel channel, long start, long end, long size) throws IOException {
+        // One byte past the segment shows whether a CR at its end is half of a CRLF
+        int length = (int) (Math.min(size, end + 1) - start);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int scanEnd = (int) (end - start);
+        long lineFeeds = 0;
+        long carriageReturns = 0;
+        long pairs = 0;
+        boolean previousCr = false;
+        int i = 0;
+        for (; i + 8 <= scanEnd; i += 8) {
+            long word = buffer.getLong(i);
+            long lf = zeroBytes(word ^ LF);
+            long cr = zeroBytes(word ^ CR);
+            if ((lf | cr) == 0) {
+                previousCr = false;
+                continue;
+            }
+            lineFeeds += Long.bitCount(lf);
+            carriageReturns += Long.bitCount(cr);
+            // Byte k of the word sits at bits 8k..8k+7, so shifting the CR mask one
+            // byte up lines it up with an LF that follows
+            pairs += Long.bitCount(lf & (cr << 8));
+            if (previousCr && (lf & 0x80) != 0) {
+                pairs++;
+            }
+            previousCr = cr < 0;
+        }
+        for (; i < scanEnd; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                lineFeeds++;
+                if (previousCr) {
+                    pairs++;
+                }
+            } else if (b == '\r') {
+                carriageReturns++;
+            }
+            previousCr = b == '\r';
+        }
+        if (previousCr && scanEnd < length && buffer.get(scanEnd) == '\n') {
+            // The LF past the segment belongs to this CR; the next segment counts it
+            pairs++;
+        }
+        return lineFeeds + carriageReturns - pairs;
+    }
+
+    /**
+     * Sets the high bit of exactly the bytes of {@code x} that are zero.
+     */
+    private static long zeroBytes(long x) {
+        long t = (x & LOW_SEVEN) + LOW_SEVEN;
+        return ~(t | x | LOW_SEVEN);
+    }
+
+    /**
+     * @return the index of the first CR or LF in {@code [from, limit)}, or -1
+     */
+    private static int nextTerminator(MappedByteBuffer buffer, int from, int limit) {
+        int i = from;
+        for (; i + 8 <= limit; i += 8) {
+            long word = buffer.getLong(i);
+            long mask = zeroBytes(word ^ LF) | zeroBytes(word ^ CR);
+            if (mask != 0) {
+                return i + (Long.numberOfTrailingZeros(mask) >>> 3);
+            }
+        }
+        for (; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts terminators in {@code [start, end)}, splitting down to window-sized segments.
+     */
+    private final class SegmentCount extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final long size;
+
+        SegmentCount(FileChannel channel, long start, long end, long size) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.size = size;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end - start <= windowSize) {
+                try {
+                    return countSegment(channel, start, end, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            List<SegmentCount> halves = new ArrayList<>(2);
+            long middle = start + (end - start) / 2;
+            halves.add(new SegmentCount(channel, start, middle, size));
+            halves.add(new SegmentCount(channel, middle, end, size));
+            long total = 0;
+            for (SegmentCount half : ForkJoinTask.invokeAll(halves)) {
+                total += half.join();
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the {@link FileFormatProcessor} for a file.
+ *
+ * <p>The type comes from the extension, corrected by {@link ContentSniffer} so a misnamed
+ * file still reaches its format's processor. Routing is cached per source (configuration)
+ * and extension: once {@value #TRUST_AFTER} files of a route were sniffed and all matched
+ * their extension, later files of that route are no longer read ahead. A route that ever
+ * disagreed keeps sniffing every file.
+ */
+@Component
+public class ProcessorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessorRegistry.class);
+
+    static final int TRUST_AFTER = 8;
+    private static final int MAX_ROUTES = 4096;
+
+    private record RouteKey(String sourceType, String extension) {}
+
+    private static final class Route {
+
+        final ContentType declared;
+        final AtomicInteger agreements = new AtomicInteger();
+        volatile boolean trusted;
+        volatile boolean mixed;
+
+        Route(ContentType declared) {
+            this.declared = declared;
+        }
+    }
+
+    private final Map<ContentType, FileFormatProcessor> processors = new EnumMap<>(ContentType.class);
+    private final Map<RouteKey, Route> routes = new ConcurrentHashMap<>();
+
+    public ProcessorRegistry(List<FileFormatProcessor> available) {
+        for (ContentType type : ContentType.values()) {
+            for (FileFormatProcessor processor : available) {
+                if (processor.canProcess(type.name())) {
+                    processors.put(type, processor);
+                    break;
+                }
+            }
+        }
+        logger.info("Registered file processors for types: {}", processors.keySet());
+    }
+
+    /**
+     * Registry with the built-in processors, for use outside Spring.
+     */
+    public static ProcessorRegistry withDefaults() {
+        List<FileFormatProcessor> formats = List.of(new TextFileProcessor(), new CsvFileProcessor(),
+            new JsonFileProcessor(), new XmlFileProcessor(), new ExcelFileProcessor());
+        List<FileFormatProcessor> all = new ArrayList<>(formats);
+        all.add(new CompressedFileProcessor(new ApplicationProperties.Processing(), formats, null));
+        return new ProcessorRegistry(all);
+    }
+
+    public ContentType resolve(Path filePath, String sourceType) {
+        String extension = extension(filePath);
+        if (routes.size() >= MAX_ROUTES) {
+            // Sources and extensions seen long ago
+            routes.clear();
+        }
+        Route route = routes.computeIfAbsent(new RouteKey(sourceType, extension),
+            key -> new Route(ContentType.fromExtension(key.extension())));
+        if (route.trusted) {
+            return route.declared;
+        }
+
+        ContentType sniffed;
+        try {
+            sniffed = ContentSniffer.sniff(filePath);
+        } catch (IOException e) {
+            logger.debug("Could not sniff file: {}, using its extension", filePath, e);
+            return route.declared != null ? route.declared : ContentType.UNKNOWN;
+        }
+        ContentType effective = ContentSniffer.reconcile(route.declared, sniffed);
+
+        if (route.declared != null && !route.mixed) {
+            if (effective != route.declared) {
+                route.mixed = true;
+                logger.info("Files with extension .{} from {} do not all match it, sniffing each one",
+                           extension, sourceType);
+            } else if (route.agreements.incrementAndGet() >= TRUST_AFTER) {
+                route.trusted = true;
+            }
+        }
+        if (effective != route.declared) {
+            logger.debug("File {} detected as {} (extension says {})", filePath.getFileName(), effective, route.declared);
+        }
+        return effective;
+    }
+
+    /**
+     * @return the processor for the type, or null if generic processing applies
+     */
+    public FileFormatProcessor processorFor(ContentType type) {
+        return processors.get(type);
+    }
+
+    private static String extension(Path filePath) {
+        Path name = filePath.getFileName();
+        String fileName = name != null ? name.toString() : "";
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,336 @@
+package com.dashboardengine.consumer.processing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A batch of records parsed from one file, handed to a {@link RecordSink}.
+ *
+ * <p>Each field is a byte range of {@link #data()} (UTF-8). Parsers of flat formats point
+ * the fields straight into their read buffer; the others append extracted values to a
+ * data array owned by the batch. Either way the batch and its data are reused for the
+ * next batch as soon as {@link RecordSink#accept} returns, so a sink that keeps values
+ * must copy them, for example with {@link #getString}.
+ */
+public final class RecordBatch {
+
+    private final ContentType contentType;
+    private Path source;
+    private List<String> header = List.of();
+    private long firstRecordNumber = 1;
+    private int chunk;
+
+    private byte[] data;
+    private byte[] ownData;
+    private int dataLength;
+    private int[] starts = new int[1024];
+    private int[] ends = new int[1024];
+    private int fields;
+    private int[] recordOffsets;
+    private int size;
+    private int pendingRecordStart;
+
+    RecordBatch(ContentType contentType, int expectedSize) {
+        this.contentType = contentType;
+        this.recordOffsets = new int[Math.max(1, expectedSize) + 1];
+    }
+
+    public Path source() {
+        return source;
+    }
+
+    public ContentType contentType() {
+        return contentType;
+    }
+
+    /**
+     * Column names, empty if the file has no header.
+     */
+    public List<String> header() {
+        return header;
+    }
+
+    /**
+     * 1-based position of the first record in this batch, header excluded. Counted from
+     * the start of the {@link #chunk() chunk} when the file was split.
+     */
+    public long firstRecordNumber() {
+        return firstRecordNumber;
+    }
+
+    /**
+     * Index of the part of the file the records come from when a large file was split
+     * and its parts parsed concurrently; 0 when the file was parsed whole.
+     */
+    public int chunk() {
+        return chunk;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int fieldCount(int record) {
+        checkRecord(record);
+        return recordOffsets[record + 1] - recordOffsets[record];
+    }
+
+    /**
+     * Bytes the fields point into; valid only during {@link RecordSink#accept}.
+     */
+    public byte[] data() {
+        return data;
+    }
+
+    /**
+     * Offset in {@link #data()} of the field's first byte.
+     */
+    public int fieldStart(int record, int field) {
+        return starts[index(record, field)];
+    }
+
+    /**
+     * Offset in {@link #data()} after the field's last byte.
+     */
+    public int fieldEnd(int record, int field) {
+        return ends[index(record, field)];
+    }
+
+    public int fieldLength(int record, int field) {
+        int index = index(record, field);
+        return ends[index] - starts[index];
+    }
+
+    public String getString(int record, int field) {
+        int index = index(record, field);
+        return new String(data, starts[index], ends[index] - starts[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a decimal integer field without creating a string.
+     *
+     * @throws NumberFormatException if the field is empty or not an integer
+     */
+    public long getLong(int record, int field) {
+        int index = index(record, field);
+        int position = starts[index];
+        int end = ends[index];
+        if (position == end) {
+            throw new NumberFormatException("Empty field " + field + " in record " + (firstRecordNumber + record));
+        }
+        boolean negative = data[position] == '-';
+        if (negative || data[position] == '+') {
+            position++;
+        }
+        if (position == end) {
+            throw new NumberFormatException(describe(index));
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = data[position] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException(describe(index));
+            }
+            value = value * 10 - digit;
+            if (value > 0) {
+                throw new NumberFormatException(describe(index));
+            }
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw new NumberFormatException(describe(index));
+        }
+        return negative ? value : -value;
+    }
+
+    void setHeader(List<String> header) {
+        this.header = header;
+    }
+
+    void setChunk(int chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * Starts the records of a new file whose fields are appended to the batch's own data.
+     */
+    void start(Path source) {
+        if (ownData == null) {
+            ownData = new byte[8192];
+        }
+        start(source, ownData);
+    }
+
+    /**
+     * Starts the records of a new file whose fields point into {@code data}.
+     */
+    void start(Path source, byte[] data) {
+        this.source = source;
+        this.data = data;
+        this.header = List.of();
+        this.chunk = 0;
+        this.firstRecordNumber = 1;
+        this.size = 0;
+        clear();
+    }
+
+    /**
+     * Switches to a larger buffer; only while the batch is empty.
+     */
+    void setData(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Drops the records after they were handed downstream.
+     */
+    void clear() {
+        firstRecordNumber += size;
+        size = 0;
+        fields = 0;
+        pendingRecordStart = 0;
+        recordOffsets[0] = 0;
+        dataLength = 0;
+    }
+
+    /**
+     * Appends bytes to the batch's own data.
+     *
+     * @return the offset they were written at
+     */
+    int append(byte[] bytes, int offset, int length) {
+        int start = reserve(length);
+        System.arraycopy(bytes, offset, data, start, length);
+        dataLength += length;
+        return start;
+    }
+
+    /**
+     * Appends bytes of a buffer, without moving its position, to the batch's own data.
+     *
+     * @return the offset they were written at
+     */
+    int append(ByteBuffer bytes, int offset, int length) {
+        int start = reserve(length);
+        bytes.get(offset, data, start, length);
+        dataLength += length;
+        return start;
+    }
+
+    /**
+     * Appends characters UTF-8 encoded to the batch's own data.
+     *
+     * @return the offset they were written at
+     */
+    int append(char[] chars, int offset, int length) {
+        int start = reserve(length * 3);
+        byte[] out = data;
+        int position = start;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                out[position++] = (byte) c;
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xc0 | c >> 6);
+                out[position++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                out[position++] = (byte) (0xf0 | codePoint >> 18);
+                out[position++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+                out[position++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+                out[position++] = (byte) (0x80 | codePoint & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate
+                out[position++] = '?';
+            } else {
+                out[position++] = (byte) (0xe0 | c >> 12);
+                out[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                out[position++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        dataLength = position;
+        return start;
+    }
+
+    int dataLength() {
+        return dataLength;
+    }
+
+    int dataCapacity() {
+        return data.length;
+    }
+
+    private int reserve(int length) {
+        if (dataLength + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, dataLength + length));
+            ownData = data;
+        }
+        return dataLength;
+    }
+
+    void beginRecord() {
+        pendingRecordStart = fields;
+    }
+
+    void addField(int start, int end) {
+        if (fields == starts.length) {
+            starts = Arrays.copyOf(starts, fields * 2);
+            ends = Arrays.copyOf(ends, fields * 2);
+        }
+        starts[fields] = start;
+        ends[fields] = end;
+        fields++;
+    }
+
+    void setFieldEnd(int pendingField, int end) {
+        ends[pendingRecordStart + pendingField] = end;
+    }
+
+    int pendingFieldCount() {
+        return fields - pendingRecordStart;
+    }
+
+    int pendingFieldStart(int pendingField) {
+        return starts[pendingRecordStart + pendingField];
+    }
+
+    int pendingFieldEnd(int pendingField) {
+        return ends[pendingRecordStart + pendingField];
+    }
+
+    void commitRecord() {
+        if (size + 1 == recordOffsets.length) {
+            recordOffsets = Arrays.copyOf(recordOffsets, recordOffsets.length * 2);
+        }
+        size++;
+        recordOffsets[size] = fields;
+    }
+
+    void discardRecord() {
+        fields = pendingRecordStart;
+    }
+
+    private int index(int record, int field) {
+        checkRecord(record);
+        int index = recordOffsets[record] + field;
+        if (field < 0 || index >= recordOffsets[record + 1]) {
+            throw new IndexOutOfBoundsException("Field " + field + " of record with "
+                + fieldCount(record) + " fields");
+        }
+        return index;
+    }
+
+    private void checkRecord(int record) {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Record " + record + " of batch with " + size + " records");
+        }
+    }
+
+    private String describe(int index) {
+        return "Not an integer: \"" + new String(data, starts[index], ends[index] - starts[index], StandardCharsets.UTF_8)
+            + "\"";
+    }
+}
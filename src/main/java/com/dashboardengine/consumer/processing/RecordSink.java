@@ -0,0 +1,28 @@
+package com.dashboardengine.consumer.processing;
+
+/**
+ * Downstream stage receiving parsed records. One bean is shared by all files and may
+ * be called concurrently for different files. Batches of one file arrive in order,
+ * except for a large file split into chunks: each chunk's batches arrive in order, but
+ * chunks run concurrently (see {@link RecordBatch#chunk()}). A sink that needs a whole
+ * file in order returns true from {@link #ordered()} and files are then never split.
+ * Without a sink bean, records are parsed and counted only.
+ */
+@FunctionalInterface
+public interface RecordSink {
+
+    RecordSink DISCARD = batch -> { };
+
+    /**
+     * @param batch valid only until this method returns
+     * @throws Exception to fail the file
+     */
+    void accept(RecordBatch batch) throws Exception;
+
+    /**
+     * @return true to receive every file's batches in file order from one thread
+     */
+    default boolean ordered() {
+        return false;
+    }
+}
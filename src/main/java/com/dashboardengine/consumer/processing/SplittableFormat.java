@@ -0,0 +1,28 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A {@link FileFormatProcessor} whose files can be split at record boundaries and parsed
+ * in parallel chunks. Only processors built with the processing settings split, and
+ * only files of at least {@code app.processing.split-threshold-bytes}.
+ */
+public interface SplittableFormat {
+
+    /**
+     * Splits a large file into chunks of about {@code chunkBytes}, each starting at a
+     * record boundary. Fewer than two chunks process the file whole.
+     */
+    List<FileChunk> planChunks(Path filePath, FileChannel channel, long chunkBytes) throws IOException;
+
+    /**
+     * Parses one chunk planned by {@link #planChunks}, concurrently with the others.
+     *
+     * @param channel shared by all chunks; read with positional reads only
+     * @return number of records in the chunk
+     */
+    long processChunk(Path filePath, FileChannel channel, FileChunk chunk) throws Exception;
+}
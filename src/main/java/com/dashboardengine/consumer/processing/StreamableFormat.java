@@ -0,0 +1,21 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * A {@link FileFormatProcessor} that can parse its format from a stream, as
+ * {@link CompressedFileProcessor} needs for decompressed content. Formats read by random
+ * access do not implement it.
+ */
+public interface StreamableFormat {
+
+    /**
+     * Parses content of this format from a stream, on the calling thread; the caller
+     * closes the stream.
+     *
+     * @param source names the content in record batches and errors
+     * @return number of records
+     */
+    long processStream(InputStream in, Path source) throws Exception;
+}
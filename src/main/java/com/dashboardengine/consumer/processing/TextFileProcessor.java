@@ -0,0 +1,124 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Counts the lines of text files on raw bytes with {@link LineScanner}. With a
+ * {@link RecordSink} configured the lines are also streamed to it in batches; without
+ * one nothing is copied.
+ */
+@Component
+public class TextFileProcessor extends FileFormatProcessor implements SplittableFormat, StreamableFormat {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextFileProcessor.class);
+
+    private static final int MAX_POOLED_PARSERS = 64;
+
+    private final ApplicationProperties.Processing settings;
+    private final RecordSink sink;
+    private final LineScanner scanner;
+    private final BlockingQueue<TextRecordParser> parsers = new ArrayBlockingQueue<>(MAX_POOLED_PARSERS);
+
+    public TextFileProcessor() {
+        this(new ApplicationProperties.Processing(), RecordSink.DISCARD);
+    }
+
+    @Autowired
+    public TextFileProcessor(ApplicationProperties properties, ObjectProvider<RecordSink> sink) {
+        this(properties.getProcessing(), sink.getIfAvailable(() -> RecordSink.DISCARD));
+    }
+
+    public TextFileProcessor(ApplicationProperties.Processing settings, RecordSink sink) {
+        super(ContentType.TEXT, settings);
+        this.settings = settings;
+        this.sink = sink;
+        this.scanner = new LineScanner(settings.getScanWindowBytes(), settings.getParallelScanThresholdBytes());
+    }
+
+    @Override
+    protected ProcessingResult processFile(Path filePath, long startTime) throws Exception {
+        long lineCount = sink == RecordSink.DISCARD ? scanner.countLines(filePath) : parse(filePath);
+
+        logger.debug("Processed text file with {} lines", lineCount);
+
+        return ProcessingResult.success(
+            "Processed " + lineCount + " lines from " + filePath.getFileName(),
+            System.currentTimeMillis() - startTime,
+            filePath.toString()
+        );
+    }
+
+    /**
+     * Splits only when lines go to a sink; counting alone already runs in parallel.
+     */
+    @Override
+    public List<FileChunk> planChunks(Path filePath, FileChannel channel, long chunkBytes) throws IOException {
+        if (sink == RecordSink.DISCARD || sink.ordered()) {
+            return List.of();
+        }
+        return FileChunker.byLines(channel, 0, channel.size(), chunkBytes);
+    }
+
+    @Override
+    public long processChunk(Path filePath, FileChannel channel, FileChunk chunk) throws Exception {
+        TextRecordParser parser = takeParser();
+        try {
+            return parser.parseChunk(channel, filePath, chunk, sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    @Override
+    protected String recordNoun() {
+        return "lines";
+    }
+
+    private long parse(Path filePath) throws Exception {
+        TextRecordParser parser = takeParser();
+        try {
+            return parser.parse(filePath, sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    @Override
+    public long processStream(InputStream in, Path source) throws Exception {
+        TextRecordParser parser = takeParser();
+        try {
+            return parser.parse(in, source, sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    private TextRecordParser takeParser() {
+        TextRecordParser parser = parsers.poll();
+        if (parser == null) {
+            parser = new TextRecordParser(scanner, settings.getBatchSize(), settings.getMaxRecordBytes());
+        }
+        return parser;
+    }
+
+    private void releaseParser(TextRecordParser parser) {
+        // A buffer grown for one huge line is not kept
+        if (parser.getBufferSize() <= settings.getBufferSizeBytes()) {
+            parsers.offer(parser);
+        }
+    }
+}
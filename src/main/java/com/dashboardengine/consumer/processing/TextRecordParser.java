@@ -0,0 +1,149 @@
+package com.dashboardengine.consumer.processing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Hands every line of a text file to the sink as a one-field record, copying the raw
+ * bytes out of the mapped window (or the read buffer, for streams) without decoding
+ * them. Not thread-safe: one instance parses one file at a time.
+ */
+public class TextRecordParser {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final LineScanner scanner;
+    private final int batchSize;
+    private final int maxRecordBytes;
+    private final RecordBatch batch;
+    private byte[] readBuffer;
+
+    public TextRecordParser(LineScanner scanner, int batchSize, int maxRecordBytes) {
+        this.scanner = scanner;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRecordBytes = maxRecordBytes;
+        this.batch = new RecordBatch(ContentType.TEXT, this.batchSize);
+    }
+
+    /**
+     * @return number of lines handed to the sink
+     * @throws IOException if reading fails or a line exceeds the maximum record size
+     * @throws Exception   thrown by the sink
+     */
+    public long parse(Path file, RecordSink sink) throws Exception {
+        batch.start(file);
+        long lines = scanner.scanLines(file, maxRecordBytes, (window, start, end) -> add(window, start, end, sink));
+        flush(sink);
+        return lines;
+    }
+
+    /**
+     * Parses one chunk of a split file, which starts at a line.
+     *
+     * @return number of lines handed to the sink
+     * @throws IOException if reading fails or a line exceeds the maximum record size
+     * @throws Exception   thrown by the sink
+     */
+    public long parseChunk(FileChannel channel, Path file, FileChunk chunk, RecordSink sink) throws Exception {
+        batch.start(file);
+        batch.setChunk(chunk.index());
+        long lines = scanner.scanLines(channel, file, chunk.start(), chunk.end(), maxRecordBytes,
+            (window, start, end) -> add(window, start, end, sink));
+        flush(sink);
+        return lines;
+    }
+
+    /**
+     * Parses lines read from a stream, such as decompressed content; the caller closes
+     * it. Line breaks are those of {@link LineScanner}.
+     *
+     * @return number of lines handed to the sink
+     * @throws IOException if reading fails or a line exceeds the maximum record size
+     * @throws Exception   thrown by the sink
+     */
+    public long parse(InputStream in, Path source, RecordSink sink) throws Exception {
+        batch.start(source);
+        if (readBuffer == null) {
+            readBuffer = new byte[READ_BUFFER_SIZE];
+        }
+        long lines = 0;
+        int limit = 0;
+        int lineStart = 0;
+        boolean afterCr = false;
+        while (true) {
+            int scanFrom = limit;
+            int read = in.read(readBuffer, limit, readBuffer.length - limit);
+            if (read < 0) {
+                break;
+            }
+            limit += read;
+            byte[] buf = readBuffer;
+            for (int i = scanFrom; i < limit; i++) {
+                byte b = buf[i];
+                if (b == '\n' && afterCr && i == lineStart) {
+                    // Second half of a CRLF
+                    lineStart = i + 1;
+                } else if (b == '\n' || b == '\r') {
+                    add(buf, lineStart, i, sink);
+                    lines++;
+                    lineStart = i + 1;
+                }
+                afterCr = b == '\r';
+            }
+            if (lineStart == 0 && limit == readBuffer.length) {
+                if (readBuffer.length >= maxRecordBytes) {
+                    throw new IOException("Line exceeds " + maxRecordBytes + " bytes in " + source);
+                }
+                readBuffer = Arrays.copyOf(readBuffer, (int) Math.min(maxRecordBytes, (long) readBuffer.length * 2));
+            } else {
+                System.arraycopy(readBuffer, lineStart, readBuffer, 0, limit - lineStart);
+                limit -= lineStart;
+                lineStart = 0;
+            }
+        }
+        if (lineStart < limit) {
+            add(readBuffer, lineStart, limit, sink);
+            lines++;
+        }
+        flush(sink);
+        return lines;
+    }
+
+    /**
+     * Size of the data array lines are copied into, or of the read buffer if larger.
+     */
+    public int getBufferSize() {
+        return Math.max(batch.dataCapacity(), readBuffer != null ? readBuffer.length : 0);
+    }
+
+    private void add(ByteBuffer window, int start, int end, RecordSink sink) throws Exception {
+        batch.beginRecord();
+        int offset = batch.append(window, start, end - start);
+        batch.addField(offset, batch.dataLength());
+        batch.commitRecord();
+        if (batch.size() == batchSize) {
+            flush(sink);
+        }
+    }
+
+    private void add(byte[] buf, int start, int end, RecordSink sink) throws Exception {
+        batch.beginRecord();
+        int offset = batch.append(buf, start, end - start);
+        batch.addField(offset, batch.dataLength());
+        batch.commitRecord();
+        if (batch.size() == batchSize) {
+            flush(sink);
+        }
+    }
+
+    private void flush(RecordSink sink) throws Exception {
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+        batch.clear();
+    }
+}
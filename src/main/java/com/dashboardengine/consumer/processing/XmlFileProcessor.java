@@ -0,0 +1,97 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Streams the repeating elements named by {@code app.processing.xml-record-path} to the
+ * {@link RecordSink} in batches, optionally reduced to {@code app.processing.xml-fields}.
+ * One input factory serves all files; parsers and their buffers are pooled.
+ */
+@Component
+public class XmlFileProcessor extends FileFormatProcessor implements StreamableFormat {
+
+    private static final Logger logger = LoggerFactory.getLogger(XmlFileProcessor.class);
+
+    private static final int MAX_POOLED_PARSERS = 64;
+
+    private final ApplicationProperties.Processing settings;
+    private final RecordSink sink;
+    private final XMLInputFactory factory = XmlRecordParser.newInputFactory();
+    private final BlockingQueue<XmlRecordParser> parsers = new ArrayBlockingQueue<>(MAX_POOLED_PARSERS);
+
+    public XmlFileProcessor() {
+        this(new ApplicationProperties.Processing(), RecordSink.DISCARD);
+    }
+
+    @Autowired
+    public XmlFileProcessor(ApplicationProperties properties, ObjectProvider<RecordSink> sink) {
+        this(properties.getProcessing(), sink.getIfAvailable(() -> RecordSink.DISCARD));
+    }
+
+    public XmlFileProcessor(ApplicationProperties.Processing settings, RecordSink sink) {
+        super(ContentType.XML);
+        this.settings = settings;
+        this.sink = sink;
+        // Fail on a malformed path at startup rather than on the first file
+        parsers.offer(newParser());
+    }
+
+    @Override
+    protected ProcessingResult processFile(Path filePath, long startTime) throws Exception {
+        XmlRecordParser parser = takeParser();
+        long recordCount;
+        try (InputStream in = Files.newInputStream(filePath)) {
+            recordCount = parser.parse(in, filePath, sink);
+        } finally {
+            releaseParser(parser);
+        }
+
+        logger.debug("Processed XML file with {} records", recordCount);
+
+        return ProcessingResult.success(
+            "Processed " + recordCount + " records from " + filePath.getFileName(),
+            System.currentTimeMillis() - startTime,
+            filePath.toString()
+        );
+    }
+
+    @Override
+    public long processStream(InputStream in, Path source) throws Exception {
+        XmlRecordParser parser = takeParser();
+        try {
+            return parser.parse(in, source, sink);
+        } finally {
+            releaseParser(parser);
+        }
+    }
+
+    private XmlRecordParser takeParser() {
+        XmlRecordParser parser = parsers.poll();
+        return parser != null ? parser : newParser();
+    }
+
+    private void releaseParser(XmlRecordParser parser) {
+        // A buffer grown for one huge record is not kept
+        if (parser.getBufferSize() <= settings.getBufferSizeBytes()) {
+            parsers.offer(parser);
+        }
+    }
+
+    private XmlRecordParser newParser() {
+        return new XmlRecordParser(factory, settings.getXmlRecordPath(), settings.getXmlFields(),
+                                   settings.getBatchSize(), settings.getMaxRecordBytes());
+    }
+}
@@ -0,0 +1,392 @@
+package com.dashboardengine.consumer.processing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming XML record extractor on StAX; the document is never materialized.
+ *
+ * <p>Records are the elements matching a path of local names: {@code /export/orders/order}
+ * is anchored at the document element, {@code orders/order} matches at any depth, and
+ * {@code *} matches any name. The default {@code /*}{@code /*} takes the children of the
+ * document element. Records do not nest: a matched element is consumed whole.
+ *
+ * <p>Without field paths each record becomes one field with its XML. With field paths
+ * relative to the record ({@code customer/name}, {@code @id}, {@code items/item/@sku}),
+ * each record gets one field per path, in path order: the text content of the first
+ * matching element or the attribute value, empty if there is none.
+ *
+ * <p>Heap use is bounded by the largest record (or its extracted values), capped at
+ * {@code maxRecordBytes}. Not thread-safe: one instance parses one file at a time.
+ */
+public class XmlRecordParser {
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = newOutputFactory();
+
+    private static final String WOODSTOX_VALIDATE_STRUCTURE = "com.ctc.wstx.outputValidateStructure";
+    private static final String WILDCARD = "*";
+    private static final int PENDING = 0;
+    private static final int ACTIVE = 1;
+    private static final int DONE = 2;
+
+    private final XMLInputFactory factory;
+    private final String[] recordPath;
+    private final boolean anchored;
+    private final int batchSize;
+    private final int maxRecordBytes;
+    private final List<String> fieldExpressions;
+    private final String[][] fieldPaths;
+    private final String[] fieldAttributes;
+    private final RecordBatch batch;
+    private final CaptureStream capture;
+    private final int[] fieldStates;
+    private final int[] fieldDepths;
+    private final char[][] fieldValues;
+    private final int[] fieldLengths;
+    private final String[] relativePath;
+    private String[] path = new String[16];
+    private int recordChars;
+
+    /**
+     * Hardened factory shared by parsers: no DTDs, no external entities.
+     */
+    public static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * @param recordPath path of the repeating record element
+     * @param fields     paths to extract below each record; empty to pass whole records
+     * @throws IllegalArgumentException if a path is malformed
+     */
+    public XmlRecordParser(XMLInputFactory factory, String recordPath, List<String> fields,
+                           int batchSize, int maxRecordBytes) {
+        this.factory = factory;
+        String trimmed = recordPath == null ? "" : recordPath.trim();
+        this.anchored = trimmed.startsWith("/");
+        this.recordPath = splitPath(anchored ? trimmed.substring(1) : trimmed, recordPath);
+        if (this.recordPath.length == 0) {
+            throw new IllegalArgumentException("XML record path is empty");
+        }
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRecordBytes = maxRecordBytes;
+        this.fieldExpressions = List.copyOf(fields);
+        int count = fields.size();
+        this.fieldPaths = new String[count][];
+        this.fieldAttributes = new String[count];
+        int longest = 0;
+        for (int p = 0; p < count; p++) {
+            String field = fields.get(p).trim();
+            int slash = field.lastIndexOf('/');
+            String last = field.substring(slash + 1);
+            if (last.startsWith("@")) {
+                if (last.length() == 1) {
+                    throw new IllegalArgumentException("Invalid XML field path: " + fields.get(p));
+                }
+                fieldAttributes[p] = last.substring(1);
+                fieldPaths[p] = slash < 0 ? new String[0] : splitPath(field.substring(0, slash), fields.get(p));
+            } else {
+                fieldPaths[p] = splitPath(field, fields.get(p));
+                if (fieldPaths[p].length == 0) {
+                    throw new IllegalArgumentException("Invalid XML field path: " + fields.get(p));
+                }
+            }
+            longest = Math.max(longest, fieldPaths[p].length);
+        }
+        this.batch = new RecordBatch(ContentType.XML, this.batchSize);
+        this.capture = new CaptureStream(maxRecordBytes);
+        this.fieldStates = new int[count];
+        this.fieldDepths = new int[count];
+        this.fieldValues = new char[count][64];
+        this.fieldLengths = new int[count];
+        this.relativePath = new String[longest];
+    }
+
+    /**
+     * Parses a whole stream; the caller closes it.
+     *
+     * @return number of records handed to the sink
+     * @throws IOException on malformed XML or a record over the size limit; records
+     *                     before the error have already reached the sink
+     * @throws Exception   thrown by the sink
+     */
+    public long parse(InputStream in, Path source, RecordSink sink) throws Exception {
+        batch.start(source);
+        batch.setHeader(fieldExpressions);
+        long records = 0;
+        XMLStreamReader reader = null;
+        XMLStreamWriter writer = null;
+        try {
+            reader = factory.createXMLStreamReader(in);
+            if (fieldPaths.length == 0) {
+                writer = OUTPUT_FACTORY.createXMLStreamWriter(capture, "UTF-8");
+            }
+            int depth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (depth == path.length) {
+                        path = Arrays.copyOf(path, depth * 2);
+                    }
+                    path[depth++] = reader.getLocalName();
+                    if (isRecord(depth)) {
+                        readRecord(reader, writer, sink);
+                        records++;
+                        depth--;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Malformed XML in " + source + ": " + e.getMessage(), e);
+        } finally {
+            // Neither close() closes the underlying stream
+            if (writer != null) {
+                closeQuietly(writer);
+            }
+            if (reader != null) {
+                reader.close();
+            }
+        }
+        flush(sink);
+        return records;
+    }
+
+    /**
+     * Size of the data array records are extracted into.
+     */
+    public int getBufferSize() {
+        return Math.max(batch.dataCapacity(), capture.capacity());
+    }
+
+    private boolean isRecord(int depth) {
+        if (anchored ? depth != recordPath.length : depth < recordPath.length) {
+            return false;
+        }
+        int offset = depth - recordPath.length;
+        for (int k = 0; k < recordPath.length; k++) {
+            if (!WILDCARD.equals(recordPath[k]) && !recordPath[k].equals(path[offset + k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the record whose start tag is the current event, through its end tag.
+     */
+    private void readRecord(XMLStreamReader reader, XMLStreamWriter writer, RecordSink sink) throws Exception {
+        batch.beginRecord();
+        if (writer != null) {
+            capture.reset();
+            copyElement(reader, writer);
+            writer.flush();
+            int start = batch.append(capture.buffer(), 0, capture.size());
+            batch.addField(start, batch.dataLength());
+        } else {
+            extractFields(reader);
+            for (int p = 0; p < fieldStates.length; p++) {
+                if (fieldStates[p] == DONE) {
+                    int start = batch.append(fieldValues[p], 0, fieldLengths[p]);
+                    batch.addField(start, batch.dataLength());
+                } else {
+                    int empty = batch.dataLength();
+                    batch.addField(empty, empty);
+                }
+            }
+        }
+        batch.commitRecord();
+        if (batch.size() == batchSize) {
+            flush(sink);
+        }
+    }
+
+    private void copyElement(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+        int depth = 0;
+        int event = reader.getEventType();
+        while (true) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    writeStartElement(reader, writer);
+                    depth++;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    writer.writeEndElement();
+                    if (--depth == 0) {
+                        return;
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                    writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                default -> {
+                    // Comments and processing instructions are not part of the record
+                }
+            }
+            event = reader.next();
+        }
+    }
+
+    private static void writeStartElement(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+        String namespace = reader.getNamespaceURI();
+        if (namespace == null || namespace.isEmpty()) {
+            writer.writeStartElement(reader.getLocalName());
+        } else {
+            writer.writeStartElement(nonNull(reader.getPrefix()), reader.getLocalName(), namespace);
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String attributeNamespace = reader.getAttributeNamespace(i);
+            if (attributeNamespace == null || attributeNamespace.isEmpty()) {
+                writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            } else {
+                writer.writeAttribute(nonNull(reader.getAttributePrefix(i)), attributeNamespace,
+                                      reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+    }
+
+    private void extractFields(XMLStreamReader reader) throws XMLStreamException, IOException {
+        Arrays.fill(fieldStates, PENDING);
+        recordChars = 0;
+        int depth = 0;
+        int event = reader.getEventType();
+        while (true) {
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    if (depth > 0 && depth <= relativePath.length) {
+                        relativePath[depth - 1] = reader.getLocalName();
+                    }
+                    startElement(reader, depth);
+                    depth++;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    depth--;
+                    for (int p = 0; p < fieldStates.length; p++) {
+                        if (fieldStates[p] == ACTIVE && fieldDepths[p] == depth) {
+                            fieldStates[p] = DONE;
+                        }
+                    }
+                    if (depth == 0) {
+                        return;
+                    }
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    for (int p = 0; p < fieldStates.length; p++) {
+                        if (fieldStates[p] == ACTIVE) {
+                            appendValue(p, reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                }
+                default -> { }
+            }
+            event = reader.next();
+        }
+    }
+
+    /**
+     * Starts the fields the element at {@code depth} below the record matches.
+     */
+    private void startElement(XMLStreamReader reader, int depth) throws IOException {
+        for (int p = 0; p < fieldStates.length; p++) {
+            if (fieldStates[p] != PENDING || fieldPaths[p].length != depth || !pathMatches(p, depth)) {
+                continue;
+            }
+            fieldLengths[p] = 0;
+            if (fieldAttributes[p] == null) {
+                fieldStates[p] = ACTIVE;
+                fieldDepths[p] = depth;
+                continue;
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                if (fieldAttributes[p].equals(reader.getAttributeLocalName(i))) {
+                    String value = reader.getAttributeValue(i);
+                    appendValue(p, value.toCharArray(), 0, value.length());
+                    fieldStates[p] = DONE;
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean pathMatches(int field, int depth) {
+        for (int k = 0; k < depth; k++) {
+            if (!fieldPaths[field][k].equals(relativePath[k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendValue(int field, char[] chars, int offset, int length) throws IOException {
+        recordChars += length;
+        if (recordChars > maxRecordBytes) {
+            throw new IOException("XML record exceeds " + maxRecordBytes + " bytes in " + batch.source());
+        }
+        char[] value = fieldValues[field];
+        int used = fieldLengths[field];
+        if (used + length > value.length) {
+            value = Arrays.copyOf(value, Math.max(value.length * 2, used + length));
+            fieldValues[field] = value;
+        }
+        System.arraycopy(chars, offset, value, used, length);
+        fieldLengths[field] = used + length;
+    }
+
+    private void flush(RecordSink sink) throws Exception {
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+        batch.clear();
+    }
+
+    private static String[] splitPath(String path, String original) {
+        if (path.isEmpty()) {
+            return new String[0];
+        }
+        String[] segments = path.split("/", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty() || segment.startsWith("@")) {
+                throw new IllegalArgumentException("Invalid XML path: " + original);
+            }
+        }
+        return segments;
+    }
+
+    private static String nonNull(String prefix) {
+        return prefix == null ? "" : prefix;
+    }
+
+    private static void closeQuietly(XMLStreamWriter writer) {
+        try {
+            writer.close();
+        } catch (XMLStreamException e) {
+            // Nothing left to write
+        }
+    }
+
+    private static XMLOutputFactory newOutputFactory() {
+        XMLOutputFactory factory = XMLOutputFactory.newFactory();
+        factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+        // One writer serializes every record of a file, each one a root element
+        if (factory.isPropertySupported(WOODSTOX_VALIDATE_STRUCTURE)) {
+            factory.setProperty(WOODSTOX_VALIDATE_STRUCTURE, false);
+        }
+        return factory;
+    }
+}
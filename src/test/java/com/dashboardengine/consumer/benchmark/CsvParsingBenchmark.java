@@ -0,0 +1,116 @@
+package com.dashboardengine.consumer.benchmark;
+
+import com.dashboardengine.consumer.processing.CsvRecordParser;
+import com.dashboardengine.consumer.processing.RecordBatch;
+import com.opencsv.CSVReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one generated CSV file per invocation with {@link CsvRecordParser} and with
+ * OpenCSV's {@link CSVReader}, touching every field. Throughput is files/s; divide the
+ * {@code rows} parameter in for records/s. The GC profiler's {@code gc.alloc.rate.norm}
+ * shows bytes allocated per file.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.dashboardengine.consumer.benchmark.CsvParsingBenchmark
+ * </pre>
+ * The profile resolves {@code jmh-generator-annprocess} for the generated harness, so
+ * the first run needs access to the Maven repository; offline builds without it cached
+ * fail in test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private Path file;
+    private CsvRecordParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("csv-bench", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("id,timestamp,customer,amount,currency,status,comment\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write(i + ",2024-05-01T12:" + (i % 60) + ":00Z,customer-" + (i % 977) + ","
+                    + (i * 7 % 10_000) + ".25,EUR," + (i % 3 == 0 ? "PAID" : "OPEN") + ",");
+                writer.write(i % 5 == 0 ? "\"note, with \"\"quotes\"\"\"\n" : "plain note\n");
+            }
+        }
+        parser = new CsvRecordParser(',', '"', 1000, 1024 * 1024, 16 * 1024 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long recordParser() throws Exception {
+        long[] checksum = new long[1];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            parser.parse(channel, file, true, (RecordBatch batch) -> {
+                for (int record = 0; record < batch.size(); record++) {
+                    for (int field = 0; field < batch.fieldCount(record); field++) {
+                        checksum[0] += batch.fieldLength(record, field);
+                    }
+                }
+            });
+        }
+        return checksum[0];
+    }
+
+    @Benchmark
+    public long openCsvReader() throws Exception {
+        long checksum = 0;
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            reader.readNext(); // header
+            String[] fields;
+            while ((fields = reader.readNext()) != null) {
+                for (String field : fields) {
+                    checksum += field.length();
+                }
+            }
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(CsvParsingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.dashboardengine.consumer.benchmark;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.core.MessageProcessor;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import com.dashboardengine.consumer.filesystem.FileClaimStrategy;
+import com.dashboardengine.consumer.filesystem.FilePatternMatcher;
+import com.dashboardengine.consumer.filesystem.IsolatedFileSystemConsumer;
+import com.dashboardengine.consumer.filesystem.SharedProcessingScheduler;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput, resident memory and thread usage of the POOLED, VIRTUAL and SHARED
+ * execution modes of {@link IsolatedFileSystemConsumer} at NFR-001 load (10k files/min).
+ *
+ * <p>Run one mode per JVM so RSS figures are not polluted by the other run:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.dashboardengine.consumer.benchmark.ExecutionModeBenchmark POOLED
+ * java -cp ... com.dashboardengine.consumer.benchmark.ExecutionModeBenchmark VIRTUAL
+ * </pre>
+ * VIRTUAL only runs on virtual threads under a Java 21+ runtime; on Java 17 it measures the
+ * on-demand platform thread fallback ({@code virtualThreadsAvailable=false} in the output).
+ * SHARED is bounded by {@code bench.sharedParallelism} x 1000 / {@code bench.ioMillis} files
+ * per second, since the simulated I/O blocks its pool threads.
+ *
+ * <p>Tunables (system properties): {@code bench.configs} (40), {@code bench.filesPerMinute} (10000),
+ * {@code bench.durationSeconds} (60), {@code bench.ioMillis} simulated per-file I/O latency (20),
+ * {@code bench.sharedParallelism} threads of the SHARED pool (2 x CPUs).
+ */
+public class ExecutionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        FileSystemConfigDto.ExecutionMode mode = args.length > 0
+            ? FileSystemConfigDto.ExecutionMode.valueOf(args[0]) : FileSystemConfigDto.ExecutionMode.POOLED;
+        int configs = Integer.getInteger("bench.configs", 40);
+        int filesPerMinute = Integer.getInteger("bench.filesPerMinute", 10_000);
+        int durationSeconds = Integer.getInteger("bench.durationSeconds", 60);
+        int ioMillis = Integer.getInteger("bench.ioMillis", 20);
+
+        Path root = Files.createTempDirectory("execution-mode-bench");
+        AtomicLong processed = new AtomicLong();
+        MessageProcessor<Path> processor = new SimulatedIoProcessor(ioMillis, processed);
+        ProcessingMetrics metrics = new ProcessingMetrics(new SimpleMeterRegistry());
+        SharedProcessingScheduler sharedScheduler = new SharedProcessingScheduler(
+            Integer.getInteger("bench.sharedParallelism", Runtime.getRuntime().availableProcessors() * 2), metrics);
+
+        List<IsolatedFileSystemConsumer> consumers = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        for (int i = 0; i < configs; i++) {
+            Path directory = Files.createDirectories(root.resolve("config-" + i));
+            FileSystemConfigDto config = new FileSystemConfigDto(
+                directory.toString(), List.of("*.dat"), 1000, null, true, true, 10, 1024 * 1024);
+            config.setExecutionMode(mode);
+            config.setMinConcurrentFiles(0); // 40 configs would otherwise reserve more than the shared pool
+            IsolatedFileSystemConsumer consumer = new IsolatedFileSystemConsumer(
+                "bench-" + i, config, processor, metrics, new FilePatternMatcher(), null,
+                FileClaimStrategy.NONE, sharedScheduler);
+            consumer.start();
+            consumers.add(consumer);
+            directories.add(directory);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        long peakRssKb = 0;
+        long intervalNanos = TimeUnit.MINUTES.toNanos(1) / filesPerMinute;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long nextFile = start;
+        long nextSample = start;
+        long written = 0;
+
+        while (System.nanoTime() < end) {
+            long now = System.nanoTime();
+            while (nextFile <= now) {
+                Path directory = directories.get((int) (written % configs));
+                Files.write(directory.resolve("file-" + written + ".dat"), new byte[512]);
+                written++;
+                nextFile += intervalNanos;
+            }
+            if (now >= nextSample) {
+                peakRssKb = Math.max(peakRssKb, readRssKb());
+                nextSample = now + TimeUnit.MILLISECONDS.toNanos(250);
+            }
+            Thread.sleep(1);
+        }
+
+        double elapsedMinutes = (System.nanoTime() - start) / (double) TimeUnit.MINUTES.toNanos(1);
+        long completed = processed.get();
+        int peakThreads = threads.getPeakThreadCount();
+        consumers.forEach(IsolatedFileSystemConsumer::stop);
+        sharedScheduler.shutdown();
+
+        System.out.printf("mode=%s virtualThreadsAvailable=%s configs=%d%n",
+                          mode, com.dashboardengine.consumer.filesystem.VirtualThreads.isAvailable(), configs);
+        System.out.printf("written=%d processed=%d throughput=%.0f files/min%n",
+                          written, completed, completed / elapsedMinutes);
+        System.out.printf("peakRss=%d MB peakPlatformThreads=%d%n", peakRssKb / 1024, peakThreads);
+    }
+
+    private static long readRssKb() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not on Linux; RSS is reported as 0
+        }
+        return 0;
+    }
+
+    private static final class SimulatedIoProcessor implements MessageProcessor<Path> {
+
+        private final int ioMillis;
+        private final AtomicLong processed;
+
+        private SimulatedIoProcessor(int ioMillis, AtomicLong processed) {
+            this.ioMillis = ioMillis;
+            this.processed = processed;
+        }
+
+        @Override
+        public CompletableFuture<ProcessingResult> process(Path message, String sourceType) {
+            try {
+                Thread.sleep(ioMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.incrementAndGet();
+            return CompletableFuture.completedFuture(ProcessingResult.success(ioMillis, message.toString()));
+        }
+
+        @Override
+        public boolean canProcess(String messageType) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.dashboardengine.consumer.benchmark;
+
+import com.dashboardengine.consumer.processing.LineScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Counts the lines of a generated log file with {@code Files.lines(...).count()}, the
+ * previous implementation, and with {@link LineScanner} sequentially and in parallel
+ * segments. Score is milliseconds per file; the GC profiler shows the bytes allocated
+ * decoding lines into strings. The 2 GB case needs that much free space in the temp
+ * directory.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.dashboardengine.consumer.benchmark.LineCountingBenchmark
+ * </pre>
+ * The profile resolves {@code jmh-generator-annprocess} for the generated harness, so
+ * the first run needs access to the Maven repository; offline builds without it cached
+ * fail in test-compile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LineCountingBenchmark {
+
+    @Param({"1", "100", "2048"})
+    public int megabytes;
+
+    private Path file;
+    private LineScanner sequential;
+    private LineScanner parallel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("lines-bench", ".log");
+        long target = megabytes * 1024L * 1024L;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            long written = 0;
+            for (long i = 0; written < target; i++) {
+                byte[] line = ("2024-05-01T12:00:" + (i % 60) + "Z INFO [worker-" + (i % 16) + "] request "
+                    + i + " served in " + (i % 997) + " ms" + (i % 7 == 0 ? " retry=true" : "") + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+                out.write(line);
+                written += line.length;
+            }
+        }
+        sequential = new LineScanner(LineScanner.DEFAULT_WINDOW_SIZE, Long.MAX_VALUE);
+        parallel = new LineScanner(LineScanner.DEFAULT_WINDOW_SIZE, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long filesLines() throws IOException {
+        try (Stream<String> lines = Files.lines(file)) {
+            return lines.count();
+        }
+    }
+
+    @Benchmark
+    public long scannerSequential() throws IOException {
+        return sequential.countLines(file);
+    }
+
+    @Benchmark
+    public long scannerParallel() throws IOException {
+        return parallel.countLines(file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(LineCountingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
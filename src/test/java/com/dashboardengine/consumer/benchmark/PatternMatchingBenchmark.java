@@ -0,0 +1,117 @@
+package com.dashboardengine.consumer.benchmark;
+
+import com.dashboardengine.consumer.filesystem.CompiledPatternSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares matching a directory listing against a configuration's patterns with the
+ * per-call compilation {@code FilePatternMatcher} used to do and with a
+ * {@link CompiledPatternSet}. Reports ops/s per file name and, through the GC profiler,
+ * {@code gc.alloc.rate.norm} (bytes allocated per match).
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.dashboardengine.consumer.benchmark.PatternMatchingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatternMatchingBenchmark {
+
+    private static final int FILES = 1024;
+
+    @Param({"*.csv", "*.csv,*.json,*_done.txt,manifest.xml", "*.csv,report-??.txt,regex:batch-\\d+\\.dat",
+            "regex:(?<id>batch)-\\d+\\.dat,regex:(?<id>load)_\\d+_done\\.txt"})
+    public String patterns;
+
+    private List<String> patternList;
+    private CompiledPatternSet compiled;
+    private Path[] files;
+
+    @Setup
+    public void setUp() {
+        patternList = Arrays.asList(patterns.split(","));
+        compiled = CompiledPatternSet.compile(patternList);
+        String[] shapes = {"data-%d.csv", "data-%d.csv.tmp", "event-%d.json", "batch-%d.dat", "report-%d.txt",
+                           "load_%d_done.txt", "image-%d.png", "manifest.xml"};
+        List<Path> names = new ArrayList<>(FILES);
+        for (int i = 0; i < FILES; i++) {
+            names.add(Path.of("/data/inbox", String.format(shapes[i % shapes.length], i)));
+        }
+        files = names.toArray(Path[]::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void perCallCompilation(Blackhole blackhole) {
+        for (Path file : files) {
+            blackhole.consume(legacyMatches(file, patternList));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILES)
+    public void compiledPatternSet(Blackhole blackhole) {
+        for (Path file : files) {
+            blackhole.consume(compiled.matches(file));
+        }
+    }
+
+    /**
+     * The matching {@code FilePatternMatcher} did before patterns were compiled once.
+     */
+    private static boolean legacyMatches(Path filePath, List<String> patterns) {
+        String fileName = filePath.getFileName().toString();
+        for (String pattern : patterns) {
+            if (pattern.contains("*") || pattern.contains("?")) {
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+                if (matcher.matches(Path.of(fileName))) {
+                    return true;
+                }
+            } else if (pattern.startsWith("regex:")) {
+                if (Pattern.compile(pattern.substring(6)).matcher(fileName).matches()) {
+                    return true;
+                }
+            } else if (fileName.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(PatternMatchingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
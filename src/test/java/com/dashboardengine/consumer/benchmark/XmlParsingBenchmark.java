@@ -0,0 +1,119 @@
+package com.dashboardengine.consumer.benchmark;
+
+import com.dashboardengine.consumer.processing.RecordBatch;
+import com.dashboardengine.consumer.processing.XmlRecordParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one generated XML export per invocation with {@link XmlRecordParser}, passing
+ * whole records and extracting three fields, and with the previous approach of reading
+ * the file into a string and splitting on start tags. Throughput is files/s; the GC
+ * profiler's {@code gc.alloc.rate.norm} shows bytes allocated per file. Peak heap of the
+ * string approach grows with the file (about three times its size); the parser's does not.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     com.dashboardengine.consumer.benchmark.XmlParsingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class XmlParsingBenchmark {
+
+    @Param({"100000"})
+    public int records;
+
+    private Path file;
+    private XmlRecordParser wholeRecords;
+    private XmlRecordParser fields;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("xml-bench", ".xml");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<export>\n");
+            for (int i = 0; i < records; i++) {
+                writer.write("  <order id=\"" + i + "\" status=\"" + (i % 3 == 0 ? "PAID" : "OPEN") + "\">"
+                    + "<customer><name>customer-" + (i % 977) + "</name></customer>"
+                    + "<amount currency=\"EUR\">" + (i * 7 % 10_000) + ".25</amount>"
+                    + "<!-- audit --><note><![CDATA[note <" + i + ">]]></note></order>\n");
+            }
+            writer.write("</export>\n");
+        }
+        wholeRecords = new XmlRecordParser(XmlRecordParser.newInputFactory(), "/export/order", List.of(),
+                                           1000, 16 * 1024 * 1024);
+        fields = new XmlRecordParser(XmlRecordParser.newInputFactory(), "/export/order",
+                                     List.of("@id", "customer/name", "amount"), 1000, 16 * 1024 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long wholeRecords() throws Exception {
+        return parse(wholeRecords);
+    }
+
+    @Benchmark
+    public long extractFields() throws Exception {
+        return parse(fields);
+    }
+
+    @Benchmark
+    public long readStringAndSplit() throws IOException {
+        String content = Files.readString(file);
+        return content.split("<[^/]").length - 1;
+    }
+
+    private long parse(XmlRecordParser parser) throws Exception {
+        long[] checksum = new long[1];
+        try (InputStream in = Files.newInputStream(file)) {
+            parser.parse(in, file, (RecordBatch batch) -> {
+                for (int record = 0; record < batch.size(); record++) {
+                    for (int field = 0; field < batch.fieldCount(record); field++) {
+                        checksum[0] += batch.fieldLength(record, field);
+                    }
+                }
+            });
+        }
+        return checksum[0];
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(XmlParsingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
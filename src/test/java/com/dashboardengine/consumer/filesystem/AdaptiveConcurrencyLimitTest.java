@@ -0,0 +1,65 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    private static void feed(AdaptiveConcurrencyLimit limit, int samples, long rttNanos, boolean success, boolean saturated) {
+        for (int i = 0; i < samples; i++) {
+            limit.onSample(rttNanos, success, saturated ? limit.getLimit() : 1);
+        }
+    }
+
+    @Test
+    void testStableLatencyGrowsLimitToMax() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(5, 1, 40);
+
+        feed(limit, 5_000, 20 * MS, true, true);
+
+        assertEquals(40, limit.getLimit());
+    }
+
+    @Test
+    void testRisingLatencyShrinksLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 2, 40);
+        feed(limit, 200, 20 * MS, true, true);
+        int before = limit.getLimit();
+
+        feed(limit, 200, 100 * MS, true, true);
+
+        assertTrue(limit.getLimit() < before, limit.getLimit() + " < " + before);
+    }
+
+    @Test
+    void testErrorsBackOffToMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(30, 3, 40);
+
+        feed(limit, 2_000, 20 * MS, false, true);
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void testUnusedLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 40);
+
+        feed(limit, 2_000, 20 * MS, true, false);
+
+        assertEquals(8, limit.getLimit());
+        assertEquals(AdaptiveConcurrencyLimit.Decision.HOLD, limit.getLastDecision());
+    }
+
+    @Test
+    void testDecisionOnlyAtEndOfWindow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 40);
+
+        for (int i = 1; i < AdaptiveConcurrencyLimit.MIN_WINDOW_SAMPLES; i++) {
+            assertNull(limit.onSample(20 * MS, true, 4));
+        }
+        assertNotNull(limit.onSample(20 * MS, true, 4));
+    }
+}
@@ -0,0 +1,155 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacklogScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDirectoryOrderPagesThroughAllMatches() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".csv"), "x");
+        }
+        Files.writeString(tempDir.resolve("ignored.txt"), "x");
+
+        BacklogScanner scanner = new BacklogScanner(tempDir,
+            file -> file.toString().endsWith(".csv"), FileSystemConfigDto.BacklogOrder.DIRECTORY);
+        Set<Path> seen = new HashSet<>();
+        List<Path> page = new ArrayList<>();
+
+        assertEquals(10, scanner.nextPage(10, page));
+        assertEquals(15, scanner.getRemainingEstimate());
+        seen.addAll(page);
+        page.clear();
+        assertEquals(10, scanner.nextPage(10, page));
+        seen.addAll(page);
+        page.clear();
+        assertEquals(5, scanner.nextPage(10, page));
+        seen.addAll(page);
+
+        assertEquals(25, seen.size());
+        assertTrue(scanner.isExhausted());
+        assertEquals(0, scanner.getRemainingEstimate());
+        assertEquals(0, scanner.nextPage(10, page));
+    }
+
+    @Test
+    void testSkippedDirectoriesAreNotWalked() throws Exception {
+        Files.writeString(tempDir.resolve("new.csv"), "x");
+        Path claimed = Files.createDirectories(tempDir.resolve(".claimed/pod-a"));
+        Files.writeString(claimed.resolve("taken.csv"), "x");
+        Path archive = Files.createDirectories(tempDir.resolve("archive/2024/03/05"));
+        Files.writeString(archive.resolve("done.csv"), "x");
+
+        for (FileSystemConfigDto.BacklogOrder order : FileSystemConfigDto.BacklogOrder.values()) {
+            BacklogScanner scanner = new BacklogScanner(tempDir, file -> file.toString().endsWith(".csv"),
+                path -> path.getFileName().toString().equals(".claimed") || path.equals(tempDir.resolve("archive")),
+                order);
+            List<Path> page = new ArrayList<>();
+
+            scanner.nextPage(10, page);
+
+            assertEquals(List.of(tempDir.resolve("new.csv")), page, order.name());
+        }
+    }
+
+    @Test
+    void testEntriesRemovedDuringScanAreSkipped() throws Exception {
+        List<Path> directories = new ArrayList<>();
+        for (String name : List.of("a", "b", "c", "d")) {
+            Path directory = Files.createDirectories(tempDir.resolve(name));
+            directories.add(directory);
+            for (int i = 0; i < 10; i++) {
+                Files.writeString(directory.resolve("file" + i + ".csv"), "x");
+            }
+        }
+
+        BacklogScanner scanner = new BacklogScanner(tempDir,
+            file -> file.toString().endsWith(".csv"), FileSystemConfigDto.BacklogOrder.DIRECTORY);
+        List<Path> page = new ArrayList<>();
+        assertEquals(5, scanner.nextPage(5, page));
+        Path current = page.get(0).getParent();
+
+        // Processed and archived while the scan is paused: all but one unvisited directory
+        List<Path> unvisited = new ArrayList<>(directories);
+        unvisited.remove(current);
+        Path survivor = unvisited.remove(0);
+        for (Path directory : unvisited) {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+
+        Set<Path> seen = new HashSet<>(page);
+        page.clear();
+        while (scanner.nextPage(5, page) > 0) {
+            seen.addAll(page);
+            page.clear();
+        }
+
+        assertEquals(20, seen.size());
+        assertTrue(seen.contains(survivor.resolve("file9.csv")));
+        assertTrue(scanner.isExhausted());
+    }
+
+    @Test
+    void testOldestFirstMergesSpilledRuns() throws Exception {
+        long base = System.currentTimeMillis() - 1_000_000;
+        // Written newest first so directory order differs from mtime order
+        for (int i = 0; i < 23; i++) {
+            Path file = Files.writeString(tempDir.resolve("file" + i + ".csv"), "x");
+            Files.setLastModifiedTime(file, FileTime.fromMillis(base + (23 - i) * 1000L));
+        }
+
+        BacklogScanner scanner = new BacklogScanner(tempDir,
+            file -> file.toString().endsWith(".csv"), path -> false, FileSystemConfigDto.BacklogOrder.OLDEST_FIRST, 4);
+        List<Path> all = new ArrayList<>();
+        List<Path> page = new ArrayList<>();
+        while (scanner.nextPage(5, page) > 0) {
+            all.addAll(page);
+            page.clear();
+        }
+
+        assertEquals(23, all.size());
+        assertEquals(23, scanner.getScannedCount());
+        long previous = Long.MIN_VALUE;
+        for (Path file : all) {
+            long mtime = Files.getLastModifiedTime(file).toMillis();
+            assertTrue(mtime >= previous, "not oldest first at " + file);
+            previous = mtime;
+        }
+        assertEquals(tempDir.resolve("file22.csv"), all.get(0));
+    }
+
+    @Test
+    void testOldestFirstReportsExactRemaining() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".csv"), "x");
+        }
+
+        BacklogScanner scanner = new BacklogScanner(tempDir,
+            file -> true, path -> false, FileSystemConfigDto.BacklogOrder.OLDEST_FIRST, 3);
+        assertEquals(-1, scanner.getRemainingEstimate());
+
+        scanner.nextPage(5, new ArrayList<>());
+        assertEquals(3, scanner.getRemainingEstimate());
+        scanner.close();
+    }
+}
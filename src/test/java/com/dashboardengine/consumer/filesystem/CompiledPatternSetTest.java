@@ -0,0 +1,114 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledPatternSetTest {
+
+    private static final List<String> NAMES = List.of(
+        "report.csv", "report.CSV", ".csv", "csv", "data_2024.csv.gz", "file1.txt", "file22.txt",
+        "a.b.c", "x", "", "test_done.txt", "done.txt", "archive[1].zip", "a{b}.log", "a,b.log",
+        "notes.md", "file^1.txt", "file!1.txt", "file-1.txt", "file].txt");
+
+    private static final List<String> GLOBS = List.of(
+        "*.csv", "*_done.txt", "test*", "file?.txt", "*.{csv,json}", "file[0-9]*", "file[!0-9]*",
+        "file[^1]*", "file[-1]*", "a\\{b}*", "*.csv.*", "a*c", "**.md",
+        "*.txt", "*e.txt", "a,b*", "?");
+
+    @Test
+    void testGlobsMatchLikePathMatcher() {
+        for (String glob : GLOBS) {
+            PathMatcher reference = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            CompiledPatternSet compiled = CompiledPatternSet.compile(List.of(glob));
+            for (String name : NAMES) {
+                if (name.isEmpty()) {
+                    continue;
+                }
+                assertEquals(reference.matches(Path.of(name)), compiled.matches(name),
+                    () -> "glob " + glob + " on " + name);
+            }
+        }
+    }
+
+    @Test
+    void testMergedPatternsMatchAnyMember() {
+        CompiledPatternSet compiled = CompiledPatternSet.compile(List.of(
+            "*.csv", "*_done.txt", "exact.json", "file?.txt", "regex:log-\\d{4}\\.gz", "regex:(\\w)\\1\\.bin"));
+
+        assertTrue(compiled.matches("report.csv"));
+        assertTrue(compiled.matches("batch_done.txt"));
+        assertTrue(compiled.matches("exact.json"));
+        assertTrue(compiled.matches("file7.txt"));
+        assertTrue(compiled.matches("log-2024.gz"));
+        assertTrue(compiled.matches("aa.bin"));
+        assertTrue(compiled.matches(Path.of("/data/in/report.csv")));
+
+        assertFalse(compiled.matches("other.json"));
+        assertFalse(compiled.matches("batch.txt"));
+        assertFalse(compiled.matches("log-24.gz"));
+        assertFalse(compiled.matches("ab.bin"));
+        assertFalse(compiled.matches("report.csv.tmp"));
+    }
+
+    @Test
+    void testRegexesSharingGroupNamesCompileSeparately() {
+        CompiledPatternSet compiled = CompiledPatternSet.compile(List.of(
+            "regex:(?<day>\\d{8})\\.csv", "regex:export-(?<day>\\d{8})\\.json", "regex:(?<!x)y\\.txt", "*.log"));
+
+        assertTrue(compiled.matches("20240101.csv"));
+        assertTrue(compiled.matches("export-20240101.json"));
+        assertTrue(compiled.matches("y.txt"));
+        assertTrue(compiled.matches("app.log"));
+        assertFalse(compiled.matches("2024.csv"));
+        assertFalse(compiled.matches("export-20240101.csv"));
+    }
+
+    @Test
+    void testGlobSyntaxWithoutWildcardIsExactName() {
+        CompiledPatternSet compiled = CompiledPatternSet.compile(List.of("archive[1].zip", "a{b}.log"));
+
+        assertTrue(compiled.matches("archive[1].zip"));
+        assertTrue(compiled.matches("a{b}.log"));
+        assertFalse(compiled.matches("archive1.zip"));
+        assertFalse(compiled.matches("ab.log"));
+    }
+
+    @Test
+    void testOverlappingSuffixes() {
+        CompiledPatternSet compiled = CompiledPatternSet.compile(List.of("*.tar.gz", "*.gz", "*z"));
+
+        assertTrue(compiled.matches("a.tar.gz"));
+        assertTrue(compiled.matches("a.gz"));
+        assertTrue(compiled.matches("fizz"));
+        assertFalse(compiled.matches("a.tar"));
+    }
+
+    @Test
+    void testRegexWithWildcardIsTreatedAsRegex() {
+        CompiledPatternSet compiled = CompiledPatternSet.compile(List.of("regex:.*\\.txt"));
+
+        assertTrue(compiled.matches("anything.txt"));
+        assertFalse(compiled.matches("anything.csv"));
+    }
+
+    @Test
+    void testEmptyOrStarMatchesAll() {
+        assertTrue(CompiledPatternSet.compile(null).matches("x.bin"));
+        assertTrue(CompiledPatternSet.compile(List.of()).matches("x.bin"));
+        assertTrue(CompiledPatternSet.compile(List.of("*.csv", "*")).matches("x.bin"));
+    }
+
+    @Test
+    void testMalformedPatternsFailAtCompile() {
+        assertThrows(PatternSyntaxException.class, () -> CompiledPatternSet.compile(List.of("regex:(unclosed")));
+        assertThrows(PatternSyntaxException.class, () -> CompiledPatternSet.compile(List.of("*.{csv,json")));
+        assertThrows(PatternSyntaxException.class, () -> CompiledPatternSet.compile(List.of("file[0-9*.txt")));
+    }
+}
@@ -0,0 +1,100 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelayedRequeueSchedulerTest {
+
+    private final List<Path> expired = new ArrayList<>();
+
+    private void tick(DelayedRequeueScheduler scheduler, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    void testExpiresAfterDelay() {
+        DelayedRequeueScheduler scheduler = new DelayedRequeueScheduler(100, 8, 300, 10_000, expired::add);
+        Path file = Path.of("a.csv");
+
+        assertEquals(300, scheduler.schedule(file));
+        tick(scheduler, 2);
+        assertTrue(expired.isEmpty());
+        assertEquals(1, scheduler.size());
+
+        tick(scheduler, 1);
+        assertEquals(List.of(file), expired);
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void testExpiryCallbackRunsOutsideTheLock() throws Exception {
+        Path file = Path.of("a.csv");
+        DelayedRequeueScheduler[] holder = new DelayedRequeueScheduler[1];
+        AtomicBoolean rescheduled = new AtomicBoolean();
+        // The callback waits on another thread that schedules, as a blocking queue offer might
+        holder[0] = new DelayedRequeueScheduler(100, 8, 100, 1000, path -> {
+            Thread other = new Thread(() -> holder[0].scheduleAfter(path, 100));
+            other.start();
+            try {
+                other.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rescheduled.set(!other.isAlive());
+        });
+
+        holder[0].scheduleAfter(file, 100);
+        holder[0].tick();
+
+        assertTrue(rescheduled.get());
+        assertEquals(1, holder[0].size());
+    }
+
+    @Test
+    void testBackoffDoublesUntilCapAndResets() {
+        DelayedRequeueScheduler scheduler = new DelayedRequeueScheduler(100, 8, 200, 1000, expired::add);
+        Path file = Path.of("a.csv");
+
+        assertEquals(200, scheduler.schedule(file));
+        assertEquals(400, scheduler.schedule(file));
+        assertEquals(800, scheduler.schedule(file));
+        assertEquals(1000, scheduler.schedule(file));
+
+        scheduler.reset(file);
+        assertEquals(200, scheduler.schedule(file));
+    }
+
+    @Test
+    void testDelayLongerThanOneRotation() {
+        DelayedRequeueScheduler scheduler = new DelayedRequeueScheduler(100, 4, 1000, 1000, expired::add);
+        Path file = Path.of("big.csv");
+
+        scheduler.schedule(file); // 10 ticks on a 4-slot wheel
+        tick(scheduler, 9);
+        assertTrue(expired.isEmpty());
+
+        tick(scheduler, 1);
+        assertEquals(List.of(file), expired);
+    }
+
+    @Test
+    void testClearDropsPendingTimeouts() {
+        DelayedRequeueScheduler scheduler = new DelayedRequeueScheduler(100, 8, 100, 100, expired::add);
+        scheduler.schedule(Path.of("a.csv"));
+        scheduler.schedule(Path.of("b.csv"));
+
+        scheduler.clear();
+        tick(scheduler, 16);
+
+        assertTrue(expired.isEmpty());
+        assertEquals(0, scheduler.size());
+    }
+}
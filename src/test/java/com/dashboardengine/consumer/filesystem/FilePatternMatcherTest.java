@@ -74,4 +74,16 @@ class FilePatternMatcherTest {
         assertTrue(matcher.matches(file1, List.of("file?.txt")));
         assertFalse(matcher.matches(file2, List.of("file?.txt")));
     }
+
+    @Test
+    void testCompiledPatternSetIsCached() {
+        List<String> patterns = List.of("*.txt", "regex:file\\d+\\.csv");
+
+        CompiledPatternSet compiled = matcher.compile(patterns);
+
+        assertSame(compiled, matcher.compile(List.of("*.txt", "regex:file\\d+\\.csv")));
+        assertTrue(compiled.matches(Path.of("test.txt")));
+        assertTrue(compiled.matches(Path.of("file12.csv")));
+        assertFalse(compiled.matches(Path.of("file.csv")));
+    }
 }
\ No newline at end of file
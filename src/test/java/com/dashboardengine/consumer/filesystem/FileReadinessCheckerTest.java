@@ -0,0 +1,86 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileReadinessCheckerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileSystemConfigDto createConfig(FileSystemConfigDto.ReadinessStrategy strategy, int quietPeriodMs) {
+        FileSystemConfigDto config = new FileSystemConfigDto(
+            tempDir.toString(), List.of("*.csv"), 1000, null, false, true, 4, 1024 * 1024
+        );
+        config.setReadinessStrategy(strategy);
+        config.setReadinessQuietPeriodMs(quietPeriodMs);
+        return config;
+    }
+
+    @Test
+    void testQuiescenceUsesModificationTime() throws Exception {
+        FileReadinessChecker checker = new FileReadinessChecker(
+            createConfig(FileSystemConfigDto.ReadinessStrategy.QUIESCENCE, 60_000));
+        Path file = Files.writeString(tempDir.resolve("fresh.csv"), "a,b");
+
+        assertEquals(FileReadinessChecker.Readiness.NOT_READY, checker.check(file));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+        assertEquals(FileReadinessChecker.Readiness.READY, checker.check(file));
+    }
+
+    @Test
+    void testQuiescenceAcceptsUnchangedFileAfterQuietPeriod() throws Exception {
+        FileReadinessChecker checker = new FileReadinessChecker(
+            createConfig(FileSystemConfigDto.ReadinessStrategy.QUIESCENCE, 200));
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "a,b");
+        // Writer clock ahead of ours: the mtime alone never looks old enough
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        assertEquals(FileReadinessChecker.Readiness.NOT_READY, checker.check(file));
+        Thread.sleep(250);
+        assertEquals(FileReadinessChecker.Readiness.READY, checker.check(file));
+    }
+
+    @Test
+    void testMarkerFileStrategy() throws Exception {
+        FileReadinessChecker checker = new FileReadinessChecker(
+            createConfig(FileSystemConfigDto.ReadinessStrategy.MARKER_FILE, 500));
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "a,b");
+
+        assertEquals(FileReadinessChecker.Readiness.NOT_READY, checker.check(file));
+
+        Files.createFile(tempDir.resolve("data.csv.done"));
+        assertEquals(FileReadinessChecker.Readiness.READY, checker.check(file));
+        assertEquals(tempDir.resolve("data.csv.done"), checker.markerFor(file));
+    }
+
+    @Test
+    void testTempRenameStrategy() throws Exception {
+        FileReadinessChecker checker = new FileReadinessChecker(
+            createConfig(FileSystemConfigDto.ReadinessStrategy.TEMP_RENAME, 500));
+        Path upload = Files.writeString(tempDir.resolve("data.csv.tmp"), "a,b");
+        Path done = Files.writeString(tempDir.resolve("data.csv"), "a,b");
+
+        assertTrue(checker.isTemporary(upload));
+        assertEquals(FileReadinessChecker.Readiness.NOT_READY, checker.check(upload));
+        assertEquals(FileReadinessChecker.Readiness.READY, checker.check(done));
+        assertNull(checker.markerFor(done));
+    }
+
+    @Test
+    void testMissingFileIsGone() {
+        FileReadinessChecker checker = new FileReadinessChecker(
+            createConfig(FileSystemConfigDto.ReadinessStrategy.QUIESCENCE, 500));
+
+        assertEquals(FileReadinessChecker.Readiness.GONE, checker.check(tempDir.resolve("missing.csv")));
+    }
+}
@@ -0,0 +1,42 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FileSystemConfigurationManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testNullModesTakeTheDefaults() {
+        FileSystemConfigurationManager manager = new FileSystemConfigurationManager(
+            mock(IsolatedFileSystemConsumerFactory.class), new ApplicationProperties());
+        FileSystemConfigDto config = new FileSystemConfigDto(tempDir.toString(), List.of("*.csv"), 1000, null,
+            false, false, 4, 1024);
+        config.setExecutionMode(null);
+        config.setDetectionMode(null);
+        config.setReadinessStrategy(null);
+        config.setClaimStrategy(null);
+        config.setConcurrencyControl(null);
+
+        manager.createConfiguration("orders", config);
+
+        assertEquals(FileSystemConfigDto.ExecutionMode.POOLED, config.getExecutionMode());
+        assertEquals(FileSystemConfigDto.DetectionMode.WATCH_SERVICE, config.getDetectionMode());
+        assertEquals(FileSystemConfigDto.ReadinessStrategy.QUIESCENCE, config.getReadinessStrategy());
+        assertEquals(FileSystemConfigDto.ClaimStrategy.NONE, config.getClaimStrategy());
+        assertEquals(FileSystemConfigDto.ConcurrencyControl.FIXED, config.getConcurrencyControl());
+        FileSystemConfigDto defaults = new FileSystemConfigDto(tempDir.toString(), List.of("*.csv"), 1000, null,
+            false, false, 4, 1024);
+        assertFalse(IsolatedFileSystemConsumer.requiresRestart(defaults, config));
+    }
+}
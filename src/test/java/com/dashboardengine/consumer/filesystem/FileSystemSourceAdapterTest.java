@@ -17,6 +17,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,7 +55,7 @@ class FileSystemSourceAdapterTest {
         );
 
         // Mock successful processing
-        when(messageProcessor.process(any(Path.class), eq("FILESYSTEM")))
+        when(messageProcessor.process(any(Path.class), eq("FILESYSTEM"), any(Executor.class)))
             .thenReturn(CompletableFuture.completedFuture(
                 ProcessingResult.success(10, "Test processing")));
     }
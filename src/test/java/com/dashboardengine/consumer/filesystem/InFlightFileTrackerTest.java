@@ -0,0 +1,107 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightFileTrackerTest {
+
+    private final Path file = Path.of("/data/in/report.csv");
+
+    private InFlightFileTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new InFlightFileTracker();
+    }
+
+    @Test
+    void testRepeatedEventsWhilePendingAreCollapsed() {
+        assertTrue(tracker.offer(file, 10, 1000));
+        assertFalse(tracker.offer(file, 20, 2000)); // MODIFY
+        assertFalse(tracker.offer(file, 30, 3000)); // MODIFY
+        assertFalse(tracker.offer(file, 30, 3000)); // startup scan
+
+        assertEquals(3, tracker.getCollapsedCount());
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    void testCompletedVersionIsNotProcessedAgain() {
+        assertTrue(tracker.offer(file, 10, 1000));
+        tracker.markInFlight(file);
+        assertFalse(tracker.complete(file, false));
+
+        assertFalse(tracker.offer(file, 10, 1000));
+        assertTrue(tracker.isKnown(file, 10, 1000));
+
+        // A new version of the same file is processed again
+        assertFalse(tracker.isKnown(file, 11, 1500));
+        assertTrue(tracker.offer(file, 11, 1500));
+    }
+
+    @Test
+    void testChangeWhileInFlightRequeuesOnCompletion() {
+        assertTrue(tracker.offer(file, 10, 1000));
+        tracker.markInFlight(file);
+
+        assertFalse(tracker.offer(file, 50, 2000));
+        assertTrue(tracker.complete(file, false));
+
+        // Back to pending, so further events are merged
+        assertFalse(tracker.offer(file, 50, 2000));
+    }
+
+    @Test
+    void testArchivedAndDeletedFilesAreDropped() {
+        assertTrue(tracker.offer(file, 10, 1000));
+        tracker.markInFlight(file);
+        assertFalse(tracker.complete(file, true));
+        assertEquals(0, tracker.size());
+
+        assertTrue(tracker.offer(file, 10, 1000));
+        tracker.forget(file);
+        assertEquals(0, tracker.size());
+        assertFalse(tracker.isKnown(file, 10, 1000));
+    }
+
+    @Test
+    void testMarkPendingKeepsEntryQueued() {
+        assertTrue(tracker.offer(file, 10, 1000));
+        tracker.markInFlight(file);
+        tracker.markPending(file);
+
+        assertFalse(tracker.offer(file, 10, 1000));
+        assertEquals(1, tracker.getCollapsedCount());
+    }
+
+    @Test
+    void testOldestCompletedEntriesAreEvicted() {
+        tracker = new InFlightFileTracker(2);
+        Path first = Path.of("/data/in/1.csv");
+        Path second = Path.of("/data/in/2.csv");
+        Path third = Path.of("/data/in/3.csv");
+        for (Path path : new Path[] {first, second, third}) {
+            assertTrue(tracker.offer(path, 10, 1000));
+            tracker.markInFlight(path);
+            tracker.complete(path, false);
+        }
+        assertTrue(tracker.offer(file, 10, 1000));
+
+        assertEquals(3, tracker.size());
+        assertFalse(tracker.isKnown(first, 10, 1000));
+        assertTrue(tracker.isKnown(second, 10, 1000));
+        assertTrue(tracker.isKnown(third, 10, 1000));
+
+        // Requeued since it completed, so its old completion does not evict it
+        assertTrue(tracker.offer(second, 11, 1500));
+        assertTrue(tracker.offer(first, 10, 1000));
+        tracker.markInFlight(first);
+        tracker.complete(first, false);
+        assertTrue(tracker.isKnown(second, 11, 1500));
+        assertTrue(tracker.isKnown(first, 10, 1000));
+    }
+}
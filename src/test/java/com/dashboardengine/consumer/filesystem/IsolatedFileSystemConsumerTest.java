@@ -0,0 +1,459 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.core.DrainReport;
+import com.dashboardengine.consumer.core.MessageProcessor;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IsolatedFileSystemConsumerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private MessageProcessor<Path> messageProcessor;
+
+    private SimpleMeterRegistry registry;
+    private ProcessingMetrics metrics;
+    private IsolatedFileSystemConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        metrics = new ProcessingMetrics(registry);
+
+        when(messageProcessor.process(any(Path.class), anyString(), any(Executor.class)))
+            .thenReturn(CompletableFuture.completedFuture(
+                ProcessingResult.success(5, "Test processing")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (consumer != null) {
+            consumer.stop();
+        }
+    }
+
+    private FileSystemConfigDto createConfig(FileSystemConfigDto.ExecutionMode mode) {
+        FileSystemConfigDto config = new FileSystemConfigDto(
+            tempDir.toString(), List.of("*.txt"), 1000, null, false, true, 4, 1024 * 1024
+        );
+        config.setExecutionMode(mode);
+        return config;
+    }
+
+    private void awaitProcessed(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (consumer.getStatus().processedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void testPooledModeProcessesExistingFiles() throws Exception {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+        Files.writeString(tempDir.resolve("b.txt"), "b");
+        Files.writeString(tempDir.resolve("ignored.csv"), "c");
+
+        consumer = new IsolatedFileSystemConsumer("pooled",
+            createConfig(FileSystemConfigDto.ExecutionMode.POOLED), messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(2);
+
+        assertEquals(FileSystemConfigDto.ExecutionMode.POOLED, consumer.getExecutionMode());
+        assertEquals(2, consumer.getStatus().processedCount());
+        assertEquals(0, consumer.getCurrentQueueSize());
+    }
+
+    @Test
+    void testAsynchronousResultIsRecordedWithoutHoldingWorker() throws Exception {
+        Files.writeString(tempDir.resolve("remote.txt"), "a");
+        CompletableFuture<ProcessingResult> pending = new CompletableFuture<>();
+        CountDownLatch called = new CountDownLatch(1);
+        when(messageProcessor.process(any(Path.class), anyString(), any(Executor.class))).thenAnswer(invocation -> {
+            called.countDown();
+            return pending;
+        });
+
+        consumer = new IsolatedFileSystemConsumer("async",
+            createConfig(FileSystemConfigDto.ExecutionMode.POOLED), messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        // Only the dispatcher is busy: the worker returned while the file is still in flight
+        assertEquals(1, consumer.getActiveThreadCount());
+        assertEquals(0, consumer.getStatus().processedCount());
+
+        pending.complete(ProcessingResult.success(5, "remote"));
+        awaitProcessed(1);
+
+        assertEquals(1, consumer.getStatus().processedCount());
+        assertEquals(0, consumer.getStatus().errorCount());
+    }
+
+    @Test
+    void testVirtualModeProcessesExistingFiles() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".txt"), "content " + i);
+        }
+
+        consumer = new IsolatedFileSystemConsumer("virtual",
+            createConfig(FileSystemConfigDto.ExecutionMode.VIRTUAL), messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(20);
+
+        assertEquals(FileSystemConfigDto.ExecutionMode.VIRTUAL, consumer.getExecutionMode());
+        assertEquals(20, consumer.getStatus().processedCount());
+        assertEquals(0, consumer.getStatus().errorCount());
+        assertEquals(0, consumer.getCurrentQueueSize());
+        // Only the dispatcher remains once the queue is drained
+        assertTrue(consumer.getActiveThreadCount() <= 1);
+        assertTrue(consumer.getStatus().healthy());
+    }
+
+    @Test
+    void testSharedModeRunsFilesOnSchedulerLane() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".txt"), "content " + i);
+        }
+        SharedProcessingScheduler scheduler = new SharedProcessingScheduler(4, metrics);
+
+        try {
+            consumer = new IsolatedFileSystemConsumer("shared",
+                createConfig(FileSystemConfigDto.ExecutionMode.SHARED), messageProcessor, metrics,
+                new FilePatternMatcher(), null, FileClaimStrategy.NONE, scheduler);
+            consumer.start();
+            awaitProcessed(20);
+
+            assertEquals(FileSystemConfigDto.ExecutionMode.SHARED, consumer.getExecutionMode());
+            assertEquals(20, consumer.getStatus().processedCount());
+            assertNotNull(registry.find("consumer.filesystem.shared.busy").tag("source_type", "FILESYSTEM-shared")
+                .functionCounter());
+
+            consumer.stop();
+            assertNull(registry.find("consumer.filesystem.shared.running").gauge());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedStartReleasesLaneAndGauges() throws Exception {
+        // A regular file where the ledger directory should be
+        Path notADirectory = Files.writeString(tempDir.resolve("ledger"), "x");
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.SHARED);
+        config.setLedgerDir(notADirectory.resolve("sub").toString());
+        config.setMinConcurrentFiles(2);
+        SharedProcessingScheduler scheduler = new SharedProcessingScheduler(4, metrics);
+
+        try {
+            IsolatedFileSystemConsumer failing = new IsolatedFileSystemConsumer("failing", config,
+                messageProcessor, metrics, new FilePatternMatcher(), null, FileClaimStrategy.NONE, scheduler);
+            assertThrows(IOException.class, failing::start);
+
+            assertFalse(failing.isRunning());
+            assertNull(registry.find("consumer.filesystem.concurrency.limit")
+                .tag("source_type", "FILESYSTEM-failing").gauge());
+            assertNull(registry.find("consumer.filesystem.shared.running")
+                .tag("source_type", "FILESYSTEM-failing").gauge());
+            // The failed lane's reservation went back to the pool
+            assertEquals(4, scheduler.register("other", 1, 4, 4).getReservation());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testAdaptiveConcurrencyStaysWithinBounds() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".txt"), "content " + i);
+        }
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setConcurrencyControl(FileSystemConfigDto.ConcurrencyControl.ADAPTIVE);
+        config.setMinConcurrentFiles(2);
+
+        consumer = new IsolatedFileSystemConsumer("adaptive", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(50);
+
+        assertEquals(50, consumer.getStatus().processedCount());
+        assertTrue(consumer.getConcurrencyLimit() >= 2 && consumer.getConcurrencyLimit() <= 4);
+        assertNotNull(consumer.getLastConcurrencyDecision());
+        assertEquals(consumer.getConcurrencyLimit(),
+            registry.get("consumer.filesystem.concurrency.limit").tag("source_type", "FILESYSTEM-adaptive").gauge().value());
+    }
+
+    @Test
+    void testReconfigureAppliesPatternsAndLimitsInPlace() throws Exception {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+        Files.writeString(tempDir.resolve("b.csv"), "b");
+        consumer = new IsolatedFileSystemConsumer("reconfigure",
+            createConfig(FileSystemConfigDto.ExecutionMode.POOLED), messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(1);
+
+        FileSystemConfigDto updated = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        updated.setPatterns(List.of("*.txt", "*.csv"));
+        updated.setMaxConcurrentFiles(8);
+
+        assertTrue(consumer.reconfigure(updated));
+        awaitProcessed(2);
+
+        assertTrue(consumer.isRunning());
+        assertEquals(2, consumer.getStatus().processedCount());
+        assertEquals(8, consumer.getConcurrencyLimit());
+    }
+
+    @Test
+    void testReconfigureRequiresRestartForStructuralChanges() throws Exception {
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        consumer = new IsolatedFileSystemConsumer("restart", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+
+        FileSystemConfigDto moved = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        moved.setPath(tempDir.resolve("elsewhere").toString());
+        FileSystemConfigDto polling = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        polling.setDetectionMode(FileSystemConfigDto.DetectionMode.POLLING);
+        FileSystemConfigDto archived = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        archived.setArchiveDir(tempDir.resolve("archive").toString());
+        archived.setPollIntervalMs(5000);
+
+        assertFalse(consumer.reconfigure(moved));
+        assertTrue(IsolatedFileSystemConsumer.requiresRestart(config, polling));
+        assertFalse(IsolatedFileSystemConsumer.requiresRestart(config, archived));
+    }
+
+    @Test
+    void testDrainHandsOffQueuedFilesToNextStart() throws Exception {
+        Path inbox = Files.createDirectories(tempDir.resolve("inbox"));
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(inbox.resolve("file" + i + ".txt"), "content " + i);
+        }
+        FileSystemConfigDto config = new FileSystemConfigDto(
+            inbox.toString(), List.of("*.txt"), 1000, null, true, true, 2, 1024 * 1024);
+        config.setSpillDir(tempDir.resolve("spill").toString());
+        when(messageProcessor.process(any(Path.class), anyString(), any(Executor.class))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return CompletableFuture.completedFuture(ProcessingResult.success(100, "slow"));
+        });
+
+        consumer = new IsolatedFileSystemConsumer("drain", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(2);
+        DrainReport report = consumer.drain(Duration.ofSeconds(5));
+
+        assertFalse(report.timedOut());
+        assertEquals(0, report.abandonedFiles());
+        assertTrue(report.handedOffFiles() > 0);
+        long firstRun = consumer.getStatus().processedCount();
+        assertEquals(20, firstRun + report.handedOffFiles());
+        assertTrue(Files.exists(tempDir.resolve("spill/drain.handoff")));
+
+        consumer = new IsolatedFileSystemConsumer("drain", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(report.handedOffFiles());
+
+        assertEquals(report.handedOffFiles(), consumer.getStatus().processedCount());
+        assertFalse(Files.exists(tempDir.resolve("spill/drain.handoff")));
+    }
+
+    @Test
+    void testDrainDeadlineAbandonsStuckFiles() throws Exception {
+        Files.writeString(tempDir.resolve("stuck.txt"), "a");
+        CountDownLatch started = new CountDownLatch(1);
+        when(messageProcessor.process(any(Path.class), anyString(), any(Executor.class))).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(60_000);
+            return CompletableFuture.completedFuture(ProcessingResult.success(0, "never"));
+        });
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setSpillDir(tempDir.resolve("spill").toString());
+
+        consumer = new IsolatedFileSystemConsumer("stuck", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        DrainReport report = consumer.drain(Duration.ofMillis(200));
+
+        assertTrue(report.timedOut());
+        assertEquals(1, report.abandonedFiles());
+        assertTrue(report.durationMs() < 5_000);
+        assertFalse(consumer.isRunning());
+    }
+
+    @Test
+    void testPollingModeDetectsNewFiles() throws Exception {
+        Files.writeString(tempDir.resolve("existing.txt"), "a");
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setDetectionMode(FileSystemConfigDto.DetectionMode.POLLING);
+
+        consumer = new IsolatedFileSystemConsumer("polling", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(1);
+
+        Files.writeString(tempDir.resolve("arrived.txt"), "b");
+        awaitProcessed(2);
+
+        assertEquals(2, consumer.getStatus().processedCount());
+        assertEquals(0, consumer.getCollapsedDuplicateCount());
+    }
+
+    @Test
+    void testStreamingBacklogFeedsExistingFiles() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            Files.writeString(tempDir.resolve("backlog" + i + ".txt"), "content " + i);
+        }
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setBacklogMode(FileSystemConfigDto.BacklogMode.STREAMING);
+        config.setBacklogOrder(FileSystemConfigDto.BacklogOrder.OLDEST_FIRST);
+        config.setBacklogPageSize(5);
+
+        consumer = new IsolatedFileSystemConsumer("backlog", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(30);
+
+        assertEquals(30, consumer.getStatus().processedCount());
+        assertEquals(30, consumer.getBacklogScannedCount());
+        assertEquals(30, consumer.getBacklogEnqueuedCount());
+        assertEquals(0, consumer.getBacklogRemainingEstimate());
+    }
+
+    @Test
+    void testBurstBeyondQueueCapacitySpillsAndDrains() throws Exception {
+        Path inbox = Files.createDirectories(tempDir.resolve("burst"));
+        for (int i = 0; i < 40; i++) {
+            Files.writeString(inbox.resolve("burst" + i + ".txt"), "content " + i);
+        }
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setPath(inbox.toString());
+        config.setQueueCapacity(5);
+        config.setSpillDir(tempDir.resolve("spill").toString());
+
+        consumer = new IsolatedFileSystemConsumer("burst", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(40);
+
+        assertEquals(40, consumer.getStatus().processedCount());
+        assertEquals(0, consumer.getSpilledQueueSize());
+        // At least everything beyond the capacity; not-ready requeues may spill again
+        assertTrue(registry.counter("consumer.filesystem.queue.spilled",
+            "source_type", "FILESYSTEM-burst").count() >= 35);
+    }
+
+    @Test
+    void testLedgerSkipsFilesProcessedBeforeRestart() throws Exception {
+        Path inbox = Files.createDirectories(tempDir.resolve("inbox"));
+        Files.writeString(inbox.resolve("a.txt"), "a");
+        Files.writeString(inbox.resolve("b.txt"), "b");
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setPath(inbox.toString());
+        config.setLedgerDir(tempDir.resolve("ledger").toString());
+
+        consumer = new IsolatedFileSystemConsumer("ledger", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(2);
+        // The ledger is written once the file is completed, just after it is counted
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (consumer.getLedgerEntryCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, consumer.getLedgerEntryCount());
+        consumer.stop();
+
+        Files.writeString(inbox.resolve("c.txt"), "c");
+        consumer = new IsolatedFileSystemConsumer("ledger", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(1);
+        Thread.sleep(200);
+
+        assertEquals(1, consumer.getStatus().processedCount());
+        assertEquals(3, consumer.getLedgerEntryCount());
+    }
+
+    @Test
+    void testMicroBatchesReportFailedFilesIndividually() throws Exception {
+        Path inbox = Files.createDirectories(tempDir.resolve("inbox"));
+        for (int i = 0; i < 6; i++) {
+            Files.writeString(inbox.resolve("file" + i + ".txt"), "row " + i);
+        }
+        Files.writeString(inbox.resolve("bad.txt"), "?");
+        FileSystemConfigDto config = createConfig(FileSystemConfigDto.ExecutionMode.POOLED);
+        config.setPath(inbox.toString());
+        config.setArchiveDir(tempDir.resolve("archive").toString());
+        config.setBatchSize(50);
+        config.setBatchWindowMs(200);
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        when(messageProcessor.processBatch(anyList(), anyString(), any(Executor.class))).thenAnswer(invocation -> {
+            List<Path> files = invocation.getArgument(0);
+            batchSizes.add(files.size());
+            return CompletableFuture.completedFuture(files.stream()
+                .map(file -> file.getFileName().toString().startsWith("bad")
+                    ? ProcessingResult.failure("Unreadable", 1)
+                    : ProcessingResult.success(1, file.toString()))
+                .toList());
+        });
+
+        consumer = new IsolatedFileSystemConsumer("batched", config, messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        awaitProcessed(6);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((consumer.getStatus().errorCount() < 1 || consumer.getPendingPostProcessingCount() > 0)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(6, consumer.getStatus().processedCount());
+        assertEquals(1, consumer.getStatus().errorCount());
+        assertEquals(7, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 7, "files should share batches: " + batchSizes);
+        verify(messageProcessor, never()).process(any(Path.class), anyString(), any(Executor.class));
+        assertEquals(6.0, registry.counter("consumer.messages.processed", "source_type", "FILESYSTEM-batched").count());
+        assertEquals(batchSizes.size(), registry.get("consumer.filesystem.batch.size").summary().count());
+        assertEquals(6, Files.list(tempDir.resolve("archive")).count());
+        // The failed file stays for a retry; the others were archived with the batch
+        assertTrue(Files.exists(inbox.resolve("bad.txt")));
+        assertFalse(Files.exists(inbox.resolve("file0.txt")));
+    }
+
+    @Test
+    void testStopReleasesVirtualModeResources() throws Exception {
+        consumer = new IsolatedFileSystemConsumer("virtual-stop",
+            createConfig(FileSystemConfigDto.ExecutionMode.VIRTUAL), messageProcessor, metrics, new FilePatternMatcher());
+        consumer.start();
+        assertTrue(consumer.isRunning());
+
+        consumer.stop();
+
+        assertFalse(consumer.isRunning());
+        assertFalse(consumer.getStatus().healthy());
+        assertEquals(0, consumer.getActiveThreadCount());
+    }
+}
@@ -0,0 +1,157 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.leadership.FileClaimRecord;
+import com.dashboardengine.consumer.leadership.FileClaimRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Each repository call commits on its own, as in production, so a failed insert does not
+// poison a test-wide transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaseClaimStrategyTest {
+
+    private static final Path FILE = Path.of("/shared/in/data.csv");
+    private static final List<String> MEMBERS = List.of("pod-a", "pod-b");
+
+    @Autowired
+    private FileClaimRepository repository;
+
+    @AfterEach
+    void cleanUp() {
+        repository.deleteAll();
+    }
+
+    private LeaseClaimStrategy strategy(String instanceId, Duration leaseDuration) {
+        return new LeaseClaimStrategy("shared", repository, new ShardAssignment(instanceId, () -> MEMBERS),
+            leaseDuration);
+    }
+
+    private FileClaimRecord onlyRecord() {
+        List<FileClaimRecord> records = repository.findAll();
+        assertEquals(1, records.size());
+        return records.get(0);
+    }
+
+    @Test
+    void testClaimInsertsLease() {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMinutes(1));
+
+        assertEquals(FILE, a.claim(FILE, 10, 100));
+
+        FileClaimRecord record = onlyRecord();
+        assertEquals("pod-a", record.getOwnerId());
+        assertEquals(FileClaimRecord.Status.CLAIMED, record.getStatus());
+        assertEquals(10, record.getFileSize());
+        assertEquals(100, record.getLastModified());
+        assertTrue(record.getExpiresAt().isAfter(LocalDateTime.now()));
+        assertEquals(1, a.getHeldCount());
+    }
+
+    @Test
+    void testConflictingInsertLosesToLiveLease() {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMinutes(1));
+        LeaseClaimStrategy b = strategy("pod-b", Duration.ofMinutes(1));
+
+        assertNotNull(a.claim(FILE, 10, 100));
+        // Primary key violation, and the live lease cannot be taken over
+        assertNull(b.claim(FILE, 10, 100));
+
+        assertEquals("pod-a", onlyRecord().getOwnerId());
+        assertEquals(0, b.getHeldCount());
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() throws Exception {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMillis(1));
+        LeaseClaimStrategy b = strategy("pod-b", Duration.ofMinutes(1));
+
+        assertNotNull(a.claim(FILE, 10, 100));
+        Thread.sleep(20);
+
+        assertEquals(FILE, b.claim(FILE, 10, 100));
+        assertEquals("pod-b", onlyRecord().getOwnerId());
+    }
+
+    @Test
+    void testRenewedLeaseIsNotTakenOver() throws Exception {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMillis(2000));
+        LeaseClaimStrategy b = strategy("pod-b", Duration.ofMinutes(1));
+
+        assertNotNull(a.claim(FILE, 10, 100));
+        Thread.sleep(1200);
+        a.maintain();
+        // Past the original lease, well within the renewed one
+        Thread.sleep(1200);
+
+        assertNull(b.claim(FILE, 10, 100));
+        assertEquals("pod-a", onlyRecord().getOwnerId());
+    }
+
+    @Test
+    void testRestartedInstanceTakesBackOwnLease() {
+        LeaseClaimStrategy before = strategy("pod-a", Duration.ofMinutes(1));
+        LeaseClaimStrategy restarted = strategy("pod-a", Duration.ofMinutes(1));
+
+        assertNotNull(before.claim(FILE, 10, 100));
+
+        assertEquals(FILE, restarted.claim(FILE, 10, 100));
+    }
+
+    @Test
+    void testCompletedVersionIsNotClaimedAgain() {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMinutes(1));
+        LeaseClaimStrategy b = strategy("pod-b", Duration.ofMinutes(1));
+
+        a.claim(FILE, 10, 100);
+        a.release(FILE, FILE, true, false);
+        assertEquals(FileClaimRecord.Status.COMPLETED, onlyRecord().getStatus());
+        assertEquals(0, a.getHeldCount());
+
+        assertNull(b.claim(FILE, 10, 100));
+        // A new version of the file is claimable
+        assertEquals(FILE, b.claim(FILE, 12, 200));
+        FileClaimRecord record = onlyRecord();
+        assertEquals("pod-b", record.getOwnerId());
+        assertEquals(FileClaimRecord.Status.CLAIMED, record.getStatus());
+        assertEquals(12, record.getFileSize());
+    }
+
+    @Test
+    void testFailedReleaseFreesTheFile() {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMinutes(1));
+        LeaseClaimStrategy b = strategy("pod-b", Duration.ofMinutes(1));
+
+        a.claim(FILE, 10, 100);
+        a.release(FILE, FILE, false, false);
+
+        assertTrue(repository.findAll().isEmpty());
+        assertEquals(FILE, b.claim(FILE, 10, 100));
+    }
+
+    @Test
+    void testReleaseByFormerOwnerLeavesTakenOverLease() throws Exception {
+        LeaseClaimStrategy a = strategy("pod-a", Duration.ofMillis(1));
+        LeaseClaimStrategy b = strategy("pod-b", Duration.ofMinutes(1));
+
+        a.claim(FILE, 10, 100);
+        Thread.sleep(20);
+        b.claim(FILE, 10, 100);
+        a.release(FILE, FILE, true, false);
+
+        FileClaimRecord record = onlyRecord();
+        assertEquals("pod-b", record.getOwnerId());
+        assertEquals(FileClaimRecord.Status.CLAIMED, record.getStatus());
+    }
+}
@@ -0,0 +1,117 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollingDirectoryScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Path> changed = new ArrayList<>();
+    private final List<Path> removed = new ArrayList<>();
+
+    private PollingDirectoryScanner createScanner(long intervalMs) {
+        return new PollingDirectoryScanner(tempDir, intervalMs,
+            file -> file.getFileName().toString().endsWith(".csv"),
+            new PollingDirectoryScanner.Listener() {
+                @Override
+                public void onChanged(Path file, BasicFileAttributes attrs) {
+                    changed.add(file);
+                }
+
+                @Override
+                public void onRemoved(Path file) {
+                    removed.add(file);
+                }
+            });
+    }
+
+    @Test
+    void testEmitsOnlyDeltas() throws Exception {
+        Path existing = Files.writeString(tempDir.resolve("existing.csv"), "a");
+        Files.writeString(tempDir.resolve("ignored.txt"), "b");
+        PollingDirectoryScanner scanner = createScanner(1000);
+
+        scanner.prime();
+        assertTrue(changed.isEmpty());
+        assertEquals(1, scanner.getSnapshotSize());
+
+        Path added = Files.writeString(tempDir.resolve("new.csv"), "c");
+        var result = scanner.scan();
+        assertEquals(List.of(added), changed);
+        assertEquals(1, result.added());
+        assertEquals(0, result.modified());
+
+        changed.clear();
+        Files.writeString(existing, "a,b,c");
+        Files.setLastModifiedTime(existing, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Files.delete(added);
+        result = scanner.scan();
+        assertEquals(List.of(existing), changed);
+        assertEquals(List.of(added), removed);
+        assertEquals(1, result.modified());
+        assertEquals(1, result.removed());
+
+        changed.clear();
+        assertFalse(scanner.scan().hasChanges());
+        assertTrue(changed.isEmpty());
+    }
+
+    @Test
+    void testIntervalAdaptsToArrivalRate() throws Exception {
+        PollingDirectoryScanner scanner = createScanner(2000);
+        scanner.prime();
+
+        scanner.scan();
+        assertEquals(3000, scanner.getCurrentIntervalMs());
+        for (int i = 0; i < 10; i++) {
+            scanner.scan();
+        }
+        assertEquals(8000, scanner.getCurrentIntervalMs());
+
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(tempDir.resolve("burst" + i + ".csv"), "x");
+            scanner.scan();
+        }
+        assertEquals(500, scanner.getCurrentIntervalMs());
+    }
+
+    @Test
+    void testSnapshotTracksLargeDirectories() {
+        DirectorySnapshot snapshot = new DirectorySnapshot();
+        snapshot.beginScan();
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(DirectorySnapshot.Change.ADDED, snapshot.update("file-" + i, i, i));
+        }
+        assertEquals(50_000, snapshot.size());
+
+        // Second scan sees only the even files, one of them modified
+        snapshot.beginScan();
+        for (int i = 0; i < 50_000; i += 2) {
+            DirectorySnapshot.Change expected = i == 42
+                ? DirectorySnapshot.Change.MODIFIED : DirectorySnapshot.Change.UNCHANGED;
+            assertEquals(expected, snapshot.update("file-" + i, i, i == 42 ? 1 : i));
+        }
+        Set<String> gone = new HashSet<>();
+        assertEquals(25_000, snapshot.removeUnseen(gone::add));
+
+        assertEquals(25_000, snapshot.size());
+        assertTrue(gone.contains("file-1"));
+        assertFalse(gone.contains("file-0"));
+        for (int i = 0; i < 50_000; i++) {
+            assertEquals(i % 2 == 0, snapshot.contains("file-" + i));
+        }
+    }
+}
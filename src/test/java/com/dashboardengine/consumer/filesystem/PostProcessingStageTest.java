@@ -0,0 +1,164 @@
+package com.dashboardengine.consumer.filesystem;
+
+import com.dashboardengine.consumer.api.dto.FileSystemConfigDto;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostProcessingStageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-03-05T14:30:00Z"), ZoneOffset.UTC);
+    private SimpleMeterRegistry registry;
+    private ProcessingMetrics metrics;
+    private Path inbox;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new SimpleMeterRegistry();
+        metrics = new ProcessingMetrics(registry);
+        inbox = Files.createDirectories(tempDir.resolve("inbox"));
+    }
+
+    private FileSystemConfigDto config(String archiveDir, boolean delete) {
+        return new FileSystemConfigDto(inbox.toString(), List.of("*.csv"), 1000, archiveDir, delete, true, 4, 1024);
+    }
+
+    @Test
+    void testArchivesIntoHourlyPartition() throws Exception {
+        FileSystemConfigDto config = config(tempDir.resolve("archive").toString(), false);
+        config.setArchiveLayout(FileSystemConfigDto.ArchiveLayout.HOURLY);
+        PostProcessingStage stage = new PostProcessingStage("orders", config, file -> null, metrics, clock);
+
+        int files = PostProcessingStage.MAX_BATCH + 10;
+        CountDownLatch done = new CountDownLatch(files);
+        AtomicInteger removed = new AtomicInteger();
+        for (int i = 0; i < files; i++) {
+            Path file = Files.writeString(inbox.resolve("file" + i + ".csv"), "row " + i);
+            stage.submit(file, outcome -> {
+                if (outcome == PostProcessingStage.Outcome.REMOVED) {
+                    removed.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        Path partition = tempDir.resolve("archive/2024/03/05/14");
+        assertEquals(files, removed.get());
+        assertEquals("row 7", Files.readString(partition.resolve("file7.csv")));
+        assertFalse(Files.exists(inbox.resolve("file7.csv")));
+        assertEquals(PostProcessingStage.MoveStrategy.RENAME, stage.getMoveStrategy(partition));
+        assertEquals(0, stage.getPendingCount());
+        stage.shutdown();
+    }
+
+    @Test
+    void testDeletesFileAndMarker() throws Exception {
+        PostProcessingStage stage = new PostProcessingStage("orders", config(null, true),
+            file -> file.resolveSibling(file.getFileName() + ".done"), metrics, clock);
+        Path file = Files.writeString(inbox.resolve("data.csv"), "x");
+        Path marker = Files.writeString(inbox.resolve("data.csv.done"), "");
+
+        CountDownLatch done = new CountDownLatch(1);
+        stage.submit(file, outcome -> {
+            assertEquals(PostProcessingStage.Outcome.REMOVED, outcome);
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(marker));
+        stage.shutdown();
+    }
+
+    @Test
+    void testFailedArchiveIsReportedAsFailure() throws Exception {
+        // The archive root is a regular file, so its partition cannot be created
+        Path blocked = Files.writeString(tempDir.resolve("archive"), "");
+        PostProcessingStage stage = new PostProcessingStage("orders", config(blocked.toString(), false),
+            file -> null, metrics, clock);
+        Path file = Files.writeString(inbox.resolve("data.csv"), "x");
+
+        CountDownLatch done = new CountDownLatch(1);
+        PostProcessingStage.Outcome[] result = new PostProcessingStage.Outcome[1];
+        stage.submit(file, outcome -> {
+            result[0] = outcome;
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(PostProcessingStage.Outcome.FAILED, result[0]);
+        assertTrue(Files.exists(file));
+        assertEquals(1.0, registry.get("consumer.filesystem.postprocess.errors")
+            .tag("source_type", "FILESYSTEM-orders").counter().count());
+        stage.shutdown();
+    }
+
+    @Test
+    void testNothingToDoCompletesInline() {
+        PostProcessingStage stage = new PostProcessingStage("orders", config(null, false), file -> null, metrics, clock);
+        PostProcessingStage.Outcome[] result = new PostProcessingStage.Outcome[1];
+        Thread[] thread = new Thread[1];
+
+        stage.submit(inbox.resolve("kept.csv"), outcome -> {
+            result[0] = outcome;
+            thread[0] = Thread.currentThread();
+        });
+
+        assertEquals(PostProcessingStage.Outcome.KEPT, result[0]);
+        assertSame(Thread.currentThread(), thread[0]);
+        stage.shutdown();
+    }
+
+    @Test
+    void testTransferCopyPreservesContentAndModificationTime() throws Exception {
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        Path source = Files.write(inbox.resolve("big.csv"), content);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(1_700_000_000_000L));
+        Path target = Files.createDirectories(tempDir.resolve("other")).resolve("big.csv");
+
+        PostProcessingStage.transferCopy(source, target);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(1_700_000_000_000L, Files.getLastModifiedTime(target).toMillis());
+        assertFalse(Files.exists(target.resolveSibling("big.csv.part")));
+    }
+
+    @Test
+    void testLinkReplacesArchivedFileOnlyOnceLinked() throws Exception {
+        Path archive = Files.createDirectories(tempDir.resolve("archive"));
+        Path target = Files.writeString(archive.resolve("data.csv"), "archived");
+
+        // A failed link leaves the archived file alone
+        assertFalse(PostProcessingStage.link(inbox.resolve("missing.csv"), target));
+        assertEquals("archived", Files.readString(target));
+
+        Path source = Files.writeString(inbox.resolve("data.csv"), "new");
+        assertTrue(PostProcessingStage.link(source, target));
+
+        assertEquals("new", Files.readString(target));
+        assertFalse(Files.exists(source));
+        assertFalse(Files.exists(archive.resolve("data.csv.link")));
+    }
+}
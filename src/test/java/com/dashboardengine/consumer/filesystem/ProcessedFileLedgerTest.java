@@ -0,0 +1,111 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessedFileLedgerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCompletedFilesSurviveReopen() throws Exception {
+        Path journal = tempDir.resolve("ledger/orders.ledger");
+        Path done = tempDir.resolve("done.csv");
+        Path failed = tempDir.resolve("failed.csv");
+
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            ledger.record(done, 10, 1000, ProcessedFileLedger.Outcome.SUCCESS);
+            ledger.record(failed, 20, 2000, ProcessedFileLedger.Outcome.SUCCESS);
+            ledger.record(failed, 20, 2000, ProcessedFileLedger.Outcome.FAILED);
+        }
+
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            assertTrue(ledger.isCompleted(done, 10, 1000));
+            assertFalse(ledger.isCompleted(failed, 20, 2000));
+            assertEquals(1, ledger.size());
+        }
+    }
+
+    @Test
+    void testClosedLedgerRejectsRecords() throws Exception {
+        Path file = tempDir.resolve("late.csv");
+        ProcessedFileLedger ledger = ProcessedFileLedger.open(tempDir.resolve("closed.ledger"));
+        ledger.close();
+
+        assertThrows(IllegalStateException.class,
+            () -> ledger.record(file, 10, 1000, ProcessedFileLedger.Outcome.SUCCESS));
+        assertThrows(IllegalStateException.class, () -> ledger.recordAll(
+            List.of(new ProcessedFileLedger.Entry(file, 10, 1000, ProcessedFileLedger.Outcome.SUCCESS))));
+        assertFalse(ledger.isCompleted(file, 10, 1000));
+    }
+
+    @Test
+    void testModifiedFileIsNotCompleted() throws Exception {
+        Path file = tempDir.resolve("data.csv");
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(tempDir.resolve("a.ledger"))) {
+            ledger.record(file, 10, 1000, ProcessedFileLedger.Outcome.SUCCESS);
+
+            assertFalse(ledger.isCompleted(file, 11, 1000));
+            assertFalse(ledger.isCompleted(file, 10, 1001));
+
+            ledger.record(file, 10, 1000, ProcessedFileLedger.Outcome.REMOVED);
+            assertFalse(ledger.isCompleted(file, 10, 1000));
+            assertEquals(0, ledger.size());
+        }
+    }
+
+    @Test
+    void testTornTailIsTruncated() throws Exception {
+        Path journal = tempDir.resolve("torn.ledger");
+        Path file = tempDir.resolve("data.csv");
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            ledger.record(file, 10, 1000, ProcessedFileLedger.Outcome.SUCCESS);
+            ledger.record(tempDir.resolve("other.csv"), 5, 500, ProcessedFileLedger.Outcome.SUCCESS);
+        }
+        long fullLength = Files.size(journal);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(fullLength - 3);
+        }
+
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            assertTrue(ledger.isCompleted(file, 10, 1000));
+            assertEquals(1, ledger.size());
+            ledger.record(tempDir.resolve("third.csv"), 1, 1, ProcessedFileLedger.Outcome.SUCCESS);
+        }
+
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            assertTrue(ledger.isCompleted(tempDir.resolve("third.csv"), 1, 1));
+            assertEquals(2, ledger.size());
+        }
+    }
+
+    @Test
+    void testFlushCompactsSupersededRecords() throws Exception {
+        Path journal = tempDir.resolve("compact.ledger");
+        Path file = tempDir.resolve("hot.csv");
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            for (int i = 0; i < 20_000; i++) {
+                ledger.record(file, 10, i, ProcessedFileLedger.Outcome.SUCCESS);
+            }
+            ledger.flush();
+
+            assertTrue(Files.size(journal) < 1024);
+            assertTrue(ledger.isCompleted(file, 10, 19_999));
+        }
+
+        try (ProcessedFileLedger ledger = ProcessedFileLedger.open(journal)) {
+            assertTrue(ledger.isCompleted(file, 10, 19_999));
+            assertFalse(ledger.isCompleted(file, 10, 0));
+            assertEquals(1, ledger.size());
+        }
+    }
+}
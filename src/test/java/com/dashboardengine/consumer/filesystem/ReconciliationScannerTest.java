@@ -0,0 +1,88 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReconciliationScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEnqueuesOnlyMissedFiles() throws Exception {
+        InFlightFileTracker tracker = new InFlightFileTracker();
+        Path queued = Files.writeString(tempDir.resolve("queued.csv"), "a");
+        Path missed = Files.writeString(tempDir.resolve("missed.csv"), "b");
+        Files.writeString(tempDir.resolve("other.txt"), "c");
+        var attrs = Files.readAttributes(queued, java.nio.file.attribute.BasicFileAttributes.class);
+        tracker.offer(queued, attrs.size(), attrs.lastModifiedTime().toMillis());
+
+        List<Path> enqueued = new ArrayList<>();
+        ReconciliationScanner scanner = new ReconciliationScanner(tempDir, 1000,
+            file -> file.toString().endsWith(".csv"),
+            (file, a) -> tracker.isKnown(file, a.size(), a.lastModifiedTime().toMillis()),
+            (file, a) -> enqueued.add(file));
+
+        ReconciliationScanner.Result result = scanner.run(() -> true);
+
+        assertEquals(List.of(missed), enqueued);
+        assertEquals(3, result.scanned());
+        assertEquals(1, result.enqueued());
+    }
+
+    @Test
+    void testScanIsRateLimited() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".csv"), "x");
+        }
+        ReconciliationScanner scanner = new ReconciliationScanner(tempDir, 100,
+            file -> true, (file, a) -> false, (file, a) -> { });
+
+        ReconciliationScanner.Result result = scanner.run(() -> true);
+
+        assertEquals(40, result.scanned());
+        assertTrue(result.durationMs() >= 350, "40 entries at 100/s should take ~400ms");
+    }
+
+    @Test
+    void testScansPageByPage() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".csv"), "x");
+        }
+        List<Path> enqueued = new ArrayList<>();
+        // 100 entries per second: pages of 10, a tenth of a second apart
+        ReconciliationScanner scanner = new ReconciliationScanner(tempDir, 100,
+            file -> true, (file, a) -> false, (file, a) -> enqueued.add(file));
+
+        assertTrue(scanner.scanPage(() -> true));
+        assertEquals(10, enqueued.size());
+        assertTrue(scanner.pageDelayMillis() > 50, "the next page waits for the rate");
+        assertTrue(scanner.scanPage(() -> true));
+        assertFalse(scanner.scanPage(() -> true));
+        assertFalse(scanner.scanPage(() -> true));
+
+        assertEquals(25, enqueued.size());
+        assertEquals(25, scanner.result().scanned());
+    }
+
+    @Test
+    void testStopsWhenConsumerStops() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(tempDir.resolve("file" + i + ".csv"), "x");
+        }
+        List<Path> enqueued = new ArrayList<>();
+        ReconciliationScanner scanner = new ReconciliationScanner(tempDir, 1000,
+            file -> true, (file, a) -> false, (file, a) -> enqueued.add(file));
+
+        ReconciliationScanner.Result result = scanner.run(() -> enqueued.size() < 3);
+
+        assertEquals(3, result.enqueued());
+    }
+}
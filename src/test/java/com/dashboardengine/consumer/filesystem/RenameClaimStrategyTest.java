@@ -0,0 +1,112 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenameClaimStrategyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RenameClaimStrategy strategy(String instanceId, List<String> members) {
+        return strategy(instanceId, () -> members, Duration.ZERO);
+    }
+
+    private RenameClaimStrategy strategy(String instanceId, Supplier<List<String>> members, Duration reclaimAfter) {
+        return new RenameClaimStrategy(tempDir, new ShardAssignment(instanceId, members), members, reclaimAfter);
+    }
+
+    @Test
+    void testOnlyOneInstanceClaimsAFile() throws Exception {
+        List<String> members = List.of("pod-a", "pod-b");
+        RenameClaimStrategy a = strategy("pod-a", members);
+        RenameClaimStrategy b = strategy("pod-b", members);
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "x");
+
+        Path claimed = a.claim(file, 1, 0);
+
+        assertNotNull(claimed);
+        assertTrue(Files.exists(claimed));
+        assertFalse(Files.exists(file));
+        assertTrue(a.isInternal(claimed));
+        assertNull(b.claim(file, 1, 0));
+    }
+
+    @Test
+    void testReleaseParksProcessedFile() throws Exception {
+        RenameClaimStrategy a = strategy("pod-a", List.of("pod-a"));
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "x");
+
+        Path claimed = a.claim(file, 1, 0);
+        a.release(file, claimed, true, false);
+
+        Path processed = tempDir.resolve(RenameClaimStrategy.PROCESSED_DIRECTORY).resolve("data.csv");
+        assertTrue(Files.exists(processed));
+        assertFalse(Files.exists(claimed));
+        assertTrue(a.isInternal(processed));
+        assertFalse(a.isInternal(file));
+    }
+
+    @Test
+    void testFailedReleaseReturnsFile() throws Exception {
+        RenameClaimStrategy a = strategy("pod-a", List.of("pod-a"));
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "x");
+
+        Path claimed = a.claim(file, 1, 0);
+        a.release(file, claimed, false, false);
+
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(claimed));
+    }
+
+    @Test
+    void testLateMemberKeepsClaimsUntilReclaimDelay() throws Exception {
+        RenameClaimStrategy b = strategy("pod-b", List.of("pod-a", "pod-b"));
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "x");
+        Path claimed = b.claim(file, 1, 0);
+
+        AtomicReference<List<String>> members = new AtomicReference<>(List.of("pod-a"));
+        RenameClaimStrategy a = strategy("pod-a", members::get, Duration.ofMillis(200));
+
+        // pod-b missed a heartbeat, then came back before the delay ran out
+        a.maintain();
+        members.set(List.of("pod-a", "pod-b"));
+        a.maintain();
+        members.set(List.of("pod-a"));
+        a.maintain();
+        assertTrue(Files.exists(claimed));
+        assertFalse(Files.exists(file));
+
+        Thread.sleep(250);
+        a.maintain();
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(claimed));
+    }
+
+    @Test
+    void testMaintainReturnsOwnAndOrphanedClaims() throws Exception {
+        RenameClaimStrategy gone = strategy("pod-gone", List.of("pod-gone"));
+        RenameClaimStrategy before = strategy("pod-a", List.of("pod-a"));
+        Path orphan = Files.writeString(tempDir.resolve("orphan.csv"), "x");
+        Path interrupted = Files.writeString(tempDir.resolve("interrupted.csv"), "x");
+        gone.claim(orphan, 1, 0);
+        before.claim(interrupted, 1, 0);
+
+        // Restarted with the same id; pod-gone has left the cluster
+        RenameClaimStrategy restarted = strategy("pod-a", List.of("pod-a"));
+        restarted.maintain();
+
+        assertTrue(Files.exists(orphan));
+        assertTrue(Files.exists(interrupted));
+        assertFalse(Files.exists(tempDir.resolve(RenameClaimStrategy.CLAIMED_DIRECTORY).resolve("pod-gone")));
+    }
+}
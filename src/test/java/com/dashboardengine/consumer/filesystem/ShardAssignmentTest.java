@@ -0,0 +1,50 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardAssignmentTest {
+
+    @Test
+    void testFilesSpreadEvenlyAcrossMembers() {
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add("pod-" + i);
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            counts.merge(ShardAssignment.ownerOf("orders-" + i + ".csv", members), 1, Integer::sum);
+        }
+
+        assertEquals(10, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 9_000 && count < 11_000, "count " + count));
+    }
+
+    @Test
+    void testOnlyFilesOfRemovedMemberMove() {
+        List<String> members = new ArrayList<>(List.of("pod-0", "pod-1", "pod-2", "pod-3"));
+        List<String> remaining = List.of("pod-0", "pod-1", "pod-3");
+
+        for (int i = 0; i < 10_000; i++) {
+            String name = "file-" + i;
+            String before = ShardAssignment.ownerOf(name, members);
+            String after = ShardAssignment.ownerOf(name, remaining);
+            if (!before.equals("pod-2")) {
+                assertEquals(before, after);
+            }
+        }
+    }
+
+    @Test
+    void testEveryFileIsLocalWithoutMembership() {
+        ShardAssignment shards = new ShardAssignment("pod-0", () -> null);
+
+        assertTrue(shards.isLocal("anything.csv"));
+    }
+}
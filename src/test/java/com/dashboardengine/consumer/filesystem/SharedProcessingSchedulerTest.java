@@ -0,0 +1,144 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedProcessingSchedulerTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SharedProcessingScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    private void submitBlocking(SharedProcessingScheduler.Lane lane, int tasks) {
+        for (int i = 0; i < tasks; i++) {
+            lane.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    private static void awaitRunning(SharedProcessingScheduler.Lane lane, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (lane.getRunningCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testIdleCapacityFlowsToBusyLane() throws Exception {
+        scheduler = new SharedProcessingScheduler(4, null);
+        SharedProcessingScheduler.Lane busy = scheduler.register("busy", 1, 1, 4);
+        SharedProcessingScheduler.Lane idle = scheduler.register("idle", 1, 1, 4);
+
+        submitBlocking(busy, 10);
+        awaitRunning(busy, 3);
+
+        // Everything but the idle lane's reserved thread
+        assertEquals(3, busy.getRunningCount());
+        assertEquals(7, busy.getQueuedCount());
+        assertEquals(0, idle.getRunningCount());
+    }
+
+    @Test
+    void testReservedMinimumIsAvailableImmediately() throws Exception {
+        scheduler = new SharedProcessingScheduler(4, null);
+        SharedProcessingScheduler.Lane busy = scheduler.register("busy", 1, 0, 4);
+        SharedProcessingScheduler.Lane late = scheduler.register("late", 1, 2, 4);
+
+        submitBlocking(busy, 10);
+        awaitRunning(busy, 2);
+        submitBlocking(late, 2);
+        awaitRunning(late, 2);
+
+        assertEquals(2, busy.getRunningCount());
+        assertEquals(2, late.getRunningCount());
+    }
+
+    @Test
+    void testSpareCapacityIsSharedByWeight() throws Exception {
+        scheduler = new SharedProcessingScheduler(6, null);
+        SharedProcessingScheduler.Lane heavy = scheduler.register("heavy", 2, 0, 6);
+        SharedProcessingScheduler.Lane light = scheduler.register("light", 1, 0, 6);
+        // Occupy the pool so both lanes are queued before any slot frees up
+        SharedProcessingScheduler.Lane blocker = scheduler.register("blocker", 1, 0, 6);
+        CountDownLatch unblock = new CountDownLatch(1);
+        for (int i = 0; i < 6; i++) {
+            blocker.execute(() -> {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        awaitRunning(blocker, 6);
+        submitBlocking(heavy, 10);
+        submitBlocking(light, 10);
+        unblock.countDown();
+        awaitRunning(heavy, 4);
+        awaitRunning(light, 2);
+
+        assertEquals(4, heavy.getRunningCount());
+        assertEquals(2, light.getRunningCount());
+    }
+
+    @Test
+    void testMinimumsBeyondParallelismAreScaledDown() throws Exception {
+        scheduler = new SharedProcessingScheduler(4, null);
+        SharedProcessingScheduler.Lane a = scheduler.register("a", 1, 3, 4);
+        SharedProcessingScheduler.Lane b = scheduler.register("b", 1, 2, 4);
+
+        assertEquals(2, a.getReservation());
+        assertEquals(1, b.getReservation());
+
+        // Many configurations with the default minimum of 1 all start
+        List<SharedProcessingScheduler.Lane> lanes = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            lanes.add(scheduler.register("lane" + i, 1, 1, 2));
+        }
+        assertEquals(0, lanes.get(39).getReservation());
+        CountDownLatch ran = new CountDownLatch(1);
+        lanes.get(39).execute(ran::countDown);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+
+        for (SharedProcessingScheduler.Lane lane : lanes) {
+            assertTrue(lane.close(5, TimeUnit.SECONDS));
+        }
+        assertTrue(b.close(5, TimeUnit.SECONDS));
+        assertEquals(3, a.getReservation());
+    }
+
+    @Test
+    void testCloseWaitsForTasksAndReleasesReservation() throws Exception {
+        scheduler = new SharedProcessingScheduler(2, null);
+        SharedProcessingScheduler.Lane lane = scheduler.register("a", 1, 2, 2);
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            lane.execute(done::countDown);
+        }
+
+        assertTrue(lane.close(5, TimeUnit.SECONDS));
+        assertEquals(0, done.getCount());
+        assertThrows(RejectedExecutionException.class, () -> lane.execute(() -> {}));
+        assertNotNull(scheduler.register("b", 1, 2, 2));
+    }
+}
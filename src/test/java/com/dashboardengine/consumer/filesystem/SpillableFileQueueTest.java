@@ -0,0 +1,112 @@
+package com.dashboardengine.consumer.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillableFileQueueTest {
+
+    @TempDir
+    Path tempDir;
+
+    private long spillFiles(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testKeepsOrderAcrossSpill() throws Exception {
+        AtomicInteger spills = new AtomicInteger();
+        SpillableFileQueue queue = new SpillableFileQueue(10, tempDir, "orders", spills::incrementAndGet);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.offer(Path.of("/data/file" + i)));
+        }
+
+        assertEquals(100, queue.size());
+        assertEquals(90, queue.getSpilledCount());
+        assertEquals(90, spills.get());
+        assertTrue(queue.isSaturated());
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Path.of("/data/file" + i), queue.poll(1, TimeUnit.SECONDS));
+        }
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+        assertFalse(queue.isSaturated());
+        assertEquals(0, spillFiles(tempDir));
+    }
+
+    @Test
+    void testInterleavedOffersStayFifo() throws Exception {
+        SpillableFileQueue queue = new SpillableFileQueue(4, tempDir, "mixed", () -> {});
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 3; i++) {
+                queue.offer(Path.of("/f" + next++));
+            }
+            assertEquals(Path.of("/f" + expected++), queue.poll(1, TimeUnit.SECONDS));
+        }
+        while (expected < next) {
+            assertEquals(Path.of("/f" + expected++), queue.poll(1, TimeUnit.SECONDS));
+        }
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void testRotatesSegmentsForLargeBursts() throws Exception {
+        SpillableFileQueue queue = new SpillableFileQueue(100, tempDir, "burst", () -> {});
+        int total = SpillableFileQueue.SEGMENT_ENTRIES + 5_000;
+        for (int i = 0; i < total; i++) {
+            queue.offer(Path.of("/burst/" + i));
+        }
+        assertTrue(spillFiles(tempDir) >= 2);
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(Path.of("/burst/" + i), queue.poll(1, TimeUnit.SECONDS));
+        }
+        assertEquals(0, spillFiles(tempDir));
+    }
+
+    @Test
+    void testCloseAndRestartRemoveSegments() throws Exception {
+        SpillableFileQueue queue = new SpillableFileQueue(1, tempDir, "stale", () -> {});
+        for (int i = 0; i < 10; i++) {
+            queue.offer(Path.of("/s" + i));
+        }
+        Files.writeString(tempDir.resolve("other.txt"), "kept");
+
+        // A new queue with the same prefix discards the previous run's segments
+        new SpillableFileQueue(1, tempDir, "stale", () -> {});
+        assertEquals(1, spillFiles(tempDir));
+
+        queue.close();
+        assertEquals(0, queue.size());
+        assertEquals(1, spillFiles(tempDir));
+    }
+
+    @Test
+    void testQueuesSharingDirectoryKeepEachOthersSegments() throws Exception {
+        SpillableFileQueue other = new SpillableFileQueue(1, tempDir, "orders-eu", () -> {});
+        for (int i = 0; i < 5; i++) {
+            other.offer(Path.of("/eu" + i));
+        }
+
+        // Starting "orders" must not discard the live segments of "orders-eu"
+        new SpillableFileQueue(1, tempDir, "orders", () -> {}).close();
+        new SpillableFileQueue(1, tempDir, "orders.eu", () -> {}).close();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Path.of("/eu" + i), other.poll(0, TimeUnit.MILLISECONDS));
+        }
+        other.close();
+    }
+}
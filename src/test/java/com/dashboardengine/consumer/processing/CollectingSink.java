@@ -0,0 +1,82 @@
+package com.dashboardengine.consumer.processing;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Test sink that copies every record out of the reused batches, together with the
+ * header, size and source of each batch. Safe for the concurrent batches of a split file.
+ */
+final class CollectingSink implements RecordSink {
+
+    private final List<List<String>> records = new ArrayList<>();
+    /** Records by chunk and number, so concurrent batches can be put back in file order. */
+    private final Map<Long, List<String>> recordsByPosition = new TreeMap<>();
+    private final List<List<String>> headers = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<Path> sources = new ArrayList<>();
+
+    @Override
+    public synchronized void accept(RecordBatch batch) {
+        headers.add(batch.header());
+        batchSizes.add(batch.size());
+        sources.add(batch.source());
+        List<List<String>> copied = fields(batch);
+        for (int record = 0; record < copied.size(); record++) {
+            records.add(copied.get(record));
+            recordsByPosition.put(((long) batch.chunk() << 32) + batch.firstRecordNumber() + record,
+                copied.get(record));
+        }
+    }
+
+    /**
+     * Copies the fields of every record in the batch.
+     */
+    private static List<List<String>> fields(RecordBatch batch) {
+        List<List<String>> copied = new ArrayList<>(batch.size());
+        for (int record = 0; record < batch.size(); record++) {
+            List<String> fields = new ArrayList<>();
+            for (int field = 0; field < batch.fieldCount(record); field++) {
+                fields.add(batch.getString(record, field));
+            }
+            copied.add(fields);
+        }
+        return copied;
+    }
+
+    /**
+     * Records in the order the batches arrived.
+     */
+    synchronized List<List<String>> records() {
+        return new ArrayList<>(records);
+    }
+
+    /**
+     * Records in file order, whichever chunk's batches arrived first.
+     */
+    synchronized List<List<String>> recordsInFileOrder() {
+        return new ArrayList<>(recordsByPosition.values());
+    }
+
+    /**
+     * Header of the last batch, empty if none arrived.
+     */
+    synchronized List<String> header() {
+        return headers.isEmpty() ? List.of() : headers.get(headers.size() - 1);
+    }
+
+    synchronized List<List<String>> headers() {
+        return new ArrayList<>(headers);
+    }
+
+    synchronized List<Integer> batchSizes() {
+        return new ArrayList<>(batchSizes);
+    }
+
+    synchronized List<Path> sources() {
+        return new ArrayList<>(sources);
+    }
+}
@@ -0,0 +1,162 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import com.dashboardengine.consumer.metrics.ProcessingMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedFileProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CollectingSink collector = new CollectingSink();
+
+    private SimpleMeterRegistry registry;
+    private ApplicationProperties.Processing settings;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        settings = new ApplicationProperties.Processing();
+        settings.setBufferSizeBytes(1024);
+    }
+
+    @Test
+    void testGzipMembersStreamIntoInnerFormat() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(gzip("id,name\n1,alpha\n"));
+        // A second member continues the content, as from cat a.gz b.gz
+        bytes.write(gzip("2,beta\n"));
+        Path file = Files.write(tempDir.resolve("data.csv.gz"), bytes.toByteArray());
+
+        ProcessingResult result = processor().process(file, "GZIP").join();
+
+        assertTrue(result.success(), result.message());
+        assertEquals("Processed 2 records from data.csv.gz", result.message());
+        assertEquals(List.of(List.of("1", "alpha"), List.of("2", "beta")), collector.records());
+        assertEquals(1.0, registry.get("consumer.decompression.entries")
+            .tags("content_type", "CSV", "outcome", "parsed").counter().count());
+    }
+
+    @Test
+    void testDeflateStreamIsSniffedWithoutExtension() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write("[{\"id\": 1}, {\"id\": 2}, {\"id\": 3}]".getBytes(StandardCharsets.UTF_8));
+        }
+        Path file = Files.write(tempDir.resolve("export.deflate"), bytes.toByteArray());
+
+        ProcessingResult result = processor().process(file, "DEFLATE").join();
+
+        assertTrue(result.success(), result.message());
+        assertEquals("Processed 3 objects from export.deflate", result.message());
+    }
+
+    @Test
+    void testZipEntriesAreProcessedOneByOne() throws Exception {
+        String lines = "x\n".repeat(5000);
+        Path file = tempDir.resolve("bundle.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("reports/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("reports/a.csv"));
+            zip.write("id,name\n1,alpha\n2,beta\n".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(stored("notes.txt", lines.getBytes(StandardCharsets.UTF_8)));
+            zip.write(lines.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("image.bin"));
+            zip.write(new byte[] {0, 1, 2, 0});
+            zip.closeEntry();
+        }
+
+        ProcessingResult result = processor().process(file, "ZIP").join();
+
+        assertTrue(result.success(), result.message());
+        assertEquals("Processed 5002 records from bundle.zip in 3 entries, 1 skipped", result.message());
+        assertEquals(List.of(List.of("1", "alpha"), List.of("2", "beta")), collector.records().subList(0, 2));
+        assertEquals(file.resolve("reports/a.csv"), collector.sources().get(0));
+        assertEquals(1.0, registry.get("consumer.decompression.entries")
+            .tags("content_type", "UNKNOWN", "outcome", "skipped").counter().count());
+        assertEquals(lines.length(), registry.get("consumer.decompression.entry.size")
+            .tags("content_type", "TEXT").summary().totalAmount());
+    }
+
+    @Test
+    void testDecompressedSizeIsCapped() throws Exception {
+        settings.setMaxDecompressedBytes(64 * 1024);
+        Path file = Files.write(tempDir.resolve("bomb.txt.gz"), gzip("0".repeat(1024 * 1024)));
+
+        ProcessingResult result = processor().process(file, "GZIP").join();
+
+        assertFalse(result.success());
+        assertTrue(result.message().contains("exceeds 65536 bytes"), result.message());
+        assertEquals(1.0, registry.get("consumer.decompression.limit.exceeded").counter().count());
+    }
+
+    @Test
+    void testCorruptContentFails() throws Exception {
+        byte[] bytes = gzip("line one\nline two\n");
+        // Flip a bit of the CRC in the trailer
+        bytes[bytes.length - 8] ^= 1;
+        Path file = Files.write(tempDir.resolve("corrupt.txt.gz"), bytes);
+
+        ProcessingResult result = processor().process(file, "GZIP").join();
+
+        assertFalse(result.success());
+        assertTrue(result.message().contains("Corrupt gzip member"), result.message());
+    }
+
+    @Test
+    void testRoutedThroughFileMessageProcessor() throws Exception {
+        Path file = Files.write(tempDir.resolve("log.txt.gz"), gzip("a\r\nb\nc"));
+
+        var result = new FileMessageProcessor().process(file, "FILESYSTEM").join();
+
+        assertTrue(result.success(), result.message());
+        assertEquals("Processed 3 lines from log.txt.gz", result.message());
+    }
+
+    private CompressedFileProcessor processor() {
+        return new CompressedFileProcessor(settings, List.of(new TextFileProcessor(settings, collector),
+            new CsvFileProcessor(settings, collector), new JsonFileProcessor(settings, collector)),
+            new ProcessingMetrics(registry));
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ZipEntry stored(String name, byte[] content) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        entry.setCrc(crc.getValue());
+        return entry;
+    }
+}
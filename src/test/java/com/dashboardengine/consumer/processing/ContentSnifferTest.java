@@ -0,0 +1,82 @@
+package com.dashboardengine.consumer.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentSnifferTest {
+
+    @Test
+    void testDetectsBinarySignatures() {
+        assertEquals(ContentType.GZIP, detect(new byte[] {0x1f, (byte) 0x8b, 0x08, 0x00}));
+        assertEquals(ContentType.DEFLATE, detect(new byte[] {0x78, (byte) 0x9c, 0x4b, 0x04}));
+        assertEquals(ContentType.TEXT, detect("x^2 + y^2\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(ContentType.PDF, detect("%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(ContentType.ZIP, detect(zipHeader("data/readme.txt")));
+        assertEquals(ContentType.EXCEL, detect(zipHeader("xl/workbook.xml")));
+        assertEquals(ContentType.EXCEL, detect(new byte[] {(byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0,
+                                                           (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1}));
+        assertEquals(ContentType.UNKNOWN, detect(new byte[] {0x01, 0x00, 0x02}));
+    }
+
+    @Test
+    void testOtherOfficePackagesAreNotWorkbooks() {
+        byte[] docx = concat(zipHeader("[Content_Types].xml"), zipHeader("word/document.xml"));
+        assertEquals(ContentType.UNKNOWN, detect(docx));
+        assertEquals(ContentType.UNKNOWN, ContentSniffer.reconcile(null, detect(docx)));
+        assertEquals(ContentType.EXCEL, detect(concat(zipHeader("[Content_Types].xml"), zipHeader("xl/workbook.xml"))));
+        // A workbook whose xl/ parts start past the sniffed head still goes by its extension
+        assertEquals(ContentType.EXCEL, ContentSniffer.reconcile(ContentType.EXCEL, detect(zipHeader("[Content_Types].xml"))));
+    }
+
+    @Test
+    void testDetectsTextFormats() {
+        assertEquals(ContentType.JSON, detect(utf8("  \n{\"id\": 1}")));
+        assertEquals(ContentType.JSON, detect(utf8("\uFEFF[1, 2]")));
+        assertEquals(ContentType.XML, detect(utf8("<?xml version=\"1.0\"?><root/>")));
+        assertEquals(ContentType.XML, detect(utf8("<orders><order/></orders>")));
+        assertEquals(ContentType.CSV, detect(utf8("id;name\n1;alpha\n2;beta")));
+        assertEquals(ContentType.TEXT, detect(utf8("just a line, nothing more\nsecond line\n")));
+        assertEquals(ContentType.TEXT, detect(utf8("a < b")));
+    }
+
+    @Test
+    void testReconcilePrefersSignaturesOverExtension() {
+        assertEquals(ContentType.JSON, ContentSniffer.reconcile(ContentType.TEXT, ContentType.JSON));
+        assertEquals(ContentType.GZIP, ContentSniffer.reconcile(null, ContentType.GZIP));
+        assertEquals(ContentType.EXCEL, ContentSniffer.reconcile(ContentType.EXCEL, ContentType.ZIP));
+        assertEquals(ContentType.TEXT, ContentSniffer.reconcile(ContentType.TEXT, ContentType.CSV));
+        assertEquals(ContentType.CSV, ContentSniffer.reconcile(null, ContentType.CSV));
+        assertEquals(ContentType.UNKNOWN, ContentSniffer.reconcile(null, ContentType.TEXT));
+        assertEquals(ContentType.EXCEL, ContentSniffer.reconcile(ContentType.EXCEL, ContentType.UNKNOWN));
+    }
+
+    private static ContentType detect(byte[] head) {
+        return ContentSniffer.detect(head, head.length);
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    private static byte[] zipHeader(String firstEntry) {
+        byte[] name = firstEntry.getBytes(StandardCharsets.US_ASCII);
+        byte[] header = new byte[30 + name.length];
+        header[0] = 0x50;
+        header[1] = 0x4b;
+        header[2] = 0x03;
+        header[3] = 0x04;
+        header[26] = (byte) name.length;
+        System.arraycopy(name, 0, header, 30, name.length);
+        return header;
+    }
+}
@@ -0,0 +1,108 @@
+package com.dashboardengine.consumer.processing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordParserTest {
+
+    private final CollectingSink collector = new CollectingSink();
+
+    @Test
+    void testParsesHeaderAndRecords() throws Exception {
+        long count = parse(new CsvRecordParser(',', '"', 100, 1024, 4096), "id,name\n1,alpha\n2,beta\n", true);
+
+        assertEquals(2, count);
+        assertEquals(List.of("id", "name"), collector.header());
+        assertEquals(List.of(List.of("1", "alpha"), List.of("2", "beta")), collector.records());
+    }
+
+    @Test
+    void testQuotedFields() throws Exception {
+        String csv = "\"a,b\",\"say \"\"hi\"\"\",\"line1\nline2\"\r\n,\"\",last\r\n\"unterminated";
+
+        long count = parse(new CsvRecordParser(',', '"', 100, 1024, 4096), csv, false);
+
+        assertEquals(3, count);
+        assertEquals(List.of("a,b", "say \"hi\"", "line1\nline2"), collector.records().get(0));
+        assertEquals(List.of("", "", "last"), collector.records().get(1));
+        assertEquals(List.of("unterminated"), collector.records().get(2));
+    }
+
+    @Test
+    void testSkipsBlankLinesAndHandlesLineEndings() throws Exception {
+        long count = parse(new CsvRecordParser(';', '"', 100, 1024, 4096), "a;b\r\n\r\nc;d\re;f\n\nlast;", false);
+
+        assertEquals(4, count);
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"), List.of("last", "")), collector.records());
+    }
+
+    @Test
+    void testRecordsSpanningBufferRefills() throws Exception {
+        StringBuilder csv = new StringBuilder("id,text\n");
+        for (int i = 0; i < 500; i++) {
+            csv.append(i).append(",\"value \"\"").append(i).append("\"\", with comma\"\n");
+        }
+
+        CsvRecordParser parser = new CsvRecordParser(',', '"', 64, 64, 4096);
+        long count = parse(parser, csv.toString(), true);
+
+        assertEquals(500, count);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(List.of(String.valueOf(i), "value \"" + i + "\", with comma"), collector.records().get(i));
+        }
+        assertTrue(collector.batchSizes().stream().allMatch(size -> size <= 64));
+        assertEquals(64, parser.getBufferSize());
+    }
+
+    @Test
+    void testBufferGrowsForLongRecordUpToLimit() throws Exception {
+        String longField = "x".repeat(300);
+        CsvRecordParser parser = new CsvRecordParser(',', '"', 10, 64, 512);
+
+        assertEquals(1, parse(parser, "1," + longField + "\n", false));
+        assertEquals(longField, collector.records().get(0).get(1));
+
+        String tooLong = "y".repeat(600);
+        assertThrows(IOException.class, () -> parse(parser, tooLong + "\n", false));
+    }
+
+    @Test
+    void testBatchesAreNumberedAndSized() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            csv.append(i).append('\n');
+        }
+        List<Long> firstNumbers = new ArrayList<>();
+        List<Long> sums = new ArrayList<>();
+
+        new CsvRecordParser(',', '"', 10, 1024, 4096).parse(channel(csv.toString()), Path.of("n.csv"), false, batch -> {
+            firstNumbers.add(batch.firstRecordNumber());
+            long sum = 0;
+            for (int record = 0; record < batch.size(); record++) {
+                sum += batch.getLong(record, 0);
+            }
+            sums.add(sum);
+        });
+
+        assertEquals(List.of(1L, 11L, 21L), firstNumbers);
+        assertEquals(List.of(45L, 145L, 110L), sums);
+    }
+
+    private long parse(CsvRecordParser parser, String csv, boolean header) throws Exception {
+        return parser.parse(channel(csv), Path.of("test.csv"), header, collector);
+    }
+
+    private static ReadableByteChannel channel(String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,139 @@
+package com.dashboardengine.consumer.processing;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelRecordParserTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CollectingSink collector = new CollectingSink();
+
+    @Test
+    void testXlsxRowsStreamWithHeaderAndGaps() throws Exception {
+        Path file = write(new XSSFWorkbook(), "data.xlsx");
+
+        assertEquals(3, new ExcelRecordParser(100, 4096, true).parse(file, collector));
+
+        assertEquals(List.of(List.of("id", "name", "amount"), List.of("k", "v")), collector.headers());
+        assertEquals(List.of("1", "Zoë", "12.5"), collector.records().get(0));
+        assertEquals(List.of("2", "", "=7"), collector.records().get(1));
+        assertEquals(List.of("x", "y"), collector.records().get(2));
+    }
+
+    @Test
+    void testXlsRowsStreamWithHeaderAndGaps() throws Exception {
+        Path file = write(new HSSFWorkbook(), "data.xls");
+
+        assertEquals(3, new ExcelRecordParser(100, 4096, true).parse(file, collector));
+
+        assertEquals(List.of(List.of("id", "name", "amount"), List.of("k", "v")), collector.headers());
+        assertEquals(List.of("1", "Zoë", "12.5"), collector.records().get(0));
+        assertEquals(List.of("2", "", "=7"), collector.records().get(1));
+        assertEquals(List.of("x", "y"), collector.records().get(2));
+    }
+
+    @Test
+    void testWithoutHeaderEveryRowIsARecord() throws Exception {
+        Path file = write(new XSSFWorkbook(), "data.xlsx");
+        List<Long> firstNumbers = new ArrayList<>();
+
+        long count = new ExcelRecordParser(2, 4096, false).parse(file, batch -> {
+            firstNumbers.add(batch.firstRecordNumber());
+            collector.accept(batch);
+        });
+
+        assertEquals(5, count);
+        assertEquals(List.of("id", "name", "amount"), collector.records().get(0));
+        // Batches are cut at the sheet boundary
+        assertEquals(List.of(1L, 3L, 4L), firstNumbers);
+    }
+
+    @Test
+    void testFormulaResultsAndFormattedNumbers() throws Exception {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("calc");
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue(2);
+            row.createCell(1).setCellFormula("A1*21");
+            row.createCell(2).setCellFormula("\"total \"&B1");
+            CellStyle percent = workbook.createCellStyle();
+            percent.setDataFormat(workbook.createDataFormat().getFormat("0.0%"));
+            row.createCell(3).setCellValue(0.125);
+            row.getCell(3).setCellStyle(percent);
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            try (OutputStream out = Files.newOutputStream(tempDir.resolve("calc.xlsx"))) {
+                workbook.write(out);
+            }
+        }
+
+        new ExcelRecordParser(10, 4096, false).parse(tempDir.resolve("calc.xlsx"), collector);
+
+        assertEquals(List.of(List.of("2", "42", "total 42", "12.5%")), collector.records());
+    }
+
+    @Test
+    void testRowOverSizeLimitAndNonWorkbookFail() throws Exception {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet().createRow(0).createCell(0).setCellValue("x".repeat(2000));
+            try (OutputStream out = Files.newOutputStream(tempDir.resolve("wide.xlsx"))) {
+                workbook.write(out);
+            }
+        }
+        Path text = Files.writeString(tempDir.resolve("fake.xlsx"), "id,name\n1,a\n");
+
+        ExcelRecordParser parser = new ExcelRecordParser(10, 1024, false);
+        assertThrows(IOException.class, () -> parser.parse(tempDir.resolve("wide.xlsx"), collector));
+        assertThrows(IOException.class, () -> parser.parse(text, collector));
+    }
+
+    /**
+     * Two sheets: a header, a row, a row with a missing and a text cell, then a blank
+     * row; and a second sheet with its own header.
+     */
+    private Path write(Workbook workbook, String name) throws IOException {
+        try (workbook) {
+            Sheet first = workbook.createSheet("orders");
+            Row header = first.createRow(0);
+            header.createCell(0).setCellValue("id");
+            header.createCell(1).setCellValue("name");
+            header.createCell(2).setCellValue("amount");
+            Row one = first.createRow(1);
+            one.createCell(0).setCellValue(1);
+            one.createCell(1).setCellValue("Zoë");
+            one.createCell(2).setCellValue(12.5);
+            Row two = first.createRow(3);
+            two.createCell(0).setCellValue(2);
+            two.createCell(2).setCellValue("=7");
+            first.createRow(4);
+
+            Sheet second = workbook.createSheet("pairs");
+            second.createRow(0).createCell(0).setCellValue("k");
+            second.getRow(0).createCell(1).setCellValue("v");
+            second.createRow(1).createCell(0).setCellValue("x");
+            second.getRow(1).createCell(1).setCellValue("y");
+
+            Path file = tempDir.resolve(name);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+            return file;
+        }
+    }
+}
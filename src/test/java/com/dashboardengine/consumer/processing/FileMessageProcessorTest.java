@@ -6,6 +6,11 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +33,47 @@ class FileMessageProcessorTest {
         assertFalse(processor.canProcess("MESSAGE"));
     }
 
+    @Test
+    void testProcessesOnCallersExecutor() throws Exception {
+        Path textFile = tempDir.resolve("test.txt");
+        Files.write(textFile, "a\nb".getBytes());
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "caller-worker"));
+        CountDownLatch registered = new CountDownLatch(1);
+        try {
+            // Hold the worker until the continuation is attached, so it cannot run on this thread
+            executor.execute(() -> {
+                try {
+                    registered.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            var pending = processor.process(textFile, "FILESYSTEM", executor)
+                .thenApply(r -> Thread.currentThread().getName() + ": " + r.message());
+            registered.countDown();
+            var result = pending.get(5, TimeUnit.SECONDS);
+
+            assertEquals("caller-worker: Processed 2 lines from test.txt", result);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testBatchReportsEachFile() throws Exception {
+        Path textFile = Files.writeString(tempDir.resolve("a.txt"), "a\nb");
+        Path csvFile = Files.writeString(tempDir.resolve("b.csv"), "id,name\n1,alpha\n");
+
+        var results = processor.processBatch(List.of(textFile, tempDir.resolve("missing.txt"), csvFile),
+                                             "FILESYSTEM").join();
+
+        assertEquals(3, results.size());
+        assertEquals("Processed 2 lines from a.txt", results.get(0).message());
+        assertFalse(results.get(1).success());
+        assertTrue(results.get(1).message().contains("does not exist"));
+        assertTrue(results.get(2).success(), results.get(2).message());
+    }
+
     @Test
     void testProcessTextFile() throws Exception {
         Path textFile = tempDir.resolve("test.txt");
@@ -85,4 +131,15 @@ class FileMessageProcessorTest {
         assertTrue(result.message().contains("bytes"));
         assertTrue(result.processingTimeMs() >= 0);
     }
+
+    @Test
+    void testMisnamedFileTakesSpecializedPath() throws Exception {
+        Path misnamed = tempDir.resolve("export.dat");
+        Files.write(misnamed, "Name,Age\nJohn,25\nJane,30".getBytes());
+
+        var result = processor.process(misnamed, "FILESYSTEM").join();
+
+        assertTrue(result.success());
+        assertTrue(result.message().contains("2 records"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.dashboardengine.consumer.processing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRecordParserTest {
+
+    private final JsonFactory factory = new JsonFactory();
+    private final CollectingSink collector = new CollectingSink();
+
+    @Test
+    void testTopLevelArrayElementsAreRecords() throws Exception {
+        long count = parse(parser(List.of(), 100), "[{\"id\":1}, {\"id\":2,\"tags\":[\"a\",\"b\"]}, 3]");
+
+        assertEquals(3, count);
+        assertEquals(List.of(List.of("{\"id\":1}"), List.of("{\"id\":2,\"tags\":[\"a\",\"b\"]}"), List.of("3")),
+                     collector.records());
+    }
+
+    @Test
+    void testNdjsonAndTopLevelCommas() throws Exception {
+        assertEquals(2, parse(parser(List.of(), 100), "{\"a\":\"x,y\"}\n{\"b\":\"}\"}\n"));
+        assertEquals(2, parse(parser(List.of(), 100), "{\"key1\":\"value1\"},{\"key2\":\"value2\"}"));
+
+        assertEquals(List.of("{\"a\":\"x,y\"}"), collector.records().get(0));
+        assertEquals(List.of("{\"b\":\"}\"}"), collector.records().get(1));
+        assertEquals(List.of("{\"key2\":\"value2\"}"), collector.records().get(3));
+    }
+
+    @Test
+    void testPointersExtractFieldsInPointerOrder() throws Exception {
+        String json = "[{\"id\":7,\"user\":{\"name\":\"Zoë\",\"roles\":[\"admin\",\"ops\"]},\"skip\":{\"deep\":[1,2,3]}},"
+            + "{\"user\":null,\"id\":8,\"note\":\"esc \\\"q\\\"\"}]";
+
+        long count = parse(parser(List.of("/user/name", "/id", "/user/roles/1", "/user", "/note"), 100), json);
+
+        assertEquals(2, count);
+        assertEquals(List.of("/user/name", "/id", "/user/roles/1", "/user", "/note"), collector.header());
+        assertEquals(List.of("Zoë", "7", "ops", "{\"name\":\"Zoë\",\"roles\":[\"admin\",\"ops\"]}", ""), collector.records().get(0));
+        assertEquals(List.of("", "8", "", "", "esc \"q\""), collector.records().get(1));
+    }
+
+    @Test
+    void testBatchesAreNumberedAndSized() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            ndjson.append("{\"n\":").append(i).append("}\n");
+        }
+        List<Long> firstNumbers = new ArrayList<>();
+        List<Long> sums = new ArrayList<>();
+
+        parser(List.of("/n"), 10).parse(stream(ndjson.toString()), Path.of("n.json"), batch -> {
+            firstNumbers.add(batch.firstRecordNumber());
+            long sum = 0;
+            for (int record = 0; record < batch.size(); record++) {
+                sum += batch.getLong(record, 0);
+            }
+            sums.add(sum);
+        });
+
+        assertEquals(List.of(1L, 11L, 21L), firstNumbers);
+        assertEquals(List.of(45L, 145L, 110L), sums);
+    }
+
+    @Test
+    void testRecordOverSizeLimitFails() throws Exception {
+        JsonRecordParser parser = new JsonRecordParser(factory, List.of(), 10, 64);
+
+        assertEquals(1, parse(parser, "{\"v\":\"" + "x".repeat(40) + "\"}"));
+        assertThrows(IOException.class, () -> parse(parser, "{\"v\":\"" + "y".repeat(100) + "\"}"));
+
+        // The parser is still usable after the failure
+        assertEquals(1, parse(parser, "{\"v\":1}"));
+    }
+
+    @Test
+    void testMalformedJsonFails() throws Exception {
+        JsonRecordParser parser = parser(List.of(), 100);
+
+        assertThrows(IOException.class, () -> parse(parser, "[{\"a\":1}"));
+        assertThrows(IOException.class, () -> parse(parser, "{\"a\":}"));
+    }
+
+    private JsonRecordParser parser(List<String> pointers, int batchSize) throws IOException {
+        return new JsonRecordParser(factory, pointers, batchSize, 4096);
+    }
+
+    private long parse(JsonRecordParser parser, String json) throws Exception {
+        return parser.parse(stream(json), Path.of("test.json"), collector);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package com.dashboardengine.consumer.processing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCountsLikeReadLine() throws Exception {
+        String[] samples = {
+            "", "a", "a\n", "a\nb", "\n\n", "a\r\nb\r\n", "a\rb\r", "\r\n\r\n\r", "x\r\r\ny\n\rz",
+            "line1\nline2\nline3\n", "ünïcödé\nлиния\n日本語"
+        };
+        LineScanner scanner = new LineScanner();
+        for (String sample : samples) {
+            assertEquals(readLines(sample).size(), scanner.countLines(write(sample)), "lines of " + escape(sample));
+        }
+    }
+
+    @Test
+    void testRandomContentAcrossWindowsAndSegments() throws Exception {
+        Random random = new Random(42);
+        byte[] alphabet = "ab\r\n xé".getBytes(StandardCharsets.UTF_8);
+        LineScanner sequential = new LineScanner(64, Long.MAX_VALUE);
+        LineScanner parallel = new LineScanner(64, 0);
+        for (int round = 0; round < 50; round++) {
+            byte[] content = new byte[random.nextInt(2000)];
+            for (int i = 0; i < content.length; i++) {
+                content[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(content, StandardCharsets.ISO_8859_1);
+            Path file = Files.write(tempDir.resolve("random-" + round + ".txt"), content);
+            List<String> expected = readLines(text);
+
+            assertEquals(expected.size(), sequential.countLines(file), "round " + round);
+            assertEquals(expected.size(), parallel.countLines(file), "round " + round);
+
+            List<String> scanned = new ArrayList<>();
+            long count = sequential.scanLines(file, 4096, (window, start, end) -> {
+                byte[] line = new byte[end - start];
+                window.get(start, line);
+                scanned.add(new String(line, StandardCharsets.ISO_8859_1));
+            });
+            assertEquals(expected.size(), count);
+            assertEquals(expected, scanned, "round " + round);
+
+            // The stream reader splits the same lines, across refills of its buffer
+            List<String> streamed = new ArrayList<>();
+            TextRecordParser parser = new TextRecordParser(sequential, 7, 4096);
+            long streamedCount = parser.parse(new ByteArrayInputStream(content), file, batch -> {
+                for (int record = 0; record < batch.size(); record++) {
+                    byte[] line = batch.getString(record, 0).getBytes(StandardCharsets.UTF_8);
+                    streamed.add(new String(line, StandardCharsets.UTF_8));
+                }
+            });
+            assertEquals(expected.size(), streamedCount, "round " + round);
+            assertEquals(expected.stream().map(line -> new String(line.getBytes(StandardCharsets.ISO_8859_1),
+                StandardCharsets.UTF_8)).toList(), streamed, "round " + round);
+        }
+    }
+
+    @Test
+    void testLineLongerThanWindowGrowsItUpToLimit() throws Exception {
+        String longLine = "y".repeat(1000);
+        Path file = write("short\n" + longLine + "\nend");
+        List<Integer> lengths = new ArrayList<>();
+
+        assertEquals(3, new LineScanner(64, Long.MAX_VALUE).scanLines(file, 4096,
+            (window, start, end) -> lengths.add(end - start)));
+        assertEquals(List.of(5, 1000, 3), lengths);
+
+        assertThrows(IOException.class, () -> new LineScanner(64, Long.MAX_VALUE).scanLines(file, 512,
+            (window, start, end) -> { }));
+    }
+
+    @Test
+    void testTextRecordParserBatchesLines() throws Exception {
+        Path file = write("1\n2\r\n3\n\n5");
+        List<String> lines = new ArrayList<>();
+        List<Long> firstNumbers = new ArrayList<>();
+
+        long count = new TextRecordParser(new LineScanner(64, Long.MAX_VALUE), 2, 4096).parse(file, batch -> {
+            firstNumbers.add(batch.firstRecordNumber());
+            for (int record = 0; record < batch.size(); record++) {
+                lines.add(batch.getString(record, 0));
+            }
+        });
+
+        assertEquals(5, count);
+        assertEquals(List.of("1", "2", "3", "", "5"), lines);
+        assertEquals(List.of(1L, 3L, 5L), firstNumbers);
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(Files.createTempFile(tempDir, "lines", ".txt"), content, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readLines(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static String escape(String sample) {
+        return sample.replace("\r", "\\r").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,72 @@
+package com.dashboardengine.consumer.processing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessorRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ProcessorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = ProcessorRegistry.withDefaults();
+    }
+
+    @Test
+    void testProcessorsAreMatchedThroughCanProcess() {
+        assertInstanceOf(CsvFileProcessor.class, registry.processorFor(ContentType.CSV));
+        assertInstanceOf(ExcelFileProcessor.class, registry.processorFor(ContentType.EXCEL));
+        assertInstanceOf(CompressedFileProcessor.class, registry.processorFor(ContentType.GZIP));
+        assertSame(registry.processorFor(ContentType.GZIP), registry.processorFor(ContentType.ZIP));
+        assertNull(registry.processorFor(ContentType.PDF));
+        assertNull(registry.processorFor(ContentType.UNKNOWN));
+    }
+
+    @Test
+    void testMisnamedFileIsRoutedByContent() throws Exception {
+        Path file = tempDir.resolve("export.dat");
+        Files.writeString(file, "[{\"id\": 1}]");
+
+        assertEquals(ContentType.JSON, registry.resolve(file, "FILESYSTEM-a"));
+    }
+
+    @Test
+    void testRouteIsTrustedAfterConsistentFiles() throws Exception {
+        for (int i = 0; i < ProcessorRegistry.TRUST_AFTER; i++) {
+            Path file = tempDir.resolve("data" + i + ".csv");
+            Files.writeString(file, "id,name\n1,a\n");
+            assertEquals(ContentType.CSV, registry.resolve(file, "FILESYSTEM-a"));
+        }
+
+        // Trusted routes no longer read the file
+        Path misnamed = tempDir.resolve("other.csv");
+        Files.writeString(misnamed, "{\"id\": 1}");
+        assertEquals(ContentType.CSV, registry.resolve(misnamed, "FILESYSTEM-a"));
+
+        // Other configurations have their own routes
+        assertEquals(ContentType.JSON, registry.resolve(misnamed, "FILESYSTEM-b"));
+    }
+
+    @Test
+    void testMixedRouteKeepsSniffing() throws Exception {
+        Path json = tempDir.resolve("first.txt");
+        Files.writeString(json, "{\"id\": 1}");
+        assertEquals(ContentType.JSON, registry.resolve(json, "FILESYSTEM-a"));
+
+        for (int i = 0; i < ProcessorRegistry.TRUST_AFTER; i++) {
+            Path file = tempDir.resolve("plain" + i + ".txt");
+            Files.writeString(file, "hello\n");
+            assertEquals(ContentType.TEXT, registry.resolve(file, "FILESYSTEM-a"));
+        }
+        assertEquals(ContentType.JSON, registry.resolve(json, "FILESYSTEM-a"));
+    }
+}
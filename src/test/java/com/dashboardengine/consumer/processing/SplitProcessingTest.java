@@ -0,0 +1,185 @@
+package com.dashboardengine.consumer.processing;
+
+import com.dashboardengine.consumer.config.ApplicationProperties;
+import com.dashboardengine.consumer.core.ProcessingResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitProcessingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CollectingSink collector = new CollectingSink();
+
+    @Test
+    void testCsvSplitsOnRecordsOutsideQuotes() throws Exception {
+        StringBuilder csv = new StringBuilder("id,note\n");
+        List<List<String>> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String note = i % 3 == 0 ? "multi\nline \"\"" + i + "\"\"" : "plain " + i;
+            csv.append(i).append(",\"").append(note).append("\"\n");
+            expected.add(List.of(String.valueOf(i), note.replace("\"\"", "\"")));
+        }
+        Path file = write("data.csv", csv.toString());
+
+        ProcessingResult result = new CsvFileProcessor(settings(true), collector).process(file, "CSV").join();
+
+        assertTrue(result.success(), result.message());
+        assertTrue(result.chunks() > 1, "chunks: " + result.chunks());
+        assertEquals("Processed 200 records from data.csv in " + result.chunks() + " chunks", result.message());
+        assertEquals(expected, collector.recordsInFileOrder());
+        assertTrue(collector.headers().stream().allMatch(List.of("id", "note")::equals));
+    }
+
+    @Test
+    void testNdjsonSplitsButArrayDoesNot() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            ndjson.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\"}\n");
+        }
+        ApplicationProperties.Processing settings = settings(false);
+        settings.setJsonPointers(List.of("/id"));
+
+        ProcessingResult split = new JsonFileProcessor(settings, collector)
+            .process(write("data.ndjson", ndjson.toString()), "JSON").join();
+
+        assertTrue(split.success(), split.message());
+        assertTrue(split.chunks() > 1);
+        assertTrue(split.message().startsWith("Processed 100 objects"), split.message());
+        assertEquals(100, collector.recordsInFileOrder().size());
+        assertEquals(List.of("0"), collector.recordsInFileOrder().get(0));
+
+        String array = "[\n" + ndjson.toString().replace("}\n{", "},\n{") + "]\n";
+        ProcessingResult whole = new JsonFileProcessor(settings, RecordSink.DISCARD)
+            .process(write("data.json", array), "JSON").join();
+
+        assertTrue(whole.success(), whole.message());
+        assertEquals(1, whole.chunks());
+        assertEquals("Processed 100 objects from data.json", whole.message());
+    }
+
+    @Test
+    void testTextSplitsOnlyForUnorderedSinks() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            text.append("line ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path file = write("data.log", text.toString());
+
+        ProcessingResult split = new TextFileProcessor(settings(false), collector).process(file, "TEXT").join();
+
+        assertTrue(split.chunks() > 1);
+        assertEquals("Processed 300 lines from data.log in " + split.chunks() + " chunks", split.message());
+        List<String> lines = collector.recordsInFileOrder().stream().map(fields -> fields.get(0)).toList();
+        assertEquals(300, lines.size());
+        assertEquals("line 0", lines.get(0));
+        assertEquals("line 299", lines.get(299));
+
+        RecordSink ordered = new RecordSink() {
+            @Override
+            public void accept(RecordBatch batch) {
+                assertEquals(0, batch.chunk());
+            }
+
+            @Override
+            public boolean ordered() {
+                return true;
+            }
+        };
+        ProcessingResult whole = new TextFileProcessor(settings(false), ordered).process(file, "TEXT").join();
+
+        assertEquals(1, whole.chunks());
+        assertEquals("Processed 300 lines from data.log", whole.message());
+    }
+
+    @Test
+    void testFailingChunkFailsTheFile() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            csv.append(i).append(",x\n");
+        }
+        RecordSink failing = batch -> {
+            if (batch.chunk() == 2) {
+                throw new IllegalStateException("sink rejected chunk");
+            }
+        };
+
+        ProcessingResult result = new CsvFileProcessor(settings(false), failing)
+            .process(write("data.csv", csv.toString()), "CSV").join();
+
+        assertFalse(result.success());
+        assertTrue(result.chunks() > 2);
+        assertEquals("Type-specific processing error: chunk 2 of " + result.chunks() + ": sink rejected chunk",
+                     result.message());
+    }
+
+    @Test
+    void testChunksCoverTheFileAtRecordBoundaries() throws Exception {
+        Path file = write("chunks.csv", "a,\"1\n2\"\nb,3\nc,\"4\n\n5\"\nd,6\n");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<FileChunk> csv = FileChunker.byCsvRecords(channel, 0, channel.size(), 4, (byte) '"');
+            assertEquals(List.of(0L, 8L, 12L, 21L), csv.stream().map(FileChunk::start).toList());
+            assertEquals(channel.size(), csv.get(csv.size() - 1).end());
+
+            List<FileChunk> lines = FileChunker.byLines(channel, 0, channel.size(), 4);
+            assertEquals(List.of(0L, 5L, 12L, 17L, 21L), lines.stream().map(FileChunk::start).toList());
+            assertEquals(List.of(0, 1, 2, 3, 4), lines.stream().map(FileChunk::index).toList());
+        }
+    }
+
+    @Test
+    void testChunksRunOnChunkPoolWithoutParkingCaller() throws Exception {
+        Path file = write("data.log", "line\n".repeat(1000));
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordSink blocking = batch -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // Returns while every chunk is still held in the sink
+        CompletableFuture<ProcessingResult> pending = new TextFileProcessor(settings(false), blocking)
+            .process(file, "TEXT");
+        assertFalse(pending.isDone());
+        release.countDown();
+        ProcessingResult result = pending.get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.success(), result.message());
+        assertTrue(result.chunks() > 1);
+        assertTrue(threads.stream().allMatch(name -> name.startsWith("FileChunk-")), threads.toString());
+    }
+
+    private ApplicationProperties.Processing settings(boolean csvHeader) {
+        ApplicationProperties.Processing settings = new ApplicationProperties.Processing();
+        settings.setSplitThresholdBytes(1);
+        settings.setSplitChunkBytes(512);
+        settings.setBatchSize(16);
+        settings.setCsvHeader(csvHeader);
+        return settings;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,117 @@
+package com.dashboardengine.consumer.processing;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlRecordParserTest {
+
+    private static final String ORDERS = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <!-- exported <order> list -->
+        <export>
+          <meta><order>not a record</order></meta>
+          <orders>
+            <order id="1"><customer><name>Zoë</name></customer><amount>12.50</amount></order>
+            <?marker skip?>
+            <order id="2"><note><![CDATA[a < b & c]]></note><amount>7</amount><amount>8</amount></order>
+          </orders>
+        </export>
+        """;
+
+    private final XMLInputFactory factory = XmlRecordParser.newInputFactory();
+    private final CollectingSink collector = new CollectingSink();
+
+    @Test
+    void testDefaultPathTakesChildrenOfRoot() throws Exception {
+        long count = parse(new XmlRecordParser(factory, "/*/*", List.of(), 100, 4096), ORDERS);
+
+        assertEquals(2, count);
+        assertEquals(List.of("<meta><order>not a record</order></meta>"), collector.records().get(0));
+        assertTrue(collector.records().get(1).get(0).startsWith("<orders>"));
+        assertFalse(collector.records().get(1).get(0).contains("marker"));
+    }
+
+    @Test
+    void testAnchoredAndRelativeRecordPaths() throws Exception {
+        assertEquals(2, parse(new XmlRecordParser(factory, "/export/orders/order", List.of(), 100, 4096), ORDERS));
+        assertEquals("<order id=\"1\"><customer><name>Zoë</name></customer><amount>12.50</amount></order>",
+                     collector.records().get(0).get(0));
+
+        // Relative paths match at any depth, so the order under meta counts too
+        assertEquals(3, parse(new XmlRecordParser(factory, "order", List.of(), 100, 4096), ORDERS));
+        assertEquals(2, parse(new XmlRecordParser(factory, "orders/*", List.of(), 100, 4096), ORDERS));
+    }
+
+    @Test
+    void testFieldsExtractTextAndAttributes() throws Exception {
+        List<String> fields = List.of("@id", "customer/name", "amount", "note", "missing/@x");
+
+        long count = parse(new XmlRecordParser(factory, "/export/orders/order", fields, 100, 4096), ORDERS);
+
+        assertEquals(2, count);
+        assertEquals(fields, collector.header());
+        assertEquals(List.of("1", "Zoë", "12.50", "", ""), collector.records().get(0));
+        assertEquals(List.of("2", "", "7", "a < b & c", ""), collector.records().get(1));
+    }
+
+    @Test
+    void testBatchesAreNumberedAndSized() throws Exception {
+        StringBuilder xml = new StringBuilder("<rows>");
+        for (int i = 0; i < 25; i++) {
+            xml.append("<row n=\"").append(i).append("\"/>");
+        }
+        xml.append("</rows>");
+        List<Long> firstNumbers = new ArrayList<>();
+        List<Long> sums = new ArrayList<>();
+
+        new XmlRecordParser(factory, "row", List.of("@n"), 10, 4096).parse(stream(xml.toString()), Path.of("n.xml"), batch -> {
+            firstNumbers.add(batch.firstRecordNumber());
+            long sum = 0;
+            for (int record = 0; record < batch.size(); record++) {
+                sum += batch.getLong(record, 0);
+            }
+            sums.add(sum);
+        });
+
+        assertEquals(List.of(1L, 11L, 21L), firstNumbers);
+        assertEquals(List.of(45L, 145L, 110L), sums);
+    }
+
+    @Test
+    void testRecordOverSizeLimitFails() throws Exception {
+        String large = "<rows><row>" + "x".repeat(20_000) + "</row></rows>";
+
+        assertThrows(IOException.class, () -> parse(new XmlRecordParser(factory, "row", List.of(), 10, 1024), large));
+        assertThrows(IOException.class,
+                     () -> parse(new XmlRecordParser(factory, "rows", List.of("row"), 10, 1024), large));
+    }
+
+    @Test
+    void testMalformedXmlAndPathsFail() {
+        XmlRecordParser parser = new XmlRecordParser(factory, "/*/*", List.of(), 10, 4096);
+
+        assertThrows(IOException.class, () -> parse(parser, "<rows><row></rows>"));
+        assertThrows(IOException.class, () -> parse(parser,
+            "<!DOCTYPE r [<!ENTITY x SYSTEM \"file:///etc/passwd\">]><r><row>&x;</row></r>"));
+        assertThrows(IllegalArgumentException.class, () -> new XmlRecordParser(factory, "", List.of(), 10, 4096));
+        assertThrows(IllegalArgumentException.class, () -> new XmlRecordParser(factory, "a//b", List.of(), 10, 4096));
+        assertThrows(IllegalArgumentException.class, () -> new XmlRecordParser(factory, "a", List.of("b/@"), 10, 4096));
+    }
+
+    private long parse(XmlRecordParser parser, String xml) throws Exception {
+        return parser.parse(stream(xml), Path.of("test.xml"), collector);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}